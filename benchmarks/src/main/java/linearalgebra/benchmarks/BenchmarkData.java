@@ -0,0 +1,112 @@
+package linearalgebra.benchmarks;
+
+import java.util.Random;
+
+import linearalgebra.BandedMatrix;
+import linearalgebra.Matrix;
+import linearalgebra.Permutation;
+import linearalgebra.Vector;
+
+/**
+ * Seeded random operands, so that every run measures the same inputs.
+ */
+final class BenchmarkData {
+
+   private BenchmarkData() {
+   }
+
+   static double[] randomArray(Random random, int length) {
+      double[] values = new double[length];
+
+      for (int i = 0; i < length; i++) {
+         values[i] = random.nextDouble() * 2 - 1;
+      }
+
+      return values;
+   }
+
+   static Vector randomVector(Random random, int length) {
+      return new Vector(randomArray(random, length));
+   }
+
+   static Matrix randomMatrix(Random random, int numRows, int numColumns) {
+      return randomMatrix(random, numRows, numColumns, 1.0);
+   }
+
+   /**
+    * @return a Matrix in which each entry is nonzero with the given probability
+    */
+   static Matrix randomMatrix(Random random, int numRows, int numColumns, double density) {
+      double[][] entries = new double[numRows][numColumns];
+
+      for (double[] row : entries) {
+         for (int col = 0; col < numColumns; col++) {
+            if (density >= 1 || random.nextDouble() < density) {
+               row[col] = random.nextDouble() * 2 - 1;
+            }
+         }
+      }
+
+      return new Matrix(entries);
+   }
+
+   /**
+    * @return a random Matrix with a large diagonal, so that it is well conditioned
+    */
+   static Matrix diagonallyDominantMatrix(Random random, int n) {
+      double[][] entries = new double[n][];
+
+      for (int row = 0; row < n; row++) {
+         entries[row] = randomArray(random, n);
+         entries[row][row] += n;
+      }
+
+      return new Matrix(entries);
+   }
+
+   /**
+    * @return A^T A + n I for a random A, which is symmetric positive definite
+    */
+   static Matrix spdMatrix(Random random, int n) {
+      Matrix a = randomMatrix(random, n, n);
+      return a.transpose().multiply(a).add(Matrix.identityMatrix(n).multiply(n));
+   }
+
+   /**
+    * @return a uniformly random Permutation of n entries (Fisher-Yates)
+    */
+   static Permutation randomPermutation(Random random, int n) {
+      int[] index = new int[n];
+
+      for (int i = 0; i < n; i++) {
+         index[i] = i;
+      }
+
+      for (int i = n - 1; i > 0; i--) {
+         int j = random.nextInt(i + 1);
+         int temp = index[i];
+         index[i] = index[j];
+         index[j] = temp;
+      }
+
+      return new Permutation(index);
+   }
+
+   /**
+    * @return a random n-by-n BandedMatrix with kl diagonals below the main
+    *         one and ku above it, and a dominant diagonal
+    */
+   static BandedMatrix diagonallyDominantBanded(Random random, int n, int kl, int ku) {
+      double[][] diagonals = new double[kl + ku + 1][];
+
+      for (int d = 0; d < diagonals.length; d++) {
+         diagonals[d] = randomArray(random, n - Math.abs(d - kl));
+      }
+
+      for (int i = 0; i < n; i++) {
+         diagonals[kl][i] += kl + ku + 1;
+      }
+
+      return BandedMatrix.fromDiagonals(kl, ku, diagonals);
+   }
+}
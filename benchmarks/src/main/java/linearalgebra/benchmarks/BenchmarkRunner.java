@@ -0,0 +1,45 @@
+package linearalgebra.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+/**
+ * Main class of benchmarks.jar. Accepts the usual JMH command line (e.g. a
+ * benchmark name regex, -p size=512, -f 2) and always attaches the gc
+ * profiler, so every result includes the allocation rate
+ * (gc.alloc.rate.norm is bytes allocated per operation).
+ */
+public final class BenchmarkRunner {
+
+   private BenchmarkRunner() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      CommandLineOptions commandLine = new CommandLineOptions(args);
+
+      if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+            || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+         org.openjdk.jmh.Main.main(args);
+         return;
+      }
+
+      ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+      boolean hasGcProfiler = false;
+
+      for (ProfilerConfig profiler : commandLine.getProfilers()) {
+         if (profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName())) {
+            hasGcProfiler = true;
+         }
+      }
+
+      if (!hasGcProfiler) {
+         options.addProfiler(GCProfiler.class);
+      }
+
+      new Runner(options.build()).run();
+   }
+}
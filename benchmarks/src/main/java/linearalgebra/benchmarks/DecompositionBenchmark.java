@@ -0,0 +1,201 @@
+package linearalgebra.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import linearalgebra.BandedLUDecomposition;
+import linearalgebra.BandedMatrix;
+import linearalgebra.CholeskyDecomposition;
+import linearalgebra.LUDecomposition;
+import linearalgebra.Matrix;
+import linearalgebra.QRDecomposition;
+import linearalgebra.SVD;
+import linearalgebra.SymmetricEigen;
+import linearalgebra.TriangularMatrix;
+import linearalgebra.Vector;
+
+/**
+ * Benchmarks for the matrix decompositions and the solves built on them,
+ * on well-conditioned size-by-size matrices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DecompositionBenchmark {
+
+   @Param({"4", "64", "512", "2048"})
+   public int size;
+
+   private Matrix a;
+   private Vector b;
+   private Matrix rightHandSides;
+   private LUDecomposition lu;
+   private Matrix spd;
+   private CholeskyDecomposition cholesky;
+   private Matrix tall;
+   private Vector tallRightHandSide;
+   private QRDecomposition qr;
+   private ForkJoinPool singleThread;
+   private TriangularMatrix lower;
+   private Matrix lowerDense;
+   private BandedMatrix tridiagonal;
+   private BandedMatrix banded;
+   private BandedLUDecomposition bandedLu;
+
+   @Setup
+   public void setUp() {
+      Random random = new Random(42);
+      this.a = BenchmarkData.diagonallyDominantMatrix(random, this.size);
+      this.b = BenchmarkData.randomVector(random, this.size);
+      this.rightHandSides = BenchmarkData.randomMatrix(random, this.size, 16);
+      this.lu = new LUDecomposition(this.a);
+      this.spd = BenchmarkData.spdMatrix(random, this.size);
+      this.cholesky = new CholeskyDecomposition(this.spd);
+      this.tall = BenchmarkData.randomMatrix(random, 2 * this.size, this.size);
+      this.tallRightHandSide = BenchmarkData.randomVector(random, 2 * this.size);
+      this.qr = new QRDecomposition(this.tall);
+      this.singleThread = new ForkJoinPool(1);
+      this.lower = this.cholesky.getTriangularL();
+      this.lowerDense = this.cholesky.getL();
+      this.tridiagonal = BenchmarkData.diagonallyDominantBanded(random, this.size, 1, 1);
+      this.banded = BenchmarkData.diagonallyDominantBanded(random, this.size, 4, 4);
+      this.bandedLu = new BandedLUDecomposition(this.banded);
+   }
+
+   @TearDown
+   public void tearDown() {
+      this.singleThread.shutdown();
+   }
+
+   @Benchmark
+   public LUDecomposition luFactor() {
+      return new LUDecomposition(this.a);
+   }
+
+   @Benchmark
+   public LUDecomposition luFactorSingleThread() {
+      return new LUDecomposition(this.a, this.singleThread);
+   }
+
+   @Benchmark
+   public double determinant() {
+      return this.a.determinant();
+   }
+
+   @Benchmark
+   public Vector luSolveVector() {
+      return this.lu.solve(this.b);
+   }
+
+   @Benchmark
+   public Matrix luSolveMatrix() {
+      return this.lu.solve(this.rightHandSides);
+   }
+
+   @Benchmark
+   public Matrix luInverse() {
+      return this.lu.inverse();
+   }
+
+   @Benchmark
+   public Matrix triangularSolveMatrix() {
+      return this.lower.solve(this.rightHandSides);
+   }
+
+   @Benchmark
+   public Matrix triangularMultiply() {
+      return this.lower.multiply(this.rightHandSides);
+   }
+
+   @Benchmark
+   public Matrix denseTriangularMultiply() {
+      return this.lowerDense.multiply(this.rightHandSides);
+   }
+
+   @Benchmark
+   public TriangularMatrix triangularInverse() {
+      return this.lower.inverse();
+   }
+
+   @Benchmark
+   public Vector tridiagonalSolve() {
+      return this.tridiagonal.solve(this.b);
+   }
+
+   @Benchmark
+   public BandedLUDecomposition bandedLuFactor() {
+      return new BandedLUDecomposition(this.banded);
+   }
+
+   @Benchmark
+   public Vector bandedLuSolveVector() {
+      return this.bandedLu.solve(this.b);
+   }
+
+   @Benchmark
+   public CholeskyDecomposition choleskyFactor() {
+      return new CholeskyDecomposition(this.spd);
+   }
+
+   @Benchmark
+   public LUDecomposition luFactorSpd() {
+      return new LUDecomposition(this.spd);
+   }
+
+   @Benchmark
+   public Vector choleskySolveVector() {
+      return this.cholesky.solve(this.b);
+   }
+
+   @Benchmark
+   public double choleskyLogDeterminant() {
+      return this.cholesky.logDeterminant();
+   }
+
+   @Benchmark
+   public QRDecomposition qrFactor() {
+      return new QRDecomposition(this.tall);
+   }
+
+   @Benchmark
+   public Vector qrSolveVector() {
+      return this.qr.solve(this.tallRightHandSide);
+   }
+
+   @Benchmark
+   public Vector leastSquares() {
+      return this.tall.leastSquares(this.tallRightHandSide);
+   }
+
+   @Benchmark
+   public SVD svdTruncated() {
+      return SVD.truncated(this.tall, Math.min(10, this.size));
+   }
+
+   @Benchmark
+   public Vector symmetricEigenvalues() {
+      return SymmetricEigen.eigenvalues(this.spd);
+   }
+
+   @Benchmark
+   public SymmetricEigen symmetricEigenvectors() {
+      return new SymmetricEigen(this.spd);
+   }
+}
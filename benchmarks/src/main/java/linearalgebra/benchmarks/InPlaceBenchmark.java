@@ -0,0 +1,110 @@
+package linearalgebra.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import linearalgebra.Expression;
+import linearalgebra.Matrix;
+import linearalgebra.MutableMatrix;
+import linearalgebra.MutableVector;
+import linearalgebra.Vector;
+
+/**
+ * Compares updates through the immutable types with MutableVector,
+ * MutableMatrix and fused Expression chains. Each pair computes the same
+ * values, so the difference in time and in gc.alloc.rate.norm is the cost
+ * of the temporaries.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InPlaceBenchmark {
+
+   @Param({"4", "64", "512", "2048"})
+   public int size;
+
+   private Vector weights;
+   private Vector gradient;
+   private MutableVector mutableWeights;
+   private Matrix a;
+   private Matrix b;
+   private Matrix c;
+   private MutableMatrix mutableA;
+
+   @Setup
+   public void setUp() {
+      Random random = new Random(42);
+      this.weights = BenchmarkData.randomVector(random, this.size * this.size);
+      this.gradient = BenchmarkData.randomVector(random, this.size * this.size);
+      this.mutableWeights = new MutableVector(this.weights);
+      this.a = BenchmarkData.randomMatrix(random, this.size, this.size);
+      this.b = BenchmarkData.randomMatrix(random, this.size, this.size);
+      this.c = BenchmarkData.randomMatrix(random, this.size, this.size);
+      this.mutableA = new MutableMatrix(this.a);
+   }
+
+   @Benchmark
+   public Vector vectorUpdate() {
+      return this.weights.subtract(this.gradient.multiply(1e-9));
+   }
+
+   @Benchmark
+   public MutableVector vectorUpdateInPlace() {
+      return this.mutableWeights.axpy(-1e-9, this.gradient);
+   }
+
+   @Benchmark
+   public Matrix matrixUpdate() {
+      return this.a.add(this.b.multiply(1e-9));
+   }
+
+   @Benchmark
+   public MutableMatrix matrixUpdateInPlace() {
+      return this.mutableA.axpy(1e-9, this.b);
+   }
+
+   @Benchmark
+   public Matrix setEntry() {
+      return Matrix.setEntry(this.a, 1.0, this.size / 2, this.size / 2);
+   }
+
+   @Benchmark
+   public MutableMatrix setEntryInPlace() {
+      return this.mutableA.setEntry(1.0, this.size / 2, this.size / 2);
+   }
+
+   @Benchmark
+   public Matrix swapRows() {
+      return this.a.swapRows(0, this.size - 1);
+   }
+
+   @Benchmark
+   public MutableMatrix swapRowsInPlace() {
+      return this.mutableA.swapRows(0, this.size - 1);
+   }
+
+   @Benchmark
+   public Matrix chain() {
+      return this.a.add(this.b).subtract(this.c).multiply(2);
+   }
+
+   @Benchmark
+   public Matrix chainFused() {
+      return Expression.of(this.a).add(this.b).subtract(this.c).multiply(2).toMatrix();
+   }
+}
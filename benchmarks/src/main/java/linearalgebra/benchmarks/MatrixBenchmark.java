@@ -0,0 +1,306 @@
+package linearalgebra.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import linearalgebra.DiagonalMatrix;
+import linearalgebra.Matrix;
+import linearalgebra.Permutation;
+import linearalgebra.SymmetricMatrix;
+import linearalgebra.Vector;
+
+/**
+ * Benchmarks for the public Matrix operations on dense size-by-size
+ * matrices.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmark {
+
+   @Param({"4", "64", "512", "2048"})
+   public int size;
+
+   private Matrix a;
+   private Matrix b;
+   private Matrix upper;
+   private Vector u;
+   private Vector[] rows;
+   private DiagonalMatrix diagonal;
+   private Permutation permutation;
+   private Matrix permutationDense;
+
+   @Setup
+   public void setUp() {
+      Random random = new Random(42);
+      this.a = BenchmarkData.randomMatrix(random, this.size, this.size);
+      this.b = BenchmarkData.randomMatrix(random, this.size, this.size);
+      double[][] entries = this.a.getEntries();
+      for (int row = 1; row < this.size; row++) {
+         for (int col = 0; col < row; col++) {
+            entries[row][col] = 0;
+         }
+      }
+      this.upper = new Matrix(entries);
+      this.u = BenchmarkData.randomVector(random, this.size);
+      this.rows = this.a.toRowVectors();
+      this.diagonal = new DiagonalMatrix(this.u);
+      this.permutation = BenchmarkData.randomPermutation(random, this.size);
+      this.permutationDense = this.permutation.toMatrix();
+   }
+
+   @Benchmark
+   public Matrix copy() {
+      return new Matrix(this.a);
+   }
+
+   @Benchmark
+   public double[][] getEntries() {
+      return this.a.getEntries();
+   }
+
+   @Benchmark
+   public Matrix identityMatrix() {
+      return Matrix.identityMatrix(this.size);
+   }
+
+   @Benchmark
+   public Matrix multiply() {
+      return this.a.multiply(this.b);
+   }
+
+   @Benchmark
+   public SymmetricMatrix gram() {
+      return this.a.gram();
+   }
+
+   @Benchmark
+   public Matrix transposeThenMultiply() {
+      return this.a.transpose().multiply(this.a);
+   }
+
+   @Benchmark
+   public Matrix multiplyParallel() {
+      return this.a.multiplyParallel(this.b);
+   }
+
+   @Benchmark
+   public Vector multiplyVector() {
+      return this.a.multiply(this.u);
+   }
+
+   @Benchmark
+   public Vector applyTranspose() {
+      return this.a.applyTranspose(this.u);
+   }
+
+   @Benchmark
+   public Vector transposeThenMultiplyVector() {
+      return this.a.transpose().multiply(this.u);
+   }
+
+   @Benchmark
+   public Matrix multiplyDiagonal() {
+      return this.a.multiply(this.diagonal);
+   }
+
+   @Benchmark
+   public Matrix permuteRows() {
+      return this.permutation.multiply(this.a);
+   }
+
+   @Benchmark
+   public Matrix permuteRowsDense() {
+      return this.permutationDense.multiply(this.a);
+   }
+
+   @Benchmark
+   public Matrix permuteColumns() {
+      return this.a.multiply(this.permutation);
+   }
+
+   @Benchmark
+   public Matrix addScaledIdentity() {
+      return this.a.add(DiagonalMatrix.identityMatrix(this.size).multiply(0.1));
+   }
+
+   @Benchmark
+   public Matrix addScaledDenseIdentity() {
+      return this.a.add(Matrix.identityMatrix(this.size).multiply(0.1));
+   }
+
+   @Benchmark
+   public Matrix multiplyScalar() {
+      return this.a.multiply(1.5);
+   }
+
+   @Benchmark
+   public Matrix add() {
+      return this.a.add(this.b);
+   }
+
+   @Benchmark
+   public Matrix subtract() {
+      return this.a.subtract(this.b);
+   }
+
+   @Benchmark
+   public Matrix transpose() {
+      return this.a.transpose();
+   }
+
+   @Benchmark
+   public double determinant() {
+      return this.a.determinant();
+   }
+
+   @Benchmark
+   public double trace() {
+      return this.a.trace();
+   }
+
+   @Benchmark
+   public Vector getRow() {
+      return this.a.getRow(this.size / 2);
+   }
+
+   @Benchmark
+   public Vector getColumn() {
+      return this.a.getColumn(this.size / 2);
+   }
+
+   @Benchmark
+   public Vector rowView() {
+      return this.a.rowView(this.size / 2);
+   }
+
+   @Benchmark
+   public Vector columnView() {
+      return this.a.columnView(this.size / 2);
+   }
+
+   @Benchmark
+   public Matrix setEntry() {
+      return Matrix.setEntry(this.a, 1.0, this.size / 2, this.size / 2);
+   }
+
+   @Benchmark
+   public Matrix setRow() {
+      return this.a.setRow(this.size / 2, this.u);
+   }
+
+   @Benchmark
+   public Matrix setColumn() {
+      return this.a.setColumn(this.size / 2, this.u);
+   }
+
+   @Benchmark
+   public Matrix addVectorToRow() {
+      return this.a.addVectorToRow(this.u, this.size / 2);
+   }
+
+   @Benchmark
+   public Matrix addVectorToColumn() {
+      return this.a.addVectorToColumn(this.u, this.size / 2);
+   }
+
+   @Benchmark
+   public Matrix swapRows() {
+      return this.a.swapRows(0, this.size - 1);
+   }
+
+   @Benchmark
+   public Matrix swapColumns() {
+      return this.a.swapColumns(0, this.size - 1);
+   }
+
+   @Benchmark
+   public Matrix minorMatrix() {
+      return this.a.minorMatrix(this.size / 2, this.size / 2);
+   }
+
+   @Benchmark
+   public Matrix minorView() {
+      return this.a.minorView(this.size / 2, this.size / 2);
+   }
+
+   @Benchmark
+   public Matrix subMatrixView() {
+      return this.a.subMatrixView(1, 1, this.size / 2, this.size / 2);
+   }
+
+   @Benchmark
+   public Matrix dropRow() {
+      return this.a.dropRow(this.size / 2);
+   }
+
+   @Benchmark
+   public Matrix dropColumn() {
+      return this.a.dropColumn(this.size / 2);
+   }
+
+   @Benchmark
+   public Vector[] toRowVectors() {
+      return this.a.toRowVectors();
+   }
+
+   @Benchmark
+   public Vector[] toColumnVectors() {
+      return this.a.toColumnVectors();
+   }
+
+   @Benchmark
+   public Matrix fromRowVectors() {
+      return Matrix.fromRowVectors(this.rows);
+   }
+
+   @Benchmark
+   public Matrix fromColumnVectors() {
+      return Matrix.fromColumnVectors(this.rows);
+   }
+
+   @Benchmark
+   public boolean isDiagonal() {
+      return this.a.isDiagonal();
+   }
+
+   @Benchmark
+   public boolean isUpperTriangular() {
+      return this.upper.isUpperTriangular();
+   }
+
+   @Benchmark
+   public boolean isLowerTriangular() {
+      return this.a.isLowerTriangular();
+   }
+
+   @Benchmark
+   public boolean isPermutationMatrix() {
+      return this.a.isPermutationMatrix();
+   }
+
+   @Benchmark
+   public boolean isPermutationMatrixTrue() {
+      return this.permutationDense.isPermutationMatrix();
+   }
+
+   @Benchmark
+   public String toStringBenchmark() {
+      return this.a.toString();
+   }
+}
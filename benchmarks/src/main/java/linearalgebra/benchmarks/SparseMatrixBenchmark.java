@@ -0,0 +1,210 @@
+package linearalgebra.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import linearalgebra.ConjugateGradient;
+import linearalgebra.GMRES;
+import linearalgebra.IncompleteLU;
+import linearalgebra.JacobiPreconditioner;
+import linearalgebra.Lanczos;
+import linearalgebra.Matrix;
+import linearalgebra.MutableVector;
+import linearalgebra.SparseMatrix;
+import linearalgebra.SparseVector;
+import linearalgebra.Vector;
+
+/**
+ * Benchmarks for SparseMatrix and SparseVector, and for the dense Matrix
+ * and Vector operations whose cost depends on how many entries are zero,
+ * over sizes and densities (the fraction of nonzero entries). The vectors
+ * have size * size entries, so that the sparse ones are long.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SparseMatrixBenchmark {
+
+   @Param({"4", "64", "512", "2048"})
+   public int size;
+
+   @Param({"0.001", "0.01", "0.1"})
+   public double density;
+
+   private Matrix dense;
+   private SparseMatrix sparse;
+   private Vector u;
+   private Matrix b;
+   private SparseMatrix symmetric;
+   private SparseMatrix spd;
+   private SparseMatrix dominant;
+   private Vector denseVector;
+   private Vector otherDenseVector;
+   private SparseVector sparseVector;
+   private SparseVector otherSparseVector;
+   private MutableVector accumulator;
+   private ForkJoinPool serialPool;
+
+   @Setup
+   public void setUp() {
+      Random random = new Random(42);
+      this.dense = BenchmarkData.randomMatrix(random, this.size, this.size, this.density);
+      this.sparse = new SparseMatrix(this.dense);
+      this.u = BenchmarkData.randomVector(random, this.size);
+      this.b = BenchmarkData.randomMatrix(random, this.size, 32);
+      this.symmetric = new SparseMatrix(this.dense.add(this.dense.transpose()));
+
+      // a diagonal larger than the rest of each row (usually), so the solvers converge
+      Matrix shift = Matrix.identityMatrix(this.size).multiply(2 * this.size * this.density + 2);
+      this.spd = new SparseMatrix(this.dense.add(this.dense.transpose()).add(shift));
+      this.dominant = new SparseMatrix(this.dense.add(shift));
+
+      int length = this.size * this.size;
+      this.denseVector = BenchmarkData.randomMatrix(random, 1, length, this.density).getRow(0);
+      this.otherDenseVector = BenchmarkData.randomMatrix(random, 1, length, this.density).getRow(0);
+      this.sparseVector = new SparseVector(this.denseVector);
+      this.otherSparseVector = new SparseVector(this.otherDenseVector);
+      this.accumulator = new MutableVector(length);
+      this.serialPool = new ForkJoinPool(1);
+   }
+
+   @Benchmark
+   public SparseMatrix fromMatrix() {
+      return new SparseMatrix(this.dense);
+   }
+
+   @Benchmark
+   public Matrix toMatrix() {
+      return this.sparse.toMatrix();
+   }
+
+   @Benchmark
+   public double getEntry() {
+      return this.sparse.getEntry(this.size / 2, this.size / 3);
+   }
+
+   @Benchmark
+   public SparseMatrix transpose() {
+      return this.sparse.transpose();
+   }
+
+   @Benchmark
+   public Vector multiplyVector() {
+      return this.sparse.multiply(this.u);
+   }
+
+   @Benchmark
+   public Vector denseMultiplyVector() {
+      return this.dense.multiply(this.u);
+   }
+
+   @Benchmark
+   public Matrix multiplyMatrix() {
+      return this.sparse.multiply(this.b);
+   }
+
+   @Benchmark
+   public Matrix denseMultiplyMatrix() {
+      return this.dense.multiply(this.b);
+   }
+
+   @Benchmark
+   public SparseMatrix multiplySparse() {
+      return this.sparse.multiply(this.sparse);
+   }
+
+   @Benchmark
+   public SparseMatrix multiplySparseSerial() {
+      return SparseMatrix.multiply(this.sparse, this.sparse, this.serialPool);
+   }
+
+   @Benchmark
+   public Matrix denseMultiplySquare() {
+      return this.dense.multiply(this.dense);
+   }
+
+   @Benchmark
+   public boolean isSparse() {
+      return this.dense.isSparse();
+   }
+
+   @Benchmark
+   public boolean isSparseProportion() {
+      return this.dense.isSparse(0.05);
+   }
+
+   @Benchmark
+   public Lanczos lanczosTopEigenpairs() {
+      return new Lanczos(this.symmetric, Math.min(4, this.size));
+   }
+
+   @Benchmark
+   public Vector conjugateGradientJacobi() {
+      return new ConjugateGradient(this.spd)
+            .setPreconditioner(new JacobiPreconditioner(this.spd))
+            .solve(this.u);
+   }
+
+   @Benchmark
+   public Vector gmresIncompleteLU() {
+      return new GMRES(this.dominant)
+            .setPreconditioner(new IncompleteLU(this.dominant))
+            .solve(this.u);
+   }
+
+   @Benchmark
+   public double sparseVectorDot() {
+      return this.sparseVector.dot(this.otherSparseVector);
+   }
+
+   @Benchmark
+   public double sparseVectorDotDense() {
+      return this.sparseVector.dot(this.otherDenseVector);
+   }
+
+   @Benchmark
+   public double denseVectorDot() {
+      return this.denseVector.dot(this.otherDenseVector);
+   }
+
+   @Benchmark
+   public MutableVector sparseVectorAxpy() {
+      return this.accumulator.axpy(1e-9, this.sparseVector);
+   }
+
+   @Benchmark
+   public MutableVector denseVectorAxpy() {
+      return this.accumulator.axpy(1e-9, this.denseVector);
+   }
+
+   @Benchmark
+   public double sparseVectorMagnitude() {
+      return this.sparseVector.magnitude();
+   }
+
+   @Benchmark
+   public double denseVectorMagnitude() {
+      return this.denseVector.magnitude();
+   }
+
+   @Benchmark
+   public SparseVector sparseVectorAdd() {
+      return this.sparseVector.add(this.otherSparseVector);
+   }
+}
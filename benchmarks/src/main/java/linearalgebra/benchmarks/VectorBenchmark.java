@@ -0,0 +1,168 @@
+package linearalgebra.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import linearalgebra.Matrix;
+import linearalgebra.Vector;
+
+/**
+ * Benchmarks for the public Vector operations. cross and
+ * scalarTripleProduct are only defined for length 3 and are measured
+ * once, at that length.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VectorBenchmark {
+
+   @Param({"4", "64", "512", "2048"})
+   public int size;
+
+   private Vector u;
+   private Vector v;
+   private Vector w;
+   private Vector[] vectors;
+   private double[] weights;
+   private Vector u3;
+   private Vector v3;
+   private Vector w3;
+
+   @Setup
+   public void setUp() {
+      Random random = new Random(42);
+      this.u = BenchmarkData.randomVector(random, this.size);
+      this.v = BenchmarkData.randomVector(random, this.size);
+      this.w = BenchmarkData.randomVector(random, this.size);
+      this.vectors = new Vector[] {this.u, this.v, this.w};
+      this.weights = new double[] {0.5, -1, 2};
+      this.u3 = BenchmarkData.randomVector(random, 3);
+      this.v3 = BenchmarkData.randomVector(random, 3);
+      this.w3 = BenchmarkData.randomVector(random, 3);
+   }
+
+   @Benchmark
+   public Vector copy() {
+      return new Vector(this.u);
+   }
+
+   @Benchmark
+   public double[] getEntries() {
+      return this.u.getEntries();
+   }
+
+   @Benchmark
+   public Vector set() {
+      return this.u.set(this.size / 2, 1.0);
+   }
+
+   @Benchmark
+   public Vector sliceView() {
+      return this.u.sliceView(1, this.size - 1);
+   }
+
+   @Benchmark
+   public double dot() {
+      return this.u.dot(this.v);
+   }
+
+   @Benchmark
+   public Vector add() {
+      return this.u.add(this.v);
+   }
+
+   @Benchmark
+   public Vector subtract() {
+      return this.u.subtract(this.v);
+   }
+
+   @Benchmark
+   public Vector multiplyScalar() {
+      return this.u.multiply(1.5);
+   }
+
+   @Benchmark
+   public Vector inverseVector() {
+      return this.u.inverseVector();
+   }
+
+   @Benchmark
+   public double magnitude() {
+      return this.u.magnitude();
+   }
+
+   @Benchmark
+   public double pnorm1() {
+      return this.u.pnorm(1);
+   }
+
+   @Benchmark
+   public double pnorm3() {
+      return this.u.pnorm(3);
+   }
+
+   @Benchmark
+   public Vector normalize() {
+      return this.u.normalize();
+   }
+
+   @Benchmark
+   public boolean isZero() {
+      return this.u.isZero();
+   }
+
+   @Benchmark
+   public boolean isCanonicalBasisVector() {
+      return this.u.isCanonicalBasisVector();
+   }
+
+   @Benchmark
+   public double angleRadians() {
+      return Vector.angleRadians(this.u, this.v);
+   }
+
+   @Benchmark
+   public Vector orthogonalProjection() {
+      return this.u.orthogonalProjection(this.v);
+   }
+
+   @Benchmark
+   public Vector linearCombination() {
+      return Vector.linearCombination(this.vectors, this.weights);
+   }
+
+   @Benchmark
+   public Matrix outerProduct() {
+      return Vector.outerProduct(this.u, this.v);
+   }
+
+   @Benchmark
+   public Vector cross3() {
+      return this.u3.cross(this.v3);
+   }
+
+   @Benchmark
+   public double scalarTripleProduct3() {
+      return Vector.scalarTripleProduct(this.u3, this.v3, this.w3);
+   }
+
+   @Benchmark
+   public String toStringBenchmark() {
+      return this.u.toString();
+   }
+}
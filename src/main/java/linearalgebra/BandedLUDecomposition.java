@@ -0,0 +1,270 @@
+package linearalgebra;
+
+/**
+ * The BandedLUDecomposition class factors a BandedMatrix A, with lower
+ * bandwidth kl and upper bandwidth ku, into PA = LU by Gaussian elimination
+ * with partial pivoting, without ever leaving band storage. L has at most
+ * kl entries below the diagonal in each column, and the row swaps can widen
+ * U to kl + ku diagonals above it, so each row of the factor holds
+ *
+ *    columns i - kl to i + kl + ku, entry [i][j] at i * (2kl + ku + 1) + j - i + kl
+ *
+ * (the extra kl diagonals start out as 0). Factoring takes O(n kl (kl + ku))
+ * time and each solve O(n (2kl + ku)), against O(n^3) and O(n^2) for a
+ * dense LUDecomposition.
+ *
+ * As in LAPACK's banded routines, the multipliers of L stay where they
+ * were computed, and pivot[k] records the row swapped with row k at step
+ * k, so a solve replays the swaps in order.
+ */
+
+public class BandedLUDecomposition {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the size and bandwidths of the factored Matrix
+    */
+   private final int n;
+   private final int kl;
+   private final int ku;
+
+   /**
+    * the number of entries in each row of lu, 2kl + ku + 1
+    */
+   private final int width;
+
+   /**
+    * the multipliers of L (below the diagonal) and U (on and above it),
+    * row by row
+    */
+   private final double[] lu;
+
+   /**
+    * pivot[k] is the row that was swapped with row k at step k
+    */
+   private final int[] pivot;
+
+   /**
+    * pivotSign is +1 if an even number of row swaps was made, -1 if odd
+    */
+   private final int pivotSign;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * factors the BandedMatrix a.
+    * @param a a BandedMatrix object
+    */
+   public BandedLUDecomposition(BandedMatrix a) {
+      this.n = a.getNumRows();
+      this.kl = a.getLowerBandwidth();
+      this.ku = a.getUpperBandwidth();
+      this.width = 2 * this.kl + this.ku + 1;
+      this.lu = new double[this.n * this.width];
+      this.pivot = new int[this.n];
+
+      // the band of A has the same layout, with kl + ku + 1 entries per row
+      double[] band = a.toBandArray();
+      int bandWidth = a.width();
+
+      for (int i = 0; i < this.n; i++) {
+         System.arraycopy(band, i * bandWidth, this.lu, i * this.width, bandWidth);
+      }
+
+      this.pivotSign = this.factor();
+   }
+
+   /**
+    * @return the position of entry [i][j] in lu
+    */
+   private int position(int i, int j) {
+      return i * this.width + j - i + this.kl;
+   }
+
+   /**
+    * eliminates column k from the kl rows below it for every k. The pivot
+    * is the largest entry of the column on or below the diagonal; a
+    * (threshold-checked) zero pivot means the whole column is zero, so its
+    * multipliers are set to 0 and the Matrix is singular.
+    * @return the sign of the row permutation
+    */
+   private int factor() {
+      int sign = 1;
+
+      for (int k = 0; k < this.n; k++) {
+         int lastRow = Math.min(this.n - 1, k + this.kl);
+         int lastColumn = Math.min(this.n - 1, k + this.kl + this.ku);
+         int p = k;
+
+         for (int i = k + 1; i <= lastRow; i++) {
+            if (Math.abs(this.lu[this.position(i, k)]) > Math.abs(this.lu[this.position(p, k)])) {
+               p = i;
+            }
+         }
+
+         this.pivot[k] = p;
+
+         if (Math.abs(this.lu[this.position(p, k)]) <= Matrix.THRESHOLD) {
+            for (int i = k + 1; i <= lastRow; i++) {
+               this.lu[this.position(i, k)] = 0;
+            }
+            continue;
+         }
+
+         if (p != k) {
+            // both rows store columns k to lastColumn
+            for (int j = k; j <= lastColumn; j++) {
+               double temp = this.lu[this.position(p, j)];
+               this.lu[this.position(p, j)] = this.lu[this.position(k, j)];
+               this.lu[this.position(k, j)] = temp;
+            }
+            sign = -sign;
+         }
+
+         double diagonal = this.lu[this.position(k, k)];
+
+         for (int i = k + 1; i <= lastRow; i++) {
+            double multiplier = this.lu[this.position(i, k)] / diagonal;
+            this.lu[this.position(i, k)] = multiplier;
+
+            if (multiplier != 0) {
+               VectorKernels.axpy(-multiplier, this.lu, this.position(k, k + 1), 1,
+                                  this.lu, this.position(i, k + 1), 1, lastColumn - k);
+            }
+         }
+      }
+
+      return sign;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the determinant of the factored Matrix, the product of the
+    * diagonal of U, with the sign flipped for an odd number of row swaps.
+    * @return the determinant
+    */
+   public double determinant() {
+      double determinant = this.pivotSign;
+
+      for (int i = 0; i < this.n; i++) {
+         determinant *= this.lu[this.position(i, i)];
+      }
+
+      return determinant;
+   }
+
+   /**
+    * checks to see if the factored Matrix is singular, i.e. U has a
+    * (threshold-checked) zero on its diagonal.
+    * @return true if the Matrix is singular, false otherwise
+    */
+   public boolean isSingular() {
+      for (int i = 0; i < this.n; i++) {
+         if (Math.abs(this.lu[this.position(i, i)]) <= Matrix.THRESHOLD) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * solves Ax = b: the row swaps and L are applied to b step by step,
+    * then U is solved by back substitution over its band. Throws an
+    * IllegalArgumentException if b has the wrong length or A is singular.
+    * @param b a Vector with n entries
+    * @return the solution x
+    */
+   public Vector solve(Vector b) {
+      if (b.length() != this.n) {
+         throw new IllegalArgumentException("Vector length does not match Matrix size");
+      }
+      if (this.isSingular()) {
+         throw new IllegalArgumentException("Matrix is singular");
+      }
+
+      double[] x = b.getEntries();
+
+      for (int k = 0; k < this.n; k++) {
+         int p = this.pivot[k];
+
+         if (p != k) {
+            double temp = x[p];
+            x[p] = x[k];
+            x[k] = temp;
+         }
+
+         for (int i = k + 1; i <= Math.min(this.n - 1, k + this.kl); i++) {
+            x[i] -= this.lu[this.position(i, k)] * x[k];
+         }
+      }
+
+      for (int i = this.n - 1; i >= 0; i--) {
+         int last = Math.min(this.n - 1, i + this.kl + this.ku);
+         double sum = VectorKernels.dot(this.lu, this.position(i, i + 1), 1, x, i + 1, 1, last - i);
+         x[i] = (x[i] - sum) / this.lu[this.position(i, i)];
+      }
+
+      return new Vector(x, 0, 1, this.n);
+   }
+
+   /**
+    * solves AX = B for X, treating each column of B as a separate
+    * right-hand side. The steps are those of solve(Vector), applied to
+    * whole rows of B. Throws an IllegalArgumentException if B has the
+    * wrong number of rows or A is singular.
+    * @param b a Matrix with n rows
+    * @return the solution X, with the same shape as b
+    */
+   public Matrix solve(Matrix b) {
+      if (b.getNumRows() != this.n) {
+         throw new IllegalArgumentException("Matrix row count does not match Matrix size");
+      }
+      if (this.isSingular()) {
+         throw new IllegalArgumentException("Matrix is singular");
+      }
+
+      int columns = b.getNumColumns();
+      double[] x = b.toArray();
+      double[] temp = new double[columns];
+
+      for (int k = 0; k < this.n; k++) {
+         int p = this.pivot[k];
+
+         if (p != k) {
+            System.arraycopy(x, p * columns, temp, 0, columns);
+            System.arraycopy(x, k * columns, x, p * columns, columns);
+            System.arraycopy(temp, 0, x, k * columns, columns);
+         }
+
+         for (int i = k + 1; i <= Math.min(this.n - 1, k + this.kl); i++) {
+            double l = this.lu[this.position(i, k)];
+
+            if (l != 0) {
+               VectorKernels.axpy(-l, x, k * columns, 1, x, i * columns, 1, columns);
+            }
+         }
+      }
+
+      for (int i = this.n - 1; i >= 0; i--) {
+         int last = Math.min(this.n - 1, i + this.kl + this.ku);
+
+         for (int j = i + 1; j <= last; j++) {
+            double u = this.lu[this.position(i, j)];
+
+            if (u != 0) {
+               VectorKernels.axpy(-u, x, j * columns, 1, x, i * columns, 1, columns);
+            }
+         }
+
+         VectorKernels.scale(x, i * columns, 1, 1 / this.lu[this.position(i, i)], x, i * columns, columns);
+      }
+
+      return new Matrix(this.n, columns, x);
+   }
+}
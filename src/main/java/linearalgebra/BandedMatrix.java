@@ -0,0 +1,465 @@
+package linearalgebra;
+
+/**
+ * The BandedMatrix class stores a square Matrix whose nonzero entries all
+ * lie within kl diagonals below the main diagonal and ku diagonals above
+ * it, such as the tridiagonal (kl = ku = 1) systems of cubic splines and
+ * one-dimensional finite differences. Only the band is kept:
+ *
+ *    row i holds columns i - kl to i + ku, entry [i][j] at i * (kl + ku + 1) + j - i + kl
+ *
+ * which is LAPACK's band storage laid out by rows instead of by columns,
+ * so each row of the band is contiguous like a row of a Matrix. Positions
+ * that fall outside the Matrix (in the first kl and last ku rows) are 0.
+ * Memory is n(kl + ku + 1) doubles instead of n^2.
+ *
+ * Products take O(n(kl + ku)) time. Solving Ax = b takes O(n kl (kl + ku))
+ * through a BandedLUDecomposition. A tridiagonal system whose Matrix is
+ * diagonally dominant by rows (checked in O(n)) is solved by the Thomas
+ * algorithm instead, O(n) with no pivoting; every other tridiagonal system
+ * goes through the pivoting BandedLUDecomposition.
+ *
+ * Like Matrix, a BandedMatrix is never modified in place.
+ */
+
+public class BandedMatrix implements LinearOperator {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the number of rows (and columns)
+    */
+   private final int n;
+
+   /**
+    * the lower and upper bandwidths
+    */
+   private final int kl;
+   private final int ku;
+
+   /**
+    * the band, row by row, kl + ku + 1 entries per row
+    */
+   private final double[] band;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * takes the band of a square Matrix whose entries outside it are all
+    * (threshold-checked) zero. Throws an IllegalArgumentException if m is
+    * not square, a bandwidth is negative, or an entry outside the band is
+    * not zero.
+    * @param m a square Matrix object
+    * @param lowerBandwidth the number of diagonals below the main diagonal
+    * @param upperBandwidth the number of diagonals above the main diagonal
+    */
+   public BandedMatrix(Matrix m, int lowerBandwidth, int upperBandwidth) {
+      this(m.getNumRows(),
+           Math.min(lowerBandwidth, m.getNumRows() - 1),
+           Math.min(upperBandwidth, m.getNumRows() - 1),
+           BandedMatrix.bandOf(m, lowerBandwidth, upperBandwidth));
+   }
+
+   /**
+    * wraps a band array without copying it. The caller hands ownership of
+    * the array to the new BandedMatrix.
+    */
+   private BandedMatrix(int n, int kl, int ku, double[] band) {
+      this.n = n;
+      this.kl = kl;
+      this.ku = ku;
+      this.band = band;
+   }
+
+   private static void checkBandwidths(int n, int kl, int ku) {
+      if (n < 1) {
+         throw new IllegalArgumentException("n must be >= 1");
+      }
+      if (kl < 0 || ku < 0) {
+         throw new IllegalArgumentException("Bandwidths must not be negative");
+      }
+   }
+
+   private static double[] bandOf(Matrix m, int kl, int ku) {
+      if (!Matrix.isSquare(m)) {
+         throw new IllegalArgumentException("Matrix is not square");
+      }
+
+      int n = m.getNumRows();
+      BandedMatrix.checkBandwidths(n, kl, ku);
+
+      // the band does not need to be wider than the Matrix
+      kl = Math.min(kl, n - 1);
+      ku = Math.min(ku, n - 1);
+
+      m = m.strided();
+      int width = kl + ku + 1;
+      double[] entries = m.entries();
+      int offset = m.offset();
+      int stride = m.rowStride();
+      double[] band = new double[n * width];
+
+      for (int i = 0; i < n; i++) {
+         for (int j = 0; j < n; j++) {
+            double entry = entries[offset + i * stride + j];
+
+            if (j - i >= -kl && j - i <= ku) {
+               band[i * width + j - i + kl] = entry;
+            } else if (Math.abs(entry) > Matrix.THRESHOLD) {
+               throw new IllegalArgumentException("Matrix has a nonzero entry outside the band");
+            }
+         }
+      }
+
+      return band;
+   }
+
+   /**
+    * builds a BandedMatrix from its diagonals, given from the lowest to the
+    * highest: diagonals[0] is the kl-th diagonal below the main one,
+    * diagonals[kl] the main diagonal, and diagonals[kl + ku] the ku-th above
+    * it. The diagonal at distance d from the main one has n - d entries.
+    * The arrays are copied. Throws an IllegalArgumentException if the
+    * lengths do not fit together.
+    * @param lowerBandwidth kl, the number of diagonals below the main diagonal
+    * @param upperBandwidth ku, the number of diagonals above the main diagonal
+    * @param diagonals the kl + ku + 1 diagonals
+    * @return the BandedMatrix
+    */
+   public static BandedMatrix fromDiagonals(int lowerBandwidth, int upperBandwidth, double[] ... diagonals) {
+      int kl = lowerBandwidth;
+      int ku = upperBandwidth;
+
+      if (kl < 0 || ku < 0) {
+         throw new IllegalArgumentException("Bandwidths must not be negative");
+      }
+      if (diagonals.length != kl + ku + 1) {
+         throw new IllegalArgumentException("Expected " + (kl + ku + 1) + " diagonals");
+      }
+
+      int n = diagonals[kl].length;
+      BandedMatrix.checkBandwidths(n, kl, ku);
+
+      int width = kl + ku + 1;
+      double[] band = new double[n * width];
+
+      for (int d = 0; d < width; d++) {
+         int offset = d - kl;
+
+         if (diagonals[d].length != n - Math.abs(offset)) {
+            throw new IllegalArgumentException("Diagonal " + offset + " must have " + (n - Math.abs(offset)) + " entries");
+         }
+
+         // entry p of the diagonal is [p][p + offset], or [p - offset][p] below the main one
+         for (int p = 0; p < diagonals[d].length; p++) {
+            int row = offset >= 0 ? p : p - offset;
+            band[row * width + d] = diagonals[d][p];
+         }
+      }
+
+      return new BandedMatrix(n, kl, ku, band);
+   }
+
+   /**
+    * builds the tridiagonal Matrix with the given subdiagonal, diagonal and
+    * superdiagonal. The arrays are copied.
+    * @param lower the n - 1 entries below the diagonal
+    * @param diagonal the n entries on the diagonal
+    * @param upper the n - 1 entries above the diagonal
+    * @return the tridiagonal BandedMatrix
+    */
+   public static BandedMatrix tridiagonal(double[] lower, double[] diagonal, double[] upper) {
+      return BandedMatrix.fromDiagonals(1, 1, lower, diagonal, upper);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   @Override
+   public int getNumRows() {
+      return this.n;
+   }
+
+   @Override
+   public int getNumColumns() {
+      return this.n;
+   }
+
+   /**
+    * @return kl, the number of diagonals stored below the main diagonal
+    */
+   public int getLowerBandwidth() {
+      return this.kl;
+   }
+
+   /**
+    * @return ku, the number of diagonals stored above the main diagonal
+    */
+   public int getUpperBandwidth() {
+      return this.ku;
+   }
+
+   /**
+    * @return true if the Matrix is tridiagonal (or narrower)
+    */
+   public boolean isTridiagonal() {
+      return this.kl <= 1 && this.ku <= 1;
+   }
+
+   /**
+    * returns the entry in the row-th row and col-th column, which is 0
+    * outside the band.
+    * @param row the row of the desired entry
+    * @param col the column of the desired entry
+    * @return the entry
+    */
+   public double getEntry(int row, int col) {
+      if (row < 0 || row >= this.n) {
+         throw new IllegalArgumentException("Invalid value for row.");
+      }
+      if (col < 0 || col >= this.n) {
+         throw new IllegalArgumentException("Invalid value for col.");
+      }
+
+      if (col - row < -this.kl || col - row > this.ku) {
+         return 0;
+      }
+
+      return this.band[row * this.width() + col - row + this.kl];
+   }
+
+   /**
+    * converts the BandedMatrix to a dense n-by-n Matrix.
+    * @return a Matrix with the same entries
+    */
+   public Matrix toMatrix() {
+      double[] entries = new double[this.n * this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         int first = this.firstColumn(i);
+         System.arraycopy(this.band, this.position(i, first), entries, i * this.n + first, this.lastColumn(i) - first + 1);
+      }
+
+      return new Matrix(this.n, this.n, entries);
+   }
+
+   /**
+    * returns the transpose, whose bandwidths are swapped.
+    * @return the transpose
+    */
+   public BandedMatrix transpose() {
+      int width = this.width();
+      double[] result = new double[this.band.length];
+
+      // [i][j] moves to [j][i], which is position j * width + i - j + ku in the new band
+      for (int i = 0; i < this.n; i++) {
+         for (int j = this.firstColumn(i); j <= this.lastColumn(i); j++) {
+            result[j * width + i - j + this.ku] = this.band[this.position(i, j)];
+         }
+      }
+
+      return new BandedMatrix(this.n, this.ku, this.kl, result);
+   }
+
+   /**
+    * returns the determinant, from a BandedLUDecomposition.
+    * @return the determinant
+    */
+   public double determinant() {
+      return new BandedLUDecomposition(this).determinant();
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   int width() {
+      return this.kl + this.ku + 1;
+   }
+
+   /**
+    * @return the position of entry [i][j] in band, which must be inside the band
+    */
+   private int position(int i, int j) {
+      return i * this.width() + j - i + this.kl;
+   }
+
+   private int firstColumn(int i) {
+      return Math.max(0, i - this.kl);
+   }
+
+   private int lastColumn(int i) {
+      return Math.min(this.n - 1, i + this.ku);
+   }
+
+   /**
+    * @return a copy of the band array, for the decomposition
+    */
+   double[] toBandArray() {
+      return this.band.clone();
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * multiplies a Vector by the BandedMatrix: entry i of the result is the
+    * dot product of the band of row i with the matching entries of u.
+    * @param u a Vector with n entries
+    * @return the product Au
+    */
+   public Vector multiply(Vector u) {
+      if (u.length() != this.n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] x = u.getEntries();
+      double[] result = new double[this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         int first = this.firstColumn(i);
+         result[i] = VectorKernels.dot(this.band, this.position(i, first), 1, x, first, 1, this.lastColumn(i) - first + 1);
+      }
+
+      return new Vector(result, 0, 1, this.n);
+   }
+
+   /**
+    * applies the BandedMatrix to a Vector, as a LinearOperator. Same as
+    * multiply(Vector).
+    * @param u a Vector with n entries
+    * @return the product Au
+    */
+   @Override
+   public Vector apply(Vector u) {
+      return this.multiply(u);
+   }
+
+   /**
+    * applies the transpose to a Vector, adding the band of each row scaled
+    * by the matching entry of u.
+    * @param u a Vector with n entries
+    * @return the product A^T u
+    */
+   @Override
+   public Vector applyTranspose(Vector u) {
+      if (u.length() != this.n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] x = u.getEntries();
+      double[] result = new double[this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         if (x[i] != 0) {
+            int first = this.firstColumn(i);
+            VectorKernels.axpy(x[i], this.band, this.position(i, first), 1, result, first, 1, this.lastColumn(i) - first + 1);
+         }
+      }
+
+      return new Vector(result, 0, 1, this.n);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * solves Ax = b. A diagonally dominant tridiagonal Matrix (such as those
+    * of cubic splines and 1-D finite differences) is solved by the Thomas
+    * algorithm (forward elimination down the diagonal, then back
+    * substitution), O(n) with no pivoting, which is stable only for such
+    * matrices. Any other Matrix, or one where the Thomas algorithm meets a
+    * zero pivot, is solved with a BandedLUDecomposition, which pivots.
+    * Throws an IllegalArgumentException if b has the wrong length or A is
+    * singular.
+    * @param b a Vector with n entries
+    * @return the solution x
+    */
+   public Vector solve(Vector b) {
+      if (b.length() != this.n) {
+         throw new IllegalArgumentException("Vector length does not match Matrix size");
+      }
+
+      if (this.kl == 1 && this.ku == 1 && this.isDiagonallyDominant()) {
+         double[] x = this.solveTridiagonal(b.getEntries());
+
+         if (x != null) {
+            return new Vector(x, 0, 1, this.n);
+         }
+      }
+
+      return new BandedLUDecomposition(this).solve(b);
+   }
+
+   /**
+    * solves AX = B for X, treating each column of B as a separate
+    * right-hand side, through one BandedLUDecomposition.
+    * @param b a Matrix with n rows
+    * @return the solution X, with the same shape as b
+    */
+   public Matrix solve(Matrix b) {
+      return new BandedLUDecomposition(this).solve(b);
+   }
+
+   /**
+    * checks in O(n(kl + ku)) that every row has |a[i][i]| >= the sum of
+    * |a[i][j]| over the rest of the row, which keeps the pivots of
+    * elimination without row swaps away from zero.
+    * @return true if the Matrix is (weakly) diagonally dominant by rows
+    */
+   private boolean isDiagonallyDominant() {
+      for (int i = 0; i < this.n; i++) {
+         int start = i * this.width();
+         double offDiagonal = 0;
+
+         for (int p = 0; p < this.width(); p++) {
+            if (p != this.kl) {
+               offDiagonal += Math.abs(this.band[start + p]);
+            }
+         }
+
+         if (!(Math.abs(this.band[start + this.kl]) >= offDiagonal)) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * the Thomas algorithm for a tridiagonal band (kl = ku = 1), in place on
+    * d. Row i of the band is (sub, diag, super) = band[3i .. 3i + 2].
+    * @return the solution, or null if a pivot is (threshold-checked) zero
+    */
+   private double[] solveTridiagonal(double[] d) {
+      // c[i] is the superdiagonal of row i after elimination, divided by its pivot
+      double[] c = new double[this.n];
+      double pivot = this.band[1];
+
+      if (Math.abs(pivot) <= Matrix.THRESHOLD) {
+         return null;
+      }
+
+      c[0] = this.band[2] / pivot;
+      d[0] = d[0] / pivot;
+
+      for (int i = 1; i < this.n; i++) {
+         double sub = this.band[3 * i];
+         pivot = this.band[3 * i + 1] - sub * c[i - 1];
+
+         if (Math.abs(pivot) <= Matrix.THRESHOLD) {
+            return null;
+         }
+
+         c[i] = this.band[3 * i + 2] / pivot;
+         d[i] = (d[i] - sub * d[i - 1]) / pivot;
+      }
+
+      for (int i = this.n - 2; i >= 0; i--) {
+         d[i] -= c[i] * d[i + 1];
+      }
+
+      return d;
+   }
+}
@@ -0,0 +1,93 @@
+package linearalgebra;
+
+/**
+ * The BiCGSTAB class solves Ax = b for a general (nonsymmetric) operator A
+ * by the stabilized biconjugate gradient method, with the preconditioner
+ * applied on the right (A M y = b, x = M y, so the residual is still
+ * b - Ax). Each iteration applies A and the preconditioner twice each and
+ * keeps eight Vectors, however many iterations are needed; its convergence
+ * is often similar to GMRES without restarts.
+ *
+ * The method can break down (a division by zero in the recurrences) on
+ * some systems, in which case the solve stops early with isConverged()
+ * false; GMRES is the more robust choice then. See IterativeSolver for the
+ * settings.
+ */
+
+public class BiCGSTAB extends IterativeSolver {
+
+   /**
+    * creates a solver for the square operator a.
+    * @param a a square LinearOperator
+    */
+   public BiCGSTAB(LinearOperator a) {
+      super(a);
+   }
+
+   @Override
+   void iterate(double[] b, double[] x) {
+      double[] r = new double[this.n];
+      this.residual(b, x, r);
+
+      if (this.report(0, IterativeSolver.norm(r))) {
+         return;
+      }
+
+      double[] shadow = r.clone();
+      double[] p = new double[this.n];
+      double[] v = new double[this.n];
+      double[] pHat = new double[this.n];
+      double[] sHat = new double[this.n];
+      double[] t = new double[this.n];
+      double rho = 1;
+      double alpha = 1;
+      double omega = 1;
+
+      for (int k = 1; ; k++) {
+         double rhoNext = IterativeSolver.dot(shadow, r);
+
+         if (rhoNext == 0) {
+            return;
+         }
+
+         // p = r + beta (p - omega v)
+         double beta = (rhoNext / rho) * (alpha / omega);
+         IterativeSolver.axpy(-omega, v, p);
+         VectorKernels.scale(p, 0, 1, beta, p, 0, this.n);
+         IterativeSolver.axpy(1, r, p);
+         rho = rhoNext;
+
+         this.precondition(p, pHat);
+         this.apply(pHat, v);
+         double shadowV = IterativeSolver.dot(shadow, v);
+
+         if (shadowV == 0) {
+            return;
+         }
+
+         alpha = rho / shadowV;
+
+         // half step: r becomes s = r - alpha v
+         IterativeSolver.axpy(alpha, pHat, x);
+         IterativeSolver.axpy(-alpha, v, r);
+         double sNorm = IterativeSolver.norm(r);
+
+         if (this.isSmall(sNorm)) {
+            this.report(k, sNorm);
+            return;
+         }
+
+         this.precondition(r, sHat);
+         this.apply(sHat, t);
+         double tt = IterativeSolver.dot(t, t);
+         omega = tt == 0 ? 0 : IterativeSolver.dot(t, r) / tt;
+
+         IterativeSolver.axpy(omega, sHat, x);
+         IterativeSolver.axpy(-omega, t, r);
+
+         if (this.report(k, IterativeSolver.norm(r)) || omega == 0) {
+            return;
+         }
+      }
+   }
+}
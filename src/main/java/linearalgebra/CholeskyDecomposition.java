@@ -0,0 +1,388 @@
+package linearalgebra;
+
+/**
+ * The CholeskyDecomposition class factors a symmetric positive-definite
+ * Matrix A (e.g. a Gram or covariance matrix) into A = LL^T, where L is
+ * lower triangular with a positive diagonal. This takes about n^3/3
+ * multiply-adds, half the work of an LU decomposition, and needs no
+ * pivoting. Each solve afterwards takes O(n^2) time.
+ *
+ * The factor is computed in place in an n-by-n row-major array, in blocks
+ * of BLOCK_SIZE columns: the diagonal block and the panel below it are
+ * factored with dot products along rows, then the rest of the lower
+ * triangle is updated with the blocked multiplication kernel (Gemm).
+ * Only the lower triangle of A is read.
+ *
+ * A Matrix that is not symmetric positive definite is rejected as early as
+ * possible: first by its shape, then by its diagonal, then by its symmetry,
+ * and finally at the first non-positive pivot, at which point the
+ * factorization stops.
+ */
+
+public class CholeskyDecomposition {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the number of columns factored together before the trailing update
+    */
+   static final int BLOCK_SIZE = 64;
+
+   /**
+    * l holds L on and below the diagonal in row-major order; the entries
+    * above the diagonal are 0
+    */
+   private final double[] l;
+
+   /**
+    * n is the number of rows (and columns) of the factored Matrix
+    */
+   private final int n;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * factors the symmetric positive-definite Matrix m. Throws an
+    * IllegalArgumentException if m is not square, not symmetric, or not
+    * positive definite.
+    * @param m a symmetric positive-definite Matrix object
+    */
+   public CholeskyDecomposition(Matrix m) {
+      this(CholeskyDecomposition.checked(m), m.getNumRows());
+   }
+
+   /**
+    * factors a SymmetricMatrix, such as a Gram Matrix from
+    * SymmetricMatrix.gram, which is symmetric by construction, so only the
+    * diagonal is checked before factoring. Throws an
+    * IllegalArgumentException if it is not positive definite.
+    * @param s a positive-definite SymmetricMatrix object
+    */
+   public CholeskyDecomposition(SymmetricMatrix s) {
+      this(CholeskyDecomposition.checked(s), s.getNumRows());
+   }
+
+   /**
+    * factors the lower triangle of an n-by-n row-major array in place. The
+    * array becomes l.
+    */
+   private CholeskyDecomposition(double[] a, int n) {
+      this.n = n;
+      this.l = a;
+
+      int failed = CholeskyDecomposition.factor(this.l, this.n);
+
+      if (failed >= 0) {
+         throw new IllegalArgumentException("Matrix is not positive definite (pivot " + failed + ")");
+      }
+
+      // clear the upper triangle, which still holds entries of m
+      for (int i = 0; i < this.n; i++) {
+         for (int j = i + 1; j < this.n; j++) {
+            this.l[i * this.n + j] = 0;
+         }
+      }
+   }
+
+   /**
+    * checks to see if m is symmetric positive definite, by attempting the
+    * factorization. No exception is thrown; the work stops as soon as m
+    * fails one of the checks.
+    * @param m a Matrix object
+    * @return true if m is symmetric positive definite, false otherwise
+    */
+   public static boolean isPositiveDefinite(Matrix m) {
+      return CholeskyDecomposition.checkShape(m) == null
+            && CholeskyDecomposition.factor(m.toArray(), m.getNumRows()) < 0;
+   }
+
+   /**
+    * @return the entries of m, to be factored, if it passes checkShape
+    */
+   private static double[] checked(Matrix m) {
+      String problem = CholeskyDecomposition.checkShape(m);
+
+      if (problem != null) {
+         throw new IllegalArgumentException(problem);
+      }
+
+      return m.toArray();
+   }
+
+   /**
+    * @return the lower triangle of s, to be factored, if its diagonal is positive
+    */
+   private static double[] checked(SymmetricMatrix s) {
+      for (int i = 0; i < s.getNumRows(); i++) {
+         if (!(s.getEntry(i, i) > 0)) {
+            throw new IllegalArgumentException("Matrix is not positive definite (diagonal entry " + i + ")");
+         }
+      }
+
+      return s.toLowerArray();
+   }
+
+   /**
+    * runs the checks that are cheaper than the factorization: m must be
+    * square, have a positive diagonal (O(n)), and be symmetric (O(n^2)).
+    * @return a description of the first problem found, or null
+    */
+   private static String checkShape(Matrix m) {
+      if (!Matrix.isSquare(m)) {
+         return "Cholesky decomposition requires a square Matrix";
+      }
+
+      int n = m.getNumRows();
+
+      for (int i = 0; i < n; i++) {
+         if (!(m.getEntry(i, i) > 0)) {
+            return "Matrix is not positive definite (diagonal entry " + i + ")";
+         }
+      }
+
+      if (!Matrix.isSymmetric(m)) {
+         return "Matrix is not symmetric";
+      }
+
+      return null;
+   }
+
+   /**
+    * factors the lower triangle of the n-by-n row-major array a in place,
+    * overwriting it with L. The entries above the diagonal are not read,
+    * but the trailing updates may write to some of them.
+    *
+    * Columns are processed in blocks [k0, k1). Entry [i][j] of the block
+    * column (i >= j) is a[i][j] minus the dot product of rows i and j of L
+    * over columns k0 to j - 1 (the earlier columns have already been
+    * subtracted), divided by L[j][j], or square-rooted on the diagonal.
+    * Then L21 L21^T is subtracted from the lower triangle of the trailing
+    * Matrix, one block row at a time.
+    * @param a the array to factor
+    * @param n the number of rows and columns
+    * @return -1 on success, or the index of the first non-positive pivot
+    */
+   static int factor(double[] a, int n) {
+      for (int k0 = 0; k0 < n; k0 += BLOCK_SIZE) {
+         int k1 = Math.min(k0 + BLOCK_SIZE, n);
+
+         for (int i = k0; i < n; i++) {
+            int rowI = i * n;
+            int last = Math.min(i, k1 - 1);
+
+            for (int j = k0; j <= last; j++) {
+               int rowJ = j * n;
+               double sum = a[rowI + j];
+
+               for (int k = k0; k < j; k++) {
+                  sum -= a[rowI + k] * a[rowJ + k];
+               }
+
+               if (i == j) {
+                  if (!(sum > 0)) {
+                     return i;
+                  }
+
+                  a[rowI + i] = Math.sqrt(sum);
+               } else {
+                  a[rowI + j] = sum / a[rowJ + j];
+               }
+            }
+         }
+
+         if (k1 < n) {
+            CholeskyDecomposition.updateTrailing(a, n, k0, k1);
+         }
+      }
+
+      return -1;
+   }
+
+   /**
+    * subtracts L21 L21^T from the lower triangle of the trailing Matrix
+    * a[k1..n)[k1..n), where L21 = a[k1..n)[k0..k1).
+    */
+   private static void updateTrailing(double[] a, int n, int k0, int k1) {
+      int width = k1 - k0;
+      int trailing = n - k1;
+
+      // -L21^T, packed row-major as a width-by-trailing array
+      double[] negT = new double[width * trailing];
+
+      for (int i = 0; i < trailing; i++) {
+         int row = (k1 + i) * n + k0;
+
+         for (int p = 0; p < width; p++) {
+            negT[p * trailing + i] = -a[row + p];
+         }
+      }
+
+      // each block row only needs the columns up to its last row
+      for (int r0 = k1; r0 < n; r0 += BLOCK_SIZE) {
+         int r1 = Math.min(r0 + BLOCK_SIZE, n);
+
+         Gemm.multiply(r1 - r0, r1 - k1, width,
+                       a, r0 * n + k0, n,
+                       negT, 0, trailing,
+                       a, r0 * n + k1, n);
+      }
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the lower triangular factor L, with A = LL^T.
+    * @return an n-by-n lower triangular Matrix
+    */
+   public Matrix getL() {
+      return new Matrix(this.n, this.n, this.l.clone());
+   }
+
+   /**
+    * returns L in packed form, which takes half the memory of getL().
+    * @return an n-by-n lower TriangularMatrix
+    */
+   public TriangularMatrix getTriangularL() {
+      return TriangularMatrix.fromArray(this.l, this.n, false, false);
+   }
+
+   /**
+    * returns the determinant of the factored Matrix, the square of the
+    * product of the diagonal of L. For large matrices this can overflow or
+    * underflow; see logDeterminant().
+    * @return the determinant
+    */
+   public double determinant() {
+      double product = 1;
+
+      for (int i = 0; i < this.n; i++) {
+         product *= this.l[i * this.n + i];
+      }
+
+      return product * product;
+   }
+
+   /**
+    * returns the natural logarithm of the determinant of the factored
+    * Matrix, 2 * (sum of log L[i][i]). Summing logarithms does not overflow
+    * or underflow the way the product of the diagonal can.
+    * @return the log of the determinant
+    */
+   public double logDeterminant() {
+      double sum = 0;
+
+      for (int i = 0; i < this.n; i++) {
+         sum += Math.log(this.l[i * this.n + i]);
+      }
+
+      return 2 * sum;
+   }
+
+   /**
+    * solves Ax = b for x, where A is the factored Matrix, by forward
+    * substitution with L followed by back substitution with L^T.
+    * Throws an IllegalArgumentException if b has the wrong length.
+    * @param b a Vector with n entries
+    * @return the solution x
+    */
+   public Vector solve(Vector b) {
+      if (b.length() != this.n) {
+         throw new IllegalArgumentException("Vector length does not match Matrix size");
+      }
+
+      double[] x = b.getEntries();
+
+      // L y = b
+      for (int i = 0; i < this.n; i++) {
+         int row = i * this.n;
+         double sum = x[i];
+
+         for (int k = 0; k < i; k++) {
+            sum -= this.l[row + k] * x[k];
+         }
+
+         x[i] = sum / this.l[row + i];
+      }
+
+      // L^T x = y, using the rows of L (the columns of L^T)
+      for (int i = this.n - 1; i >= 0; i--) {
+         int row = i * this.n;
+         x[i] /= this.l[row + i];
+
+         for (int k = 0; k < i; k++) {
+            x[k] -= this.l[row + k] * x[i];
+         }
+      }
+
+      return new Vector(x, 0, 1, this.n);
+   }
+
+   /**
+    * solves AX = B for X, where A is the factored Matrix, treating each
+    * column of B as a separate right-hand side. Throws an
+    * IllegalArgumentException if B has the wrong number of rows.
+    * @param b a Matrix with n rows
+    * @return the solution X, with the same shape as b
+    */
+   public Matrix solve(Matrix b) {
+      if (b.getNumRows() != this.n) {
+         throw new IllegalArgumentException("Matrix row count does not match Matrix size");
+      }
+
+      int columns = b.getNumColumns();
+      double[] x = b.toArray();
+
+      // substitute all the right-hand sides together, a row at a time
+      for (int i = 0; i < this.n; i++) {
+         int row = i * this.n;
+
+         for (int k = 0; k < i; k++) {
+            double lik = this.l[row + k];
+
+            if (lik != 0) {
+               for (int j = 0; j < columns; j++) {
+                  x[i * columns + j] -= lik * x[k * columns + j];
+               }
+            }
+         }
+
+         double diagonal = this.l[row + i];
+
+         for (int j = 0; j < columns; j++) {
+            x[i * columns + j] /= diagonal;
+         }
+      }
+
+      for (int i = this.n - 1; i >= 0; i--) {
+         int row = i * this.n;
+         double diagonal = this.l[row + i];
+
+         for (int j = 0; j < columns; j++) {
+            x[i * columns + j] /= diagonal;
+         }
+
+         for (int k = 0; k < i; k++) {
+            double lik = this.l[row + k];
+
+            if (lik != 0) {
+               for (int j = 0; j < columns; j++) {
+                  x[k * columns + j] -= lik * x[i * columns + j];
+               }
+            }
+         }
+      }
+
+      return new Matrix(this.n, columns, x);
+   }
+
+   /**
+    * returns the inverse of the factored Matrix, found by solving AX = I.
+    * @return the inverse Matrix
+    */
+   public Matrix inverse() {
+      return this.solve(Matrix.identityMatrix(this.n));
+   }
+}
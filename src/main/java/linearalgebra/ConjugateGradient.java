@@ -0,0 +1,68 @@
+package linearalgebra;
+
+/**
+ * The ConjugateGradient class solves Ax = b for a symmetric
+ * positive-definite operator A by the (preconditioned) conjugate gradient
+ * method. Each iteration applies A once and the preconditioner once, and
+ * keeps four Vectors; in exact arithmetic the error shrinks by a factor
+ * depending on the condition number of MA every iteration.
+ *
+ * The preconditioner must also be symmetric positive definite (both
+ * JacobiPreconditioner and IncompleteLU of an SPD Matrix usually are).
+ * If the method finds that A is not positive definite, the solve throws an
+ * IllegalArgumentException. See IterativeSolver for the settings.
+ */
+
+public class ConjugateGradient extends IterativeSolver {
+
+   /**
+    * creates a solver for the symmetric positive-definite operator a.
+    * @param a a square LinearOperator
+    */
+   public ConjugateGradient(LinearOperator a) {
+      super(a);
+   }
+
+   @Override
+   void iterate(double[] b, double[] x) {
+      double[] r = new double[this.n];
+      this.residual(b, x, r);
+
+      if (this.report(0, IterativeSolver.norm(r))) {
+         return;
+      }
+
+      double[] z = new double[this.n];
+      this.precondition(r, z);
+
+      double[] p = z.clone();
+      double[] q = new double[this.n];
+      double rz = IterativeSolver.dot(r, z);
+
+      for (int k = 1; ; k++) {
+         this.apply(p, q);
+         double pq = IterativeSolver.dot(p, q);
+
+         if (!(pq > 0)) {
+            throw new IllegalArgumentException("Operator is not positive definite");
+         }
+
+         double alpha = rz / pq;
+         IterativeSolver.axpy(alpha, p, x);
+         IterativeSolver.axpy(-alpha, q, r);
+
+         if (this.report(k, IterativeSolver.norm(r))) {
+            return;
+         }
+
+         this.precondition(r, z);
+         double rzNext = IterativeSolver.dot(r, z);
+         double beta = rzNext / rz;
+         rz = rzNext;
+
+         // p = z + beta p
+         VectorKernels.scale(p, 0, 1, beta, p, 0, this.n);
+         IterativeSolver.axpy(1, z, p);
+      }
+   }
+}
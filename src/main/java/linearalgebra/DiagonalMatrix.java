@@ -0,0 +1,487 @@
+package linearalgebra;
+
+/**
+ * The DiagonalMatrix class stores a square Matrix whose entries off the
+ * diagonal are all zero, keeping only the n diagonal entries. The n-by-n
+ * identity takes n doubles instead of n^2, and everything that only
+ * involves diagonal matrices (products, sums, inverse, determinant, trace,
+ * powers) takes O(n) time.
+ *
+ * Mixed with a dense Matrix, a DiagonalMatrix never needs to be expanded:
+ * D A scales the rows of A, A D scales its columns, and A + D only changes
+ * the diagonal of a copy of A, all in O(mn) time instead of the O(mn^2) of
+ * a general product. Regularized systems such as A + lambda I are written
+ *
+ *    a.add(DiagonalMatrix.identityMatrix(n).multiply(lambda))
+ *
+ * without ever allocating an n-by-n identity.
+ *
+ * Like Matrix, a DiagonalMatrix is never modified in place.
+ */
+
+public class DiagonalMatrix implements LinearOperator {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the entries on the diagonal
+    */
+   private final double[] diagonal;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * builds a DiagonalMatrix with the given diagonal entries, which are copied.
+    * @param diagonal the diagonal entries, at least one
+    */
+   public DiagonalMatrix(double ... diagonal) {
+      this(diagonal.clone(), true);
+   }
+
+   /**
+    * builds a DiagonalMatrix with the entries of u on its diagonal.
+    * @param u a Vector object
+    */
+   public DiagonalMatrix(Vector u) {
+      this(u.getEntries(), true);
+   }
+
+   /**
+    * takes the diagonal of a Matrix whose other entries are all
+    * (threshold-checked) zero. Throws an IllegalArgumentException if m is
+    * not square or not diagonal.
+    * @param m a diagonal Matrix object
+    */
+   public DiagonalMatrix(Matrix m) {
+      this(DiagonalMatrix.diagonalOf(m), true);
+   }
+
+   /**
+    * wraps an array without copying it. The caller hands ownership of the
+    * array to the new DiagonalMatrix.
+    */
+   private DiagonalMatrix(double[] diagonal, boolean wrap) {
+      if (diagonal.length < 1) {
+         throw new IllegalArgumentException("n must be >= 1");
+      }
+
+      this.diagonal = diagonal;
+   }
+
+   private static double[] diagonalOf(Matrix m) {
+      if (!Matrix.isDiagonal(m)) {
+         throw new IllegalArgumentException("Matrix is not diagonal");
+      }
+
+      double[] diagonal = new double[m.getNumRows()];
+
+      for (int i = 0; i < diagonal.length; i++) {
+         diagonal[i] = m.getEntry(i, i);
+      }
+
+      return diagonal;
+   }
+
+   /**
+    * returns the n-by-n identity, stored as n ones.
+    * @param n an integer greater than or equal to 1
+    * @return the n-by-n identity DiagonalMatrix
+    */
+   public static DiagonalMatrix identityMatrix(int n) {
+      if (n < 1) {
+         throw new IllegalArgumentException("n must be >= 1");
+      }
+
+      double[] diagonal = new double[n];
+
+      for (int i = 0; i < n; i++) {
+         diagonal[i] = 1.0;
+      }
+
+      return new DiagonalMatrix(diagonal, true);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * @return the number of rows (and columns)
+    */
+   @Override
+   public int getNumRows() {
+      return this.diagonal.length;
+   }
+
+   /**
+    * @return the number of columns (and rows)
+    */
+   @Override
+   public int getNumColumns() {
+      return this.diagonal.length;
+   }
+
+   /**
+    * returns the entry in the row-th row and col-th column, which is 0 off
+    * the diagonal.
+    * @param row the row of the desired entry
+    * @param col the column of the desired entry
+    * @return the entry
+    */
+   public double getEntry(int row, int col) {
+      if (row < 0 || row >= this.diagonal.length) {
+         throw new IllegalArgumentException("Invalid value for row.");
+      }
+      if (col < 0 || col >= this.diagonal.length) {
+         throw new IllegalArgumentException("Invalid value for col.");
+      }
+
+      return row == col ? this.diagonal[row] : 0;
+   }
+
+   /**
+    * @return the diagonal entries as a Vector
+    */
+   public Vector getDiagonal() {
+      return new Vector(this.diagonal);
+   }
+
+   /**
+    * converts the DiagonalMatrix to a dense n-by-n Matrix.
+    * @return a Matrix with the same entries
+    */
+   public Matrix toMatrix() {
+      int n = this.diagonal.length;
+      double[] entries = new double[n * n];
+
+      for (int i = 0; i < n; i++) {
+         entries[i * n + i] = this.diagonal[i];
+      }
+
+      return new Matrix(n, n, entries);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the transpose, which is the DiagonalMatrix itself.
+    * @return this DiagonalMatrix
+    */
+   public DiagonalMatrix transpose() {
+      return this;
+   }
+
+   /**
+    * @return the sum of the diagonal entries
+    */
+   public double trace() {
+      double sum = 0;
+
+      for (double d : this.diagonal) {
+         sum += d;
+      }
+
+      return sum;
+   }
+
+   /**
+    * @return the product of the diagonal entries
+    */
+   public double determinant() {
+      double product = 1;
+
+      for (double d : this.diagonal) {
+         product *= d;
+      }
+
+      return product;
+   }
+
+   /**
+    * checks to see if a diagonal entry is (threshold-checked) zero.
+    * @return true if the DiagonalMatrix has no inverse, false otherwise
+    */
+   public boolean isSingular() {
+      for (double d : this.diagonal) {
+         if (Math.abs(d) <= Matrix.THRESHOLD) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * returns the inverse, the reciprocals of the diagonal entries. Throws
+    * an IllegalArgumentException if the DiagonalMatrix is singular.
+    * @return the inverse DiagonalMatrix
+    */
+   public DiagonalMatrix inverse() {
+      if (this.isSingular()) {
+         throw new IllegalArgumentException("Matrix is singular");
+      }
+
+      double[] result = new double[this.diagonal.length];
+
+      for (int i = 0; i < result.length; i++) {
+         result[i] = 1 / this.diagonal[i];
+      }
+
+      return new DiagonalMatrix(result, true);
+   }
+
+   /**
+    * raises the DiagonalMatrix to an integer power, entry by entry. A
+    * negative power is a power of the inverse, so it throws an
+    * IllegalArgumentException if the DiagonalMatrix is singular; the 0th
+    * power is the identity.
+    * @param k the exponent
+    * @return this DiagonalMatrix to the power k
+    */
+   public DiagonalMatrix power(int k) {
+      if (k < 0 && this.isSingular()) {
+         throw new IllegalArgumentException("Matrix is singular");
+      }
+
+      double[] result = new double[this.diagonal.length];
+
+      for (int i = 0; i < result.length; i++) {
+         result[i] = Math.pow(this.diagonal[i], k);
+      }
+
+      return new DiagonalMatrix(result, true);
+   }
+
+   /**
+    * solves Dx = b by dividing each entry of b by the matching diagonal
+    * entry. Throws an IllegalArgumentException if b has the wrong length
+    * or the DiagonalMatrix is singular.
+    * @param b a Vector with n entries
+    * @return the solution x
+    */
+   public Vector solve(Vector b) {
+      return this.inverse().multiply(b);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * adds two DiagonalMatrix objects of the same size, in O(n).
+    * @param d a DiagonalMatrix object
+    * @return the sum
+    */
+   public DiagonalMatrix add(DiagonalMatrix d) {
+      return DiagonalMatrix.combine(this, d, 1);
+   }
+
+   /**
+    * subtracts a DiagonalMatrix of the same size, in O(n).
+    * @param d a DiagonalMatrix object
+    * @return this DiagonalMatrix minus d
+    */
+   public DiagonalMatrix subtract(DiagonalMatrix d) {
+      return DiagonalMatrix.combine(this, d, -1);
+   }
+
+   /**
+    * returns a + sign * b for two DiagonalMatrix objects of the same size.
+    */
+   private static DiagonalMatrix combine(DiagonalMatrix a, DiagonalMatrix b, double sign) {
+      if (a.diagonal.length != b.diagonal.length) {
+         throw new IllegalArgumentException("Matrix objects have different dimensions.");
+      }
+
+      double[] result = new double[a.diagonal.length];
+      VectorKernels.axpy(sign, b.diagonal, 0, 1, result, 0, 1, result.length);
+      VectorKernels.axpy(1, a.diagonal, 0, 1, result, 0, 1, result.length);
+
+      return new DiagonalMatrix(result, true);
+   }
+
+   /**
+    * adds a DiagonalMatrix to a dense Matrix of the same size, changing only
+    * the diagonal of a copy of a. See add(Matrix, DiagonalMatrix).
+    * @param a a square Matrix object
+    * @return the dense Matrix a + this
+    */
+   public Matrix add(Matrix a) {
+      return DiagonalMatrix.add(a, this);
+   }
+
+   /**
+    * returns a + d as a dense Matrix: a copy of a with the diagonal of d
+    * added to its diagonal, in O(n^2) time with no n-by-n temporary.
+    * Throws an IllegalArgumentException if the sizes do not match.
+    * @param a a square Matrix object
+    * @param d a DiagonalMatrix of the same size
+    * @return the dense Matrix a + d
+    */
+   public static Matrix add(Matrix a, DiagonalMatrix d) {
+      return DiagonalMatrix.addToDiagonal(a, d, 1);
+   }
+
+   /**
+    * returns a - d as a dense Matrix: a copy of a with the diagonal of d
+    * subtracted from its diagonal. Throws an IllegalArgumentException if
+    * the sizes do not match.
+    * @param a a square Matrix object
+    * @param d a DiagonalMatrix of the same size
+    * @return the dense Matrix a - d
+    */
+   public static Matrix subtract(Matrix a, DiagonalMatrix d) {
+      return DiagonalMatrix.addToDiagonal(a, d, -1);
+   }
+
+   private static Matrix addToDiagonal(Matrix a, DiagonalMatrix d, double sign) {
+      int n = d.diagonal.length;
+
+      if (a.getNumRows() != n || a.getNumColumns() != n) {
+         throw new IllegalArgumentException("Matrix objects have different dimensions.");
+      }
+
+      double[] entries = a.toArray();
+      VectorKernels.axpy(sign, d.diagonal, 0, 1, entries, 0, n + 1, n);
+
+      return new Matrix(n, n, entries);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * multiplies each diagonal entry by a real number.
+    * @param x a real number (double)
+    * @return x times this DiagonalMatrix
+    */
+   public DiagonalMatrix multiply(double x) {
+      double[] result = new double[this.diagonal.length];
+      VectorKernels.scale(this.diagonal, 0, 1, x, result, 0, result.length);
+
+      return new DiagonalMatrix(result, true);
+   }
+
+   /**
+    * multiplies two DiagonalMatrix objects of the same size, entry by entry,
+    * in O(n).
+    * @param d a DiagonalMatrix object
+    * @return the product, which is diagonal
+    */
+   public DiagonalMatrix multiply(DiagonalMatrix d) {
+      if (this.diagonal.length != d.diagonal.length) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] result = new double[this.diagonal.length];
+
+      for (int i = 0; i < result.length; i++) {
+         result[i] = this.diagonal[i] * d.diagonal[i];
+      }
+
+      return new DiagonalMatrix(result, true);
+   }
+
+   /**
+    * multiplies a Vector by the DiagonalMatrix, scaling each entry of u by
+    * the matching diagonal entry, in O(n).
+    * @param u a Vector with n entries
+    * @return the product Du
+    */
+   public Vector multiply(Vector u) {
+      if (u.length() != this.diagonal.length) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] result = u.getEntries();
+
+      for (int i = 0; i < result.length; i++) {
+         result[i] *= this.diagonal[i];
+      }
+
+      return new Vector(result, 0, 1, result.length);
+   }
+
+   /**
+    * applies the DiagonalMatrix to a Vector, as a LinearOperator. Same as
+    * multiply(Vector).
+    * @param u a Vector with n entries
+    * @return the product Du
+    */
+   @Override
+   public Vector apply(Vector u) {
+      return this.multiply(u);
+   }
+
+   /**
+    * the same as apply(Vector), since a DiagonalMatrix is symmetric.
+    * @param u a Vector with n entries
+    * @return the product Du
+    */
+   @Override
+   public Vector applyTranspose(Vector u) {
+      return this.multiply(u);
+   }
+
+   /**
+    * multiplies a dense Matrix on the left. See multiply(DiagonalMatrix, Matrix).
+    * @param m a Matrix with n rows
+    * @return the product of this DiagonalMatrix and m
+    */
+   public Matrix multiply(Matrix m) {
+      return DiagonalMatrix.multiply(this, m);
+   }
+
+   /**
+    * returns dm, which is m with row i scaled by the i-th diagonal entry of
+    * d, in O(mn) time. Throws an IllegalArgumentException if m does not
+    * have n rows.
+    * @param d an n-by-n DiagonalMatrix object
+    * @param m a Matrix with n rows
+    * @return the product dm
+    */
+   public static Matrix multiply(DiagonalMatrix d, Matrix m) {
+      if (m.getNumRows() != d.diagonal.length) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      int columns = m.getNumColumns();
+      double[] entries = m.toArray();
+
+      for (int row = 0; row < d.diagonal.length; row++) {
+         VectorKernels.scale(entries, row * columns, 1, d.diagonal[row], entries, row * columns, columns);
+      }
+
+      return new Matrix(d.diagonal.length, columns, entries);
+   }
+
+   /**
+    * returns md, which is m with column j scaled by the j-th diagonal entry
+    * of d, in O(mn) time. Throws an IllegalArgumentException if m does not
+    * have n columns.
+    * @param m a Matrix with n columns
+    * @param d an n-by-n DiagonalMatrix object
+    * @return the product md
+    */
+   public static Matrix multiply(Matrix m, DiagonalMatrix d) {
+      int columns = d.diagonal.length;
+
+      if (m.getNumColumns() != columns) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      int rows = m.getNumRows();
+      double[] entries = m.toArray();
+
+      for (int row = 0; row < rows; row++) {
+         int start = row * columns;
+
+         for (int col = 0; col < columns; col++) {
+            entries[start + col] *= d.diagonal[col];
+         }
+      }
+
+      return new Matrix(rows, columns, entries);
+   }
+}
@@ -0,0 +1,379 @@
+package linearalgebra;
+
+/**
+ * The Expression class records a chain of elementwise operations on Vector
+ * or Matrix objects of one shape, and evaluates the whole chain in a single
+ * pass when the result is asked for. Writing
+ *
+ *    a.add(b).subtract(c).multiply(2)
+ *
+ * with Matrix objects allocates and walks three full-size intermediate
+ * results. The equivalent
+ *
+ *    Expression.of(a).add(b).subtract(c).multiply(2).toMatrix()
+ *
+ * allocates only the result.
+ *
+ * Evaluation walks the result in blocks of BLOCK_SIZE entries. For each
+ * block, every operation runs as a tight loop over the block, with the
+ * intermediate values kept in a few small scratch arrays that stay in
+ * cache. The operands are read in place, so they may be views.
+ *
+ * Expressions are immutable. Each operation returns a new Expression, and
+ * one Expression may appear as an operand of others more than once.
+ * Nothing is computed until toVector() or toMatrix() is called, and each
+ * call evaluates the chain again from the current operands.
+ */
+
+public final class Expression {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the number of entries evaluated together
+    */
+   static final int BLOCK_SIZE = 512;
+
+   /**
+    * the root of the recorded operations
+    */
+   private final Node root;
+
+   /**
+    * the shape of the result. A Vector expression has one row.
+    */
+   private final int numRows;
+   private final int numColumns;
+
+   /**
+    * true if the operands are Vector objects, false if they are Matrix objects
+    */
+   private final boolean isVector;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   private Expression(Node root, int numRows, int numColumns, boolean isVector) {
+      this.root = root;
+      this.numRows = numRows;
+      this.numColumns = numColumns;
+      this.isVector = isVector;
+   }
+
+   /**
+    * starts an Expression whose value is the entries of u.
+    * @param u a Vector object
+    * @return an Expression over Vectors of the length of u
+    */
+   public static Expression of(Vector u) {
+      return new Expression(new VectorLeaf(u), 1, u.length(), true);
+   }
+
+   /**
+    * starts an Expression whose value is the entries of m.
+    * @param m a Matrix object
+    * @return an Expression over Matrix objects of the shape of m
+    */
+   public static Expression of(Matrix m) {
+      return new Expression(new MatrixLeaf(m), m.getNumRows(), m.getNumColumns(), false);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * records entrywise addition of another Expression of the same shape.
+    * @param e an Expression object
+    * @return an Expression for this + e
+    */
+   public Expression add(Expression e) {
+      this.checkShape(e);
+      return new Expression(new Binary(this.root, e.root, false), this.numRows, this.numColumns, this.isVector);
+   }
+
+   /**
+    * records entrywise addition of a Vector of the same length.
+    * @param u a Vector object
+    * @return an Expression for this + u
+    */
+   public Expression add(Vector u) {
+      return this.add(Expression.of(u));
+   }
+
+   /**
+    * records entrywise addition of a Matrix of the same shape.
+    * @param m a Matrix object
+    * @return an Expression for this + m
+    */
+   public Expression add(Matrix m) {
+      return this.add(Expression.of(m));
+   }
+
+   /**
+    * records entrywise subtraction of another Expression of the same shape.
+    * @param e an Expression object
+    * @return an Expression for this - e
+    */
+   public Expression subtract(Expression e) {
+      this.checkShape(e);
+      return new Expression(new Binary(this.root, e.root, true), this.numRows, this.numColumns, this.isVector);
+   }
+
+   /**
+    * records entrywise subtraction of a Vector of the same length.
+    * @param u a Vector object
+    * @return an Expression for this - u
+    */
+   public Expression subtract(Vector u) {
+      return this.subtract(Expression.of(u));
+   }
+
+   /**
+    * records entrywise subtraction of a Matrix of the same shape.
+    * @param m a Matrix object
+    * @return an Expression for this - m
+    */
+   public Expression subtract(Matrix m) {
+      return this.subtract(Expression.of(m));
+   }
+
+   /**
+    * records multiplication of every entry by a real number. Consecutive
+    * multiplications are combined into one.
+    * @param scalar a real number
+    * @return an Expression for scalar * this
+    */
+   public Expression multiply(double scalar) {
+      Node node;
+
+      if (this.root instanceof Scale) {
+         Scale scale = (Scale) this.root;
+         node = new Scale(scale.operand, scale.scalar * scalar);
+      } else {
+         node = new Scale(this.root, scalar);
+      }
+
+      return new Expression(node, this.numRows, this.numColumns, this.isVector);
+   }
+
+   /**
+    * records the additive inverse, as Vector.inverseVector does.
+    * @return an Expression for -this
+    */
+   public Expression negate() {
+      return this.multiply(-1);
+   }
+
+   /**
+    * records applying a function to every entry.
+    * @param f a ScalarFunction object
+    * @return an Expression for f(this), entry by entry
+    */
+   public Expression map(ScalarFunction f) {
+      if (f == null) {
+         throw new IllegalArgumentException("function must not be null");
+      }
+
+      return new Expression(new Map(this.root, f), this.numRows, this.numColumns, this.isVector);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * @return true if the operands of this Expression are Vector objects
+    */
+   public boolean isVector() {
+      return this.isVector;
+   }
+
+   /**
+    * evaluates a Vector Expression. Throws an IllegalArgumentException if
+    * the operands are Matrix objects.
+    * @return a new Vector holding the value of the Expression
+    */
+   public Vector toVector() {
+      if (!this.isVector) {
+         throw new IllegalArgumentException("Expression is over Matrix objects; use toMatrix()");
+      }
+
+      double[] result = this.evaluate();
+      return new Vector(result, 0, 1, result.length);
+   }
+
+   /**
+    * evaluates a Matrix Expression. Throws an IllegalArgumentException if
+    * the operands are Vector objects.
+    * @return a new Matrix holding the value of the Expression
+    */
+   public Matrix toMatrix() {
+      if (this.isVector) {
+         throw new IllegalArgumentException("Expression is over Vector objects; use toVector()");
+      }
+
+      return new Matrix(this.numRows, this.numColumns, this.evaluate());
+   }
+
+   /**
+    * evaluates the Expression row by row, one block of columns at a time,
+    * writing each block straight into the row-major result.
+    */
+   private double[] evaluate() {
+      double[] result = new double[this.numRows * this.numColumns];
+      int block = Math.min(BLOCK_SIZE, this.numColumns);
+      double[][] scratch = new double[this.root.height()][block];
+
+      for (int row = 0; row < this.numRows; row++) {
+         for (int col = 0; col < this.numColumns; col += block) {
+            int length = Math.min(block, this.numColumns - col);
+            this.root.evaluate(row, col, length, result, row * this.numColumns + col, scratch, 0);
+         }
+      }
+
+      return result;
+   }
+
+   private void checkShape(Expression e) {
+      if (this.isVector != e.isVector || this.numRows != e.numRows || this.numColumns != e.numColumns) {
+         throw new IllegalArgumentException("Expression operands have different shapes.");
+      }
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * one recorded operation (or operand) in the Expression tree
+    */
+   private abstract static class Node {
+
+      /**
+       * writes the value of the entries [row][col] up to [row][col + length - 1]
+       * into out, starting at outPos. scratch[level] and up may be used
+       * for intermediate values.
+       */
+      abstract void evaluate(int row, int col, int length, double[] out, int outPos,
+                             double[][] scratch, int level);
+
+      /**
+       * @return the number of scratch arrays evaluate needs
+       */
+      abstract int height();
+   }
+
+   private static final class VectorLeaf extends Node {
+      private final Vector u;
+
+      VectorLeaf(Vector u) {
+         this.u = u;
+      }
+
+      @Override
+      void evaluate(int row, int col, int length, double[] out, int outPos, double[][] scratch, int level) {
+         Vector.copyRange(this.u, col, length, out, outPos);
+      }
+
+      @Override
+      int height() {
+         return 0;
+      }
+   }
+
+   private static final class MatrixLeaf extends Node {
+      private final Matrix m;
+
+      MatrixLeaf(Matrix m) {
+         this.m = m;
+      }
+
+      @Override
+      void evaluate(int row, int col, int length, double[] out, int outPos, double[][] scratch, int level) {
+         this.m.copyRow(row, col, length, out, outPos);
+      }
+
+      @Override
+      int height() {
+         return 0;
+      }
+   }
+
+   private static final class Binary extends Node {
+      private final Node left;
+      private final Node right;
+      private final boolean subtract;
+      private final int height;
+
+      Binary(Node left, Node right, boolean subtract) {
+         this.left = left;
+         this.right = right;
+         this.subtract = subtract;
+         this.height = Math.max(left.height(), right.height() + 1);
+      }
+
+      @Override
+      void evaluate(int row, int col, int length, double[] out, int outPos, double[][] scratch, int level) {
+         // the left operand goes straight into out, the right one into this level's scratch
+         this.left.evaluate(row, col, length, out, outPos, scratch, level);
+
+         double[] temp = scratch[level];
+         this.right.evaluate(row, col, length, temp, 0, scratch, level + 1);
+
+         if (this.subtract) {
+            VectorKernels.subtract(out, outPos, 1, temp, 0, 1, out, outPos, length);
+         } else {
+            VectorKernels.add(out, outPos, 1, temp, 0, 1, out, outPos, length);
+         }
+      }
+
+      @Override
+      int height() {
+         return this.height;
+      }
+   }
+
+   private static final class Scale extends Node {
+      private final Node operand;
+      private final double scalar;
+
+      Scale(Node operand, double scalar) {
+         this.operand = operand;
+         this.scalar = scalar;
+      }
+
+      @Override
+      void evaluate(int row, int col, int length, double[] out, int outPos, double[][] scratch, int level) {
+         this.operand.evaluate(row, col, length, out, outPos, scratch, level);
+         VectorKernels.scale(out, outPos, 1, this.scalar, out, outPos, length);
+      }
+
+      @Override
+      int height() {
+         return this.operand.height();
+      }
+   }
+
+   private static final class Map extends Node {
+      private final Node operand;
+      private final ScalarFunction f;
+
+      Map(Node operand, ScalarFunction f) {
+         this.operand = operand;
+         this.f = f;
+      }
+
+      @Override
+      void evaluate(int row, int col, int length, double[] out, int outPos, double[][] scratch, int level) {
+         this.operand.evaluate(row, col, length, out, outPos, scratch, level);
+
+         for (int i = outPos; i < outPos + length; i++) {
+            out[i] = this.f.apply(out[i]);
+         }
+      }
+
+      @Override
+      int height() {
+         return this.operand.height();
+      }
+   }
+}
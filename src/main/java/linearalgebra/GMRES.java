@@ -0,0 +1,180 @@
+package linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * The GMRES class solves Ax = b for a general (nonsymmetric) operator A by
+ * the restarted generalized minimal residual method, GMRES(m). It builds an
+ * orthonormal basis of up to m Krylov vectors (Arnoldi with modified
+ * Gram-Schmidt) and picks the x in that space with the smallest residual,
+ * which never increases from one iteration to the next. The least-squares
+ * problem is updated with Givens rotations, so its residual norm is known
+ * after every iteration without computing b - Ax.
+ *
+ * Memory and the cost of orthogonalization grow with the basis, so after
+ * m iterations x is updated and the basis is rebuilt from the new residual.
+ * A larger restart length converges in fewer iterations but uses m + 1
+ * Vectors. The preconditioner is applied on the right (A M y = b,
+ * x = M y), so the residual is still b - Ax. See IterativeSolver for the
+ * other settings.
+ */
+
+public class GMRES extends IterativeSolver {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the restart length, unless changed
+    */
+   static final int DEFAULT_RESTART = 30;
+
+   /**
+    * the number of basis vectors kept before restarting
+    */
+   private int restart = DEFAULT_RESTART;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * creates a solver for the square operator a.
+    * @param a a square LinearOperator
+    */
+   public GMRES(LinearOperator a) {
+      super(a);
+   }
+
+   /**
+    * sets the number of iterations between restarts (the size of the basis).
+    * @param restart a positive number
+    * @return this solver
+    */
+   public GMRES setRestart(int restart) {
+      if (restart < 1) {
+         throw new IllegalArgumentException("restart must be >= 1");
+      }
+
+      this.restart = restart;
+      return this;
+   }
+
+   @Override
+   void iterate(double[] b, double[] x) {
+      int n = this.n;
+      int m = Math.min(this.restart, n);
+
+      // rows 0..m of basis are the Arnoldi vectors, h is (m + 1)-by-m
+      double[] basis = new double[(m + 1) * n];
+      double[] h = new double[(m + 1) * m];
+      double[] cosines = new double[m];
+      double[] sines = new double[m];
+      double[] g = new double[m + 1];
+      double[] y = new double[m];
+      double[] z = new double[n];
+      double[] w = new double[n];
+      double[] r = new double[n];
+
+      this.residual(b, x, r);
+      double beta = IterativeSolver.norm(r);
+
+      if (this.report(0, beta)) {
+         return;
+      }
+
+      int k = 0;
+
+      while (true) {
+         VectorKernels.scale(r, 0, 1, 1 / beta, basis, 0, n);
+         Arrays.fill(g, 0);
+         Arrays.fill(h, 0);
+         g[0] = beta;
+
+         int j = 0;
+         boolean finished = false;
+         boolean breakdown = false;
+
+         while (j < m && !finished && !breakdown) {
+            int next = (j + 1) * n;
+
+            // basis[j + 1] = A M basis[j], orthogonalized against the basis
+            System.arraycopy(basis, j * n, w, 0, n);
+            this.precondition(w, z);
+            this.apply(z, w);
+            System.arraycopy(w, 0, basis, next, n);
+
+            for (int i = 0; i <= j; i++) {
+               double hij = VectorKernels.dot(basis, i * n, 1, basis, next, 1, n);
+               VectorKernels.axpy(-hij, basis, i * n, 1, basis, next, 1, n);
+               h[i * m + j] = hij;
+            }
+
+            double norm = Math.sqrt(VectorKernels.dot(basis, next, 1, basis, next, 1, n));
+            h[(j + 1) * m + j] = norm;
+
+            if (norm > 0) {
+               VectorKernels.scale(basis, next, 1, 1 / norm, basis, next, n);
+            }
+
+            // apply the earlier rotations to the new column, then zero its last entry
+            for (int i = 0; i < j; i++) {
+               double upper = h[i * m + j];
+               double lower = h[(i + 1) * m + j];
+               h[i * m + j] = cosines[i] * upper + sines[i] * lower;
+               h[(i + 1) * m + j] = -sines[i] * upper + cosines[i] * lower;
+            }
+
+            double diagonal = h[j * m + j];
+            double radius = Math.hypot(diagonal, norm);
+
+            cosines[j] = radius == 0 ? 1 : diagonal / radius;
+            sines[j] = radius == 0 ? 0 : norm / radius;
+            h[j * m + j] = radius;
+            h[(j + 1) * m + j] = 0;
+            g[j + 1] = -sines[j] * g[j];
+            g[j] = cosines[j] * g[j];
+
+            j++;
+            k++;
+
+            finished = this.report(k, Math.abs(g[j]));
+
+            // a zero norm means the Krylov space is invariant under A M
+            breakdown = norm == 0;
+         }
+
+         // y = R^-1 g by back substitution, then x = x + M (V y)
+         for (int i = j - 1; i >= 0; i--) {
+            double sum = g[i];
+
+            for (int l = i + 1; l < j; l++) {
+               sum -= h[i * m + l] * y[l];
+            }
+
+            y[i] = h[i * m + i] == 0 ? 0 : sum / h[i * m + i];
+         }
+
+         Arrays.fill(w, 0);
+
+         for (int i = 0; i < j; i++) {
+            VectorKernels.axpy(y[i], basis, i * n, 1, w, 0, 1, n);
+         }
+
+         this.precondition(w, z);
+         IterativeSolver.axpy(1, z, x);
+
+         if (finished) {
+            return;
+         }
+
+         // restart from the true residual
+         this.residual(b, x, r);
+         beta = IterativeSolver.norm(r);
+
+         if (beta == 0) {
+            this.report(k, 0);
+            return;
+         }
+      }
+   }
+}
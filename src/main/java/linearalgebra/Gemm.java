@@ -0,0 +1,379 @@
+package linearalgebra;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The Gemm class holds the dense matrix-matrix multiplication kernel used by
+ * Matrix. It computes C = C + A * B for row-major blocks of flat double
+ * arrays, where each block is described by an array, the offset of its
+ * first entry, and its row stride.
+ *
+ * The kernel follows the usual layered scheme for cache blocking:
+ *
+ * - B is cut into panels of KC rows and NC columns, which are copied
+ *   ("packed") into a contiguous buffer of NR-wide column strips so that a
+ *   strip stays in L1 while it is used.
+ * - A is cut into blocks of MC rows and KC columns, which are packed into
+ *   MR-tall row strips sized to stay in L2.
+ * - a micro-kernel multiplies one MR-by-KC strip of A with one KC-by-NR
+ *   strip of B, keeping the MR-by-NR block of C in local variables
+ *   (registers) for the whole inner loop.
+ *
+ * Packing pads the ragged edges with zeros, so the micro-kernel always
+ * works on full MR-by-NR tiles and only the write-back has to care about
+ * the edges. Nothing is allocated per entry of C: each call allocates the
+ * two packing buffers and one MR-by-NR scratch tile.
+ *
+ * multiplyParallel splits C into blocks of rows and columns and multiplies
+ * the blocks as ForkJoinPool tasks, each one running the single-threaded
+ * kernel on its own block. Different tasks never write to the same entry of
+ * C, so no synchronization is needed beyond joining the tasks.
+ */
+
+final class Gemm {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /*
+    * rows of C computed by one call to the micro-kernel
+    */
+   static final int MR = 4;
+
+   /*
+    * columns of C computed by one call to the micro-kernel
+    */
+   static final int NR = 4;
+
+   /*
+    * rows of A packed at a time, chosen so a packed block of A fits in L2
+    */
+   static final int MC = 64;
+
+   /*
+    * depth of the packed panels, chosen so a packed strip of B fits in L1
+    */
+   static final int KC = 256;
+
+   /*
+    * columns of B packed at a time, chosen so a packed panel of B fits in L3
+    */
+   static final int NC = 1024;
+
+   /*
+    * below this many multiply-adds the packing does not pay for itself,
+    * and the product is computed with a plain loop instead
+    */
+   static final long SMALL_PRODUCT = 32 * 32 * 32;
+
+   /*
+    * below this many multiply-adds a product (or a block of a product) is
+    * computed on the calling thread instead of being split into tasks
+    */
+   static final long PARALLEL_THRESHOLD = 128 * 128 * 128;
+
+   /*
+    * blocks of C are never split below this many rows or columns
+    */
+   static final int MIN_PARALLEL_BLOCK = 64;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   private Gemm() {
+   }
+
+   /**
+    * computes C = C + A * B, where A is m-by-k, B is k-by-n and C is m-by-n.
+    * All three blocks are stored row-major in flat arrays.
+    * @param m the number of rows in A and C
+    * @param n the number of columns in B and C
+    * @param k the number of columns in A and rows in B
+    * @param a the array holding A
+    * @param aOffset the position of A[0][0] in a
+    * @param aStride the distance in a between consecutive rows of A
+    * @param b the array holding B
+    * @param bOffset the position of B[0][0] in b
+    * @param bStride the distance in b between consecutive rows of B
+    * @param c the array holding C, which is updated in place
+    * @param cOffset the position of C[0][0] in c
+    * @param cStride the distance in c between consecutive rows of C
+    */
+   static void multiply(int m, int n, int k,
+                        double[] a, int aOffset, int aStride,
+                        double[] b, int bOffset, int bStride,
+                        double[] c, int cOffset, int cStride) {
+      if (m == 0 || n == 0 || k == 0) {
+         return;
+      }
+
+      if ((long) m * n * k <= SMALL_PRODUCT) {
+         Gemm.multiplySmall(m, n, k, a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride);
+         return;
+      }
+
+      int kcMax = Math.min(KC, k);
+      double[] packedA = new double[roundUp(Math.min(MC, m), MR) * kcMax];
+      double[] packedB = new double[roundUp(Math.min(NC, n), NR) * kcMax];
+      double[] tile = new double[MR * NR];
+
+      for (int jc = 0; jc < n; jc += NC) {
+         int nc = Math.min(NC, n - jc);
+
+         for (int pc = 0; pc < k; pc += KC) {
+            int kc = Math.min(KC, k - pc);
+            Gemm.packB(kc, nc, b, bOffset + pc * bStride + jc, bStride, packedB);
+
+            for (int ic = 0; ic < m; ic += MC) {
+               int mc = Math.min(MC, m - ic);
+               Gemm.packA(mc, kc, a, aOffset + ic * aStride + pc, aStride, packedA);
+
+               for (int jr = 0; jr < nc; jr += NR) {
+                  for (int ir = 0; ir < mc; ir += MR) {
+                     Gemm.microKernel(kc, packedA, ir * kc, packedB, jr * kc,
+                                      c, cOffset + (ic + ir) * cStride + jc + jr, cStride,
+                                      Math.min(MR, mc - ir), Math.min(NR, nc - jr), tile);
+                  }
+               }
+            }
+         }
+      }
+   }
+
+   /**
+    * computes C = C + A * B like multiply, but splits C into blocks that are
+    * computed as tasks in the given pool. Products with no more than
+    * PARALLEL_THRESHOLD multiply-adds are computed on the calling thread.
+    * @param m the number of rows in A and C
+    * @param n the number of columns in B and C
+    * @param k the number of columns in A and rows in B
+    * @param a the array holding A
+    * @param aOffset the position of A[0][0] in a
+    * @param aStride the distance in a between consecutive rows of A
+    * @param b the array holding B
+    * @param bOffset the position of B[0][0] in b
+    * @param bStride the distance in b between consecutive rows of B
+    * @param c the array holding C, which is updated in place
+    * @param cOffset the position of C[0][0] in c
+    * @param cStride the distance in c between consecutive rows of C
+    * @param pool the ForkJoinPool that runs the tasks
+    */
+   static void multiplyParallel(int m, int n, int k,
+                                double[] a, int aOffset, int aStride,
+                                double[] b, int bOffset, int bStride,
+                                double[] c, int cOffset, int cStride,
+                                ForkJoinPool pool) {
+      if ((long) m * n * k <= PARALLEL_THRESHOLD) {
+         Gemm.multiply(m, n, k, a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride);
+         return;
+      }
+
+      pool.invoke(new MultiplyTask(m, n, k, a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride));
+   }
+
+   /**
+    * returns the pool used by multiplyParallel when the caller does not pass
+    * one. The pool is created the first time it is needed and has one worker
+    * per available processor.
+    * @return the shared ForkJoinPool
+    */
+   static ForkJoinPool defaultPool() {
+      return DefaultPoolHolder.POOL;
+   }
+
+   /*
+    * holds the shared pool, so that it is only created on first use
+    */
+   private static class DefaultPoolHolder {
+      static final ForkJoinPool POOL = new ForkJoinPool();
+   }
+
+   /**
+    * MultiplyTask computes one block of C. If the block is big enough, it
+    * splits its longer side in two (on a multiple of the micro-kernel tile)
+    * and forks a task for each half; otherwise it runs the kernel directly.
+    */
+   private static class MultiplyTask extends RecursiveAction {
+
+      private static final long serialVersionUID = 1L;
+
+      private final int m, n, k;
+      private final double[] a, b, c;
+      private final int aOffset, aStride, bOffset, bStride, cOffset, cStride;
+
+      MultiplyTask(int m, int n, int k,
+                   double[] a, int aOffset, int aStride,
+                   double[] b, int bOffset, int bStride,
+                   double[] c, int cOffset, int cStride) {
+         this.m = m;
+         this.n = n;
+         this.k = k;
+         this.a = a;
+         this.aOffset = aOffset;
+         this.aStride = aStride;
+         this.b = b;
+         this.bOffset = bOffset;
+         this.bStride = bStride;
+         this.c = c;
+         this.cOffset = cOffset;
+         this.cStride = cStride;
+      }
+
+      @Override
+      protected void compute() {
+         boolean work = (long) m * n * k > PARALLEL_THRESHOLD;
+
+         if (work && m >= n && m >= 2 * MIN_PARALLEL_BLOCK) {
+            int half = roundUp(m / 2, MR);
+            invokeAll(new MultiplyTask(half, n, k, a, aOffset, aStride, b, bOffset, bStride,
+                                       c, cOffset, cStride),
+                      new MultiplyTask(m - half, n, k, a, aOffset + half * aStride, aStride,
+                                       b, bOffset, bStride, c, cOffset + half * cStride, cStride));
+         } else if (work && n >= 2 * MIN_PARALLEL_BLOCK) {
+            int half = roundUp(n / 2, NR);
+            invokeAll(new MultiplyTask(m, half, k, a, aOffset, aStride, b, bOffset, bStride,
+                                       c, cOffset, cStride),
+                      new MultiplyTask(m, n - half, k, a, aOffset, aStride, b, bOffset + half, bStride,
+                                       c, cOffset + half, cStride));
+         } else {
+            Gemm.multiply(m, n, k, a, aOffset, aStride, b, bOffset, bStride, c, cOffset, cStride);
+         }
+      }
+   }
+
+   /**
+    * computes C = C + A * B with a plain i-k-j loop, for products too small
+    * to be worth packing.
+    */
+   private static void multiplySmall(int m, int n, int k,
+                                     double[] a, int aOffset, int aStride,
+                                     double[] b, int bOffset, int bStride,
+                                     double[] c, int cOffset, int cStride) {
+      for (int i = 0; i < m; i++) {
+         int aRow = aOffset + i * aStride;
+         int cRow = cOffset + i * cStride;
+
+         for (int p = 0; p < k; p++) {
+            double aip = a[aRow + p];
+            int bRow = bOffset + p * bStride;
+
+            for (int j = 0; j < n; j++) {
+               c[cRow + j] += aip * b[bRow + j];
+            }
+         }
+      }
+   }
+
+   /**
+    * copies an mc-by-kc block of A into strips of MR rows. Within a strip the
+    * entries are stored column by column, so the micro-kernel reads the MR
+    * entries it needs for one step of the inner loop from consecutive
+    * positions. Rows past the end of the block are filled with zeros.
+    */
+   private static void packA(int mc, int kc, double[] a, int aOffset, int aStride, double[] packed) {
+      int pos = 0;
+
+      for (int ir = 0; ir < mc; ir += MR) {
+         int rows = Math.min(MR, mc - ir);
+
+         for (int p = 0; p < kc; p++) {
+            int source = aOffset + ir * aStride + p;
+
+            for (int i = 0; i < rows; i++) {
+               packed[pos++] = a[source + i * aStride];
+            }
+            for (int i = rows; i < MR; i++) {
+               packed[pos++] = 0;
+            }
+         }
+      }
+   }
+
+   /**
+    * copies a kc-by-nc panel of B into strips of NR columns. Within a strip the
+    * entries are stored row by row. Columns past the end of the panel are
+    * filled with zeros.
+    */
+   private static void packB(int kc, int nc, double[] b, int bOffset, int bStride, double[] packed) {
+      int pos = 0;
+
+      for (int jr = 0; jr < nc; jr += NR) {
+         int cols = Math.min(NR, nc - jr);
+
+         for (int p = 0; p < kc; p++) {
+            int source = bOffset + p * bStride + jr;
+
+            for (int j = 0; j < cols; j++) {
+               packed[pos++] = b[source + j];
+            }
+            for (int j = cols; j < NR; j++) {
+               packed[pos++] = 0;
+            }
+         }
+      }
+   }
+
+   /**
+    * multiplies a packed MR-by-kc strip of A with a packed kc-by-NR strip of B
+    * and adds the result to the rows-by-cols corner of the tile of C at
+    * cOffset. The 4-by-4 block of C is accumulated in local variables; edge
+    * tiles go through the scratch array tile on their way back to C.
+    */
+   private static void microKernel(int kc, double[] packedA, int aPos, double[] packedB, int bPos,
+                                   double[] c, int cOffset, int cStride, int rows, int cols,
+                                   double[] tile) {
+      double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+      double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+      double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+      double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+
+      for (int p = 0; p < kc; p++) {
+         double a0 = packedA[aPos];
+         double a1 = packedA[aPos + 1];
+         double a2 = packedA[aPos + 2];
+         double a3 = packedA[aPos + 3];
+         double b0 = packedB[bPos];
+         double b1 = packedB[bPos + 1];
+         double b2 = packedB[bPos + 2];
+         double b3 = packedB[bPos + 3];
+
+         c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+         c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+         c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+         c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+
+         aPos += MR;
+         bPos += NR;
+      }
+
+      if (rows == MR && cols == NR) {
+         int row = cOffset;
+         c[row] += c00; c[row + 1] += c01; c[row + 2] += c02; c[row + 3] += c03;
+         row += cStride;
+         c[row] += c10; c[row + 1] += c11; c[row + 2] += c12; c[row + 3] += c13;
+         row += cStride;
+         c[row] += c20; c[row + 1] += c21; c[row + 2] += c22; c[row + 3] += c23;
+         row += cStride;
+         c[row] += c30; c[row + 1] += c31; c[row + 2] += c32; c[row + 3] += c33;
+      } else {
+         tile[0] = c00;  tile[1] = c01;  tile[2] = c02;  tile[3] = c03;
+         tile[4] = c10;  tile[5] = c11;  tile[6] = c12;  tile[7] = c13;
+         tile[8] = c20;  tile[9] = c21;  tile[10] = c22; tile[11] = c23;
+         tile[12] = c30; tile[13] = c31; tile[14] = c32; tile[15] = c33;
+
+         for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+               c[cOffset + i * cStride + j] += tile[i * NR + j];
+            }
+         }
+      }
+   }
+
+   /**
+    * rounds n up to the next multiple of block.
+    */
+   private static int roundUp(int n, int block) {
+      return (n + block - 1) / block * block;
+   }
+}
@@ -0,0 +1,201 @@
+package linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * The IncompleteLU class is the ILU(0) preconditioner for the iterative
+ * solvers: A is factored as LU as in Gaussian elimination (without
+ * pivoting), except that every entry outside the nonzero pattern of A is
+ * dropped. L and U therefore fit in the storage of A, the factorization
+ * takes O(nnz * (nonzero entries per row)) time, and applying M = (LU)^-1
+ * is one forward and one back substitution, O(nnz).
+ *
+ * The factors share the pattern (row pointers and column indices) of the
+ * SparseMatrix they come from: the unit lower triangular L is stored below
+ * the diagonal and U on and above it, in one values array.
+ */
+
+public class IncompleteLU implements LinearOperator {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   private final int n;
+
+   /**
+    * the pattern of A, shared with the SparseMatrix (which never changes)
+    */
+   private final int[] rowPointers;
+   private final int[] columnIndices;
+
+   /**
+    * the entries of L (below the diagonal) and U (on and above it)
+    */
+   private final double[] lu;
+
+   /**
+    * diagonal[i] is the position in lu of entry [i][i]
+    */
+   private final int[] diagonal;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * factors a Matrix, using the pattern of its (threshold-checked) nonzero entries.
+    * @param a a square Matrix object
+    */
+   public IncompleteLU(Matrix a) {
+      this(new SparseMatrix(a));
+   }
+
+   /**
+    * factors a SparseMatrix. Throws an IllegalArgumentException if a is not
+    * square, or if a diagonal entry is missing or becomes 0 (a zero pivot).
+    * @param a a square SparseMatrix object
+    */
+   public IncompleteLU(SparseMatrix a) {
+      if (a.getNumRows() != a.getNumColumns()) {
+         throw new IllegalArgumentException("Matrix is not square");
+      }
+
+      this.n = a.getNumRows();
+      this.rowPointers = a.rowPointers();
+      this.columnIndices = a.columnIndices();
+      this.lu = a.values().clone();
+      this.diagonal = new int[this.n];
+
+      this.factor();
+   }
+
+   /**
+    * row by row (the IKJ form of elimination): for each k < i in the
+    * pattern of row i, divide entry [i][k] by the pivot [k][k], then
+    * subtract it times row k of U from row i, but only at the positions
+    * that are in the pattern of row i.
+    */
+   private void factor() {
+      // position[col] is the index in lu of entry [i][col] of the current row, or -1
+      int[] position = new int[this.n];
+      Arrays.fill(position, -1);
+
+      for (int i = 0; i < this.n; i++) {
+         int start = this.rowPointers[i];
+         int end = this.rowPointers[i + 1];
+
+         for (int p = start; p < end; p++) {
+            position[this.columnIndices[p]] = p;
+         }
+
+         for (int p = start; p < end && this.columnIndices[p] < i; p++) {
+            int k = this.columnIndices[p];
+            double multiplier = this.lu[p] / this.lu[this.diagonal[k]];
+            this.lu[p] = multiplier;
+
+            for (int q = this.diagonal[k] + 1; q < this.rowPointers[k + 1]; q++) {
+               int target = position[this.columnIndices[q]];
+
+               if (target >= 0) {
+                  this.lu[target] -= multiplier * this.lu[q];
+               }
+            }
+         }
+
+         this.diagonal[i] = position[i];
+
+         if (this.diagonal[i] < 0 || this.lu[this.diagonal[i]] == 0) {
+            throw new IllegalArgumentException("Zero pivot in incomplete factorization (row " + i + ")");
+         }
+
+         for (int p = start; p < end; p++) {
+            position[this.columnIndices[p]] = -1;
+         }
+      }
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   @Override
+   public int getNumRows() {
+      return this.n;
+   }
+
+   @Override
+   public int getNumColumns() {
+      return this.n;
+   }
+
+   /**
+    * solves LU x = u by forward substitution with L and back substitution
+    * with U.
+    * @param u a Vector with n entries
+    * @return (LU)^-1 u
+    */
+   @Override
+   public Vector apply(Vector u) {
+      if (u.length() != this.n) {
+         throw new IllegalArgumentException("Vector length does not match Matrix size");
+      }
+
+      double[] x = u.getEntries();
+
+      for (int i = 0; i < this.n; i++) {
+         double sum = x[i];
+
+         for (int p = this.rowPointers[i]; p < this.diagonal[i]; p++) {
+            sum -= this.lu[p] * x[this.columnIndices[p]];
+         }
+
+         x[i] = sum;
+      }
+
+      for (int i = this.n - 1; i >= 0; i--) {
+         double sum = x[i];
+
+         for (int p = this.diagonal[i] + 1; p < this.rowPointers[i + 1]; p++) {
+            sum -= this.lu[p] * x[this.columnIndices[p]];
+         }
+
+         x[i] = sum / this.lu[this.diagonal[i]];
+      }
+
+      return new Vector(x, 0, 1, this.n);
+   }
+
+   /**
+    * solves (LU)^T x = u, i.e. U^T y = u and then L^T x = y. U^T and L^T
+    * are stored by columns, so each solved entry is subtracted from the
+    * entries of the rest of its column.
+    * @param u a Vector with n entries
+    * @return ((LU)^-1)^T u
+    */
+   @Override
+   public Vector applyTranspose(Vector u) {
+      if (u.length() != this.n) {
+         throw new IllegalArgumentException("Vector length does not match Matrix size");
+      }
+
+      double[] x = u.getEntries();
+
+      for (int i = 0; i < this.n; i++) {
+         double value = x[i] / this.lu[this.diagonal[i]];
+
+         for (int p = this.diagonal[i] + 1; p < this.rowPointers[i + 1]; p++) {
+            x[this.columnIndices[p]] -= this.lu[p] * value;
+         }
+
+         x[i] = value;
+      }
+
+      for (int i = this.n - 1; i >= 0; i--) {
+         double value = x[i];
+
+         for (int p = this.rowPointers[i]; p < this.diagonal[i]; p++) {
+            x[this.columnIndices[p]] -= this.lu[p] * value;
+         }
+      }
+
+      return new Vector(x, 0, 1, this.n);
+   }
+}
@@ -0,0 +1,23 @@
+package linearalgebra;
+
+/**
+ * Receives the residual norm of an IterativeSolver after every iteration,
+ * e.g. to log convergence or plot it. For example:
+ *
+ *    solver.setListener(new IterationListener() {
+ *       public void iterationDone(int iteration, double residualNorm) {
+ *          System.out.println(iteration + ": " + residualNorm);
+ *       }
+ *    });
+ */
+
+public interface IterationListener {
+
+   /**
+    * called once with iteration 0 and the residual of the initial guess,
+    * then once after every iteration.
+    * @param iteration the number of iterations done so far
+    * @param residualNorm the norm of b - Ax for the current x
+    */
+   void iterationDone(int iteration, double residualNorm);
+}
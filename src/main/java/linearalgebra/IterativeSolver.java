@@ -0,0 +1,285 @@
+package linearalgebra;
+
+/**
+ * The IterativeSolver class holds what the Krylov solvers for Ax = b have
+ * in common: the operator, the settings, and the statistics of the last
+ * solve. The subclasses are
+ *    ConjugateGradient - for symmetric positive-definite A
+ *    GMRES             - for any nonsingular A (restarted)
+ *    BiCGSTAB          - for any nonsingular A, with constant memory
+ *
+ * A is only used through LinearOperator.apply, so it can be a Matrix, a
+ * SparseMatrix or a matrix-free operator. No factorization is formed, so
+ * nothing fills in: the memory needed is a few Vectors (a few dozen for
+ * GMRES).
+ *
+ * Each solve stops as soon as |b - Ax| <= tolerance * |b|, or after
+ * maxIterations iterations, whichever comes first; isConverged() tells
+ * which. A preconditioner M (a LinearOperator approximating A^-1, such as
+ * JacobiPreconditioner or IncompleteLU) usually cuts the number of
+ * iterations sharply. An IterationListener receives the residual norm
+ * after every iteration.
+ *
+ * The settings are changed with setters that return the solver, so they
+ * can be chained:
+ *
+ *    Vector x = new ConjugateGradient(a)
+ *          .setPreconditioner(new IncompleteLU(a))
+ *          .setTolerance(1e-8)
+ *          .solve(b);
+ */
+
+public abstract class IterativeSolver {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the relative residual at which a solve stops, unless changed
+    */
+   static final double DEFAULT_TOLERANCE = 1e-10;
+
+   /**
+    * the largest number of iterations of a solve, unless changed
+    */
+   static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+   /**
+    * the operator A and its size
+    */
+   final LinearOperator a;
+   final int n;
+
+   private LinearOperator preconditioner;
+   private double tolerance = DEFAULT_TOLERANCE;
+   private int maxIterations = DEFAULT_MAX_ITERATIONS;
+   private IterationListener listener;
+
+   /**
+    * the statistics of the last solve
+    */
+   private int iterations;
+   private double residualNorm;
+   private boolean converged;
+
+   /**
+    * tolerance * |b| for the current solve
+    */
+   private double target;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   IterativeSolver(LinearOperator a) {
+      if (a.getNumRows() != a.getNumColumns()) {
+         throw new IllegalArgumentException("Operator is not square");
+      }
+
+      this.a = a;
+      this.n = a.getNumRows();
+   }
+
+   /**
+    * sets the preconditioner, an operator M that approximates A^-1 and is
+    * cheap to apply. null means no preconditioner.
+    * @param m a LinearOperator of the same size as A, or null
+    * @return this solver
+    */
+   public IterativeSolver setPreconditioner(LinearOperator m) {
+      if (m != null && (m.getNumRows() != this.n || m.getNumColumns() != this.n)) {
+         throw new IllegalArgumentException("Preconditioner size does not match the operator");
+      }
+
+      this.preconditioner = m;
+      return this;
+   }
+
+   /**
+    * sets the relative residual |b - Ax| / |b| at which a solve stops.
+    * @param tolerance a positive number
+    * @return this solver
+    */
+   public IterativeSolver setTolerance(double tolerance) {
+      if (!(tolerance > 0)) {
+         throw new IllegalArgumentException("tolerance must be > 0");
+      }
+
+      this.tolerance = tolerance;
+      return this;
+   }
+
+   /**
+    * sets the largest number of iterations of a solve.
+    * @param maxIterations a positive number
+    * @return this solver
+    */
+   public IterativeSolver setMaxIterations(int maxIterations) {
+      if (maxIterations < 1) {
+         throw new IllegalArgumentException("maxIterations must be >= 1");
+      }
+
+      this.maxIterations = maxIterations;
+      return this;
+   }
+
+   /**
+    * sets the object told the residual norm after every iteration. null
+    * means no listener.
+    * @param listener an IterationListener, or null
+    * @return this solver
+    */
+   public IterativeSolver setListener(IterationListener listener) {
+      this.listener = listener;
+      return this;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * solves Ax = b, starting from x = 0.
+    * @param b a Vector with n entries
+    * @return the approximate solution x
+    */
+   public Vector solve(Vector b) {
+      return this.solve(b, null);
+   }
+
+   /**
+    * solves Ax = b, starting from the given guess (e.g. the solution of a
+    * nearby system). Throws an IllegalArgumentException if a length is wrong.
+    * @param b a Vector with n entries
+    * @param initialGuess a Vector with n entries, or null for 0
+    * @return the approximate solution x
+    */
+   public Vector solve(Vector b, Vector initialGuess) {
+      if (b.length() != this.n || (initialGuess != null && initialGuess.length() != this.n)) {
+         throw new IllegalArgumentException("Vector length does not match the operator size");
+      }
+
+      double[] rhs = b.getEntries();
+      double[] x = initialGuess == null ? new double[this.n] : initialGuess.getEntries();
+      double bNorm = IterativeSolver.norm(rhs);
+
+      this.iterations = 0;
+      this.converged = false;
+      this.target = this.tolerance * bNorm;
+
+      if (bNorm == 0) {
+         // the exact solution is 0
+         this.residualNorm = 0;
+         this.converged = true;
+         return new Vector(new double[this.n], 0, 1, this.n);
+      }
+
+      this.iterate(rhs, x);
+
+      return new Vector(x, 0, 1, this.n);
+   }
+
+   /**
+    * runs the method, improving x in place until report() says to stop.
+    */
+   abstract void iterate(double[] b, double[] x);
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * records the residual norm after the given number of iterations and
+    * passes it to the listener.
+    * @return true if the solve should stop: it converged or ran out of iterations
+    */
+   final boolean report(int iteration, double residual) {
+      this.iterations = iteration;
+      this.residualNorm = residual;
+      this.converged = this.isSmall(residual);
+
+      if (this.listener != null) {
+         this.listener.iterationDone(iteration, residual);
+      }
+
+      return this.converged || iteration >= this.maxIterations;
+   }
+
+   /**
+    * @return true if a residual of this norm meets the tolerance
+    */
+   final boolean isSmall(double residual) {
+      return residual <= this.target;
+   }
+
+   /**
+    * sets out = A in.
+    */
+   final void apply(double[] in, double[] out) {
+      Vector result = this.a.apply(new Vector(in, 0, 1, this.n));
+
+      if (result.length() != this.n) {
+         throw new IllegalArgumentException("Operator returned a Vector of the wrong length");
+      }
+
+      Vector.copyInto(result, out, 0, 1);
+   }
+
+   /**
+    * sets out = M in, or out = in without a preconditioner.
+    */
+   final void precondition(double[] in, double[] out) {
+      if (this.preconditioner == null) {
+         System.arraycopy(in, 0, out, 0, this.n);
+         return;
+      }
+
+      Vector result = this.preconditioner.apply(new Vector(in, 0, 1, this.n));
+      Vector.copyInto(result, out, 0, 1);
+   }
+
+   /**
+    * sets r = b - A x.
+    */
+   final void residual(double[] b, double[] x, double[] r) {
+      this.apply(x, r);
+      VectorKernels.subtract(b, 0, 1, r, 0, 1, r, 0, this.n);
+   }
+
+   static double dot(double[] u, double[] v) {
+      return VectorKernels.dot(u, 0, 1, v, 0, 1, u.length);
+   }
+
+   static double norm(double[] u) {
+      return Math.sqrt(IterativeSolver.dot(u, u));
+   }
+
+   /**
+    * sets y = y + alpha x.
+    */
+   static void axpy(double alpha, double[] x, double[] y) {
+      VectorKernels.axpy(alpha, x, 0, 1, y, 0, 1, y.length);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * @return the number of iterations of the last solve
+    */
+   public int getNumIterations() {
+      return this.iterations;
+   }
+
+   /**
+    * @return the residual norm |b - Ax| at the end of the last solve (for
+    *         GMRES, the estimate the method maintains)
+    */
+   public double getResidualNorm() {
+      return this.residualNorm;
+   }
+
+   /**
+    * @return true if the last solve met the tolerance
+    */
+   public boolean isConverged() {
+      return this.converged;
+   }
+}
@@ -0,0 +1,117 @@
+package linearalgebra;
+
+/**
+ * The JacobiPreconditioner class is the simplest preconditioner for the
+ * iterative solvers: M = D^-1, where D is the diagonal of A. Applying it
+ * divides each entry by the matching diagonal entry, in O(n). It helps
+ * most when the rows of A are scaled very differently.
+ */
+
+public class JacobiPreconditioner implements LinearOperator {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the reciprocals of the diagonal entries of A
+    */
+   private final double[] inverseDiagonal;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * builds the preconditioner from the diagonal of a. Throws an
+    * IllegalArgumentException if a is not square or has a zero on its
+    * diagonal.
+    * @param a a square Matrix object
+    */
+   public JacobiPreconditioner(Matrix a) {
+      if (!Matrix.isSquare(a)) {
+         throw new IllegalArgumentException("Matrix is not square");
+      }
+
+      double[] diagonal = new double[a.getNumRows()];
+
+      for (int i = 0; i < diagonal.length; i++) {
+         diagonal[i] = a.getEntry(i, i);
+      }
+
+      this.inverseDiagonal = JacobiPreconditioner.invert(diagonal);
+   }
+
+   /**
+    * builds the preconditioner from the diagonal of a. Throws an
+    * IllegalArgumentException if a is not square or has a zero on its
+    * diagonal.
+    * @param a a square SparseMatrix object
+    */
+   public JacobiPreconditioner(SparseMatrix a) {
+      if (a.getNumRows() != a.getNumColumns()) {
+         throw new IllegalArgumentException("Matrix is not square");
+      }
+
+      double[] diagonal = new double[a.getNumRows()];
+
+      for (int i = 0; i < diagonal.length; i++) {
+         diagonal[i] = a.getEntry(i, i);
+      }
+
+      this.inverseDiagonal = JacobiPreconditioner.invert(diagonal);
+   }
+
+   private static double[] invert(double[] diagonal) {
+      for (int i = 0; i < diagonal.length; i++) {
+         if (diagonal[i] == 0) {
+            throw new IllegalArgumentException("Zero on the diagonal (row " + i + ")");
+         }
+
+         diagonal[i] = 1 / diagonal[i];
+      }
+
+      return diagonal;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   @Override
+   public int getNumRows() {
+      return this.inverseDiagonal.length;
+   }
+
+   @Override
+   public int getNumColumns() {
+      return this.inverseDiagonal.length;
+   }
+
+   /**
+    * divides each entry of u by the matching diagonal entry of A.
+    * @param u a Vector with n entries
+    * @return D^-1 u
+    */
+   @Override
+   public Vector apply(Vector u) {
+      if (u.length() != this.inverseDiagonal.length) {
+         throw new IllegalArgumentException("Vector length does not match Matrix size");
+      }
+
+      double[] result = u.getEntries();
+
+      for (int i = 0; i < result.length; i++) {
+         result[i] *= this.inverseDiagonal[i];
+      }
+
+      return new Vector(result, 0, 1, result.length);
+   }
+
+   /**
+    * the same as apply(Vector), since D^-1 is symmetric.
+    * @param u a Vector with n entries
+    * @return D^-1 u
+    */
+   @Override
+   public Vector applyTranspose(Vector u) {
+      return this.apply(u);
+   }
+}
@@ -0,0 +1,490 @@
+package linearalgebra;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The LUDecomposition class factors a square Matrix A into PA = LU, where
+ * P is a permutation, L is unit lower triangular and U is upper triangular.
+ * The factorization uses Gaussian elimination with partial pivoting, which
+ * takes O(n^3) time once; after that each solve takes O(n^2) time, so one
+ * decomposition can be reused for many right-hand sides.
+ *
+ * L and U are packed into a single n-by-n array: U is stored on and above
+ * the diagonal, and the multipliers of L (whose diagonal is all ones and not
+ * stored) below it. pivot records which row of A ended up in each row of LU.
+ *
+ * The factorization is blocked ("right-looking"): a panel of BLOCK_SIZE
+ * columns is factored with pivoting, the matching block row of U is
+ * solved for, and then the whole trailing Matrix is updated at once,
+ * A22 = A22 - L21 U12. That update is nearly all of the work for large n,
+ * and it is one matrix product, so it runs through the blocked
+ * multiplication kernel (Gemm) split across the threads of a ForkJoinPool.
+ * Solving for many right-hand sides at once (and inverse()) is blocked the
+ * same way.
+ */
+
+public class LUDecomposition {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the number of columns factored together before the trailing update
+    */
+   static final int BLOCK_SIZE = 64;
+
+   /**
+    * lu holds L (below the diagonal) and U (on and above the diagonal)
+    * in row-major order
+    */
+   private final double[] lu;
+
+   /**
+    * n is the number of rows (and columns) of the factored Matrix
+    */
+   private final int n;
+
+   /**
+    * pivot[i] is the row of the original Matrix that is row i of LU
+    */
+   private final int[] pivot;
+
+   /**
+    * pivotSign is +1 if an even number of row swaps was made, -1 if odd
+    */
+   private final int pivotSign;
+
+   /**
+    * the pool that runs the trailing updates and blocked solves
+    */
+   private final ForkJoinPool pool;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * factors the square Matrix m, using the shared pool of Gemm (one thread
+    * per processor) for large matrices. See LUDecomposition(Matrix, ForkJoinPool).
+    * @param m a square Matrix object
+    */
+   public LUDecomposition(Matrix m) {
+      this(m, Gemm.defaultPool());
+   }
+
+   /**
+    * factors the square Matrix m, running the trailing updates on the
+    * threads of the given pool. Throws an IllegalArgumentException if m is
+    * not square. A singular Matrix can still be factored, but cannot be
+    * used to solve systems or compute an inverse.
+    * @param m a square Matrix object
+    * @param pool the ForkJoinPool that runs the updates
+    */
+   public LUDecomposition(Matrix m, ForkJoinPool pool) {
+      if (!Matrix.isSquare(m)) {
+         throw new IllegalArgumentException("LU decomposition requires a square Matrix");
+      }
+
+      this.n = m.getNumRows();
+      this.lu = m.toArray();
+      this.pivot = new int[this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         this.pivot[i] = i;
+      }
+
+      this.pool = pool;
+      this.pivotSign = LUDecomposition.factor(this.lu, this.n, this.pivot, pool);
+   }
+
+   /**
+    * factors the n-by-n row-major array lu in place, recording the row swaps
+    * in pivot. Columns are processed in blocks [k0, k1):
+    *
+    * - the panel, columns k0 to k1 - 1 on and below row k0, is factored by
+    *   Gaussian elimination with partial pivoting (factorPanel). Each row
+    *   swap is applied to whole rows, so the columns to the left and right
+    *   of the panel are permuted too;
+    * - the block row U12 = L11^-1 A12 (rows k0 to k1 - 1, right of the
+    *   panel) is found by forward substitution along rows;
+    * - L21 U12 is subtracted from the trailing Matrix by Gemm, in parallel.
+    *
+    * If a pivot is (threshold-checked) zero, its whole column is, and that
+    * column is skipped with its multipliers set to 0; the Matrix is
+    * singular and isSingular() will say so.
+    * @param lu the array to factor
+    * @param n the number of rows and columns
+    * @param pivot the row permutation, updated as rows are swapped
+    * @param pool the ForkJoinPool that runs the trailing updates
+    * @return +1 if an even number of swaps was made, -1 otherwise
+    */
+   static int factor(double[] lu, int n, int[] pivot, ForkJoinPool pool) {
+      int sign = 1;
+
+      for (int k0 = 0; k0 < n; k0 += BLOCK_SIZE) {
+         int k1 = Math.min(k0 + BLOCK_SIZE, n);
+
+         sign *= LUDecomposition.factorPanel(lu, n, pivot, k0, k1);
+
+         if (k1 < n) {
+            LUDecomposition.solveBlockRow(lu, n, k0, k1);
+            LUDecomposition.updateTrailing(lu, n, k0, k1, pool);
+         }
+      }
+
+      return sign;
+   }
+
+   /**
+    * factors columns k0 to k1 - 1 of lu, on and below row k0, one column at
+    * a time. For each column k, the row with the largest entry in column k
+    * (on or below the diagonal) is swapped into row k, then multiples of
+    * row k are subtracted from the rows below it, within the panel only.
+    * @return +1 if an even number of swaps was made, -1 otherwise
+    */
+   private static int factorPanel(double[] lu, int n, int[] pivot, int k0, int k1) {
+      int sign = 1;
+
+      for (int k = k0; k < k1; k++) {
+         // find the pivot: the largest entry in column k on or below the diagonal
+         int p = k;
+         double max = Math.abs(lu[k * n + k]);
+
+         for (int i = k + 1; i < n; i++) {
+            double value = Math.abs(lu[i * n + k]);
+
+            if (value > max) {
+               max = value;
+               p = i;
+            }
+         }
+
+         if (p != k) {
+            LUDecomposition.swapRows(lu, n, p, k);
+
+            int temp = pivot[p];
+            pivot[p] = pivot[k];
+            pivot[k] = temp;
+            sign = -sign;
+         }
+
+         int rowK = k * n;
+         double diagonal = lu[rowK + k];
+         boolean zero = Math.abs(diagonal) <= Matrix.THRESHOLD;
+
+         for (int i = k + 1; i < n; i++) {
+            int rowI = i * n;
+            double multiplier = zero ? 0 : lu[rowI + k] / diagonal;
+            lu[rowI + k] = multiplier;
+
+            if (multiplier != 0) {
+               for (int j = k + 1; j < k1; j++) {
+                  lu[rowI + j] -= multiplier * lu[rowK + j];
+               }
+            }
+         }
+      }
+
+      return sign;
+   }
+
+   /**
+    * overwrites rows k0 to k1 - 1 of lu, right of column k1, with
+    * U12 = L11^-1 A12, where L11 is the unit lower triangular diagonal
+    * block just factored. Each row has earlier rows subtracted from it
+    * whole, so the inner loop runs along contiguous memory.
+    */
+   private static void solveBlockRow(double[] lu, int n, int k0, int k1) {
+      int width = n - k1;
+
+      for (int i = k0 + 1; i < k1; i++) {
+         for (int p = k0; p < i; p++) {
+            double l = lu[i * n + p];
+
+            if (l != 0) {
+               VectorKernels.axpy(-l, lu, p * n + k1, 1, lu, i * n + k1, 1, width);
+            }
+         }
+      }
+   }
+
+   /**
+    * subtracts L21 U12 from the trailing Matrix lu[k1..n)[k1..n), where
+    * L21 = lu[k1..n)[k0..k1) and U12 = lu[k0..k1)[k1..n). Gemm adds, so
+    * U12 is copied negated first.
+    */
+   private static void updateTrailing(double[] lu, int n, int k0, int k1, ForkJoinPool pool) {
+      int width = k1 - k0;
+      int trailing = n - k1;
+      double[] negU = new double[width * trailing];
+
+      for (int p = 0; p < width; p++) {
+         VectorKernels.scale(lu, (k0 + p) * n + k1, 1, -1, negU, p * trailing, trailing);
+      }
+
+      Gemm.multiplyParallel(trailing, trailing, width,
+                            lu, k1 * n + k0, n,
+                            negU, 0, trailing,
+                            lu, k1 * n + k1, n,
+                            pool);
+   }
+
+   /**
+    * swaps two rows of an n-by-n row-major array in place.
+    */
+   private static void swapRows(double[] a, int n, int row1, int row2) {
+      int start1 = row1 * n;
+      int start2 = row2 * n;
+
+      for (int j = 0; j < n; j++) {
+         double temp = a[start1 + j];
+         a[start1 + j] = a[start2 + j];
+         a[start2 + j] = temp;
+      }
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the unit lower triangular factor L.
+    * @return an n-by-n Matrix with ones on the diagonal
+    */
+   public Matrix getL() {
+      double[] l = new double[this.n * this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         System.arraycopy(this.lu, i * this.n, l, i * this.n, i);
+         l[i * this.n + i] = 1.0;
+      }
+
+      return new Matrix(this.n, this.n, l);
+   }
+
+   /**
+    * returns the upper triangular factor U.
+    * @return an n-by-n upper triangular Matrix
+    */
+   public Matrix getU() {
+      double[] u = new double[this.n * this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         System.arraycopy(this.lu, i * this.n + i, u, i * this.n + i, this.n - i);
+      }
+
+      return new Matrix(this.n, this.n, u);
+   }
+
+   /**
+    * returns the unit lower triangular factor L in packed form, which takes
+    * half the memory of getL() and solves and multiplies in half the work.
+    * @return an n-by-n lower TriangularMatrix with ones on the diagonal
+    */
+   public TriangularMatrix getTriangularL() {
+      return TriangularMatrix.fromArray(this.lu, this.n, false, true);
+   }
+
+   /**
+    * returns the upper triangular factor U in packed form.
+    * @return an n-by-n upper TriangularMatrix
+    */
+   public TriangularMatrix getTriangularU() {
+      return TriangularMatrix.fromArray(this.lu, this.n, true, false);
+   }
+
+   /**
+    * returns the row permutation: row i of LU is row getPivot()[i] of the
+    * factored Matrix.
+    * @return a copy of the pivot array
+    */
+   public int[] getPivot() {
+      return this.pivot.clone();
+   }
+
+   /**
+    * returns the row permutation as a Permutation P, with PA = LU.
+    * @return the Permutation whose row i has its one in column getPivot()[i]
+    */
+   public Permutation getPermutation() {
+      return new Permutation(this.pivot);
+   }
+
+   /**
+    * returns the determinant of the factored Matrix, which is the product
+    * of the diagonal of U, with the sign flipped for an odd number of row swaps.
+    * @return the determinant
+    */
+   public double determinant() {
+      double determinant = this.pivotSign;
+
+      for (int i = 0; i < this.n; i++) {
+         determinant *= this.lu[i * this.n + i];
+      }
+
+      return determinant;
+   }
+
+   /**
+    * checks to see if the factored Matrix is singular, i.e. U has a
+    * (threshold-checked) zero on its diagonal.
+    * @return true if the Matrix is singular, false otherwise
+    */
+   public boolean isSingular() {
+      for (int i = 0; i < this.n; i++) {
+         if (Math.abs(this.lu[i * this.n + i]) <= Matrix.THRESHOLD) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   /**
+    * solves Ax = b for x, where A is the factored Matrix. Throws an
+    * IllegalArgumentException if b has the wrong length or A is singular.
+    * @param b a Vector with n entries
+    * @return the solution x
+    */
+   public Vector solve(Vector b) {
+      if (b.length() != this.n) {
+         throw new IllegalArgumentException("Vector length does not match Matrix size");
+      }
+      if (this.isSingular()) {
+         throw new IllegalArgumentException("Matrix is singular");
+      }
+
+      double[] x = new double[this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         x[i] = b.get(this.pivot[i]);
+      }
+
+      this.solveInPlace(x);
+
+      return new Vector(x, 0, 1, this.n);
+   }
+
+   /**
+    * solves AX = B for X, where A is the factored Matrix, treating each
+    * column of B as a separate right-hand side. Throws an
+    * IllegalArgumentException if B has the wrong number of rows or A is singular.
+    * @param b a Matrix with n rows
+    * @return the solution X, with the same shape as b
+    */
+   public Matrix solve(Matrix b) {
+      if (b.getNumRows() != this.n) {
+         throw new IllegalArgumentException("Matrix row count does not match Matrix size");
+      }
+      if (this.isSingular()) {
+         throw new IllegalArgumentException("Matrix is singular");
+      }
+
+      int columns = b.getNumColumns();
+      double[] source = b.toArray();
+      double[] x = new double[this.n * columns];
+
+      for (int i = 0; i < this.n; i++) {
+         System.arraycopy(source, this.pivot[i] * columns, x, i * columns, columns);
+      }
+
+      // forward substitution with L, a block of rows at a time: first the
+      // solved rows above the block are subtracted with one product, then
+      // the block is finished row by row
+      for (int i0 = 0; i0 < this.n; i0 += BLOCK_SIZE) {
+         int i1 = Math.min(i0 + BLOCK_SIZE, this.n);
+         this.subtractProduct(i0, i1, 0, i0, x, columns);
+
+         for (int i = i0; i < i1; i++) {
+            for (int k = i0; k < i; k++) {
+               double l = this.lu[i * this.n + k];
+
+               if (l != 0) {
+                  VectorKernels.axpy(-l, x, k * columns, 1, x, i * columns, 1, columns);
+               }
+            }
+         }
+      }
+
+      // back substitution with U, from the bottom block up
+      for (int i1 = this.n; i1 > 0; i1 -= BLOCK_SIZE) {
+         int i0 = Math.max(i1 - BLOCK_SIZE, 0);
+         this.subtractProduct(i0, i1, i1, this.n, x, columns);
+
+         for (int i = i1 - 1; i >= i0; i--) {
+            for (int k = i + 1; k < i1; k++) {
+               double u = this.lu[i * this.n + k];
+
+               if (u != 0) {
+                  VectorKernels.axpy(-u, x, k * columns, 1, x, i * columns, 1, columns);
+               }
+            }
+
+            double diagonal = this.lu[i * this.n + i];
+
+            for (int j = 0; j < columns; j++) {
+               x[i * columns + j] /= diagonal;
+            }
+         }
+      }
+
+      return new Matrix(this.n, columns, x);
+   }
+
+   /**
+    * subtracts LU[rows r0..r1)[columns c0..c1) times rows c0 to c1 - 1 of
+    * x from rows r0 to r1 - 1 of x, where x is row-major with the given
+    * number of columns. The product runs through Gemm on the pool.
+    */
+   private void subtractProduct(int r0, int r1, int c0, int c1, double[] x, int columns) {
+      if (c0 == c1 || columns == 0) {
+         return;
+      }
+
+      int rows = r1 - r0;
+      double[] product = new double[rows * columns];
+
+      Gemm.multiplyParallel(rows, columns, c1 - c0,
+                            this.lu, r0 * this.n + c0, this.n,
+                            x, c0 * columns, columns,
+                            product, 0, columns,
+                            this.pool);
+
+      VectorKernels.subtract(x, r0 * columns, 1, product, 0, 1, x, r0 * columns, rows * columns);
+   }
+
+   /**
+    * returns the inverse of the factored Matrix, found by solving AX = I.
+    * Throws an IllegalArgumentException if the Matrix is singular.
+    * @return the inverse Matrix
+    */
+   public Matrix inverse() {
+      return this.solve(Matrix.identityMatrix(this.n));
+   }
+
+   /**
+    * overwrites the permuted right-hand side stored in x with the solution,
+    * by forward substitution with L followed by back substitution with U.
+    */
+   private void solveInPlace(double[] x) {
+      for (int i = 0; i < this.n; i++) {
+         int row = i * this.n;
+         double sum = x[i];
+
+         for (int k = 0; k < i; k++) {
+            sum -= this.lu[row + k] * x[k];
+         }
+
+         x[i] = sum;
+      }
+
+      for (int i = this.n - 1; i >= 0; i--) {
+         int row = i * this.n;
+         double sum = x[i];
+
+         for (int k = i + 1; k < this.n; k++) {
+            sum -= this.lu[row + k] * x[k];
+         }
+
+         x[i] = sum / this.lu[row + i];
+      }
+   }
+}
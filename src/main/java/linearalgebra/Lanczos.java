@@ -0,0 +1,365 @@
+package linearalgebra;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The Lanczos class finds the k dominant eigenvalues (largest in magnitude)
+ * of a large symmetric LinearOperator, and their eigenvectors, using only
+ * products of the operator with Vectors. Nothing of size n-by-n is ever
+ * formed, so it works for a SparseMatrix or a matrix-free operator as well
+ * as a Matrix.
+ *
+ * The Lanczos process builds an orthonormal basis v_0, v_1, ... of the
+ * Krylov space spanned by v_0, A v_0, A^2 v_0, ... and the small symmetric
+ * Matrix T = V^T A V. The eigenvalues of T (Ritz values) approximate the
+ * eigenvalues of A, the extreme ones first; this is power iteration made
+ * to remember and combine all its previous vectors. Each new vector is
+ * orthogonalized against the whole basis (twice), so rounding errors do
+ * not produce spurious copies of converged eigenvalues.
+ *
+ * The basis is limited to m vectors (about 2k), so the working set is
+ * O(nk). When it is full and the wanted Ritz pairs have not converged, the
+ * method restarts from the best Ritz vectors found so far ("thick
+ * restart") instead of from scratch. A Ritz pair (theta, y) has converged
+ * when its residual |Ay - theta y|, which costs nothing to compute, is at
+ * most tolerance times the largest Ritz value.
+ *
+ * The operator must be symmetric; this is not (and cannot be) checked. The
+ * starting Vector is random, from a fixed seed, so results are repeatable.
+ */
+
+public class Lanczos {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the tolerance used by Lanczos(LinearOperator, int)
+    */
+   static final double DEFAULT_TOLERANCE = 1e-8;
+
+   /**
+    * the number of operator applications allowed by Lanczos(LinearOperator, int)
+    */
+   static final int DEFAULT_MAX_ITERATIONS = 1000;
+
+   /**
+    * the basis holds at least this many more vectors than k
+    */
+   static final int MIN_EXTRA_VECTORS = 20;
+
+   /**
+    * the eigenvalues found, largest in magnitude first
+    */
+   private final double[] values;
+
+   /**
+    * row i holds the eigenvector of values[i]
+    */
+   private final double[] vectors;
+
+   private final int n;
+
+   /**
+    * the number of times the operator was applied
+    */
+   private final int iterations;
+
+   /**
+    * true if every Ritz pair met the tolerance
+    */
+   private final boolean converged;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * finds the k dominant eigenpairs of a with DEFAULT_TOLERANCE and at most
+    * DEFAULT_MAX_ITERATIONS (or k, if larger) applications of a.
+    * See Lanczos(LinearOperator, int, double, int).
+    * @param a a symmetric LinearOperator
+    * @param k the number of eigenpairs wanted
+    */
+   public Lanczos(LinearOperator a, int k) {
+      this(a, k, DEFAULT_TOLERANCE, Math.max(DEFAULT_MAX_ITERATIONS, k));
+   }
+
+   /**
+    * finds the k dominant eigenpairs of the symmetric operator a. The
+    * iteration stops when every pair has converged to within tolerance,
+    * or once a has been applied maxIterations times (see isConverged()).
+    * Throws an IllegalArgumentException if a is not square, k is not
+    * between 1 and n, tolerance is not positive or maxIterations < k (the
+    * basis needs k applications before any pair can be returned).
+    * @param a a symmetric LinearOperator
+    * @param k the number of eigenpairs wanted
+    * @param tolerance the largest acceptable residual, relative to the
+    *        largest eigenvalue
+    * @param maxIterations the largest number of applications of a, at least k
+    */
+   public Lanczos(LinearOperator a, int k, double tolerance, int maxIterations) {
+      int n = a.getNumRows();
+
+      if (a.getNumColumns() != n) {
+         throw new IllegalArgumentException("Operator is not square");
+      }
+
+      if (k < 1 || k > n) {
+         throw new IllegalArgumentException("k must be between 1 and the size of the operator");
+      }
+
+      if (!(tolerance > 0) || maxIterations < k) {
+         throw new IllegalArgumentException("tolerance must be > 0 and maxIterations must be >= k");
+      }
+
+      int m = Math.min(n, Math.max(2 * k + 1, k + MIN_EXTRA_VECTORS));
+
+      // rows 0..m-1 are the basis, row m the next (residual) vector
+      double[] basis = new double[(m + 1) * n];
+      double[] t = new double[m * m];
+      Random random = new Random(0);
+
+      Lanczos.randomUnitVector(basis, 0, n, random);
+
+      int start = 0;
+      int iterations = 0;
+      double[] found = new double[k];
+      double[] foundVectors;
+      boolean done;
+
+      while (true) {
+         int size = m;
+         double beta = 0;
+
+         for (int j = start; j < m; j++) {
+            beta = Lanczos.extend(a, basis, t, j, n, m);
+            iterations++;
+
+            if (beta == 0 && j + 1 < m) {
+               // invariant subspace: continue with any direction not yet covered
+               Lanczos.randomUnitVector(basis, j + 1, n, random);
+            }
+
+            if (iterations >= maxIterations && j + 1 >= k) {
+               size = j + 1;
+               break;
+            }
+         }
+
+         // Ritz values theta and vectors y from the leading size-by-size block of T
+         double[] block = new double[size * size];
+
+         for (int i = 0; i < size; i++) {
+            System.arraycopy(t, i * m, block, i * size, size);
+         }
+
+         SymmetricEigen eigen = new SymmetricEigen(new Matrix(size, size, block));
+         double[] theta = eigen.getEigenvalues().getEntries();
+         double[] y = eigen.getV().toArray();
+         int[] order = Lanczos.decreasingMagnitude(theta);
+
+         // the residual of Ritz pair i is |beta * (last entry of y_i)|
+         double limit = tolerance * Math.max(Math.abs(theta[order[0]]), Double.MIN_NORMAL);
+         done = true;
+
+         for (int r = 0; r < k; r++) {
+            if (Math.abs(beta * y[(size - 1) * size + order[r]]) > limit) {
+               done = false;
+               break;
+            }
+         }
+
+         if (done || iterations >= maxIterations || size == n) {
+            for (int r = 0; r < k; r++) {
+               found[r] = theta[order[r]];
+            }
+
+            foundVectors = Lanczos.ritzVectors(basis, y, order, k, size, n);
+            break;
+         }
+
+         // thick restart: keep the best Ritz vectors, then the residual vector
+         int keep = k + (m - k) / 2;
+         double[] kept = Lanczos.ritzVectors(basis, y, order, keep, size, n);
+
+         System.arraycopy(basis, m * n, basis, keep * n, n);
+         System.arraycopy(kept, 0, basis, 0, keep * n);
+
+         Arrays.fill(t, 0);
+
+         for (int r = 0; r < keep; r++) {
+            t[r * m + r] = theta[order[r]];
+         }
+
+         start = keep;
+      }
+
+      this.n = n;
+      this.iterations = iterations;
+      this.converged = done;
+      this.values = found;
+      this.vectors = foundVectors;
+   }
+
+   /**
+    * applies a to basis row j and orthogonalizes the result against rows
+    * 0..j (modified Gram-Schmidt, twice), recording the projections in
+    * column j (and row j) of T. The result is normalized into row j + 1.
+    * @return its norm before normalizing, or 0 if it was negligible (the
+    *         basis then spans an invariant subspace)
+    */
+   private static double extend(LinearOperator a, double[] basis, double[] t, int j, int n, int m) {
+      int next = (j + 1) * n;
+      Vector w = a.apply(new Vector(basis, j * n, 1, n));
+
+      if (w.length() != n) {
+         throw new IllegalArgumentException("Operator returned a Vector of the wrong length");
+      }
+
+      Vector.copyInto(w, basis, next, 1);
+
+      double before = Math.sqrt(VectorKernels.dot(basis, next, 1, basis, next, 1, n));
+
+      for (int pass = 0; pass < 2; pass++) {
+         for (int i = 0; i <= j; i++) {
+            double h = VectorKernels.dot(basis, i * n, 1, basis, next, 1, n);
+            VectorKernels.axpy(-h, basis, i * n, 1, basis, next, 1, n);
+            t[i * m + j] += h;
+         }
+      }
+
+      for (int i = 0; i < j; i++) {
+         t[j * m + i] = t[i * m + j];
+      }
+
+      double beta = Math.sqrt(VectorKernels.dot(basis, next, 1, basis, next, 1, n));
+
+      if (beta <= n * Math.ulp(1.0) * before) {
+         Arrays.fill(basis, next, next + n, 0);
+         return 0;
+      }
+
+      VectorKernels.scale(basis, next, 1, 1 / beta, basis, next, n);
+      return beta;
+   }
+
+   /**
+    * fills basis row j with a random unit vector orthogonal to rows 0..j-1
+    * (j < n, so such a vector exists).
+    */
+   private static void randomUnitVector(double[] basis, int j, int n, Random random) {
+      int row = j * n;
+
+      while (true) {
+         for (int i = 0; i < n; i++) {
+            basis[row + i] = random.nextGaussian();
+         }
+
+         for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < j; i++) {
+               double h = VectorKernels.dot(basis, i * n, 1, basis, row, 1, n);
+               VectorKernels.axpy(-h, basis, i * n, 1, basis, row, 1, n);
+            }
+         }
+
+         double norm = Math.sqrt(VectorKernels.dot(basis, row, 1, basis, row, 1, n));
+
+         if (norm > 1e-3) {
+            VectorKernels.scale(basis, row, 1, 1 / norm, basis, row, n);
+            return;
+         }
+      }
+   }
+
+   /**
+    * @return the Ritz vectors V y_i for the first count indices in order,
+    *         one per row, computed with one Gemm call
+    */
+   private static double[] ritzVectors(double[] basis, double[] y, int[] order, int count, int size, int n) {
+      // row r of yt is column order[r] of y
+      double[] yt = new double[count * size];
+
+      for (int r = 0; r < count; r++) {
+         for (int i = 0; i < size; i++) {
+            yt[r * size + i] = y[i * size + order[r]];
+         }
+      }
+
+      double[] result = new double[count * n];
+      Gemm.multiply(count, n, size, yt, 0, size, basis, 0, n, result, 0, n);
+
+      return result;
+   }
+
+   /**
+    * @return the indices of values, ordered from the largest magnitude to the smallest
+    */
+   private static int[] decreasingMagnitude(double[] values) {
+      int[] order = new int[values.length];
+
+      for (int i = 0; i < order.length; i++) {
+         int j = i;
+
+         while (j > 0 && Math.abs(values[order[j - 1]]) < Math.abs(values[i])) {
+            order[j] = order[j - 1];
+            j--;
+         }
+
+         order[j] = i;
+      }
+
+      return order;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the eigenvalues found, largest in magnitude first.
+    * @return a Vector with k entries
+    */
+   public Vector getEigenvalues() {
+      return new Vector(this.values);
+   }
+
+   /**
+    * returns the eigenvectors found, one per column, in the order of the
+    * eigenvalues.
+    * @return an n-by-k Matrix with orthonormal columns
+    */
+   public Matrix getEigenvectors() {
+      return new Matrix(this.values.length, this.n, this.vectors.clone()).transpose();
+   }
+
+   /**
+    * returns the eigenvector of the i-th eigenvalue.
+    * @param i the index of the eigenvalue, 0 for the dominant one
+    * @return a unit Vector
+    */
+   public Vector getEigenvector(int i) {
+      if (i < 0 || i >= this.values.length) {
+         throw new IllegalArgumentException("Index is out of range");
+      }
+
+      double[] v = new double[this.n];
+      System.arraycopy(this.vectors, i * this.n, v, 0, this.n);
+
+      return new Vector(v, 0, 1, this.n);
+   }
+
+   /**
+    * @return the number of times the operator was applied
+    */
+   public int getNumIterations() {
+      return this.iterations;
+   }
+
+   /**
+    * @return true if every eigenpair met the tolerance, false if the
+    *         iteration stopped at maxIterations first
+    */
+   public boolean isConverged() {
+      return this.converged;
+   }
+}
@@ -0,0 +1,44 @@
+package linearalgebra;
+
+/**
+ * A linear map from Vectors with getNumColumns() entries to Vectors with
+ * getNumRows() entries, known only through its products with a Vector
+ * (by the operator A and by its transpose A^T). Matrix and SparseMatrix
+ * implement it, and so can a class that computes the products without
+ * storing a Matrix at all (e.g. a finite-difference stencil). The
+ * iterative methods (such as Lanczos and the IterativeSolvers) accept any
+ * LinearOperator.
+ *
+ * LinearOperators builds operators such as A^T A, A + D or a Kronecker
+ * product out of others without forming their entries, so they cost no
+ * more memory than their parts.
+ */
+
+public interface LinearOperator {
+
+   /**
+    * @return the number of entries in the result of apply
+    */
+   int getNumRows();
+
+   /**
+    * @return the number of entries apply expects
+    */
+   int getNumColumns();
+
+   /**
+    * applies the operator to a Vector. Implementations must not modify u
+    * or keep a reference to it.
+    * @param u a Vector with getNumColumns() entries
+    * @return the product, a Vector with getNumRows() entries
+    */
+   Vector apply(Vector u);
+
+   /**
+    * applies the transpose of the operator to a Vector. Implementations
+    * must not modify u or keep a reference to it.
+    * @param u a Vector with getNumRows() entries
+    * @return the product A^T u, a Vector with getNumColumns() entries
+    */
+   Vector applyTranspose(Vector u);
+}
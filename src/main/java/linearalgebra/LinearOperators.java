@@ -0,0 +1,363 @@
+package linearalgebra;
+
+/**
+ * The LinearOperators class builds LinearOperators out of other ones
+ * without forming any entries. Applying a composite applies its parts:
+ *
+ *    LinearOperators.gram(a)                       - A^T A, two products
+ *    LinearOperators.sum(LinearOperators.diagonal(d),
+ *          LinearOperators.product(u, LinearOperators.transpose(v)))
+ *                                                  - D + U V^T
+ *    LinearOperators.kronecker(a, b)               - A (x) B
+ *
+ * so A^T A of a SparseMatrix stays as sparse as A, D + U V^T with an
+ * n-by-k U costs O(nk) instead of O(n^2), and the Kronecker product of an
+ * m-by-m and an n-by-n Matrix, an mn-by-mn operator, costs only the
+ * memory of its factors. The composites are immutable, hold references to
+ * their parts (which must not change), and can be nested freely; each one
+ * also applies its transpose, so any composite can be used where a
+ * transpose is needed.
+ *
+ * The shapes are checked when an operator is built, and the length of the
+ * Vector when it is applied; both throw an IllegalArgumentException.
+ */
+
+public final class LinearOperators {
+
+   private LinearOperators() {
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the n-by-n identity operator.
+    * @param n the size
+    * @return I
+    */
+   public static LinearOperator identity(int n) {
+      if (n < 0) {
+         throw new IllegalArgumentException("Size must not be negative");
+      }
+
+      return new Identity(n);
+   }
+
+   /**
+    * returns the square diagonal operator with the given diagonal, a
+    * DiagonalMatrix. The entries are copied.
+    * @param d the diagonal entries
+    * @return diag(d)
+    */
+   public static LinearOperator diagonal(Vector d) {
+      return new DiagonalMatrix(d);
+   }
+
+   /**
+    * returns alpha times a.
+    * @param alpha the scalar
+    * @param a a LinearOperator
+    * @return alpha A
+    */
+   public static LinearOperator scaled(double alpha, LinearOperator a) {
+      return new Scaled(alpha, a);
+   }
+
+   /**
+    * returns the sum of two operators of the same shape.
+    * @param a a LinearOperator
+    * @param b a LinearOperator with the shape of a
+    * @return A + B
+    */
+   public static LinearOperator sum(LinearOperator a, LinearOperator b) {
+      if (a.getNumRows() != b.getNumRows() || a.getNumColumns() != b.getNumColumns()) {
+         throw new IllegalArgumentException("Operators do not have the same shape");
+      }
+
+      return new Sum(a, b);
+   }
+
+   /**
+    * returns the product of two operators: applying it applies b, then a.
+    * @param a a LinearOperator
+    * @param b a LinearOperator with as many rows as a has columns
+    * @return AB
+    */
+   public static LinearOperator product(LinearOperator a, LinearOperator b) {
+      if (a.getNumColumns() != b.getNumRows()) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      return new Product(a, b);
+   }
+
+   /**
+    * returns the transpose of an operator, which swaps apply and applyTranspose.
+    * @param a a LinearOperator
+    * @return A^T
+    */
+   public static LinearOperator transpose(LinearOperator a) {
+      if (a instanceof Transpose) {
+         return ((Transpose) a).a;
+      }
+
+      return new Transpose(a);
+   }
+
+   /**
+    * returns A^T A, the symmetric positive-semidefinite operator of the
+    * normal equations (e.g. for ConjugateGradient on a least-squares
+    * problem, or Lanczos for the singular values of A).
+    * @param a a LinearOperator
+    * @return A^T A, an operator with as many rows and columns as a has columns
+    */
+   public static LinearOperator gram(LinearOperator a) {
+      return new Product(new Transpose(a), a);
+   }
+
+   /**
+    * returns the Kronecker product of a (m-by-n) and b (p-by-q), the
+    * mp-by-nq operator whose block [i][j] is a[i][j] times b. It is applied
+    * as (A (x) B) vec(X) = vec(A X B^T), where X is the n-by-q Matrix whose
+    * rows are consecutive pieces of the Vector: one product with B per row
+    * of X, then one with A per column, O(nq(p + m)) work for a Matrix
+    * instead of O(mnpq).
+    * @param a a LinearOperator
+    * @param b a LinearOperator
+    * @return A (x) B
+    */
+   public static LinearOperator kronecker(LinearOperator a, LinearOperator b) {
+      return new Kronecker(a, b);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * throws an IllegalArgumentException unless u has n entries
+    */
+   private static void checkLength(Vector u, int n) {
+      if (u.length() != n) {
+         throw new IllegalArgumentException("Vector length does not match the operator size");
+      }
+   }
+
+   private static final class Identity implements LinearOperator {
+      private final int n;
+
+      Identity(int n) {
+         this.n = n;
+      }
+
+      @Override
+      public int getNumRows() {
+         return this.n;
+      }
+
+      @Override
+      public int getNumColumns() {
+         return this.n;
+      }
+
+      @Override
+      public Vector apply(Vector u) {
+         LinearOperators.checkLength(u, this.n);
+         return new Vector(u.getEntries(), 0, 1, this.n);
+      }
+
+      @Override
+      public Vector applyTranspose(Vector u) {
+         return this.apply(u);
+      }
+   }
+
+   private static final class Scaled implements LinearOperator {
+      private final double alpha;
+      private final LinearOperator a;
+
+      Scaled(double alpha, LinearOperator a) {
+         this.alpha = alpha;
+         this.a = a;
+      }
+
+      @Override
+      public int getNumRows() {
+         return this.a.getNumRows();
+      }
+
+      @Override
+      public int getNumColumns() {
+         return this.a.getNumColumns();
+      }
+
+      @Override
+      public Vector apply(Vector u) {
+         LinearOperators.checkLength(u, this.a.getNumColumns());
+         return this.a.apply(u).multiply(this.alpha);
+      }
+
+      @Override
+      public Vector applyTranspose(Vector u) {
+         LinearOperators.checkLength(u, this.a.getNumRows());
+         return this.a.applyTranspose(u).multiply(this.alpha);
+      }
+   }
+
+   private static final class Sum implements LinearOperator {
+      private final LinearOperator a;
+      private final LinearOperator b;
+
+      Sum(LinearOperator a, LinearOperator b) {
+         this.a = a;
+         this.b = b;
+      }
+
+      @Override
+      public int getNumRows() {
+         return this.a.getNumRows();
+      }
+
+      @Override
+      public int getNumColumns() {
+         return this.a.getNumColumns();
+      }
+
+      @Override
+      public Vector apply(Vector u) {
+         LinearOperators.checkLength(u, this.a.getNumColumns());
+         return this.a.apply(u).add(this.b.apply(u));
+      }
+
+      @Override
+      public Vector applyTranspose(Vector u) {
+         LinearOperators.checkLength(u, this.a.getNumRows());
+         return this.a.applyTranspose(u).add(this.b.applyTranspose(u));
+      }
+   }
+
+   private static final class Product implements LinearOperator {
+      private final LinearOperator a;
+      private final LinearOperator b;
+
+      Product(LinearOperator a, LinearOperator b) {
+         this.a = a;
+         this.b = b;
+      }
+
+      @Override
+      public int getNumRows() {
+         return this.a.getNumRows();
+      }
+
+      @Override
+      public int getNumColumns() {
+         return this.b.getNumColumns();
+      }
+
+      @Override
+      public Vector apply(Vector u) {
+         LinearOperators.checkLength(u, this.b.getNumColumns());
+         return this.a.apply(this.b.apply(u));
+      }
+
+      @Override
+      public Vector applyTranspose(Vector u) {
+         // (AB)^T = B^T A^T
+         LinearOperators.checkLength(u, this.a.getNumRows());
+         return this.b.applyTranspose(this.a.applyTranspose(u));
+      }
+   }
+
+   private static final class Transpose implements LinearOperator {
+      private final LinearOperator a;
+
+      Transpose(LinearOperator a) {
+         this.a = a;
+      }
+
+      @Override
+      public int getNumRows() {
+         return this.a.getNumColumns();
+      }
+
+      @Override
+      public int getNumColumns() {
+         return this.a.getNumRows();
+      }
+
+      @Override
+      public Vector apply(Vector u) {
+         LinearOperators.checkLength(u, this.a.getNumRows());
+         return this.a.applyTranspose(u);
+      }
+
+      @Override
+      public Vector applyTranspose(Vector u) {
+         LinearOperators.checkLength(u, this.a.getNumColumns());
+         return this.a.apply(u);
+      }
+   }
+
+   private static final class Kronecker implements LinearOperator {
+      private final LinearOperator a;
+      private final LinearOperator b;
+
+      Kronecker(LinearOperator a, LinearOperator b) {
+         this.a = a;
+         this.b = b;
+      }
+
+      @Override
+      public int getNumRows() {
+         return this.a.getNumRows() * this.b.getNumRows();
+      }
+
+      @Override
+      public int getNumColumns() {
+         return this.a.getNumColumns() * this.b.getNumColumns();
+      }
+
+      @Override
+      public Vector apply(Vector u) {
+         LinearOperators.checkLength(u, this.getNumColumns());
+         return Kronecker.multiply(this.a, this.b, u, false);
+      }
+
+      @Override
+      public Vector applyTranspose(Vector u) {
+         // (A (x) B)^T = A^T (x) B^T
+         LinearOperators.checkLength(u, this.getNumRows());
+         return Kronecker.multiply(this.a, this.b, u, true);
+      }
+
+      /**
+       * returns vec(A X B^T), or vec(A^T X B) if transposed, where the rows
+       * of X are consecutive pieces of u.
+       */
+      private static Vector multiply(LinearOperator a, LinearOperator b, Vector u, boolean transposed) {
+         int n = transposed ? a.getNumRows() : a.getNumColumns();
+         int m = transposed ? a.getNumColumns() : a.getNumRows();
+         int q = transposed ? b.getNumRows() : b.getNumColumns();
+         int p = transposed ? b.getNumColumns() : b.getNumRows();
+         double[] x = u.getEntries();
+
+         // row i of z (n-by-p) is B times row i of X
+         double[] z = new double[n * p];
+
+         for (int i = 0; i < n; i++) {
+            Vector row = new Vector(x, i * q, 1, q);
+            Vector.copyInto(transposed ? b.applyTranspose(row) : b.apply(row), z, i * p, 1);
+         }
+
+         // column k of the result (m-by-p) is A times column k of z
+         double[] result = new double[m * p];
+
+         for (int k = 0; k < p; k++) {
+            Vector column = new Vector(z, k, p, n);
+            Vector.copyInto(transposed ? a.applyTranspose(column) : a.apply(column), result, k, p);
+         }
+
+         return new Vector(result, 0, 1, result.length);
+      }
+   }
+}
@@ -1,40 +1,111 @@
 package linearalgebra;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * The Matrix class stores a 2D array of doubles and provides
  * common linear algebra operations on that array, in addition
  * to producing special matrices and checking for specific conditions.
+ *
+ * The entries are kept in a single flat array in row-major order, so
+ * that a whole Matrix is one contiguous block of memory. The entry in
+ * row r and column c lives at entries[offset + r * rowStride + c].
+ *
+ * Because no operation changes a Matrix in place, several Matrix and Vector
+ * objects can safely share one array. The view methods (rowView, columnView,
+ * subMatrixView, minorView) use this to hand out parts of a Matrix in
+ * constant time instead of copying them.
  */
 
-public class Matrix {
+public class Matrix implements LinearOperator {
 
    // *****************************************************************
    // *****************************************************************
 
    /**
-    * entries is a 2D array of doubles to hold the entries in the Matrix
+    * entries is a flat array of doubles that holds the entries in the Matrix
+    * in row-major order
+    */
+   private final double[] entries;
+
+   /**
+    * offset is the position in entries of the entry in row 0, column 0
     */
-   private double[][] entries;
+   private final int offset;
+
+   /**
+    * rowStride is the distance in entries between the start of one row
+    * and the start of the next row
+    */
+   private final int rowStride;
+
+   /**
+    * the number of rows in the Matrix
+    */
+   private final int numRows;
+
+   /**
+    * the number of columns in the Matrix
+    */
+   private final int numColumns;
+
+   /**
+    * for a minor view, the row of the underlying storage that is skipped
+    * (rows at or after skipRow are read from one row further down).
+    * NONE for every other Matrix.
+    */
+   private final int skipRow;
+
+   /**
+    * for a minor view, the column of the underlying storage that is skipped.
+    * NONE for every other Matrix.
+    */
+   private final int skipColumn;
+
+   /*
+    * marks that no row or column is skipped
+    */
+   private static final int NONE = Integer.MAX_VALUE;
    
    /*
     * threshold for double comparisons
     */
    public static final double THRESHOLD = Double.MIN_VALUE * 1000;
+
+   /*
+    * relative tolerance used by isSymmetric
+    */
+   public static final double SYMMETRY_TOLERANCE = 1e-10;
+
+   /*
+    * side length of the square tiles used by transpose
+    */
+   private static final int TRANSPOSE_BLOCK = 32;
    
    // *****************************************************************
    // *****************************************************************
 
    /**
     * accepts a 2D array of doubles and copies them into the entries field.
+    * Every row must have as many entries as the first one, or an
+    * IllegalArgumentException is thrown.
     * @param entries a 2D array of doubles
     */
    public Matrix(double[][] entries) {
-      this.entries = new double[entries.length][entries[0].length];
-      
+      this.numRows = entries.length;
+      this.numColumns = entries[0].length;
+      this.offset = 0;
+      this.rowStride = this.numColumns;
+      this.skipRow = NONE;
+      this.skipColumn = NONE;
+      this.entries = new double[this.numRows * this.numColumns];
+
       for (int row = 0; row < entries.length; row++) {
-         for (int col = 0; col < entries[row].length; col++) {
-            this.entries[row][col] = entries[row][col];
+         if (entries[row].length != this.numColumns) {
+            throw new IllegalArgumentException("Row " + row + " has a different number of columns");
          }
+
+         System.arraycopy(entries[row], 0, this.entries, row * this.rowStride, this.numColumns);
       }
    }
    
@@ -43,13 +114,40 @@ public class Matrix {
     * @param m the Matrix object we want to copy
     */
    public Matrix(Matrix m) {
-      this.entries = new double[m.getNumRows()][m.getNumColumns()];
-      
-      for (int row = 0; row < m.entries.length; row++) {
-         for (int col = 0; col < m.entries[row].length; col++) {
-            this.entries[row][col] = m.entries[row][col];
-         }
-      }
+      this(m.numRows, m.numColumns, m.toArray());
+   }
+
+   /**
+    * wraps a flat row-major array of length numRows * numColumns without
+    * copying it. the caller hands ownership of the array to the new Matrix
+    * and must not modify it afterwards.
+    * @param numRows the number of rows
+    * @param numColumns the number of columns
+    * @param entries the entries in row-major order
+    */
+   Matrix(int numRows, int numColumns, double[] entries) {
+      this(entries, 0, numColumns, numRows, numColumns, NONE, NONE);
+   }
+
+   /**
+    * view constructor shares entries with another Matrix without copying.
+    * @param entries the shared array
+    * @param offset the position of the entry in row 0, column 0
+    * @param rowStride the distance between the starts of consecutive rows
+    * @param numRows the number of rows
+    * @param numColumns the number of columns
+    * @param skipRow the row of the storage to skip, or NONE
+    * @param skipColumn the column of the storage to skip, or NONE
+    */
+   private Matrix(double[] entries, int offset, int rowStride, int numRows, int numColumns,
+                  int skipRow, int skipColumn) {
+      this.entries = entries;
+      this.offset = offset;
+      this.rowStride = rowStride;
+      this.numRows = numRows;
+      this.numColumns = numColumns;
+      this.skipRow = skipRow;
+      this.skipColumn = skipColumn;
    }
 
    // *****************************************************************
@@ -57,7 +155,140 @@ public class Matrix {
 
    // Returning copy of entries, instead of reference
    public double[][] getEntries() {
-      return this.entries.clone();
+      double[][] copy = new double[this.numRows][this.numColumns];
+
+      for (int row = 0; row < this.numRows; row++) {
+         this.copyRow(row, copy[row], 0);
+      }
+
+      return copy;
+   }
+
+   /**
+    * returns the position in entries of the entry in the given row and column.
+    * no range checking is done.
+    * @param row the row index
+    * @param col the column index
+    * @return the position of [row][col] in entries
+    */
+   private int index(int row, int col) {
+      if (col >= this.skipColumn) {
+         col++;
+      }
+      
+      return this.rowStart(row) + col;
+   }
+
+   /**
+    * returns the position in entries where the storage of the given row starts.
+    * @param row the row index
+    * @return the position of the first stored entry of the row
+    */
+   private int rowStart(int row) {
+      if (row >= this.skipRow) {
+         row++;
+      }
+      
+      return this.offset + row * this.rowStride;
+   }
+
+   /**
+    * copies the entries in the given row into dest, starting at destPos.
+    * @param row the row index
+    * @param dest the array to copy into
+    * @param destPos the position in dest of the first entry
+    */
+   void copyRow(int row, double[] dest, int destPos) {
+      this.copyRow(row, 0, this.numColumns, dest, destPos);
+   }
+
+   /**
+    * copies the entries in columns col to col + length - 1 of the given row
+    * into dest, starting at destPos. This reads the storage directly, so
+    * even a minor view is never copied. No range checking is done.
+    * @param row the row index
+    * @param col the first column to copy
+    * @param length the number of entries to copy
+    * @param dest the array to copy into
+    * @param destPos the position in dest of the first entry
+    */
+   void copyRow(int row, int col, int length, double[] dest, int destPos) {
+      int start = this.rowStart(row);
+      // the columns before the skipped one (all of them, if none is skipped)
+      int before = Math.max(0, Math.min(length, this.skipColumn - col));
+
+      System.arraycopy(this.entries, start + col, dest, destPos, before);
+
+      if (before < length) {
+         // copy around the skipped column
+         System.arraycopy(this.entries, start + col + before + 1, dest, destPos + before, length - before);
+      }
+   }
+
+   /**
+    * returns a Matrix with the same entries whose rows are evenly spaced in
+    * its array, so that entry [row][col] is at offset + row * rowStride + col.
+    * Every Matrix is like this except a minor view, which is copied.
+    * The operations in this package call this before reading rows directly.
+    * @return this Matrix, or a copy of it if it is a minor view
+    */
+   Matrix strided() {
+      if (this.skipRow == NONE && this.skipColumn == NONE) {
+         return this;
+      }
+      
+      return new Matrix(this.numRows, this.numColumns, this.toArray());
+   }
+
+   /**
+    * the array, offset and row stride of a Matrix returned by strided(),
+    * not copies, for the other classes in this package. Entry [row][col] is
+    * entries()[offset() + row * rowStride() + col]. They must not be modified.
+    */
+   double[] entries() {
+      return this.entries;
+   }
+
+   int offset() {
+      return this.offset;
+   }
+
+   int rowStride() {
+      return this.rowStride;
+   }
+
+   /**
+    * returns a new flat array holding the entries of the Matrix in row-major
+    * order with no gaps between rows.
+    * @return a row-major copy of the entries
+    */
+   double[] toArray() {
+      double[] copy = new double[this.numRows * this.numColumns];
+
+      if (this.rowStride == this.numColumns && this.skipRow == NONE && this.skipColumn == NONE) {
+         System.arraycopy(this.entries, this.offset, copy, 0, copy.length);
+      } else {
+         for (int row = 0; row < this.numRows; row++) {
+            this.copyRow(row, copy, row * this.numColumns);
+         }
+      }
+
+      return copy;
+   }
+
+   /**
+    * adds alpha times the entries of m to dest, which holds a Matrix of the
+    * same shape in row-major order with no gaps between rows.
+    * @param alpha a real number
+    * @param m a Matrix object
+    * @param dest the row-major array to add into
+    */
+   static void addScaledInto(double alpha, Matrix m, double[] dest) {
+      m = m.strided();
+
+      for (int row = 0; row < m.numRows; row++) {
+         VectorKernels.axpy(alpha, m.entries, m.index(row, 0), 1, dest, row * m.numColumns, 1, m.numColumns);
+      }
    }
 
    /**
@@ -87,7 +318,96 @@ public class Matrix {
          throw new IllegalArgumentException("col is not in the correct range");
       }
       
-      return m.dropRow(row).dropColumn(col);
+      m = m.strided();
+      double[] entries = new double[(m.numRows - 1) * (m.numColumns - 1)];
+      int pos = 0;
+
+      for (int i = 0; i < m.numRows; i++) {
+         if (i != row) {
+            int start = m.index(i, 0);
+            System.arraycopy(m.entries, start, entries, pos, col);
+            System.arraycopy(m.entries, start + col + 1, entries, pos + col, m.numColumns - col - 1);
+            pos += m.numColumns - 1;
+         }
+      }
+
+      return new Matrix(m.numRows - 1, m.numColumns - 1, entries);
+   }
+
+   /**
+    * minorView accepts a row and a column, and returns a read-only view of
+    * the Matrix with that row and column skipped. See minorView(Matrix, int, int).
+    * @param row an int
+    * @param col an int
+    * @return a view of the calling Matrix without the given row and column
+    */
+   public Matrix minorView(int row, int col) {
+      return Matrix.minorView(this, row, col);
+   }
+
+   /**
+    * minorView accepts a row and a column, and returns a read-only view of
+    * m with that row and column skipped. The view shares the entries of m,
+    * so it takes constant time to create and getEntry on it is constant time.
+    * Operations that walk whole rows (add, multiply, transpose, ...) copy the
+    * view into a regular Matrix first, since its rows have a gap in them.
+    * A minor view of a minor view is taken from a copy of the first view.
+    * @param m a Matrix object
+    * @param row an int
+    * @param col an int
+    * @return a view of m without the given row and column
+    */
+   public static Matrix minorView(Matrix m, int row, int col) {
+      if (row < 0 || row >= m.getNumRows()) {
+         throw new IllegalArgumentException("row is not in the correct range");
+      }
+      if (col < 0 || col >= m.getNumColumns()) {
+         throw new IllegalArgumentException("col is not in the correct range");
+      }
+      
+      m = m.strided();
+      
+      return new Matrix(m.entries, m.offset, m.rowStride, m.numRows - 1, m.numColumns - 1, row, col);
+   }
+
+   /**
+    * returns a read-only view of the block of the calling Matrix with the
+    * given number of rows and columns whose top left entry is [row][col].
+    * See subMatrixView(Matrix, int, int, int, int).
+    * @param row the row of the top left entry of the block
+    * @param col the column of the top left entry of the block
+    * @param numRows the number of rows in the block
+    * @param numColumns the number of columns in the block
+    * @return a numRows-by-numColumns view into the calling Matrix
+    */
+   public Matrix subMatrixView(int row, int col, int numRows, int numColumns) {
+      return Matrix.subMatrixView(this, row, col, numRows, numColumns);
+   }
+
+   /**
+    * returns a read-only view of the block of m with the given number of rows
+    * and columns whose top left entry is [row][col]. The view shares the
+    * entries of m (it only records a different offset and size), so it takes
+    * constant time to create and can be passed to any operation without
+    * being copied.
+    * @param m a Matrix object
+    * @param row the row of the top left entry of the block
+    * @param col the column of the top left entry of the block
+    * @param numRows the number of rows in the block {@literal (>= 1)}
+    * @param numColumns the number of columns in the block {@literal (>= 1)}
+    * @return a numRows-by-numColumns view into m
+    */
+   public static Matrix subMatrixView(Matrix m, int row, int col, int numRows, int numColumns) {
+      if (numRows < 1 || row < 0 || row + numRows > m.getNumRows()) {
+         throw new IllegalArgumentException("rows are not in the correct range");
+      }
+      if (numColumns < 1 || col < 0 || col + numColumns > m.getNumColumns()) {
+         throw new IllegalArgumentException("columns are not in the correct range");
+      }
+      
+      m = m.strided();
+      
+      return new Matrix(m.entries, m.index(row, col), m.rowStride, numRows, numColumns, NONE, NONE);
    }
 
    /**
@@ -98,7 +418,22 @@ public class Matrix {
     * @return a Matrix whose rows are the passed vectors
     */ 
    public static Matrix fromColumnVectors(Vector ... vectors) {
-      return Matrix.transpose(Matrix.fromRowVectors(vectors));  
+      for (Vector u : vectors) {
+         if (u.length() != vectors[0].length()) {
+            throw new IllegalArgumentException("Vectors do not have the same length.");
+         }
+      }
+
+      int numRows = vectors[0].length();
+      double[] entries = new double[numRows * vectors.length];
+
+      for (int col = 0; col < vectors.length; col++) {
+         for (int row = 0; row < numRows; row++) {
+            entries[row * vectors.length + col] = vectors[col].get(row);
+         }
+      }
+
+      return new Matrix(numRows, vectors.length, entries);
    }
    
    /**
@@ -115,15 +450,16 @@ public class Matrix {
          }
       }      
       
-      double[][] entries = new double[vectors.length][vectors[0].length()];
-      
+      int numColumns = vectors[0].length();
+      double[] entries = new double[vectors.length * numColumns];
+
       for (int row = 0; row < vectors.length; row++) {
-         for (int col = 0; col < vectors[row].length(); col++) {
-            entries[row][col] = vectors[row].get(col);
+         for (int col = 0; col < numColumns; col++) {
+            entries[row * numColumns + col] = vectors[row].get(col);
          }
       }
-      
-      return new Matrix(entries);  
+
+      return new Matrix(vectors.length, numColumns, entries);
    }
 
    /**
@@ -141,8 +477,7 @@ public class Matrix {
    /**
     * dropColumn accepts a Matrix object and a non-negative int corresponding
     * to a column index, and returns the Matrix, with that column dropped.
-    * It does this by passing all columns except the column to be dropped
-    * to fromColumnVectors.
+    * It does this by copying every row around the dropped column.
     * @param m a Matrix object
     * @param col a column index {@literal (0 < col < entries[0].length)}
     * @return a Matrix with the specified column dropped
@@ -154,21 +489,19 @@ public class Matrix {
          throw new IllegalArgumentException("col is out of range");
       }
       
-      Vector[] columns = new Vector[m.getNumColumns() - 1];
-      
-      for (int i = 0; i < m.entries[0].length; i++) {
-         // if we're to the left of the column to be dropped, columns[i] = m.getColumn(i)
-         if (i < col) {
-            columns[i] = m.getColumn(i);
-         }
-         
-         // if we're to the right of the column to be dropped, columns[i-1] = m.getColumn(i)
-         if (i > col) {
-            columns[i-1] = m.getColumn(i);
-         }
+      m = m.strided();
+      int numColumns = m.numColumns - 1;
+      double[] entries = new double[m.numRows * numColumns];
+
+      for (int row = 0; row < m.numRows; row++) {
+         int start = m.index(row, 0);
+
+         // copy the entries to the left of the dropped column, then the entries to the right
+         System.arraycopy(m.entries, start, entries, row * numColumns, col);
+         System.arraycopy(m.entries, start + col + 1, entries, row * numColumns + col, numColumns - col);
       }
-      
-      return Matrix.fromColumnVectors(columns);
+
+      return new Matrix(m.numRows, numColumns, entries);
    }
 
    /**
@@ -185,8 +518,8 @@ public class Matrix {
    
    /**
     * dropRow accepts a Matrix object and a non-negative int corresponding
-    * to a row index, and returns the Matrix, with that row dropped. It does 
-    * this by passing all row except the row to be dropped to fromRowVectors.
+    * to a row index, and returns the Matrix, with that row dropped. It does
+    * this by copying every row except the row to be dropped.
     * @param m a Matrix object
     * @param row a row {@literal index (0 < col < entries.length)}
     * @return a Matrix with the specified row dropped
@@ -196,19 +529,16 @@ public class Matrix {
          throw new IllegalArgumentException("row is out of range");
       }
       
-      Vector[] u = new Vector[m.getNumRows()-1];
-      
-      for (int i = 0; i < m.getNumRows(); i++) {
-         if (i < row) {
-            u[i] = m.getRow(i);
-         }
-         
-         if (i > row) {
-            u[i-1] = m.getRow(i);
+      double[] entries = new double[(m.numRows - 1) * m.numColumns];
+
+      for (int i = 0; i < m.numRows; i++) {
+         if (i != row) {
+            int target = (i < row) ? i : i - 1;
+            m.copyRow(i, entries, target * m.numColumns);
          }
       }
-      
-      return Matrix.fromRowVectors(u);
+
+      return new Matrix(m.numRows - 1, m.numColumns, entries);
    }
 
    /**
@@ -231,17 +561,42 @@ public class Matrix {
     * @return a Vector containing the entries in the desired column
     */   
    public static Vector getColumn(Matrix m, int col) {
-      if (col >= m.entries[0].length || col < 0) {
+      if (col >= m.numColumns || col < 0) {
+         throw new IllegalArgumentException("Column is out of range");
+      }
+
+      return new Vector(Matrix.columnView(m, col));  
+   }
+
+   /**
+    * accepts a column number (starting at 0) and returns a read-only view of
+    * the column. See columnView(Matrix, int).
+    * @param col the number of the desired column
+    * @return a Vector view of the desired column
+    */
+   public Vector columnView(int col) {
+      return Matrix.columnView(this, col);
+   }
+
+   /**
+    * accepts a column number (starting at 0) and returns a read-only view of
+    * the column that shares the entries of m: the entries of the column are
+    * rowStride apart in the array of m, so no copy is needed. If m is a minor
+    * view with a skipped row, the column has a gap and is copied instead.
+    * @param m the Matrix object we want the column from
+    * @param col the number of the desired column
+    * @return a Vector view of the desired column
+    */
+   public static Vector columnView(Matrix m, int col) {
+      if (col >= m.numColumns || col < 0) {
          throw new IllegalArgumentException("Column is out of range");
       } 
       
-      double[] columnVector = new double[m.entries.length];
-      
-      for (int row = 0; row < m.entries.length; row++) {
-         columnVector[row] = m.entries[row][col];
-      }  
+      if (m.skipRow != NONE) {
+         m = m.strided();
+      }
       
-      return new Vector(columnVector);  
+      return new Vector(m.entries, m.index(0, col), m.rowStride, m.numRows);
    }
  
    /**
@@ -262,11 +617,43 @@ public class Matrix {
     * @return a Vector containing the entries in the desired row
     */
    public static Vector getRow(Matrix m, int row) {
-      if (row >= m.entries.length || row < 0) {
+      if (row >= m.numRows || row < 0) {
+         throw new IllegalArgumentException("Row does not exist in Matrix");
+      }
+
+      return new Vector(Matrix.rowView(m, row));
+   }
+
+   /**
+    * accepts a row number (starting at 0) and returns a read-only view of
+    * the row. See rowView(Matrix, int).
+    * @param row the number of the desired row
+    * @return a Vector view of the desired row
+    */
+   public Vector rowView(int row) {
+      return Matrix.rowView(this, row);
+   }
+
+   /**
+    * accepts a row number (starting at 0) and returns a read-only view of
+    * the row that shares the entries of m, so no copy is needed. If m is a
+    * minor view with a skipped column, the row has a gap and is copied instead.
+    * @param m the Matrix object we want the row from
+    * @param row the number of the desired row
+    * @return a Vector view of the desired row
+    */
+   public static Vector rowView(Matrix m, int row) {
+      if (row >= m.numRows || row < 0) {
          throw new IllegalArgumentException("Row does not exist in Matrix");
       }
       
-      return new Vector(m.entries[row]);
+      if (m.skipColumn != NONE) {
+         double[] rowVector = new double[m.numColumns];
+         m.copyRow(row, rowVector, 0);
+         return new Vector(rowVector, 0, 1, m.numColumns);
+      }
+      
+      return new Vector(m.entries, m.index(row, 0), 1, m.numColumns);
    }
 
    /**
@@ -287,15 +674,15 @@ public class Matrix {
     * @return the entry in the row-th row and col-th col of m
     */
    public static double getEntry(Matrix m, int row, int col) {
-      if (row < 0 || row >= m.entries.length) {
+      if (row < 0 || row >= m.numRows) {
          throw new IllegalArgumentException("Invalid value for row.");
       }
-      
-      if (col < 0 || col >= m.entries[0].length) {
+
+      if (col < 0 || col >= m.numColumns) {
          throw new IllegalArgumentException("Invalid value for col.");
       }
-      
-      return m.entries[row][col];  
+
+      return m.entries[m.index(row, col)];  
    }
    
    /**
@@ -310,7 +697,7 @@ public class Matrix {
     * @return the number of columns in the Matrix
     */   
    public static int getNumColumns(Matrix m) {
-      return m.entries[0].length;
+      return m.numColumns;
    }  
 
    /**
@@ -325,12 +712,14 @@ public class Matrix {
     * @return the number of columns in the Matrix
     */
    public static int getNumRows(Matrix m) {
-      return m.entries.length;
+      return m.numRows;
    } 
 
    /**   
     * getIdentityMatrix returns an n by n Matrix with all zeroes
-    * and ones on the diagonal.
+    * and ones on the diagonal. This stores all n^2 entries; where only
+    * products and sums with the identity are needed,
+    * DiagonalMatrix.identityMatrix(n) stores just the n ones.
     * @param n an integer greater than or equal to 1
     * @return an n-by-n Matrix with ones on the diagonal and zeroes
     *         everywhere else
@@ -340,13 +729,13 @@ public class Matrix {
          throw new IllegalArgumentException("n must be >= 1");
       }
       
-      double[][] entries = new double[n][n];
-      
+      double[] entries = new double[n * n];
+
       for (int i = 0; i < n; i++) {
-         entries[i][i] = 1.0;
+         entries[i * n + i] = 1.0;
       }
-      
-      return new Matrix(entries);
+
+      return new Matrix(n, n, entries);
    }
 
    /**
@@ -392,16 +781,16 @@ public class Matrix {
          throw new IllegalArgumentException("Invalid column: " + col);
       }
 
-      if (m.entries.length != u.length()) {
+      if (m.numRows != u.length()) {
          throw new IllegalArgumentException("Vector length and does not match column length.");
       }
-      
+
       Matrix n = new Matrix(m);
-      
-      for (int i = 0; i < n.entries.length; i++) {
-         n.entries[i][col] = u.get(i);
+
+      for (int i = 0; i < n.numRows; i++) {
+         n.entries[n.index(i, col)] = u.get(i);
       }
-      
+
       return n;
    }
    
@@ -417,7 +806,7 @@ public class Matrix {
     * @return a Matrix object with the col-th column replaced with v
     */
    public static Matrix setColumn(Matrix m, int col, double[] v) {
-      if (m.entries.length != v.length) {
+      if (m.numRows != v.length) {
          throw new IllegalArgumentException("Array length and does not match row length.");
       }
       
@@ -467,14 +856,14 @@ public class Matrix {
          throw new IllegalArgumentException("Invalid row: " + row);
       }
 
-      if (m.entries[row].length != u.length()) {
+      if (m.numColumns != u.length()) {
          throw new IllegalArgumentException("Vector length and does not match row length.");
       }
-      
+
       Matrix n = new Matrix(m);
-      
-      for (int i = 0; i < n.entries[row].length; i++) {
-         n.entries[row][i] = u.get(i);
+
+      for (int i = 0; i < n.numColumns; i++) {
+         n.entries[n.index(row, i)] = u.get(i);
       }
       
       return n;
@@ -496,7 +885,7 @@ public class Matrix {
          throw new IllegalArgumentException("Invalid row: " + row);
       }
       
-      if (m.entries[row].length != v.length) {
+      if (m.numColumns != v.length) {
          throw new IllegalArgumentException("Array length and does not match row length.");
       }
       
@@ -521,7 +910,7 @@ public class Matrix {
       }
    
       Matrix n = new Matrix(m);
-      n.entries[row][col] = value;
+      n.entries[n.index(row, col)] = value;
       return n;
    }
 
@@ -539,7 +928,13 @@ public class Matrix {
     * @return an array of Vector objects
     */
    public static Vector[] toColumnVectors(Matrix m) {
-      return Matrix.toRowVectors(m.transpose());
+      Vector[] v = new Vector[m.getNumColumns()];
+      
+      for (int i = 0; i < m.getNumColumns(); i++) {
+         v[i] = m.getColumn(i);
+      }
+      
+      return v;
    }
    
    /**
@@ -559,7 +954,7 @@ public class Matrix {
       Vector[] v = new Vector[m.getNumRows()];
       
       for (int i = 0; i < m.getNumRows(); i++) {
-         v[i] = new Vector(m.getRow(i));
+         v[i] = m.getRow(i);
       }
       
       return v;
@@ -574,10 +969,10 @@ public class Matrix {
    public String toString() {
       String str = "[";
       
-      for (int i = 0; i < this.entries.length; i++) {
+      for (int i = 0; i < this.numRows; i++) {
          str += Matrix.getRow(this, i);
-         
-         if (i < this.entries.length - 1) {
+
+         if (i < this.numRows - 1) {
             str += ",\n ";
          } else {
             str += "]";
@@ -601,10 +996,10 @@ public class Matrix {
    /**
     * determinant computes the determinant of a square Matrix object.
     * The determinant is not defined for non-square matrices.
-    * Determinant is computed recursively via cofactor expansion across
-    * the first row:
-    * https://en.wikipedia.org/wiki/Determinant#Laplace's_expansion_and_the_adjugate_entries
-    * For a 1x1 Matrix, the determinant is the only entry.
+    * For a triangular Matrix, the determinant is the product of the diagonal.
+    * Otherwise the Matrix is factored with an LUDecomposition, in O(n^3)
+    * (on several threads for large matrices), and the determinant is read
+    * off the factors.
     * @param m a Matrix object
     * @return the determinant of the Matrix (a double) 
     */
@@ -619,23 +1014,101 @@ public class Matrix {
          determinant = 1.0;
          
          // determinant is the product of the entries on the diagonal
-         for (int i = 0; i < m.getNumRows(); i++) {
-            determinant *= m.getEntry(i,i);
+         for (int i = 0; i < m.numRows; i++) {
+            determinant *= m.entries[m.index(i, i)];
          }
       } else {
-         if (Matrix.getNumRows(m) == 1) {
-            determinant = Matrix.getEntry(m, 0, 0);
-         } else {
-            for (int col = 0; col < m.getNumColumns(); col++) {
-               determinant += Math.pow(-1, col) *  
-                              m.getEntry(0, col) *
-                              m.minorMatrix(0, col).determinant();
-            }
-         }
+         determinant = new LUDecomposition(m).determinant();
       }
 
       return determinant;
    }
+
+   /**
+    * solves the square system with the calling Matrix as coefficients.
+    * See solve(Matrix, Vector).
+    * @param b a Vector with one entry per row
+    * @return the x with this x = b
+    */
+   public Vector solve(Vector b) {
+      return Matrix.solve(this, b);
+   }
+
+   /**
+    * solves Ax = b for a square, nonsingular Matrix a, by an
+    * LUDecomposition with partial pivoting (on several threads for large
+    * matrices). To solve several systems with the same a, factor it once
+    * with LUDecomposition instead. Throws an IllegalArgumentException if
+    * a is not square, b has the wrong length, or a is singular.
+    * @param a an n-by-n Matrix object
+    * @param b a Vector with n entries
+    * @return the solution, a Vector with n entries
+    */
+   public static Vector solve(Matrix a, Vector b) {
+      if (b.length() != a.numRows) {
+         throw new IllegalArgumentException("Vector length does not match the number of rows");
+      }
+
+      return new LUDecomposition(a).solve(b);
+   }
+
+   /**
+    * solves the square systems with the calling Matrix as coefficients and
+    * the columns of b as right-hand sides. See solve(Matrix, Matrix).
+    * @param b a Matrix with one row per row of this Matrix
+    * @return the X with this X = b
+    */
+   public Matrix solve(Matrix b) {
+      return Matrix.solve(this, b);
+   }
+
+   /**
+    * solves AX = B for a square, nonsingular Matrix a, treating each column
+    * of b as a separate right-hand side. The LUDecomposition of a is
+    * computed once and the substitutions for all the columns are done
+    * together, in blocks. Throws an IllegalArgumentException if a is not
+    * square, b has the wrong number of rows, or a is singular.
+    * @param a an n-by-n Matrix object
+    * @param b a Matrix with n rows
+    * @return the solution, with the same shape as b
+    */
+   public static Matrix solve(Matrix a, Matrix b) {
+      if (b.numRows != a.numRows) {
+         throw new IllegalArgumentException("Matrix row count does not match the number of rows");
+      }
+
+      return new LUDecomposition(a).solve(b);
+   }
+
+   /**
+    * finds the least-squares solution of the system with the calling
+    * Matrix as coefficients. See leastSquares(Matrix, Vector).
+    * @param b a Vector with one entry per row
+    * @return the x that minimizes |this x - b|
+    */
+   public Vector leastSquares(Vector b) {
+      return Matrix.leastSquares(this, b);
+   }
+
+   /**
+    * finds the least-squares solution of Ax = b, the x that minimizes
+    * |Ax - b|, for a (typically tall) Matrix a with at least as many rows
+    * as columns. The solution comes from a QRDecomposition of a, which
+    * avoids forming a^T a: that would need a transposed copy of a and
+    * would square its condition number. Throws an IllegalArgumentException
+    * if a has more columns than rows, b has the wrong length, or the
+    * columns of a are linearly dependent.
+    * @param a an m-by-n Matrix object, m >= n
+    * @param b a Vector with m entries
+    * @return the least-squares solution, a Vector with n entries
+    */
+   public static Vector leastSquares(Matrix a, Vector b) {
+      if (b.length() != a.numRows) {
+         throw new IllegalArgumentException("Vector length does not match the number of rows");
+      }
+
+      return new QRDecomposition(a).solve(b);
+   }
    
    /**
     * isDiagonal checks to see if all values except for the diagonal
@@ -659,12 +1132,15 @@ public class Matrix {
          throw new IllegalArgumentException("Matrix is not square.");
       }  
    
-      for (int row = 0; row < m.entries.length; row++) {
-         for (int col = 0; col < m.entries[row].length; col++) {
+      m = m.strided();
+      for (int row = 0; row < m.numRows; row++) {
+         int start = m.index(row, 0);
+
+         for (int col = 0; col < m.numColumns; col++) {
             if (row != col) { // if we're not on the diagonal
-            
+
                // if the value is non-zero
-               if (Math.abs(m.entries[row][col]) > Matrix.THRESHOLD) {
+               if (Math.abs(m.entries[start + col]) > Matrix.THRESHOLD) {
                   return false;
                }
             }
@@ -691,9 +1167,13 @@ public class Matrix {
     */
    public static boolean isLowerTriangular(Matrix m) {
       
-      for (int row = 1; row < m.entries.length; row++) {
-         for (int col = 0; col < row; col++) { // only below the diagonal
-            if (Math.abs(m.entries[row][col]) > Matrix.THRESHOLD) {
+      m = m.strided();
+      for (int row = 1; row < m.numRows; row++) {
+         int start = m.index(row, 0);
+         int end = Math.min(row, m.numColumns);
+
+         for (int col = 0; col < end; col++) { // only below the diagonal
+            if (Math.abs(m.entries[start + col]) > Matrix.THRESHOLD) {
                return false;
             }
          }
@@ -718,6 +1198,8 @@ public class Matrix {
     * and only zeroes everywhere else. Matrix must be square.
     * an n-by-n permutation Matrix rearranges the entries of an n-by-1
     * Vector
+    * The entries are read once, in place, and a permutation Matrix can be
+    * stored as a Permutation instead.
     * @param m a Matrix object
     * @return true if Matrix is a permutation Matrix, false otherwise
     */
@@ -726,14 +1208,45 @@ public class Matrix {
          throw new IllegalArgumentException("Matrix is not square");
       }
       
-      for (int i = 0; i < m.getNumRows(); i++) {
-         if (!(m.getRow(i).isCanonicalBasisVector() 
-            && m.getColumn(i).isCanonicalBasisVector())) {
-            return false;
+      return Matrix.permutationIndex(m) != null;
+   }
+
+   /**
+    * finds the column of the (threshold-checked) one in each row of a
+    * square Matrix in a single pass over its entries.
+    * @return the columns, or null if some row does not hold exactly one
+    *         one and zeroes, or two rows have their one in the same column
+    */
+   static int[] permutationIndex(Matrix m) {
+      int n = m.numRows;
+      int[] index = new int[n];
+      boolean[] used = new boolean[n];
+
+      for (int row = 0; row < n; row++) {
+         int one = -1;
+
+         for (int col = 0; col < n; col++) {
+            double entry = m.entries[m.index(row, col)];
+
+            if (Math.abs(1 - entry) < Matrix.THRESHOLD) {
+               if (one >= 0) {
+                  return null;
+               }
+               one = col;
+            } else if (!(Math.abs(entry) < Matrix.THRESHOLD)) {
+               return null;
+            }
+         }
+
+         if (one < 0 || used[one]) {
+            return null;
          }
+
+         used[one] = true;
+         index[row] = one;
       }
-      
-      return true;
+
+      return index;
    }
    
    /**
@@ -754,16 +1267,8 @@ public class Matrix {
     *         false otherwise
     */
    public static boolean isSparse(Matrix m) {
-      int numNonzero = 0;
-      
-      for (int row = 0; row < m.entries.length; row++) {
-         for (int col = 0; col < m.entries[row].length; col++) {
-            if (Math.abs(m.entries[row][col]) > Matrix.THRESHOLD) {
-               numNonzero++;
-            }
-         }
-      }
-      
+      int numNonzero = Matrix.countNonzero(m);
+
       return (numNonzero <= Math.max(m.getNumRows(), m.getNumColumns()));
    }
    
@@ -791,17 +1296,31 @@ public class Matrix {
          throw new IllegalArgumentException("p is not in the correct range (0,1]");
       }
    
+      int numNonzero = Matrix.countNonzero(m);
+
+      return ((double)numNonzero / (m.getNumRows() * m.getNumColumns())) <= p;
+   }
+
+   /**
+    * counts the (threshold-checked) nonzero entries in the Matrix.
+    * @param m a Matrix object
+    * @return the number of entries whose absolute value exceeds THRESHOLD
+    */
+   static int countNonzero(Matrix m) {
+      m = m.strided();
       int numNonzero = 0;
-      
-      for (int row = 0; row < m.entries.length; row++) {
-         for (int col = 0; col < m.entries[row].length; col++) {
-            if (Math.abs(m.entries[row][col]) > Matrix.THRESHOLD) {
+
+      for (int row = 0; row < m.numRows; row++) {
+         int start = m.index(row, 0);
+
+         for (int col = 0; col < m.numColumns; col++) {
+            if (Math.abs(m.entries[start + col]) > Matrix.THRESHOLD) {
                numNonzero++;
             }
          }
       }
-      
-      return ((double)numNonzero / (m.getNumRows() * m.getNumColumns())) <= p;
+
+      return numNonzero;
    }
    
    /**
@@ -825,6 +1344,43 @@ public class Matrix {
       return (m.getNumRows() == m.getNumColumns());
    }
 
+   /**
+    * isSymmetric checks to see if the Matrix is square and equal to its
+    * transpose, up to rounding: entries [i][j] and [j][i] may differ by
+    * SYMMETRY_TOLERANCE relative to their size.
+    * @return true if the Matrix is symmetric, false otherwise
+    */
+   public boolean isSymmetric() {
+      return Matrix.isSymmetric(this);
+   }
+
+   /**
+    * isSymmetric checks to see if the Matrix is square and equal to its
+    * transpose, up to rounding: entries [i][j] and [j][i] may differ by
+    * SYMMETRY_TOLERANCE relative to their size.
+    * @param m a Matrix object
+    * @return true if m is symmetric, false otherwise
+    */
+   public static boolean isSymmetric(Matrix m) {
+      if (!Matrix.isSquare(m)) {
+         return false;
+      }
+
+      m = m.strided();
+      for (int row = 0; row < m.numRows; row++) {
+         for (int col = 0; col < row; col++) {
+            double lower = m.entries[m.index(row, col)];
+            double upper = m.entries[m.index(col, row)];
+
+            if (Math.abs(lower - upper) > SYMMETRY_TOLERANCE * Math.max(1, Math.abs(lower) + Math.abs(upper))) {
+               return false;
+            }
+         }
+      }
+
+      return true;
+   }
+
    /**
     * isUpperTriangular checks to see if all values above the diagonal
     * are zero.
@@ -842,9 +1398,12 @@ public class Matrix {
     */
    public static boolean isUpperTriangular(Matrix m) {
       
-      for (int row = 0; row < m.entries.length; row++) {
-         for (int col = row+1; col < m.entries[row].length; col++) { // only below the diagonal
-            if (Math.abs(m.entries[row][col]) > Matrix.THRESHOLD) {
+      m = m.strided();
+      for (int row = 0; row < m.numRows; row++) {
+         int start = m.index(row, 0);
+
+         for (int col = row+1; col < m.numColumns; col++) { // only below the diagonal
+            if (Math.abs(m.entries[start + col]) > Matrix.THRESHOLD) {
                return false;
             }
          }
@@ -864,7 +1423,7 @@ public class Matrix {
 
    /**
     * returns the sum of the entries on the diagonal of a square entries, which is
-    * also the sum of the entries's eigenvalues
+    * also the sum of the entries's eigenvalues (see SymmetricEigen)
     * @return the sum of the entries on the diagonal
     */
    public double trace() {
@@ -873,7 +1432,7 @@ public class Matrix {
    
    /**
     * returns the sum of the entries on the diagonal of a square entries, which is
-    * also the sum of the entries's eigenvalues
+    * also the sum of the entries's eigenvalues (see SymmetricEigen)
     * @param m a square Matrix object
     * @return the sum of the entries on the diagonal
     */
@@ -882,10 +1441,12 @@ public class Matrix {
          throw new IllegalArgumentException("Trace is not defined for non-square entries");
       }
       
+      m = m.strided();
       double trace = 0;
       
-      for (int i = 0; i < Matrix.getNumRows(m); i++) {
-         trace += m.getEntry(i, i);
+      // consecutive diagonal entries are one row and one column apart
+      for (int i = 0, pos = m.offset; i < m.numRows; i++, pos += m.rowStride + 1) {
+         trace += m.entries[pos];
       }
       
       return trace;
@@ -901,24 +1462,39 @@ public class Matrix {
    
    /**
     * transposes the entries. swaps the rows and columns.
+    * The copy is done in square tiles of TRANSPOSE_BLOCK entries on a side,
+    * so that both the rows being read and the rows being written stay in
+    * cache while a tile is processed.
     * @param m a Matrix object
     * @return the transpose of the Matrix object
     */
    public static Matrix transpose(Matrix m) {
-      double[][] n = new double[m.getNumColumns()][m.getNumRows()];
-      
-      for (int row = 0; row < n.length; row++) {
-         for (int col = 0; col < n[row].length; col++) {
-            n[row][col] = m.entries[col][row];
+      m = m.strided();
+      int rows = m.numColumns;
+      int cols = m.numRows;
+      double[] n = new double[rows * cols];
+
+      for (int rowBlock = 0; rowBlock < rows; rowBlock += TRANSPOSE_BLOCK) {
+         int rowEnd = Math.min(rowBlock + TRANSPOSE_BLOCK, rows);
+
+         for (int colBlock = 0; colBlock < cols; colBlock += TRANSPOSE_BLOCK) {
+            int colEnd = Math.min(colBlock + TRANSPOSE_BLOCK, cols);
+
+            for (int col = colBlock; col < colEnd; col++) {
+               int source = m.index(col, 0);
+
+               for (int row = rowBlock; row < rowEnd; row++) {
+                  n[row * cols + col] = m.entries[source + row];
+               }
+            }
          }
       }
-      
-      return new Matrix(n);
+
+      return new Matrix(rows, cols, n);
    }
 
    /**
     * swaps the entries in col1 with the entries in col2.
-    * uses two intermediary Vector objects to hold the entries
     * @param col1 the index of the first column to be swapped
     * @param col2 the index of the second column to be swapped
     * @return a Matrix with col1 and col2 swapped
@@ -929,7 +1505,7 @@ public class Matrix {
 
    /**
     * swaps the entries in col1 with the entries in col2.
-    * uses two intermediary Vector objects to hold the entries
+    * swaps the two entries of each row in a copy of m
     * @param m a Matrix object
     * @param col1 the index of the first column to be swapped
     * @param col2 the index of the second column to be swapped
@@ -944,13 +1520,20 @@ public class Matrix {
          throw new IllegalArgumentException("Invalid column: " + col2);
       }
       
-      return new Matrix(m).setColumn(col1, m.getColumn(col2))
-                          .setColumn(col2, m.getColumn(col1));
+      Matrix n = new Matrix(m);
+
+      for (int row = 0; row < n.numRows; row++) {
+         int start = n.index(row, 0);
+         double temp = n.entries[start + col1];
+         n.entries[start + col1] = n.entries[start + col2];
+         n.entries[start + col2] = temp;
+      }
+
+      return n;
    }
    
    /**
     * swaps the entries in row1 with the entries in row2.
-    * uses two intermediary Vector objects to hold the entries
     * @param row1 the index of the first row to be swapped
     * @param row2 the index of the second row to be swapped
     * @return a Matrix with row1 and row2 swapped
@@ -961,7 +1544,7 @@ public class Matrix {
    
    /**
     * swaps the entries in row1 with the entries in row2.
-    * uses two intermediary Vector objects to hold the entries
+    * copies the two rows crosswise into a copy of m
     * @param m a Matrix object
     * @param row1 the index of the first row to be swapped
     * @param row2 the index of the second row to be swapped
@@ -976,8 +1559,13 @@ public class Matrix {
          throw new IllegalArgumentException("Invalid row: " + row2);
       }
       
-      return new Matrix(m).setRow(row1, m.getRow(row2))
-                          .setRow(row2, m.getRow(row1));
+      m = m.strided();
+      Matrix n = new Matrix(m);
+
+      System.arraycopy(m.entries, m.index(row2, 0), n.entries, n.index(row1, 0), n.numColumns);
+      System.arraycopy(m.entries, m.index(row1, 0), n.entries, n.index(row2, 0), n.numColumns);
+
+      return n;
    }
 
    // *****************************************************************
@@ -1008,15 +1596,32 @@ public class Matrix {
          throw new IllegalArgumentException("Matrix objects have different dimensions.");
       }
       
-      double[][] entries = new double[a.getNumRows()][a.getNumColumns()];
-      
-      for (int row = 0; row < a.entries.length; row++) {
-         for (int col = 0; col < a.entries[0].length; col++) {
-            entries[row][col] = a.entries[row][col] + b.entries[row][col];
+      a = a.strided();
+      b = b.strided();
+      double[] entries = new double[a.numRows * a.numColumns];
+
+      for (int row = 0; row < a.numRows; row++) {
+         int aStart = a.index(row, 0);
+         int bStart = b.index(row, 0);
+         int start = row * a.numColumns;
+
+         for (int col = 0; col < a.numColumns; col++) {
+            entries[start + col] = a.entries[aStart + col] + b.entries[bStart + col];
          }
       }
-      
-      return new Matrix(entries);
+
+      return new Matrix(a.numRows, a.numColumns, entries);
+   }
+
+   /**
+    * adds a DiagonalMatrix to the calling Matrix, which must be square and
+    * of the same size. Only the diagonal of the copy changes, so e.g.
+    * A + lambda I needs no n-by-n identity. See DiagonalMatrix.add(Matrix, DiagonalMatrix).
+    * @param d an n-by-n DiagonalMatrix object
+    * @return the sum of the calling Matrix and d
+    */
+   public Matrix add(DiagonalMatrix d) {
+      return DiagonalMatrix.add(this, d);
    }
 
    /**
@@ -1039,7 +1644,32 @@ public class Matrix {
     * @return a Matrix where each entry is m[row][col] - n[row][col]
     */
    public static Matrix subtract(Matrix m, Matrix n) {
-      return Matrix.add(m, Matrix.multiply(n, -1));
+      if ( (m.getNumRows() != n.getNumRows()) ||
+           (m.getNumColumns() != n.getNumColumns()) ) {
+         throw new IllegalArgumentException("Matrix objects have different dimensions.");
+      }
+      
+      m = m.strided();
+      n = n.strided();
+      double[] entries = new double[m.numRows * m.numColumns];
+
+      for (int row = 0; row < m.numRows; row++) {
+         VectorKernels.subtract(m.entries, m.index(row, 0), 1, n.entries, n.index(row, 0), 1,
+                                entries, row * m.numColumns, m.numColumns);
+      }
+
+      return new Matrix(m.numRows, m.numColumns, entries);
+   }
+
+   /**
+    * subtracts a DiagonalMatrix from the calling Matrix, which must be
+    * square and of the same size. Only the diagonal of the copy changes.
+    * See DiagonalMatrix.subtract(Matrix, DiagonalMatrix).
+    * @param d an n-by-n DiagonalMatrix object
+    * @return the calling Matrix minus d
+    */
+   public Matrix subtract(DiagonalMatrix d) {
+      return DiagonalMatrix.subtract(this, d);
    }
 
    /**
@@ -1060,15 +1690,19 @@ public class Matrix {
     *         multiplied by x
     */
    public static Matrix multiply(Matrix m, double x) {
-      double[][] entries = new double[m.getNumRows()][m.getNumColumns()];
-      
-      for (int row = 0; row < m.getNumRows(); row++) {
-         for (int col = 0; col < m.getNumColumns(); col++) {
-            entries[row][col] = m.getEntry(row, col) * x;
+      m = m.strided();
+      double[] entries = new double[m.numRows * m.numColumns];
+
+      for (int row = 0; row < m.numRows; row++) {
+         int source = m.index(row, 0);
+         int start = row * m.numColumns;
+
+         for (int col = 0; col < m.numColumns; col++) {
+            entries[start + col] = m.entries[source + col] * x;
          }
       }
-      
-      return new Matrix(entries);
+
+      return new Matrix(m.numRows, m.numColumns, entries);
    }
    
    /**
@@ -1092,7 +1726,55 @@ public class Matrix {
     */
    public Vector multiply(Vector u) {
       return Matrix.multiply(this, u);
+   }
+
+   /**
+    * applies the Matrix to a Vector, as a LinearOperator. Same as multiply(Vector).
+    * @param u a Vector object
+    * @return the product of the Matrix and u
+    */
+   @Override
+   public Vector apply(Vector u) {
+      return Matrix.multiply(this, u);
    }  
+
+   /**
+    * applies the transpose of the Matrix to a Vector, as a LinearOperator.
+    * See applyTranspose(Matrix, Vector).
+    * @param u a Vector object
+    * @return the product of the transpose of the Matrix and u
+    */
+   @Override
+   public Vector applyTranspose(Vector u) {
+      return Matrix.applyTranspose(this, u);
+   }
+
+   /**
+    * returns m^T u without forming the transpose of m. The result is the
+    * sum of the rows of m, each scaled by the matching entry of u, so m is
+    * read row by row in the order it is stored. Number of entries in the
+    * vector must match the number of rows of m.
+    * @param m the Matrix object
+    * @param u the Vector object
+    * @return a Vector object containing the product m^T u
+    */
+   public static Vector applyTranspose(Matrix m, Vector u) {
+      if (u.length() != m.getNumRows()) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      m = m.strided();
+      double[] x = u.getEntries();
+      double[] result = new double[m.numColumns];
+
+      for (int i = 0; i < m.numRows; i++) {
+         if (x[i] != 0) {
+            VectorKernels.axpy(x[i], m.entries, m.index(i, 0), 1, result, 0, 1, m.numColumns);
+         }
+      }
+
+      return new Vector(result, 0, 1, m.numColumns);
+   }
    
    /**
     * multiplies the given vector by the given entries. this method treats the
@@ -1122,10 +1804,19 @@ public class Matrix {
          throw new IllegalArgumentException("Incompatible shapes.\n");
       }
    
-      double[] result = new double[m.entries.length];
-      
-      for (int i = 0; i < m.entries.length; i++) {
-         result[i] = m.getRow(i).dot(u);
+      m = m.strided();
+      double[] x = u.getEntries();
+      double[] result = new double[m.numRows];
+
+      for (int i = 0; i < m.numRows; i++) {
+         int start = m.index(i, 0);
+         double sum = 0;
+
+         for (int j = 0; j < m.numColumns; j++) {
+            sum += m.entries[start + j] * x[j];
+         }
+
+         result[i] = sum;
       }
       
       return new Vector(result);
@@ -1145,7 +1836,9 @@ public class Matrix {
    /**
     * multiplies two matrices together via entries multiplication.
     * the [i][j]-th entry is the dot product of row i from Matrix a
-    * and column j from Matrix b.
+    * and column j from Matrix b. The product is computed by the cache-blocked
+    * kernel in Gemm, which packs panels of a and b and accumulates tiles of
+    * the result in registers instead of forming each dot product separately.
     * if a is an m-by-n Matrix and b is an n-by-p Matrix, then the
     * returned entries ab will be an m-by-p Matrix.
     * The number of columns in a must match the number of rows in b,
@@ -1159,15 +1852,128 @@ public class Matrix {
          throw new IllegalArgumentException("Matrix dimensions are incompatible.");
       }
       
-      double[][] entries = new double[a.getNumRows()][b.getNumColumns()];
+      a = a.strided();
+      b = b.strided();
+      int p = b.numColumns;
+      double[] entries = new double[a.numRows * p];
+
+      Gemm.multiply(a.numRows, p, a.numColumns,
+                    a.entries, a.offset, a.rowStride,
+                    b.entries, b.offset, b.rowStride,
+                    entries, 0, p);
+
+      return new Matrix(a.numRows, p, entries);  
+   }
+
+   /**
+    * multiplies the calling Matrix on the right by a DiagonalMatrix, which
+    * scales column j by the j-th diagonal entry, in O(mn) instead of the
+    * O(mn^2) of a dense product. See DiagonalMatrix.multiply(Matrix, DiagonalMatrix).
+    * @param d a DiagonalMatrix with one row per column of the calling Matrix
+    * @return the product of the calling Matrix and d
+    */
+   public Matrix multiply(DiagonalMatrix d) {
+      return DiagonalMatrix.multiply(this, d);
+   }
+
+   /**
+    * multiplies the calling Matrix on the right by a TriangularMatrix,
+    * skipping its zero half, in about half the work of a dense product.
+    * See TriangularMatrix.multiply(Matrix, TriangularMatrix).
+    * @param t a TriangularMatrix with one row per column of the calling Matrix
+    * @return the product of the calling Matrix and t
+    */
+   public Matrix multiply(TriangularMatrix t) {
+      return TriangularMatrix.multiply(this, t);
+   }
+
+   /**
+    * multiplies the calling Matrix on the right by a Permutation, which
+    * moves column k to column p.get(k), without any multiplications.
+    * See Permutation.multiply(Matrix, Permutation).
+    * @param p a Permutation with one entry per column of the calling Matrix
+    * @return the product of the calling Matrix and p
+    */
+   public Matrix multiply(Permutation p) {
+      return Permutation.multiply(this, p);
+   }
+
+   /**
+    * returns the Gram Matrix A^T A of the calling Matrix, computing only
+    * one triangle and without forming the transpose. Use this instead of
+    * transpose().multiply(this). See SymmetricMatrix.syrk.
+    * @return the SymmetricMatrix A^T A, with one row per column of the calling Matrix
+    */
+   public SymmetricMatrix gram() {
+      return SymmetricMatrix.gram(this);
+   }
+
+   /**
+    * If the calling Matrix is a, returns the product ab, computed on
+    * several threads. See multiplyParallel(Matrix, Matrix, ForkJoinPool).
+    * @param b a Matrix object
+    * @return the product ab, where a is the calling entries
+    */
+   public Matrix multiplyParallel(Matrix b) {
+      return Matrix.multiplyParallel(this, b);
+   }
+
+   /**
+    * If the calling Matrix is a, returns the product ab, computed on
+    * the threads of the given pool. See multiplyParallel(Matrix, Matrix, ForkJoinPool).
+    * @param b a Matrix object
+    * @param pool the ForkJoinPool to run the multiplication in
+    * @return the product ab, where a is the calling entries
+    */
+   public Matrix multiplyParallel(Matrix b, ForkJoinPool pool) {
+      return Matrix.multiplyParallel(this, b, pool);
+   }
+
+   /**
+    * multiplies two matrices together on several threads, using a shared
+    * ForkJoinPool with one worker per available processor.
+    * See multiplyParallel(Matrix, Matrix, ForkJoinPool).
+    * @param a an m-by-n Matrix object
+    * @param b an n-by-p Matrix object
+    * @return ab: an m-by-p Matrix object
+    */
+   public static Matrix multiplyParallel(Matrix a, Matrix b) {
+      return Matrix.multiplyParallel(a, b, Gemm.defaultPool());
+   }
+
+   /**
+    * multiplies two matrices together on the threads of the given pool.
+    * The result is split into blocks of rows and columns, and each block is
+    * computed by a ForkJoinPool task running the same kernel as multiply.
+    * Small products are computed on the calling thread, since splitting them
+    * costs more than it saves.
+    * The number of columns in a must match the number of rows in b,
+    * or else an IllegalArgumentException will be thrown.
+    * @param a an m-by-n Matrix object
+    * @param b an n-by-p Matrix object
+    * @param pool the ForkJoinPool to run the multiplication in
+    * @return ab: an m-by-p Matrix object
+    */
+   public static Matrix multiplyParallel(Matrix a, Matrix b, ForkJoinPool pool) {
+      if (a.getNumColumns() != b.getNumRows()) {
+         throw new IllegalArgumentException("Matrix dimensions are incompatible.");
+      }
       
-      for (int row = 0; row < a.getNumRows(); row++) {
-         for (int col = 0; col < b.getNumColumns(); col++) {
-            entries[row][col] = Vector.dot(a.getRow(row), b.getColumn(col));
-         }
+      if (pool == null) {
+         throw new IllegalArgumentException("pool is null");
       }
       
-      return new Matrix(entries);  
+      a = a.strided();
+      b = b.strided();
+      int p = b.numColumns;
+      double[] entries = new double[a.numRows * p];
+
+      Gemm.multiplyParallel(a.numRows, p, a.numColumns,
+                            a.entries, a.offset, a.rowStride,
+                            b.entries, b.offset, b.rowStride,
+                            entries, 0, p, pool);
+
+      return new Matrix(a.numRows, p, entries);
    }
 
    /**
@@ -1194,11 +2000,17 @@ public class Matrix {
          throw new IllegalArgumentException("col is not in the correct range");
       }
    
-      if (u.length() != m.getColumn(col).length()) {
+      if (u.length() != m.numRows) {
          throw new IllegalArgumentException("Vector length does not match row length");
       }
-      
-      return m.setColumn(col, m.getColumn(col).add(u));
+
+      Matrix n = new Matrix(m);
+
+      for (int row = 0; row < n.numRows; row++) {
+         n.entries[n.index(row, col)] += u.get(row);
+      }
+
+      return n;
    }
    
    /**
@@ -1225,11 +2037,18 @@ public class Matrix {
          throw new IllegalArgumentException("row is not in the correct range");
       }
    
-      if (u.length() != m.getRow(row).length()) {
+      if (u.length() != m.numColumns) {
          throw new IllegalArgumentException("Vector length does not match row length");
       }
-      
-      return m.setRow(row, m.getRow(row).add(u));
+
+      Matrix n = new Matrix(m);
+      int start = n.index(row, 0);
+
+      for (int col = 0; col < n.numColumns; col++) {
+         n.entries[start + col] += u.get(col);
+      }
+
+      return n;
    }
 
    // *****************************************************************
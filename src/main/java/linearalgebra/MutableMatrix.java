@@ -0,0 +1,506 @@
+package linearalgebra;
+
+/**
+ * The MutableMatrix class is the in-place companion of Matrix. Matrix
+ * operations such as setEntry, setRow, swapRows and addVectorToRow copy the
+ * whole Matrix to change a few entries. A MutableMatrix owns one flat
+ * row-major array and overwrites it instead, so updating a weight matrix
+ * allocates nothing, and changing one entry or one row costs only that
+ * entry or row.
+ *
+ * Besides elementwise updates (addInPlace, scaleInPlace, axpy), it has the
+ * three elementary row operations used by elimination algorithms:
+ * swapRows, scaleRow and addRowMultiple.
+ *
+ * The in-place operations return the MutableMatrix itself, so they can be
+ * chained.
+ *
+ * Converting to and from Matrix:
+ *    new MutableMatrix(m) and toMatrix() copy the entries once.
+ *    asMatrix(), rowView(int) and columnView(int) wrap the entries without
+ *    copying, so that the Matrix and Vector operations can read them. These
+ *    see later changes to the MutableMatrix, so they should not be kept past
+ *    the next update.
+ */
+
+public class MutableMatrix {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * entries holds the entries in row-major order: entry [row][col] is
+    * entries[row * numColumns + col]
+    */
+   private final double[] entries;
+
+   /**
+    * the number of rows in the MutableMatrix
+    */
+   private final int numRows;
+
+   /**
+    * the number of columns in the MutableMatrix
+    */
+   private final int numColumns;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * creates a numRows-by-numColumns MutableMatrix with all entries 0.
+    * @param numRows the number of rows
+    * @param numColumns the number of columns
+    */
+   public MutableMatrix(int numRows, int numColumns) {
+      if (numRows < 1 || numColumns < 1) {
+         throw new IllegalArgumentException("Matrix must have at least one row and one column");
+      }
+
+      this.numRows = numRows;
+      this.numColumns = numColumns;
+      this.entries = new double[numRows * numColumns];
+   }
+
+   /**
+    * accepts a 2D array of doubles and copies them into the entries field.
+    * @param entries a 2D array of doubles
+    */
+   public MutableMatrix(double[][] entries) {
+      this(new Matrix(entries));
+   }
+
+   /**
+    * copies the entries of a Matrix (which may be a view).
+    * @param m a Matrix object
+    */
+   public MutableMatrix(Matrix m) {
+      this.numRows = m.getNumRows();
+      this.numColumns = m.getNumColumns();
+      this.entries = m.toArray();
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * @return the number of rows in the MutableMatrix
+    */
+   public int getNumRows() {
+      return this.numRows;
+   }
+
+   /**
+    * @return the number of columns in the MutableMatrix
+    */
+   public int getNumColumns() {
+      return this.numColumns;
+   }
+
+   /**
+    * returns the entry in the row-th row and the col-th column.
+    * @param row the index of the row
+    * @param col the index of the column
+    * @return the entry at [row][col]
+    */
+   public double getEntry(int row, int col) {
+      this.checkRow(row);
+      this.checkColumn(col);
+
+      return this.entries[row * this.numColumns + col];
+   }
+
+   /**
+    * returns a copy of the entries as a 2D array.
+    * @return a copy of the entries
+    */
+   public double[][] getEntries() {
+      return this.asMatrix().getEntries();
+   }
+
+   /**
+    * copies the entries into a new (immutable) Matrix.
+    * @return a Matrix with the current entries
+    */
+   public Matrix toMatrix() {
+      return new Matrix(this.numRows, this.numColumns, this.entries.clone());
+   }
+
+   /**
+    * wraps the entries in a Matrix without copying. The Matrix reflects
+    * any later changes to this MutableMatrix.
+    * @return a Matrix view of the current entries
+    */
+   public Matrix asMatrix() {
+      return new Matrix(this.numRows, this.numColumns, this.entries);
+   }
+
+   /**
+    * returns a Vector view of the given row, without copying. The Vector
+    * reflects any later changes to this MutableMatrix.
+    * @param row the index of the row
+    * @return a Vector view of the row
+    */
+   public Vector rowView(int row) {
+      this.checkRow(row);
+
+      return new Vector(this.entries, row * this.numColumns, 1, this.numColumns);
+   }
+
+   /**
+    * returns a Vector view of the given column, without copying. The Vector
+    * reflects any later changes to this MutableMatrix.
+    * @param col the index of the column
+    * @return a Vector view of the column
+    */
+   public Vector columnView(int col) {
+      this.checkColumn(col);
+
+      return new Vector(this.entries, col, this.numColumns, this.numRows);
+   }
+
+   @Override
+   public String toString() {
+      return this.asMatrix().toString();
+   }
+
+   private void checkRow(int row) {
+      if (row < 0 || row >= this.numRows) {
+         throw new IllegalArgumentException("Invalid row: " + row);
+      }
+   }
+
+   private void checkColumn(int col) {
+      if (col < 0 || col >= this.numColumns) {
+         throw new IllegalArgumentException("Invalid column: " + col);
+      }
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * Changes the entry in the row-th row and the col-th column to value.
+    * @param value a double––the value we want to set
+    * @param row the index of the row
+    * @param col the index of the column
+    * @return this MutableMatrix
+    */
+   public MutableMatrix setEntry(double value, int row, int col) {
+      return MutableMatrix.setEntry(this, value, row, col);
+   }
+
+   /**
+    * Changes the entry in the row-th row and the col-th column of m to value.
+    * @param m a MutableMatrix object
+    * @param value a double––the value we want to set
+    * @param row the index of the row
+    * @param col the index of the column
+    * @return m
+    */
+   public static MutableMatrix setEntry(MutableMatrix m, double value, int row, int col) {
+      m.checkRow(row);
+      m.checkColumn(col);
+
+      m.entries[row * m.numColumns + col] = value;
+      return m;
+   }
+
+   /**
+    * overwrites the given row with the entries of u.
+    * @param row an index for the row
+    * @param u a Vector object with one entry per column
+    * @return this MutableMatrix
+    */
+   public MutableMatrix setRow(int row, Vector u) {
+      return MutableMatrix.setRow(this, row, u);
+   }
+
+   /**
+    * overwrites the given row of m with the entries of u. If the row length
+    * and the Vector length do not match, an IllegalArgumentException will
+    * be thrown.
+    * @param m a MutableMatrix object
+    * @param row an index for the row
+    * @param u a Vector object with one entry per column
+    * @return m
+    */
+   public static MutableMatrix setRow(MutableMatrix m, int row, Vector u) {
+      m.checkRow(row);
+
+      if (u.length() != m.numColumns) {
+         throw new IllegalArgumentException("Vector length does not match row length.");
+      }
+
+      Vector.copyInto(u, m.entries, row * m.numColumns, 1);
+      return m;
+   }
+
+   /**
+    * overwrites the given column with the entries of u.
+    * @param col an index for the column
+    * @param u a Vector object with one entry per row
+    * @return this MutableMatrix
+    */
+   public MutableMatrix setColumn(int col, Vector u) {
+      return MutableMatrix.setColumn(this, col, u);
+   }
+
+   /**
+    * overwrites the given column of m with the entries of u. If the column
+    * length and the Vector length do not match, an IllegalArgumentException
+    * will be thrown.
+    * @param m a MutableMatrix object
+    * @param col an index for the column
+    * @param u a Vector object with one entry per row
+    * @return m
+    */
+   public static MutableMatrix setColumn(MutableMatrix m, int col, Vector u) {
+      m.checkColumn(col);
+
+      if (u.length() != m.numRows) {
+         throw new IllegalArgumentException("Vector length does not match column length.");
+      }
+
+      Vector.copyInto(u, m.entries, col, m.numColumns);
+      return m;
+   }
+
+   /**
+    * adds the passed Vector to the specified row.
+    * @param u a Vector object with one entry per column
+    * @param row the row to which we want to add u
+    * @return this MutableMatrix
+    */
+   public MutableMatrix addVectorToRow(Vector u, int row) {
+      return MutableMatrix.addVectorToRow(this, u, row);
+   }
+
+   /**
+    * adds the passed Vector to the specified row of m.
+    * throws an IllegalArgumentException if the dimensions don't line up.
+    * @param m a MutableMatrix object
+    * @param u a Vector object with one entry per column
+    * @param row the row to which we want to add u
+    * @return m
+    */
+   public static MutableMatrix addVectorToRow(MutableMatrix m, Vector u, int row) {
+      m.checkRow(row);
+
+      if (u.length() != m.numColumns) {
+         throw new IllegalArgumentException("Vector length does not match row length");
+      }
+
+      Vector.addScaledInto(1, u, m.entries, row * m.numColumns, 1);
+      return m;
+   }
+
+   /**
+    * adds the passed Vector to the specified column.
+    * @param u a Vector object with one entry per row
+    * @param col the column to which we want to add u
+    * @return this MutableMatrix
+    */
+   public MutableMatrix addVectorToColumn(Vector u, int col) {
+      return MutableMatrix.addVectorToColumn(this, u, col);
+   }
+
+   /**
+    * adds the passed Vector to the specified column of m.
+    * throws an IllegalArgumentException if the dimensions don't line up.
+    * @param m a MutableMatrix object
+    * @param u a Vector object with one entry per row
+    * @param col the column to which we want to add u
+    * @return m
+    */
+   public static MutableMatrix addVectorToColumn(MutableMatrix m, Vector u, int col) {
+      m.checkColumn(col);
+
+      if (u.length() != m.numRows) {
+         throw new IllegalArgumentException("Vector length does not match column length");
+      }
+
+      Vector.addScaledInto(1, u, m.entries, col, m.numColumns);
+      return m;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * swaps the entries in row1 with the entries in row2.
+    * @param row1 the index of the first row to be swapped
+    * @param row2 the index of the second row to be swapped
+    * @return this MutableMatrix
+    */
+   public MutableMatrix swapRows(int row1, int row2) {
+      return MutableMatrix.swapRows(this, row1, row2);
+   }
+
+   /**
+    * swaps the entries in row1 of m with the entries in row2.
+    * @param m a MutableMatrix object
+    * @param row1 the index of the first row to be swapped
+    * @param row2 the index of the second row to be swapped
+    * @return m
+    */
+   public static MutableMatrix swapRows(MutableMatrix m, int row1, int row2) {
+      m.checkRow(row1);
+      m.checkRow(row2);
+
+      int start1 = row1 * m.numColumns;
+      int start2 = row2 * m.numColumns;
+
+      for (int col = 0; col < m.numColumns; col++) {
+         double temp = m.entries[start1 + col];
+         m.entries[start1 + col] = m.entries[start2 + col];
+         m.entries[start2 + col] = temp;
+      }
+
+      return m;
+   }
+
+   /**
+    * multiplies every entry of the given row by scalar.
+    * @param row the index of the row
+    * @param scalar a real number
+    * @return this MutableMatrix
+    */
+   public MutableMatrix scaleRow(int row, double scalar) {
+      return MutableMatrix.scaleRow(this, row, scalar);
+   }
+
+   /**
+    * multiplies every entry of the given row of m by scalar.
+    * @param m a MutableMatrix object
+    * @param row the index of the row
+    * @param scalar a real number
+    * @return m
+    */
+   public static MutableMatrix scaleRow(MutableMatrix m, int row, double scalar) {
+      m.checkRow(row);
+
+      int start = row * m.numColumns;
+      VectorKernels.scale(m.entries, start, 1, scalar, m.entries, start, m.numColumns);
+      return m;
+   }
+
+   /**
+    * adds factor times row source to row target.
+    * @param target the index of the row that is changed
+    * @param source the index of the row that is added
+    * @param factor a real number
+    * @return this MutableMatrix
+    */
+   public MutableMatrix addRowMultiple(int target, int source, double factor) {
+      return MutableMatrix.addRowMultiple(this, target, source, factor);
+   }
+
+   /**
+    * adds factor times row source of m to row target of m, i.e.
+    * m[target] = m[target] + factor * m[source].
+    * @param m a MutableMatrix object
+    * @param target the index of the row that is changed
+    * @param source the index of the row that is added
+    * @param factor a real number
+    * @return m
+    */
+   public static MutableMatrix addRowMultiple(MutableMatrix m, int target, int source, double factor) {
+      m.checkRow(target);
+      m.checkRow(source);
+
+      VectorKernels.axpy(factor, m.entries, source * m.numColumns, 1,
+                         m.entries, target * m.numColumns, 1, m.numColumns);
+      return m;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * adds the entries of b to the entries of the calling MutableMatrix.
+    * @param b a Matrix object with the same dimensions
+    * @return this MutableMatrix
+    */
+   public MutableMatrix addInPlace(Matrix b) {
+      return MutableMatrix.addInPlace(this, b);
+   }
+
+   /**
+    * adds the entries of b to the entries of m, i.e. m = m + b.
+    * Throws an IllegalArgumentException if the dimensions differ.
+    * @param m a MutableMatrix object
+    * @param b a Matrix object with the same dimensions
+    * @return m
+    */
+   public static MutableMatrix addInPlace(MutableMatrix m, Matrix b) {
+      return MutableMatrix.axpy(m, 1, b);
+   }
+
+   /**
+    * subtracts the entries of b from the entries of the calling MutableMatrix.
+    * @param b a Matrix object with the same dimensions
+    * @return this MutableMatrix
+    */
+   public MutableMatrix subtractInPlace(Matrix b) {
+      return MutableMatrix.subtractInPlace(this, b);
+   }
+
+   /**
+    * subtracts the entries of b from the entries of m, i.e. m = m - b.
+    * Throws an IllegalArgumentException if the dimensions differ.
+    * @param m a MutableMatrix object
+    * @param b a Matrix object with the same dimensions
+    * @return m
+    */
+   public static MutableMatrix subtractInPlace(MutableMatrix m, Matrix b) {
+      return MutableMatrix.axpy(m, -1, b);
+   }
+
+   /**
+    * multiplies every entry of the calling MutableMatrix by scalar.
+    * @param scalar a real number
+    * @return this MutableMatrix
+    */
+   public MutableMatrix scaleInPlace(double scalar) {
+      return MutableMatrix.scaleInPlace(this, scalar);
+   }
+
+   /**
+    * multiplies every entry of m by scalar, i.e. m = scalar * m.
+    * @param m a MutableMatrix object
+    * @param scalar a real number
+    * @return m
+    */
+   public static MutableMatrix scaleInPlace(MutableMatrix m, double scalar) {
+      VectorKernels.scale(m.entries, 0, 1, scalar, m.entries, 0, m.entries.length);
+      return m;
+   }
+
+   /**
+    * adds alpha * b to the calling MutableMatrix. See axpy(MutableMatrix, double, Matrix).
+    * @param alpha a real number
+    * @param b a Matrix object with the same dimensions
+    * @return this MutableMatrix
+    */
+   public MutableMatrix axpy(double alpha, Matrix b) {
+      return MutableMatrix.axpy(this, alpha, b);
+   }
+
+   /**
+    * adds alpha * b to m, i.e. m = m + alpha * b.
+    * Throws an IllegalArgumentException if the dimensions differ.
+    * @param m a MutableMatrix object
+    * @param alpha a real number
+    * @param b a Matrix object with the same dimensions
+    * @return m
+    */
+   public static MutableMatrix axpy(MutableMatrix m, double alpha, Matrix b) {
+      if (m.numRows != b.getNumRows() || m.numColumns != b.getNumColumns()) {
+         throw new IllegalArgumentException("Matrix objects have different dimensions.");
+      }
+
+      Matrix.addScaledInto(alpha, b, m.entries);
+      return m;
+   }
+}
@@ -0,0 +1,253 @@
+package linearalgebra;
+
+/**
+ * The MutableVector class is the in-place companion of Vector. Every
+ * Vector operation returns a new Vector, which makes a tight update loop
+ * (e.g. w = w - rate * gradient, millions of times) allocate a full-size
+ * array per step. A MutableVector owns one array and overwrites it, so
+ * those updates allocate nothing.
+ *
+ * The in-place operations return the MutableVector itself, so they can be
+ * chained: w.scaleInPlace(decay).axpy(-rate, gradient).
+ *
+ * Converting to and from Vector:
+ *    new MutableVector(u) and toVector() copy the entries once.
+ *    asVector() wraps the entries in a Vector without copying, so that the
+ *    Vector operations can read them. That Vector sees later changes to the
+ *    MutableVector, so it should not be kept past the next update.
+ */
+
+public class MutableVector {
+
+   // ********************************************************
+   // ********************************************************
+
+   /**
+    * entries contains the entries in the vector
+    */
+   private final double[] entries;
+
+   // ********************************************************
+   // ********************************************************
+
+   /**
+    * creates a MutableVector of the given length with all entries 0.
+    * @param length the number of entries
+    */
+   public MutableVector(int length) {
+      if (length < 0) {
+         throw new IllegalArgumentException("length must be >= 0");
+      }
+
+      this.entries = new double[length];
+   }
+
+   /**
+    * Constructor makes a copy of the array passed.
+    * @param entries an array containing the entries in the vector
+    */
+   public MutableVector(double ... entries) {
+      this.entries = entries.clone();
+   }
+
+   /**
+    * copies the entries of a Vector (which may be a view).
+    * @param u a Vector object
+    */
+   public MutableVector(Vector u) {
+      this.entries = u.getEntries();
+   }
+
+   // ********************************************************
+   // ********************************************************
+
+   /**
+    * @return the number of entries in the MutableVector
+    */
+   public int length() {
+      return this.entries.length;
+   }
+
+   /**
+    * returns the entry at the given index.
+    * @param index the index of the entry
+    * @return the entry at index
+    */
+   public double get(int index) {
+      return this.entries[index];
+   }
+
+   /**
+    * returns a copy of entries, not a reference to entries.
+    * @return a copy of the array entries
+    */
+   public double[] getEntries() {
+      return this.entries.clone();
+   }
+
+   /**
+    * copies the entries into a new (immutable) Vector.
+    * @return a Vector with the current entries
+    */
+   public Vector toVector() {
+      return new Vector(this.entries.clone(), 0, 1, this.entries.length);
+   }
+
+   /**
+    * wraps the entries in a Vector without copying. The Vector reflects any
+    * later changes to this MutableVector.
+    * @return a Vector view of the current entries
+    */
+   public Vector asVector() {
+      return new Vector(this.entries, 0, 1, this.entries.length);
+   }
+
+   /**
+    * Return a String containing the vector represented as a row in brackets, e.g.
+    * [1.0, 2.2, 3.1, 4.9, 5.7]
+    * @return a String representation of the vector
+    */
+   @Override
+   public String toString() {
+      return this.asVector().toString();
+   }
+
+   // ********************************************************
+   // ********************************************************
+
+   /**
+    * sets the entry at index to value.
+    * @param index the index we want to modify
+    * @param value the new value
+    * @return this MutableVector
+    */
+   public MutableVector setEntry(int index, double value) {
+      return MutableVector.setEntry(this, index, value);
+   }
+
+   /**
+    * sets the entry of u at index to value.
+    * @param u a MutableVector object
+    * @param index the index we want to modify
+    * @param value the new value
+    * @return u
+    */
+   public static MutableVector setEntry(MutableVector u, int index, double value) {
+      if (index < 0 || index >= u.entries.length) {
+         throw new IllegalArgumentException("Index is out of range");
+      }
+
+      u.entries[index] = value;
+      return u;
+   }
+
+   /**
+    * adds the entries of v to the entries of the calling MutableVector.
+    * @param v a Vector object of the same length
+    * @return this MutableVector
+    */
+   public MutableVector addInPlace(Vector v) {
+      return MutableVector.addInPlace(this, v);
+   }
+
+   /**
+    * adds the entries of v to the entries of u, i.e. u = u + v.
+    * Throws an IllegalArgumentException if the lengths differ.
+    * @param u a MutableVector object
+    * @param v a Vector object of the same length
+    * @return u
+    */
+   public static MutableVector addInPlace(MutableVector u, Vector v) {
+      return MutableVector.axpy(u, 1, v);
+   }
+
+   /**
+    * subtracts the entries of v from the entries of the calling MutableVector.
+    * @param v a Vector object of the same length
+    * @return this MutableVector
+    */
+   public MutableVector subtractInPlace(Vector v) {
+      return MutableVector.subtractInPlace(this, v);
+   }
+
+   /**
+    * subtracts the entries of v from the entries of u, i.e. u = u - v.
+    * Throws an IllegalArgumentException if the lengths differ.
+    * @param u a MutableVector object
+    * @param v a Vector object of the same length
+    * @return u
+    */
+   public static MutableVector subtractInPlace(MutableVector u, Vector v) {
+      return MutableVector.axpy(u, -1, v);
+   }
+
+   /**
+    * multiplies every entry of the calling MutableVector by scalar.
+    * @param scalar a real number
+    * @return this MutableVector
+    */
+   public MutableVector scaleInPlace(double scalar) {
+      return MutableVector.scaleInPlace(this, scalar);
+   }
+
+   /**
+    * multiplies every entry of u by scalar, i.e. u = scalar * u.
+    * @param u a MutableVector object
+    * @param scalar a real number
+    * @return u
+    */
+   public static MutableVector scaleInPlace(MutableVector u, double scalar) {
+      VectorKernels.scale(u.entries, 0, 1, scalar, u.entries, 0, u.entries.length);
+      return u;
+   }
+
+   /**
+    * adds alpha * v to the calling MutableVector. See axpy(MutableVector, double, Vector).
+    * @param alpha a real number
+    * @param v a Vector object of the same length
+    * @return this MutableVector
+    */
+   public MutableVector axpy(double alpha, Vector v) {
+      return MutableVector.axpy(this, alpha, v);
+   }
+
+   /**
+    * adds alpha * v to u, i.e. u = u + alpha * v (the BLAS axpy operation).
+    * Throws an IllegalArgumentException if the lengths differ.
+    * @param u a MutableVector object
+    * @param alpha a real number
+    * @param v a Vector object of the same length
+    * @return u
+    */
+   public static MutableVector axpy(MutableVector u, double alpha, Vector v) {
+      if (u.entries.length != v.length()) {
+         throw new IllegalArgumentException("Vectors are different lengths");
+      }
+
+      Vector.addScaledInto(alpha, v, u.entries, 0, 1);
+      return u;
+   }
+
+   /**
+    * adds alpha * s to the calling MutableVector. See axpy(MutableVector, double, SparseVector).
+    * @param alpha a real number
+    * @param s a SparseVector object of the same length
+    * @return this MutableVector
+    */
+   public MutableVector axpy(double alpha, SparseVector s) {
+      return MutableVector.axpy(this, alpha, s);
+   }
+
+   /**
+    * adds alpha * s to u, scattering into the stored positions of s only,
+    * in O(nnz). Throws an IllegalArgumentException if the lengths differ.
+    * @param u a MutableVector object
+    * @param alpha a real number
+    * @param s a SparseVector object of the same length
+    * @return u
+    */
+   public static MutableVector axpy(MutableVector u, double alpha, SparseVector s) {
+      SparseVector.addScaledInto(alpha, s, u.entries);
+      return u;
+   }
+}
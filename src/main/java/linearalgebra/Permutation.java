@@ -0,0 +1,375 @@
+package linearalgebra;
+
+/**
+ * The Permutation class stores an n-by-n permutation Matrix P as an int
+ * array: index[i] is the column of the one in row i, so
+ *
+ *    (P u)[i] = u[index[i]]        and        row i of PA = row index[i] of A.
+ *
+ * Applying a Permutation is a gather with no multiplications: O(n) for a
+ * Vector and O(mn) row or column copies for a Matrix, instead of the
+ * O(n^2) or O(mn^2) of a dense product. Composition, inverse (which is the
+ * transpose) and the sign take O(n). This is the form of the row
+ * permutation of an LUDecomposition (see getPermutation()).
+ *
+ * Like Matrix, a Permutation is never modified in place.
+ */
+
+public class Permutation implements LinearOperator {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * index[i] is the column of the one in row i
+    */
+   private final int[] index;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * builds the Permutation that takes entry index[i] of a Vector to
+    * entry i. The array is copied. Throws an IllegalArgumentException if
+    * the entries are not 0 to n - 1, each exactly once.
+    * @param index the column of the one in each row, at least one entry
+    */
+   public Permutation(int ... index) {
+      this(Permutation.check(index.clone()), true);
+   }
+
+   /**
+    * converts a dense permutation Matrix. Throws an IllegalArgumentException
+    * if m is not square or not a permutation Matrix.
+    * @param m a permutation Matrix object
+    */
+   public Permutation(Matrix m) {
+      this(Permutation.indexOf(m), true);
+   }
+
+   /**
+    * wraps an array that is known to be a permutation, without copying it.
+    * The caller hands ownership of the array to the new Permutation.
+    */
+   private Permutation(int[] index, boolean wrap) {
+      this.index = index;
+   }
+
+   /**
+    * returns the n-by-n identity Permutation.
+    * @param n the size, at least 1
+    * @return the identity
+    */
+   public static Permutation identity(int n) {
+      if (n < 1) {
+         throw new IllegalArgumentException("Size must be at least 1");
+      }
+
+      int[] index = new int[n];
+
+      for (int i = 0; i < n; i++) {
+         index[i] = i;
+      }
+
+      return new Permutation(index, true);
+   }
+
+   private static int[] check(int[] index) {
+      if (index.length == 0) {
+         throw new IllegalArgumentException("Permutation must have at least one entry");
+      }
+
+      boolean[] seen = new boolean[index.length];
+
+      for (int i : index) {
+         if (i < 0 || i >= index.length || seen[i]) {
+            throw new IllegalArgumentException("Entries are not a permutation of 0 to n - 1");
+         }
+
+         seen[i] = true;
+      }
+
+      return index;
+   }
+
+   private static int[] indexOf(Matrix m) {
+      if (!Matrix.isSquare(m)) {
+         throw new IllegalArgumentException("Matrix is not square");
+      }
+
+      int[] index = Matrix.permutationIndex(m);
+
+      if (index == null) {
+         throw new IllegalArgumentException("Matrix is not a permutation Matrix");
+      }
+
+      return index;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * @return n, the number of entries permuted
+    */
+   public int size() {
+      return this.index.length;
+   }
+
+   @Override
+   public int getNumRows() {
+      return this.index.length;
+   }
+
+   @Override
+   public int getNumColumns() {
+      return this.index.length;
+   }
+
+   /**
+    * returns the column of the one in the given row, which is the entry of
+    * a Vector that P moves to that row.
+    * @param row a row between 0 and n - 1
+    * @return index[row]
+    */
+   public int get(int row) {
+      if (row < 0 || row >= this.index.length) {
+         throw new IllegalArgumentException("Invalid value for row.");
+      }
+
+      return this.index[row];
+   }
+
+   /**
+    * @return a copy of the index array
+    */
+   public int[] toArray() {
+      return this.index.clone();
+   }
+
+   /**
+    * converts the Permutation to a dense n-by-n permutation Matrix.
+    * @return a Matrix with a one in column index[i] of each row i
+    */
+   public Matrix toMatrix() {
+      int n = this.index.length;
+      double[] entries = new double[n * n];
+
+      for (int i = 0; i < n; i++) {
+         entries[i * n + this.index[i]] = 1;
+      }
+
+      return new Matrix(n, n, entries);
+   }
+
+   /**
+    * returns the sign of the Permutation, (-1)^(n - number of cycles),
+    * which is the determinant of P. Takes O(n).
+    * @return +1 for an even Permutation, -1 for an odd one
+    */
+   public int sign() {
+      int n = this.index.length;
+      boolean[] visited = new boolean[n];
+      int cycles = 0;
+
+      for (int i = 0; i < n; i++) {
+         if (!visited[i]) {
+            cycles++;
+
+            for (int j = i; !visited[j]; j = this.index[j]) {
+               visited[j] = true;
+            }
+         }
+      }
+
+      return (n - cycles) % 2 == 0 ? 1 : -1;
+   }
+
+   /**
+    * @return the same as sign(), as a double
+    */
+   public double determinant() {
+      return this.sign();
+   }
+
+   /**
+    * @return true if every entry stays where it is
+    */
+   public boolean isIdentity() {
+      for (int i = 0; i < this.index.length; i++) {
+         if (this.index[i] != i) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the inverse, which is also the transpose: the entries are
+    * scattered back to where they came from.
+    * @return P^-1 = P^T
+    */
+   public Permutation inverse() {
+      int[] inverse = new int[this.index.length];
+
+      for (int i = 0; i < this.index.length; i++) {
+         inverse[this.index[i]] = i;
+      }
+
+      return new Permutation(inverse, true);
+   }
+
+   /**
+    * @return the transpose, the same as inverse()
+    */
+   public Permutation transpose() {
+      return this.inverse();
+   }
+
+   /**
+    * returns the composition PQ, which applies q first and then this
+    * Permutation: (PQ u)[i] = u[q[p[i]]].
+    * @param q a Permutation of the same size
+    * @return the product PQ
+    */
+   public Permutation multiply(Permutation q) {
+      if (q.index.length != this.index.length) {
+         throw new IllegalArgumentException("Permutations do not have the same size");
+      }
+
+      int[] result = new int[this.index.length];
+
+      for (int i = 0; i < this.index.length; i++) {
+         result[i] = q.index[this.index[i]];
+      }
+
+      return new Permutation(result, true);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * permutes the entries of a Vector: entry i of the result is entry
+    * index[i] of u.
+    * @param u a Vector with n entries
+    * @return the product Pu
+    */
+   public Vector multiply(Vector u) {
+      if (u.length() != this.index.length) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] result = new double[this.index.length];
+
+      for (int i = 0; i < this.index.length; i++) {
+         result[i] = u.get(this.index[i]);
+      }
+
+      return new Vector(result, 0, 1, result.length);
+   }
+
+   /**
+    * applies the Permutation to a Vector, as a LinearOperator. Same as
+    * multiply(Vector).
+    * @param u a Vector with n entries
+    * @return the product Pu
+    */
+   @Override
+   public Vector apply(Vector u) {
+      return this.multiply(u);
+   }
+
+   /**
+    * applies the inverse without forming it: entry i of u goes to entry
+    * index[i] of the result.
+    * @param u a Vector with n entries
+    * @return the product P^T u
+    */
+   @Override
+   public Vector applyTranspose(Vector u) {
+      if (u.length() != this.index.length) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] result = new double[this.index.length];
+
+      for (int i = 0; i < this.index.length; i++) {
+         result[this.index[i]] = u.get(i);
+      }
+
+      return new Vector(result, 0, 1, result.length);
+   }
+
+   /**
+    * reorders the rows of a Matrix. See multiply(Permutation, Matrix).
+    * @param a a Matrix with n rows
+    * @return the product PA
+    */
+   public Matrix multiply(Matrix a) {
+      return Permutation.multiply(this, a);
+   }
+
+   /**
+    * returns pa, whose row i is row index[i] of a, by copying whole rows.
+    * Throws an IllegalArgumentException if a does not have n rows.
+    * @param p an n-by-n Permutation object
+    * @param a a Matrix with n rows
+    * @return the product pa
+    */
+   public static Matrix multiply(Permutation p, Matrix a) {
+      if (a.getNumRows() != p.index.length) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      a = a.strided();
+      int columns = a.getNumColumns();
+      double[] source = a.entries();
+      int offset = a.offset();
+      int stride = a.rowStride();
+      double[] result = new double[p.index.length * columns];
+
+      for (int i = 0; i < p.index.length; i++) {
+         System.arraycopy(source, offset + p.index[i] * stride, result, i * columns, columns);
+      }
+
+      return new Matrix(p.index.length, columns, result);
+   }
+
+   /**
+    * returns ap, whose column index[k] is column k of a. Throws an
+    * IllegalArgumentException if a does not have n columns.
+    * @param a a Matrix with n columns
+    * @param p an n-by-n Permutation object
+    * @return the product ap
+    */
+   public static Matrix multiply(Matrix a, Permutation p) {
+      int n = p.index.length;
+
+      if (a.getNumColumns() != n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      a = a.strided();
+      int rows = a.getNumRows();
+      double[] source = a.entries();
+      int offset = a.offset();
+      int stride = a.rowStride();
+      double[] result = new double[rows * n];
+
+      for (int r = 0; r < rows; r++) {
+         int start = r * n;
+         int from = offset + r * stride;
+
+         for (int k = 0; k < n; k++) {
+            result[start + p.index[k]] = source[from + k];
+         }
+      }
+
+      return new Matrix(rows, n, result);
+   }
+}
@@ -0,0 +1,482 @@
+package linearalgebra;
+
+/**
+ * The QRDecomposition class factors an m-by-n Matrix A with m >= n into
+ * A = QR, where Q is m-by-m orthogonal and R is upper triangular, using
+ * Householder reflections. It is the stable way to solve least-squares
+ * problems (minimize |Ax - b|): unlike the normal equations
+ * A^T A x = A^T b it never forms A^T A, whose condition number is the
+ * square of that of A.
+ *
+ * Q is never built. It is the product H_0 H_1 ... H_(n-1) of reflections
+ * H_j = I - tau_j v_j v_j^T, where v_j has j zeros, then a 1, then the
+ * entries stored below the diagonal in column j. R is stored on and
+ * above the diagonal of the same m-by-n array, so the whole decomposition
+ * takes the space of A plus n numbers. Q and Q^T are applied to a Vector
+ * one reflection at a time, in O(mn) time.
+ *
+ * The factorization works in blocks of BLOCK_SIZE columns. The reflections
+ * of a block are combined into I - V T V^T (T is a small upper triangular
+ * Matrix), so that they can be applied to the rest of the columns with
+ * two calls to the blocked multiplication kernel (Gemm) instead of one
+ * reflection at a time.
+ */
+
+public class QRDecomposition {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the number of columns whose reflections are applied together
+    */
+   static final int BLOCK_SIZE = 32;
+
+   /**
+    * qr holds R on and above the diagonal and the Householder vectors
+    * below it, in row-major order
+    */
+   private final double[] qr;
+
+   /**
+    * tau[j] is the scale factor of the j-th reflection
+    */
+   private final double[] tau;
+
+   /**
+    * the shape of the factored Matrix
+    */
+   private final int m;
+   private final int n;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * factors the m-by-n Matrix a. Throws an IllegalArgumentException if
+    * a has fewer rows than columns.
+    * @param a a Matrix object with at least as many rows as columns
+    */
+   public QRDecomposition(Matrix a) {
+      if (a.getNumRows() < a.getNumColumns()) {
+         throw new IllegalArgumentException("QR decomposition requires at least as many rows as columns");
+      }
+
+      this.m = a.getNumRows();
+      this.n = a.getNumColumns();
+      this.qr = a.toArray();
+      this.tau = new double[this.n];
+
+      QRDecomposition.factor(this.qr, this.m, this.n, this.tau);
+   }
+
+   /**
+    * factors the m-by-n row-major array a in place.
+    * @param a the array to factor
+    * @param m the number of rows
+    * @param n the number of columns, at most m
+    * @param tau receives the scale factor of each reflection
+    */
+   static void factor(double[] a, int m, int n, double[] tau) {
+      for (int k0 = 0; k0 < n; k0 += BLOCK_SIZE) {
+         int k1 = Math.min(k0 + BLOCK_SIZE, n);
+
+         for (int j = k0; j < k1; j++) {
+            QRDecomposition.makeReflection(a, m, n, j, tau);
+            QRDecomposition.applyReflection(a, m, n, j, tau[j], j + 1, k1);
+         }
+
+         if (k1 < n) {
+            QRDecomposition.applyBlock(a, m, n, k0, k1, tau);
+         }
+      }
+   }
+
+   /**
+    * computes the reflection H_j that zeroes column j below the diagonal.
+    * The entry on the diagonal becomes beta = -sign(a[j][j]) * |column|,
+    * and the entries below it are replaced by v_j (whose leading 1 is not
+    * stored). If the column is already zero below the diagonal, tau is 0
+    * and H_j is the identity.
+    */
+   private static void makeReflection(double[] a, int m, int n, int j, double[] tau) {
+      double alpha = a[j * n + j];
+      double sigma = 0;
+
+      for (int i = j + 1; i < m; i++) {
+         double value = a[i * n + j];
+         sigma += value * value;
+      }
+
+      if (sigma == 0) {
+         tau[j] = 0;
+         return;
+      }
+
+      double norm = Math.sqrt(alpha * alpha + sigma);
+      double beta = alpha <= 0 ? norm : -norm;
+      double scale = 1 / (alpha - beta);
+
+      for (int i = j + 1; i < m; i++) {
+         a[i * n + j] *= scale;
+      }
+
+      tau[j] = (beta - alpha) / beta;
+      a[j * n + j] = beta;
+   }
+
+   /**
+    * applies H_j to columns from (inclusive) to to (exclusive) of rows j
+    * and below: each column c becomes c - tau (v^T c) v. The loops run
+    * along rows, so memory is read contiguously.
+    */
+   private static void applyReflection(double[] a, int m, int n, int j, double tau, int from, int to) {
+      if (tau == 0 || from >= to) {
+         return;
+      }
+
+      int width = to - from;
+      double[] w = new double[width];
+
+      // w = v^T c for every column c at once
+      System.arraycopy(a, j * n + from, w, 0, width);
+
+      for (int i = j + 1; i < m; i++) {
+         double v = a[i * n + j];
+         int row = i * n + from;
+
+         for (int c = 0; c < width; c++) {
+            w[c] += v * a[row + c];
+         }
+      }
+
+      for (int c = 0; c < width; c++) {
+         w[c] *= tau;
+         a[j * n + from + c] -= w[c];
+      }
+
+      for (int i = j + 1; i < m; i++) {
+         double v = a[i * n + j];
+         int row = i * n + from;
+
+         for (int c = 0; c < width; c++) {
+            a[row + c] -= v * w[c];
+         }
+      }
+   }
+
+   /**
+    * applies H_(k1-1) ... H_k0 to columns k1 and up, as
+    * C = C - V (T^T (V^T C)), where the columns of V are the reflection
+    * vectors of the block and T is upper triangular with
+    * H_k0 ... H_(k1-1) = I - V T V^T.
+    */
+   private static void applyBlock(double[] a, int m, int n, int k0, int k1, double[] tau) {
+      int width = k1 - k0;
+      int rows = m - k0;
+      int columns = n - k1;
+
+      // V (rows-by-width) and V^T, with the implicit ones and zeros filled in
+      double[] v = new double[rows * width];
+      double[] vt = new double[width * rows];
+
+      for (int r = 0; r < rows; r++) {
+         for (int p = 0; p < width && p <= r; p++) {
+            double value = (r == p) ? 1 : a[(k0 + r) * n + k0 + p];
+            v[r * width + p] = value;
+            vt[p * rows + r] = value;
+         }
+      }
+
+      // T[j][i] = -tau_i * sum over l of T[j][l] (v_l . v_i), for j < i
+      double[] t = new double[width * width];
+      double[] z = new double[width];
+
+      for (int i = 0; i < width; i++) {
+         for (int l = 0; l < i; l++) {
+            z[l] = ScalarKernels.dot(vt, l * rows + i, 1, vt, i * rows + i, 1, rows - i);
+         }
+
+         for (int j = 0; j < i; j++) {
+            double sum = 0;
+
+            for (int l = j; l < i; l++) {
+               sum += t[j * width + l] * z[l];
+            }
+
+            t[j * width + i] = -tau[k0 + i] * sum;
+         }
+
+         t[i * width + i] = tau[k0 + i];
+      }
+
+      // W = V^T C
+      double[] w = new double[width * columns];
+      Gemm.multiply(width, columns, rows, vt, 0, rows, a, k0 * n + k1, n, w, 0, columns);
+
+      // W = -T^T W, one row at a time from the bottom so W can be overwritten
+      for (int i = width - 1; i >= 0; i--) {
+         int rowI = i * columns;
+
+         for (int c = 0; c < columns; c++) {
+            w[rowI + c] *= -t[i * width + i];
+         }
+
+         for (int l = 0; l < i; l++) {
+            double factor = -t[l * width + i];
+
+            if (factor != 0) {
+               int rowL = l * columns;
+
+               for (int c = 0; c < columns; c++) {
+                  w[rowI + c] += factor * w[rowL + c];
+               }
+            }
+         }
+      }
+
+      // C = C + V W
+      Gemm.multiply(rows, columns, width, v, 0, width, w, 0, columns, a, k0 * n + k1, n);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the upper triangular factor R (its first n rows; the rest are zero).
+    * @return an n-by-n upper triangular Matrix
+    */
+   public Matrix getR() {
+      double[] r = new double[this.n * this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         System.arraycopy(this.qr, i * this.n + i, r, i * this.n + i, this.n - i);
+      }
+
+      return new Matrix(this.n, this.n, r);
+   }
+
+   /**
+    * returns the first n columns of Q (the "thin" Q), whose columns are an
+    * orthonormal basis for the column space of A, with A = QR.
+    * @return an m-by-n Matrix with orthonormal columns
+    */
+   public Matrix getQ() {
+      double[] q = new double[this.m * this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         q[i * this.n + i] = 1;
+      }
+
+      // Q = H_0 (H_1 ( ... (H_(n-1) I)))
+      for (int j = this.n - 1; j >= 0; j--) {
+         this.applyStoredReflection(j, q, this.n);
+      }
+
+      return new Matrix(this.m, this.n, q);
+   }
+
+   /**
+    * applies H_j, stored in column j of qr, to every column of the m-row
+    * row-major array c, which has the given number of columns.
+    */
+   private void applyStoredReflection(int j, double[] c, int columns) {
+      double t = this.tau[j];
+
+      if (t == 0) {
+         return;
+      }
+
+      double[] w = new double[columns];
+      System.arraycopy(c, j * columns, w, 0, columns);
+
+      for (int i = j + 1; i < this.m; i++) {
+         double v = this.qr[i * this.n + j];
+
+         if (v != 0) {
+            for (int k = 0; k < columns; k++) {
+               w[k] += v * c[i * columns + k];
+            }
+         }
+      }
+
+      for (int k = 0; k < columns; k++) {
+         w[k] *= t;
+         c[j * columns + k] -= w[k];
+      }
+
+      for (int i = j + 1; i < this.m; i++) {
+         double v = this.qr[i * this.n + j];
+
+         if (v != 0) {
+            for (int k = 0; k < columns; k++) {
+               c[i * columns + k] -= v * w[k];
+            }
+         }
+      }
+   }
+
+   /**
+    * applies H_j to the Vector stored in x: x = x - tau_j (v_j^T x) v_j.
+    */
+   private void applyStoredReflection(int j, double[] x) {
+      double t = this.tau[j];
+
+      if (t == 0) {
+         return;
+      }
+
+      double sum = x[j];
+
+      for (int i = j + 1; i < this.m; i++) {
+         sum += this.qr[i * this.n + j] * x[i];
+      }
+
+      sum *= t;
+      x[j] -= sum;
+
+      for (int i = j + 1; i < this.m; i++) {
+         x[i] -= sum * this.qr[i * this.n + j];
+      }
+   }
+
+   /**
+    * computes Q^T b without forming Q, by applying H_0, ..., H_(n-1) in turn.
+    * @param b a Vector with m entries
+    * @return Q^T b, a Vector with m entries
+    */
+   public Vector applyQTranspose(Vector b) {
+      if (b.length() != this.m) {
+         throw new IllegalArgumentException("Vector length does not match the number of rows");
+      }
+
+      double[] x = b.getEntries();
+
+      for (int j = 0; j < this.n; j++) {
+         this.applyStoredReflection(j, x);
+      }
+
+      return new Vector(x, 0, 1, this.m);
+   }
+
+   /**
+    * computes Q b without forming Q, by applying H_(n-1), ..., H_0 in turn.
+    * @param b a Vector with m entries
+    * @return Q b, a Vector with m entries
+    */
+   public Vector applyQ(Vector b) {
+      if (b.length() != this.m) {
+         throw new IllegalArgumentException("Vector length does not match the number of rows");
+      }
+
+      double[] x = b.getEntries();
+
+      for (int j = this.n - 1; j >= 0; j--) {
+         this.applyStoredReflection(j, x);
+      }
+
+      return new Vector(x, 0, 1, this.m);
+   }
+
+   /**
+    * checks to see if the factored Matrix has full column rank, i.e. no
+    * diagonal entry of R is negligible: at most max(m, n) * (machine
+    * epsilon) * |A|, where |A| is the Frobenius norm (which R shares with A).
+    * @return true if the columns of A are linearly independent
+    */
+   public boolean isFullRank() {
+      double sum = 0;
+
+      for (int i = 0; i < this.n; i++) {
+         for (int j = i; j < this.n; j++) {
+            double r = this.qr[i * this.n + j];
+            sum += r * r;
+         }
+      }
+
+      double tolerance = Math.max(this.m, this.n) * Math.ulp(1.0) * Math.sqrt(sum);
+
+      for (int j = 0; j < this.n; j++) {
+         if (!(Math.abs(this.qr[j * this.n + j]) > tolerance)) {
+            return false;
+         }
+      }
+
+      return true;
+   }
+
+   /**
+    * returns the least-squares solution x that minimizes |Ax - b|, found
+    * by solving Rx = (Q^T b)[0..n). If A is square, this solves Ax = b.
+    * Throws an IllegalArgumentException if b has the wrong length or A
+    * does not have full column rank.
+    * @param b a Vector with m entries
+    * @return the least-squares solution, a Vector with n entries
+    */
+   public Vector solve(Vector b) {
+      if (!this.isFullRank()) {
+         throw new IllegalArgumentException("Matrix does not have full column rank");
+      }
+
+      double[] x = this.applyQTranspose(b).getEntries();
+      this.backSubstitute(x, 1);
+
+      return new Vector(x, 0, 1, this.n);
+   }
+
+   /**
+    * returns the least-squares solution X that minimizes |AX - B| column
+    * by column. Throws an IllegalArgumentException if B does not have m
+    * rows or A does not have full column rank.
+    * @param b a Matrix with m rows
+    * @return the least-squares solution, an n-by-(columns of b) Matrix
+    */
+   public Matrix solve(Matrix b) {
+      if (b.getNumRows() != this.m) {
+         throw new IllegalArgumentException("Matrix row count does not match the number of rows");
+      }
+      if (!this.isFullRank()) {
+         throw new IllegalArgumentException("Matrix does not have full column rank");
+      }
+
+      int columns = b.getNumColumns();
+      double[] x = b.toArray();
+
+      for (int j = 0; j < this.n; j++) {
+         this.applyStoredReflection(j, x, columns);
+      }
+
+      this.backSubstitute(x, columns);
+
+      double[] result = new double[this.n * columns];
+      System.arraycopy(x, 0, result, 0, result.length);
+
+      return new Matrix(this.n, columns, result);
+   }
+
+   /**
+    * overwrites the first n rows of the row-major array x (which has the
+    * given number of columns) with R^-1 times them.
+    */
+   private void backSubstitute(double[] x, int columns) {
+      for (int i = this.n - 1; i >= 0; i--) {
+         int row = i * this.n;
+
+         for (int k = i + 1; k < this.n; k++) {
+            double r = this.qr[row + k];
+
+            if (r != 0) {
+               for (int c = 0; c < columns; c++) {
+                  x[i * columns + c] -= r * x[k * columns + c];
+               }
+            }
+         }
+
+         double diagonal = this.qr[row + i];
+
+         for (int c = 0; c < columns; c++) {
+            x[i * columns + c] /= diagonal;
+         }
+      }
+   }
+}
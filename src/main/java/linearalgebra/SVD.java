@@ -0,0 +1,441 @@
+package linearalgebra;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * The SVD class computes the singular value decomposition A = U S V^T of an
+ * m-by-n Matrix, where the columns of U and V are orthonormal and S is
+ * diagonal with the singular values in decreasing order. Only the "thin"
+ * factors are kept: with p = min(m, n), U is m-by-p, S is p-by-p and V is
+ * n-by-p.
+ *
+ * There are two modes.
+ *
+ * The full decomposition (new SVD(a)) uses one-sided Jacobi: the columns of
+ * A are rotated in pairs until they are mutually orthogonal, at which point
+ * their lengths are the singular values. A tall Matrix is first reduced to
+ * its n-by-n R factor with a QRDecomposition, so the sweeps only touch an
+ * n-by-n array, and a wide Matrix is handled through its transpose.
+ *
+ * The truncated decomposition (SVD.truncated(a, k)) finds only the k largest
+ * singular values and their vectors, by random projection: the columns of
+ * A G for a random n-by-(k + oversampling) Matrix G span (nearly) the same
+ * space as the top k left singular vectors, a few power iterations sharpen
+ * that, and the full decomposition is then only needed for the small
+ * projected Matrix Q^T A. This costs O(mnk) instead of O(mn min(m, n)),
+ * which matters when A is large and only a few singular values are wanted.
+ */
+
+public class SVD {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the number of extra random directions sampled by truncated(Matrix, int)
+    */
+   static final int DEFAULT_OVERSAMPLING = 10;
+
+   /**
+    * the number of power iterations used by truncated(Matrix, int)
+    */
+   static final int DEFAULT_POWER_ITERATIONS = 2;
+
+   /**
+    * the Jacobi sweeps stop after this many, whether or not they converged
+    */
+   static final int MAX_SWEEPS = 60;
+
+   /**
+    * the left singular vectors, one per column
+    */
+   private final Matrix u;
+
+   /**
+    * the singular values, largest first
+    */
+   private final double[] s;
+
+   /**
+    * the right singular vectors, one per column
+    */
+   private final Matrix v;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * computes the full (thin) singular value decomposition of a.
+    * @param a an m-by-n Matrix object
+    */
+   public SVD(Matrix a) {
+      boolean transposed = a.getNumRows() < a.getNumColumns();
+      Matrix x = transposed ? a.transpose() : a;
+      int m = x.getNumRows();
+      int n = x.getNumColumns();
+
+      // w holds the columns of the Matrix being orthogonalized, one per row
+      QRDecomposition qr = null;
+      double[] w;
+      int length;
+
+      if (m > n) {
+         qr = new QRDecomposition(x);
+         w = qr.getR().transpose().toArray();
+         length = n;
+      } else {
+         w = x.transpose().toArray();
+         length = m;
+      }
+
+      double[] vt = new double[n * n];
+
+      for (int i = 0; i < n; i++) {
+         vt[i * n + i] = 1;
+      }
+
+      SVD.orthogonalize(w, vt, n, length);
+
+      // the singular values are the lengths of the orthogonalized columns
+      double[] norms = new double[n];
+
+      for (int j = 0; j < n; j++) {
+         norms[j] = Math.sqrt(VectorKernels.dot(w, j * length, 1, w, j * length, 1, length));
+      }
+
+      int[] order = SVD.decreasingOrder(norms);
+      double[] s = new double[n];
+      double[] left = new double[length * n];
+      double[] right = new double[n * n];
+
+      for (int k = 0; k < n; k++) {
+         int j = order[k];
+         s[k] = norms[j];
+
+         if (s[k] > 0) {
+            for (int i = 0; i < length; i++) {
+               left[i * n + k] = w[j * length + i] / s[k];
+            }
+         }
+
+         for (int i = 0; i < n; i++) {
+            right[i * n + k] = vt[j * n + i];
+         }
+      }
+
+      SVD.completeBasis(left, length, n, s);
+
+      Matrix leftMatrix = new Matrix(length, n, left);
+
+      if (qr != null) {
+         leftMatrix = qr.getQ().multiply(leftMatrix);
+      }
+
+      Matrix rightMatrix = new Matrix(n, n, right);
+
+      this.s = s;
+      this.u = transposed ? rightMatrix : leftMatrix;
+      this.v = transposed ? leftMatrix : rightMatrix;
+   }
+
+   private SVD(Matrix u, double[] s, Matrix v) {
+      this.u = u;
+      this.s = s;
+      this.v = v;
+   }
+
+   /**
+    * computes the k largest singular values of a and their singular
+    * vectors, with DEFAULT_OVERSAMPLING extra random directions and
+    * DEFAULT_POWER_ITERATIONS power iterations. The random numbers come from
+    * a fixed seed, so the result is the same on every call.
+    * See truncated(Matrix, int, int, int, Random).
+    * @param a an m-by-n Matrix object
+    * @param k the number of singular values wanted, 1 <= k <= min(m, n)
+    * @return an SVD whose U is m-by-k, S is k-by-k and V is n-by-k
+    */
+   public static SVD truncated(Matrix a, int k) {
+      return SVD.truncated(a, k, DEFAULT_OVERSAMPLING, DEFAULT_POWER_ITERATIONS, new Random(0));
+   }
+
+   /**
+    * computes the k largest singular values of a and their singular
+    * vectors by random projection:
+    *
+    *    Q = an orthonormal basis of A G, G an n-by-(k + oversampling)
+    *        Matrix of independent standard normal entries
+    *    repeat powerIterations times: Q = basis of A (basis of A^T Q)
+    *    B = Q^T A, with full SVD B = U' S V^T
+    *    U = Q U', keeping the first k columns of U, S and V
+    *
+    * Each power iteration costs two more passes over a, and makes the
+    * result more accurate when the singular values decay slowly. If
+    * k + oversampling is at least min(m, n), the full SVD is computed and
+    * truncated instead. Throws an IllegalArgumentException if k is out of
+    * range or oversampling or powerIterations is negative.
+    * @param a an m-by-n Matrix object
+    * @param k the number of singular values wanted, 1 <= k <= min(m, n)
+    * @param oversampling the number of extra random directions
+    * @param powerIterations the number of power iterations
+    * @param random the source of the random projection
+    * @return an SVD whose U is m-by-k, S is k-by-k and V is n-by-k
+    */
+   public static SVD truncated(Matrix a, int k, int oversampling, int powerIterations, Random random) {
+      int m = a.getNumRows();
+      int n = a.getNumColumns();
+
+      if (k < 1 || k > Math.min(m, n)) {
+         throw new IllegalArgumentException("k must be between 1 and min(rows, columns)");
+      }
+
+      if (oversampling < 0 || powerIterations < 0) {
+         throw new IllegalArgumentException("oversampling and powerIterations must be >= 0");
+      }
+
+      int l = k + oversampling;
+
+      if (l >= Math.min(m, n)) {
+         return new SVD(a).truncate(k);
+      }
+
+      double[] g = new double[n * l];
+
+      for (int i = 0; i < g.length; i++) {
+         g[i] = random.nextGaussian();
+      }
+
+      Matrix q = SVD.orthonormalBasis(a.multiply(new Matrix(n, l, g)));
+
+      for (int i = 0; i < powerIterations; i++) {
+         // A^T Q, computed as (Q^T A)^T so that a is read along its rows
+         Matrix z = SVD.orthonormalBasis(q.transpose().multiply(a).transpose());
+         q = SVD.orthonormalBasis(a.multiply(z));
+      }
+
+      SVD small = new SVD(q.transpose().multiply(a));
+
+      return new SVD(q.multiply(small.u), small.s, small.v).truncate(k);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * orthogonalizes the columns of an m-by-n Matrix with one-sided Jacobi
+    * rotations, applying the same rotations to V.
+    *
+    * Each pair of columns (p, q) with Gram entries alpha = |w_p|^2,
+    * beta = |w_q|^2 and gamma = w_p . w_q is rotated by the angle that
+    * makes them orthogonal, which is the Jacobi rotation diagonalizing
+    * [[alpha, gamma], [gamma, beta]]. Sweeps over all pairs are repeated
+    * until every pair is orthogonal to working precision.
+    * @param w the n columns, stored as the rows of an n-by-length array
+    * @param vt V^T, n-by-n, whose rows receive the same rotations
+    * @param n the number of columns
+    * @param length the length of each column
+    */
+   static void orthogonalize(double[] w, double[] vt, int n, int length) {
+      double tolerance = Math.max(length, 1) * Math.ulp(1.0);
+      double[] squares = new double[n];
+
+      for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+         boolean rotated = false;
+
+         for (int j = 0; j < n; j++) {
+            squares[j] = VectorKernels.dot(w, j * length, 1, w, j * length, 1, length);
+         }
+
+         for (int p = 0; p < n - 1; p++) {
+            for (int q = p + 1; q < n; q++) {
+               double alpha = squares[p];
+               double beta = squares[q];
+               double gamma = VectorKernels.dot(w, p * length, 1, w, q * length, 1, length);
+
+               if (gamma == 0 || Math.abs(gamma) <= tolerance * Math.sqrt(alpha * beta)) {
+                  continue;
+               }
+
+               double zeta = (beta - alpha) / (2 * gamma);
+               double t = Math.signum(zeta) / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+
+               if (zeta == 0) {
+                  t = 1;
+               }
+
+               double c = 1 / Math.sqrt(1 + t * t);
+               double sn = c * t;
+
+               VectorKernels.rotate(w, p * length, 1, w, q * length, 1, c, sn, length);
+               VectorKernels.rotate(vt, p * n, 1, vt, q * n, 1, c, sn, n);
+
+               squares[p] = alpha - t * gamma;
+               squares[q] = beta + t * gamma;
+               rotated = true;
+            }
+         }
+
+         if (!rotated) {
+            return;
+         }
+      }
+   }
+
+   /**
+    * @return the indices of values, ordered from the largest value to the smallest
+    */
+   private static int[] decreasingOrder(double[] values) {
+      int[] order = new int[values.length];
+
+      for (int i = 0; i < order.length; i++) {
+         int j = i;
+
+         while (j > 0 && values[order[j - 1]] < values[i]) {
+            order[j] = order[j - 1];
+            j--;
+         }
+
+         order[j] = i;
+      }
+
+      return order;
+   }
+
+   /**
+    * fills the columns of the rows-by-n row-major array u whose singular
+    * value is 0 (and which are therefore still 0) with unit vectors
+    * orthogonal to the columns before them, so that U always has
+    * orthonormal columns. Those columns come last, since s is decreasing.
+    */
+   private static void completeBasis(double[] u, int rows, int n, double[] s) {
+      int k = n;
+
+      while (k > 0 && s[k - 1] == 0) {
+         k--;
+      }
+
+      double[] candidate = new double[rows];
+
+      for (int e = 0; k < n && e < rows; e++) {
+         Arrays.fill(candidate, 0);
+         candidate[e] = 1;
+
+         // Gram-Schmidt against the columns found so far, twice for accuracy
+         for (int pass = 0; pass < 2; pass++) {
+            for (int c = 0; c < k; c++) {
+               double dot = ScalarKernels.dot(u, c, n, candidate, 0, 1, rows);
+               ScalarKernels.axpy(-dot, u, c, n, candidate, 0, 1, rows);
+            }
+         }
+
+         double norm = Math.sqrt(ScalarKernels.dot(candidate, 0, 1, candidate, 0, 1, rows));
+
+         if (norm > 0.5) {
+            for (int i = 0; i < rows; i++) {
+               u[i * n + k] = candidate[i] / norm;
+            }
+
+            k++;
+         }
+      }
+   }
+
+   /**
+    * @return the thin Q factor of y, whose columns are an orthonormal
+    *         basis of (a space containing) the column space of y
+    */
+   private static Matrix orthonormalBasis(Matrix y) {
+      return new QRDecomposition(y).getQ();
+   }
+
+   /**
+    * @return an SVD keeping the first k singular values and vectors of this one
+    */
+   private SVD truncate(int k) {
+      if (k == this.s.length) {
+         return this;
+      }
+
+      return new SVD(SVD.firstColumns(this.u, k), Arrays.copyOf(this.s, k), SVD.firstColumns(this.v, k));
+   }
+
+   private static Matrix firstColumns(Matrix m, int k) {
+      return new Matrix(m.subMatrixView(0, 0, m.getNumRows(), k));
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the left singular vectors, one per column.
+    * @return an m-by-p Matrix with orthonormal columns
+    */
+   public Matrix getU() {
+      return this.u;
+   }
+
+   /**
+    * returns the right singular vectors, one per column.
+    * @return an n-by-p Matrix with orthonormal columns
+    */
+   public Matrix getV() {
+      return this.v;
+   }
+
+   /**
+    * returns the singular values, largest first.
+    * @return a Vector with p entries
+    */
+   public Vector getSingularValues() {
+      return new Vector(this.s);
+   }
+
+   /**
+    * returns the singular values as a diagonal Matrix, so that A = U S V^T.
+    * @return a p-by-p diagonal Matrix
+    */
+   public Matrix getS() {
+      int p = this.s.length;
+      double[] entries = new double[p * p];
+
+      for (int i = 0; i < p; i++) {
+         entries[i * p + i] = this.s[i];
+      }
+
+      return new Matrix(p, p, entries);
+   }
+
+   /**
+    * returns the number of singular values that are not negligible, i.e.
+    * larger than max(m, n) * (machine epsilon) * (largest singular value).
+    * For a truncated SVD this is at most k.
+    * @return the numerical rank
+    */
+   public int rank() {
+      double tolerance = Math.max(this.u.getNumRows(), this.v.getNumRows()) * Math.ulp(1.0) * this.s[0];
+      int rank = 0;
+
+      while (rank < this.s.length && this.s[rank] > tolerance) {
+         rank++;
+      }
+
+      return rank;
+   }
+
+   /**
+    * returns the 2-norm of the Matrix, its largest singular value.
+    * @return the largest singular value
+    */
+   public double norm2() {
+      return this.s[0];
+   }
+
+   /**
+    * returns the ratio of the largest singular value to the smallest. For a
+    * truncated SVD only the k singular values found are used.
+    * @return the condition number (infinite if the smallest singular value is 0)
+    */
+   public double conditionNumber() {
+      return this.s[0] / this.s[this.s.length - 1];
+   }
+}
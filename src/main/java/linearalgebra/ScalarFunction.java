@@ -0,0 +1,21 @@
+package linearalgebra;
+
+/**
+ * A function from one real number to another, applied entry by entry by
+ * Expression.map. For example, to square every entry:
+ *
+ *    expression.map(new ScalarFunction() {
+ *       public double apply(double x) {
+ *          return x * x;
+ *       }
+ *    });
+ */
+
+public interface ScalarFunction {
+
+   /**
+    * @param x a real number
+    * @return the value of the function at x
+    */
+   double apply(double x);
+}
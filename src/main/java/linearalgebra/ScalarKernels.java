@@ -0,0 +1,104 @@
+package linearalgebra;
+
+/**
+ * Plain loops behind the elementwise Vector operations. Every operand is
+ * described by an array, the position of its first entry and the distance
+ * between entries (its stride), so that views can be read in place.
+ * Results are written to the start of a fresh array with stride 1.
+ *
+ * These are the kernels used on every JVM; see VectorKernels.
+ */
+
+final class ScalarKernels {
+
+   private ScalarKernels() {
+   }
+
+   /**
+    * @return the sum of a[i] * b[i] over the n entries
+    */
+   static double dot(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride, int n) {
+      double sum = 0;
+
+      for (int i = 0, pa = aOffset, pb = bOffset; i < n; i++, pa += aStride, pb += bStride) {
+         sum += a[pa] * b[pb];
+      }
+
+      return sum;
+   }
+
+   /**
+    * sets out[outOffset + i] = a[i] + b[i] for the n entries.
+    */
+   static void add(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+                   double[] out, int outOffset, int n) {
+      for (int i = 0, pa = aOffset, pb = bOffset; i < n; i++, pa += aStride, pb += bStride) {
+         out[outOffset + i] = a[pa] + b[pb];
+      }
+   }
+
+   /**
+    * sets out[outOffset + i] = a[i] - b[i] for the n entries.
+    */
+   static void subtract(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+                        double[] out, int outOffset, int n) {
+      for (int i = 0, pa = aOffset, pb = bOffset; i < n; i++, pa += aStride, pb += bStride) {
+         out[outOffset + i] = a[pa] - b[pb];
+      }
+   }
+
+   /**
+    * adds alpha * x[i] to y[i] for the n entries.
+    */
+   static void axpy(double alpha, double[] x, int xOffset, int xStride, double[] y, int yOffset, int yStride, int n) {
+      for (int i = 0, px = xOffset, py = yOffset; i < n; i++, px += xStride, py += yStride) {
+         y[py] += alpha * x[px];
+      }
+   }
+
+   /**
+    * applies a plane rotation to the n pairs (x[i], y[i]):
+    * x[i] = c * x[i] - s * y[i] and y[i] = s * x[i] + c * y[i].
+    */
+   static void rotate(double[] x, int xOffset, int xStride, double[] y, int yOffset, int yStride,
+                      double c, double s, int n) {
+      for (int i = 0, px = xOffset, py = yOffset; i < n; i++, px += xStride, py += yStride) {
+         double xi = x[px];
+         double yi = y[py];
+         x[px] = c * xi - s * yi;
+         y[py] = s * xi + c * yi;
+      }
+   }
+
+   /**
+    * sets out[outOffset + i] = scalar * a[i] for the n entries.
+    */
+   static void scale(double[] a, int aOffset, int aStride, double scalar, double[] out, int outOffset, int n) {
+      for (int i = 0, pa = aOffset; i < n; i++, pa += aStride) {
+         out[outOffset + i] = scalar * a[pa];
+      }
+   }
+
+   /**
+    * @return the sum of |a[i]|^p over the n entries
+    */
+   static double sumOfPowers(double[] a, int aOffset, int aStride, double p, int n) {
+      double sum = 0;
+
+      if (p == 1) {
+         for (int i = 0, pa = aOffset; i < n; i++, pa += aStride) {
+            sum += Math.abs(a[pa]);
+         }
+      } else if (p == 2) {
+         for (int i = 0, pa = aOffset; i < n; i++, pa += aStride) {
+            sum += a[pa] * a[pa];
+         }
+      } else {
+         for (int i = 0, pa = aOffset; i < n; i++, pa += aStride) {
+            sum += Math.pow(Math.abs(a[pa]), p);
+         }
+      }
+
+      return sum;
+   }
+}
@@ -0,0 +1,822 @@
+package linearalgebra;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * The SparseMatrix class stores a Matrix in Compressed Sparse Row (CSR)
+ * form, keeping only the nonzero entries. For most of the rows in a
+ * 99%-zero Matrix this means a few numbers instead of a full row, and the
+ * products below skip the zeros entirely, so memory and time scale with the
+ * number of nonzero entries (nnz) instead of rows * columns.
+ *
+ * The nonzero entries of row r are values[rowPointers[r]] up to (but not
+ * including) values[rowPointers[r + 1]], and columnIndices holds the column
+ * of each of those values. Within a row the column indices are increasing.
+ *
+ * Like Matrix, a SparseMatrix is never modified in place.
+ */
+
+public class SparseMatrix implements LinearOperator {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the least number of multiply-adds given to one task of a product of
+    * two SparseMatrix objects; smaller products run on the calling thread
+    */
+   static final long PRODUCT_GRAIN = 1 << 15;
+
+   /**
+    * products with at most this many columns add up each row in a dense
+    * array with one slot per column; wider ones use a hash table sized to
+    * the row, which stays in cache
+    */
+   static final int DENSE_ACCUMULATOR_COLUMNS = 1 << 16;
+
+   /**
+    * the number of rows in the SparseMatrix
+    */
+   private final int numRows;
+
+   /**
+    * the number of columns in the SparseMatrix
+    */
+   private final int numColumns;
+
+   /**
+    * rowPointers[r] is the position in values of the first nonzero entry of
+    * row r, and rowPointers[numRows] is the number of nonzero entries
+    */
+   private final int[] rowPointers;
+
+   /**
+    * columnIndices[i] is the column of values[i]
+    */
+   private final int[] columnIndices;
+
+   /**
+    * values holds the nonzero entries, row by row
+    */
+   private final double[] values;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * converts a dense Matrix to CSR form, keeping the (threshold-checked)
+    * nonzero entries. The rows of m are read one at a time into a single
+    * row buffer, once to count the nonzero entries and once to store them,
+    * so no dense copy of m is made.
+    * @param m a Matrix object
+    */
+   public SparseMatrix(Matrix m) {
+      this.numRows = m.getNumRows();
+      this.numColumns = m.getNumColumns();
+
+      double[] buffer = new double[this.numColumns];
+      int nnz = 0;
+
+      for (int row = 0; row < this.numRows; row++) {
+         m.copyRow(row, buffer, 0);
+
+         for (double entry : buffer) {
+            if (Math.abs(entry) > Matrix.THRESHOLD) {
+               nnz++;
+            }
+         }
+      }
+
+      this.rowPointers = new int[this.numRows + 1];
+      this.columnIndices = new int[nnz];
+      this.values = new double[nnz];
+
+      int pos = 0;
+
+      for (int row = 0; row < this.numRows; row++) {
+         m.copyRow(row, buffer, 0);
+
+         for (int col = 0; col < this.numColumns; col++) {
+            double entry = buffer[col];
+
+            if (Math.abs(entry) > Matrix.THRESHOLD) {
+               this.columnIndices[pos] = col;
+               this.values[pos] = entry;
+               pos++;
+            }
+         }
+
+         this.rowPointers[row + 1] = pos;
+      }
+   }
+
+   /**
+    * builds a SparseMatrix directly from CSR arrays, which are copied.
+    * Throws an IllegalArgumentException if the arrays do not describe a
+    * valid numRows-by-numColumns Matrix (rowPointers must start at 0 and
+    * never decrease, and the column indices of each row must be in range
+    * and strictly increasing).
+    * @param numRows the number of rows
+    * @param numColumns the number of columns
+    * @param rowPointers the start of each row in values, plus the total count
+    * @param columnIndices the column of each value
+    * @param values the nonzero entries, row by row
+    */
+   public SparseMatrix(int numRows, int numColumns, int[] rowPointers, int[] columnIndices, double[] values) {
+      if (numRows < 1 || numColumns < 1) {
+         throw new IllegalArgumentException("Matrix must have at least one row and one column");
+      }
+      if (rowPointers.length != numRows + 1 || rowPointers[0] != 0) {
+         throw new IllegalArgumentException("Invalid row pointers");
+      }
+      if (columnIndices.length != values.length || rowPointers[numRows] != values.length) {
+         throw new IllegalArgumentException("Number of column indices and values do not match");
+      }
+
+      for (int row = 0; row < numRows; row++) {
+         if (rowPointers[row + 1] < rowPointers[row]) {
+            throw new IllegalArgumentException("Invalid row pointers");
+         }
+
+         for (int i = rowPointers[row]; i < rowPointers[row + 1]; i++) {
+            int col = columnIndices[i];
+
+            if (col < 0 || col >= numColumns || (i > rowPointers[row] && col <= columnIndices[i - 1])) {
+               throw new IllegalArgumentException("Invalid column index in row " + row);
+            }
+         }
+      }
+
+      this.numRows = numRows;
+      this.numColumns = numColumns;
+      this.rowPointers = rowPointers.clone();
+      this.columnIndices = columnIndices.clone();
+      this.values = values.clone();
+   }
+
+   /**
+    * wraps CSR arrays without copying or checking them. The caller hands
+    * ownership of the arrays to the new SparseMatrix.
+    */
+   SparseMatrix(int numRows, int numColumns, int[] rowPointers, int[] columnIndices, double[] values,
+                boolean shared) {
+      this.numRows = numRows;
+      this.numColumns = numColumns;
+      this.rowPointers = rowPointers;
+      this.columnIndices = columnIndices;
+      this.values = values;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * @return the number of rows in the SparseMatrix
+    */
+   public int getNumRows() {
+      return this.numRows;
+   }
+
+   /**
+    * @return the number of columns in the SparseMatrix
+    */
+   public int getNumColumns() {
+      return this.numColumns;
+   }
+
+   /**
+    * @return the number of stored (nonzero) entries
+    */
+   public int getNumNonzero() {
+      return this.values.length;
+   }
+
+   /**
+    * the CSR arrays themselves, not copies, for the other classes in this
+    * package. They must not be modified.
+    */
+   int[] rowPointers() {
+      return this.rowPointers;
+   }
+
+   int[] columnIndices() {
+      return this.columnIndices;
+   }
+
+   double[] values() {
+      return this.values;
+   }
+
+   /**
+    * returns the entry in the row-th row and col-th column. The column is
+    * found by binary search within the row, so this takes O(log(nnz in row)).
+    * @param row the row of the desired entry
+    * @param col the column of the desired entry
+    * @return the entry, or 0 if it is not stored
+    */
+   public double getEntry(int row, int col) {
+      if (row < 0 || row >= this.numRows) {
+         throw new IllegalArgumentException("Invalid value for row.");
+      }
+      if (col < 0 || col >= this.numColumns) {
+         throw new IllegalArgumentException("Invalid value for col.");
+      }
+
+      int low = this.rowPointers[row];
+      int high = this.rowPointers[row + 1] - 1;
+
+      while (low <= high) {
+         int mid = (low + high) >>> 1;
+
+         if (this.columnIndices[mid] < col) {
+            low = mid + 1;
+         } else if (this.columnIndices[mid] > col) {
+            high = mid - 1;
+         } else {
+            return this.values[mid];
+         }
+      }
+
+      return 0;
+   }
+
+   /**
+    * converts the SparseMatrix back to a dense Matrix.
+    * @return a Matrix with the same entries
+    */
+   public Matrix toMatrix() {
+      return SparseMatrix.toMatrix(this);
+   }
+
+   /**
+    * converts a SparseMatrix back to a dense Matrix.
+    * @param s a SparseMatrix object
+    * @return a Matrix with the same entries
+    */
+   public static Matrix toMatrix(SparseMatrix s) {
+      double[] entries = new double[s.numRows * s.numColumns];
+
+      for (int row = 0; row < s.numRows; row++) {
+         int start = row * s.numColumns;
+
+         for (int i = s.rowPointers[row]; i < s.rowPointers[row + 1]; i++) {
+            entries[start + s.columnIndices[i]] = s.values[i];
+         }
+      }
+
+      return new Matrix(s.numRows, s.numColumns, entries);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * transposes the SparseMatrix. See transpose(SparseMatrix).
+    * @return the transpose, in CSR form
+    */
+   public SparseMatrix transpose() {
+      return SparseMatrix.transpose(this);
+   }
+
+   /**
+    * transposes a SparseMatrix in O(nnz + rows + columns) time, by counting
+    * the entries in each column and then scattering every entry into its
+    * place. Since rows are visited in order, the column indices of the
+    * result come out sorted.
+    * @param s a SparseMatrix object
+    * @return the transpose, in CSR form
+    */
+   public static SparseMatrix transpose(SparseMatrix s) {
+      int nnz = s.values.length;
+      int[] rowPointers = new int[s.numColumns + 1];
+      int[] columnIndices = new int[nnz];
+      double[] values = new double[nnz];
+
+      for (int i = 0; i < nnz; i++) {
+         rowPointers[s.columnIndices[i] + 1]++;
+      }
+      for (int col = 0; col < s.numColumns; col++) {
+         rowPointers[col + 1] += rowPointers[col];
+      }
+
+      int[] next = new int[s.numColumns];
+      System.arraycopy(rowPointers, 0, next, 0, s.numColumns);
+
+      for (int row = 0; row < s.numRows; row++) {
+         for (int i = s.rowPointers[row]; i < s.rowPointers[row + 1]; i++) {
+            int pos = next[s.columnIndices[i]]++;
+            columnIndices[pos] = row;
+            values[pos] = s.values[i];
+         }
+      }
+
+      return new SparseMatrix(s.numColumns, s.numRows, rowPointers, columnIndices, values, true);
+   }
+
+   /**
+    * multiplies the given dense Vector by the calling SparseMatrix.
+    * See multiply(SparseMatrix, Vector).
+    * @param u a Vector object
+    * @return the product as a dense Vector
+    */
+   public Vector multiply(Vector u) {
+      return SparseMatrix.multiply(this, u);
+   }
+
+   /**
+    * applies the SparseMatrix to a Vector, as a LinearOperator. Same as multiply(Vector).
+    * @param u a Vector object
+    * @return the product of the SparseMatrix and u
+    */
+   @Override
+   public Vector apply(Vector u) {
+      return SparseMatrix.multiply(this, u);
+   }
+
+   /**
+    * applies the transpose of the calling SparseMatrix to a dense Vector,
+    * as a LinearOperator. See applyTranspose(SparseMatrix, Vector).
+    * @param u a Vector object
+    * @return the product s^T u as a dense Vector
+    */
+   @Override
+   public Vector applyTranspose(Vector u) {
+      return SparseMatrix.applyTranspose(this, u);
+   }
+
+   /**
+    * multiplies the given dense Vector by the transpose of the given
+    * SparseMatrix, without forming the transpose. Each stored entry of row
+    * i adds value * u[i] to the entry of its column, so the work is
+    * O(nnz + rows + columns). The length of u must match the number of
+    * rows, or an IllegalArgumentException is thrown.
+    * @param s a SparseMatrix object
+    * @param u a Vector object
+    * @return the product s^T u as a dense Vector
+    */
+   public static Vector applyTranspose(SparseMatrix s, Vector u) {
+      if (u.length() != s.numRows) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] x = u.getEntries();
+      double[] result = new double[s.numColumns];
+
+      for (int row = 0; row < s.numRows; row++) {
+         double scale = x[row];
+
+         for (int i = s.rowPointers[row]; i < s.rowPointers[row + 1]; i++) {
+            result[s.columnIndices[i]] += s.values[i] * scale;
+         }
+      }
+
+      return new Vector(result, 0, 1, s.numColumns);
+   }
+
+   /**
+    * multiplies the given dense Vector by the given SparseMatrix (SpMV).
+    * Entry i of the result is the sum over the stored entries of row i of
+    * value * u[column], so the work is O(nnz + rows). The length of u must
+    * match the number of columns, or an IllegalArgumentException is thrown.
+    * @param s a SparseMatrix object
+    * @param u a Vector object
+    * @return the product su as a dense Vector
+    */
+   public static Vector multiply(SparseMatrix s, Vector u) {
+      if (u.length() != s.numColumns) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] x = u.getEntries();
+      double[] result = new double[s.numRows];
+
+      for (int row = 0; row < s.numRows; row++) {
+         double sum = 0;
+
+         for (int i = s.rowPointers[row]; i < s.rowPointers[row + 1]; i++) {
+            sum += s.values[i] * x[s.columnIndices[i]];
+         }
+
+         result[row] = sum;
+      }
+
+      return new Vector(result, 0, 1, s.numRows);
+   }
+
+   /**
+    * multiplies the calling SparseMatrix by a dense Matrix.
+    * See multiply(SparseMatrix, Matrix).
+    * @param b a Matrix object
+    * @return the product as a dense Matrix
+    */
+   public Matrix multiply(Matrix b) {
+      return SparseMatrix.multiply(this, b);
+   }
+
+   /**
+    * multiplies a SparseMatrix by a dense Matrix (SpMM). Row i of the
+    * result is the sum over the stored entries of row i of value * (row
+    * column of b), so every update walks a row of b and of the result
+    * contiguously, and the work is O(nnz * p) for a b with p columns.
+    * The number of columns of s must match the number of rows of b, or an
+    * IllegalArgumentException is thrown.
+    * @param s an m-by-n SparseMatrix object
+    * @param b an n-by-p Matrix object
+    * @return the m-by-p product sb as a dense Matrix
+    */
+   public static Matrix multiply(SparseMatrix s, Matrix b) {
+      if (s.numColumns != b.getNumRows()) {
+         throw new IllegalArgumentException("Matrix dimensions are incompatible.");
+      }
+
+      b = b.strided();
+      int p = b.getNumColumns();
+      double[] dense = b.entries();
+      int offset = b.offset();
+      int stride = b.rowStride();
+      double[] entries = new double[s.numRows * p];
+
+      for (int row = 0; row < s.numRows; row++) {
+         int start = row * p;
+
+         for (int i = s.rowPointers[row]; i < s.rowPointers[row + 1]; i++) {
+            VectorKernels.axpy(s.values[i], dense, offset + s.columnIndices[i] * stride, 1,
+                               entries, start, 1, p);
+         }
+      }
+
+      return new Matrix(s.numRows, p, entries);
+   }
+
+   /**
+    * multiplies the calling SparseMatrix by another one, on the threads of
+    * the shared pool. See multiply(SparseMatrix, SparseMatrix, ForkJoinPool).
+    * @param b a SparseMatrix object
+    * @return the product, in CSR form
+    */
+   public SparseMatrix multiply(SparseMatrix b) {
+      return SparseMatrix.multiply(this, b);
+   }
+
+   /**
+    * multiplies the calling SparseMatrix by another one, on the threads of
+    * the given pool. See multiply(SparseMatrix, SparseMatrix, ForkJoinPool).
+    * @param b a SparseMatrix object
+    * @param pool the ForkJoinPool to run the multiplication in
+    * @return the product, in CSR form
+    */
+   public SparseMatrix multiply(SparseMatrix b, ForkJoinPool pool) {
+      return SparseMatrix.multiply(this, b, pool);
+   }
+
+   /**
+    * multiplies two SparseMatrix objects on the threads of a shared
+    * ForkJoinPool with one worker per available processor.
+    * See multiply(SparseMatrix, SparseMatrix, ForkJoinPool).
+    * @param a an m-by-n SparseMatrix object
+    * @param b an n-by-p SparseMatrix object
+    * @return the m-by-p product ab, in CSR form
+    */
+   public static SparseMatrix multiply(SparseMatrix a, SparseMatrix b) {
+      return SparseMatrix.multiply(a, b, Gemm.defaultPool());
+   }
+
+   /**
+    * multiplies two SparseMatrix objects (SpGEMM) without leaving CSR form,
+    * using Gustavson's row-by-row method: row i of ab is the sum over the
+    * stored entries a[i][k] of a[i][k] * (row k of b). The work is the
+    * number of those multiply-adds, which for sparse operands is far below
+    * the m * n * p of a dense product.
+    *
+    * The product is built in two passes over the rows. The symbolic pass
+    * counts the distinct columns of each row of ab, which gives the exact
+    * row pointers, so the output arrays are allocated once. The numeric
+    * pass then adds up each row in an accumulator (see
+    * DENSE_ACCUMULATOR_COLUMNS) and writes it, sorted by column, straight
+    * into its place. Entries that cancel to a (threshold-checked) zero are
+    * dropped. Both passes split the rows into ranges with about the same
+    * number of multiply-adds, run as tasks in the pool; each row is written
+    * by one task only, so no synchronization is needed beyond joining them.
+    *
+    * The number of columns of a must match the number of rows of b, or an
+    * IllegalArgumentException is thrown.
+    * @param a an m-by-n SparseMatrix object
+    * @param b an n-by-p SparseMatrix object
+    * @param pool the ForkJoinPool to run the multiplication in
+    * @return the m-by-p product ab, in CSR form
+    */
+   public static SparseMatrix multiply(SparseMatrix a, SparseMatrix b, ForkJoinPool pool) {
+      if (a.numColumns != b.numRows) {
+         throw new IllegalArgumentException("Matrix dimensions are incompatible.");
+      }
+      if (pool == null) {
+         throw new IllegalArgumentException("pool is null");
+      }
+
+      // work[r] is the number of multiply-adds in rows 0 to r - 1 of ab
+      long[] work = new long[a.numRows + 1];
+
+      for (int row = 0; row < a.numRows; row++) {
+         long rowWork = 0;
+
+         for (int i = a.rowPointers[row]; i < a.rowPointers[row + 1]; i++) {
+            int k = a.columnIndices[i];
+            rowWork += b.rowPointers[k + 1] - b.rowPointers[k];
+         }
+
+         work[row + 1] = work[row] + rowWork;
+      }
+
+      // symbolic pass: rowPointers[r + 1] is first the size of row r
+      int[] rowPointers = new int[a.numRows + 1];
+      SparseMatrix.run(new ProductTask(a, b, work, 0, a.numRows, rowPointers, null, null, null), pool);
+
+      long nnz = 0;
+
+      for (int row = 0; row < a.numRows; row++) {
+         nnz += rowPointers[row + 1];
+         if (nnz > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Product has too many nonzero entries");
+         }
+         rowPointers[row + 1] = (int) nnz;
+      }
+
+      // numeric pass: lengths[r] is the number of entries of row r that did not cancel
+      int[] columnIndices = new int[(int) nnz];
+      double[] values = new double[(int) nnz];
+      int[] lengths = new int[a.numRows];
+      SparseMatrix.run(new ProductTask(a, b, work, 0, a.numRows, rowPointers, columnIndices, values, lengths),
+                       pool);
+
+      int pos = 0;
+      int start = 0;
+
+      for (int row = 0; row < a.numRows; row++) {
+         int end = rowPointers[row + 1];
+
+         if (pos != start) {
+            System.arraycopy(columnIndices, start, columnIndices, pos, lengths[row]);
+            System.arraycopy(values, start, values, pos, lengths[row]);
+         }
+
+         pos += lengths[row];
+         rowPointers[row + 1] = pos;
+         start = end;
+      }
+
+      if (pos < nnz) {
+         columnIndices = Arrays.copyOf(columnIndices, pos);
+         values = Arrays.copyOf(values, pos);
+      }
+
+      return new SparseMatrix(a.numRows, b.numColumns, rowPointers, columnIndices, values, true);
+   }
+
+   /*
+    * runs a ProductTask on the calling thread if it is too small to split,
+    * and in the pool otherwise
+    */
+   private static void run(ProductTask task, ForkJoinPool pool) {
+      if (task.isSplittable()) {
+         pool.invoke(task);
+      } else {
+         task.compute();
+      }
+   }
+
+   /**
+    * ProductTask runs one pass of multiply(SparseMatrix, SparseMatrix,
+    * ForkJoinPool) over a range of rows. If the range holds enough work,
+    * it splits it where half the work is done and forks a task for each
+    * half; otherwise it runs the rows with one RowAccumulator. The
+    * symbolic pass is the one without output arrays.
+    */
+   private static class ProductTask extends RecursiveAction {
+
+      private static final long serialVersionUID = 1L;
+
+      private final SparseMatrix a, b;
+      private final long[] work;
+      private final int from, to;
+      private final int[] rowPointers, columnIndices, lengths;
+      private final double[] values;
+
+      ProductTask(SparseMatrix a, SparseMatrix b, long[] work, int from, int to,
+                  int[] rowPointers, int[] columnIndices, double[] values, int[] lengths) {
+         this.a = a;
+         this.b = b;
+         this.work = work;
+         this.from = from;
+         this.to = to;
+         this.rowPointers = rowPointers;
+         this.columnIndices = columnIndices;
+         this.values = values;
+         this.lengths = lengths;
+      }
+
+      /**
+       * @return true if the rows hold enough work to be split in two. A
+       * dense accumulator costs one slot per column of b to set up, so each
+       * task is given at least that much work as well.
+       */
+      boolean isSplittable() {
+         long grain = Math.max(PRODUCT_GRAIN, b.numColumns <= DENSE_ACCUMULATOR_COLUMNS ? b.numColumns : 0);
+         return to - from > 1 && work[to] - work[from] > 2 * grain;
+      }
+
+      @Override
+      protected void compute() {
+         if (this.isSplittable()) {
+            // the first row after which at least half of the work is done
+            long half = work[from] + (work[to] - work[from]) / 2;
+            int low = from + 1;
+            int high = to - 1;
+
+            while (low < high) {
+               int mid = (low + high) >>> 1;
+
+               if (work[mid] < half) {
+                  low = mid + 1;
+               } else {
+                  high = mid;
+               }
+            }
+
+            invokeAll(new ProductTask(a, b, work, from, low, rowPointers, columnIndices, values, lengths),
+                      new ProductTask(a, b, work, low, to, rowPointers, columnIndices, values, lengths));
+            return;
+         }
+
+         RowAccumulator accumulator = new RowAccumulator(b.numColumns);
+
+         for (int row = from; row < to; row++) {
+            if (values == null) {
+               long bound = Math.min(work[row + 1] - work[row], b.numColumns);
+               rowPointers[row + 1] = accumulator.count(a, b, row, (int) bound);
+            } else {
+               lengths[row] = accumulator.sum(a, b, row, columnIndices, values, rowPointers[row],
+                                              rowPointers[row + 1] - rowPointers[row]);
+            }
+         }
+      }
+   }
+
+   /**
+    * RowAccumulator adds up one row of a product at a time. With a dense
+    * accumulator, slot c of sums holds the sum for column c, and marker[c]
+    * is the last row that touched column c, so nothing is cleared between
+    * rows. With a hash accumulator, the columns of the row are kept in an
+    * open-addressing table with at least twice as many slots as the row
+    * has entries, which is cleared for each row.
+    */
+   private static class RowAccumulator {
+
+      private final int[] marker;
+      private final double[] sums;
+      private int[] keys;
+      private double[] hashSums;
+      private int mask;
+
+      RowAccumulator(int numColumns) {
+         if (numColumns <= DENSE_ACCUMULATOR_COLUMNS) {
+            this.marker = new int[numColumns];
+            this.sums = new double[numColumns];
+            Arrays.fill(this.marker, -1);
+         } else {
+            this.marker = null;
+            this.sums = null;
+            this.keys = new int[0];
+            this.hashSums = new double[0];
+         }
+      }
+
+      /**
+       * counts the distinct columns of the given row of ab.
+       * @param bound at least the number of distinct columns
+       */
+      int count(SparseMatrix a, SparseMatrix b, int row, int bound) {
+         this.clear(bound);
+
+         int count = 0;
+
+         for (int i = a.rowPointers[row]; i < a.rowPointers[row + 1]; i++) {
+            int k = a.columnIndices[i];
+
+            for (int j = b.rowPointers[k]; j < b.rowPointers[k + 1]; j++) {
+               int col = b.columnIndices[j];
+
+               if (this.marker != null) {
+                  if (this.marker[col] != row) {
+                     this.marker[col] = row;
+                     count++;
+                  }
+               } else {
+                  int slot = this.slot(col);
+
+                  if (this.keys[slot] < 0) {
+                     this.keys[slot] = col;
+                     count++;
+                  }
+               }
+            }
+         }
+
+         return count;
+      }
+
+      /**
+       * computes the given row of ab into columnIndices and values, which
+       * have count places for it from start, sorted by column and without
+       * the entries that cancelled.
+       * @return the number of entries written
+       */
+      int sum(SparseMatrix a, SparseMatrix b, int row, int[] columnIndices, double[] values,
+              int start, int count) {
+         this.clear(count);
+
+         int end = start;
+
+         for (int i = a.rowPointers[row]; i < a.rowPointers[row + 1]; i++) {
+            int k = a.columnIndices[i];
+            double scale = a.values[i];
+
+            for (int j = b.rowPointers[k]; j < b.rowPointers[k + 1]; j++) {
+               int col = b.columnIndices[j];
+               double product = scale * b.values[j];
+
+               if (this.marker != null) {
+                  if (this.marker[col] != row) {
+                     this.marker[col] = row;
+                     this.sums[col] = product;
+                     columnIndices[end++] = col;
+                  } else {
+                     this.sums[col] += product;
+                  }
+               } else {
+                  int slot = this.slot(col);
+
+                  if (this.keys[slot] < 0) {
+                     this.keys[slot] = col;
+                     this.hashSums[slot] = product;
+                     columnIndices[end++] = col;
+                  } else {
+                     this.hashSums[slot] += product;
+                  }
+               }
+            }
+         }
+
+         Arrays.sort(columnIndices, start, end);
+
+         int pos = start;
+
+         for (int i = start; i < end; i++) {
+            int col = columnIndices[i];
+            double sum = this.marker != null ? this.sums[col] : this.hashSums[this.slot(col)];
+
+            if (Math.abs(sum) > Matrix.THRESHOLD) {
+               columnIndices[pos] = col;
+               values[pos] = sum;
+               pos++;
+            }
+         }
+
+         return pos - start;
+      }
+
+      /*
+       * empties the hash table, making room for size columns; the dense
+       * accumulator needs nothing
+       */
+      private void clear(int size) {
+         if (this.marker != null) {
+            return;
+         }
+
+         int capacity = Integer.highestOneBit(Math.max(size, 1)) * 4;
+
+         if (this.keys.length < capacity) {
+            this.keys = new int[capacity];
+            this.hashSums = new double[capacity];
+         }
+
+         Arrays.fill(this.keys, 0, capacity, -1);
+         this.mask = capacity - 1;
+      }
+
+      /*
+       * returns the slot holding col, or the empty slot where it belongs
+       */
+      private int slot(int col) {
+         int slot = (col * 0x9E3779B9) & this.mask;
+
+         while (this.keys[slot] >= 0 && this.keys[slot] != col) {
+            slot = (slot + 1) & this.mask;
+         }
+
+         return slot;
+      }
+   }
+}
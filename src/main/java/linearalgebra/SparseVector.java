@@ -0,0 +1,562 @@
+package linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * The SparseVector class stores a Vector that is mostly zeros as its
+ * (threshold-checked) nonzero entries only: an int array of their
+ * positions, in increasing order, and a double array of their values. A
+ * one-hot or bag-of-words feature of length 1,000,000 with 100 nonzero
+ * entries takes 1.2 KB instead of the 8 MB of a Vector.
+ *
+ * Every operation below costs O(nnz), the number of nonzero entries,
+ * rather than O(length):
+ *
+ *    dot(SparseVector)        - merges the two sorted index arrays
+ *    dot(Vector)              - gathers the entries of the Vector it needs
+ *    MutableVector.axpy       - scatters into a dense MutableVector in place
+ *    magnitude(), pnorm(p)    - over the stored values
+ *
+ * A SparseVector is not a Vector, so it does not change any existing
+ * Vector call: toVector() and SparseVector(Vector) convert between the two,
+ * and Vector.dot(SparseVector) dots a Vector with one.
+ *
+ * Like Vector, a SparseVector is never modified in place.
+ */
+
+public class SparseVector {
+
+   // ********************************************************
+   // ********************************************************
+
+   /**
+    * the length of the vector, including the zeros
+    */
+   private final int length;
+
+   /**
+    * the positions of the nonzero entries, in increasing order
+    */
+   private final int[] indices;
+
+   /**
+    * values[k] is the entry at position indices[k]
+    */
+   private final double[] values;
+
+   // ********************************************************
+   // ********************************************************
+
+   /**
+    * builds a SparseVector from its nonzero entries, given as parallel
+    * arrays in any order. The arrays are copied, and entries that are
+    * (threshold-checked) zero are dropped. Throws an
+    * IllegalArgumentException if the arrays have different lengths or a
+    * position is repeated or outside 0 to length - 1.
+    * @param length the length of the vector
+    * @param indices the positions of the entries
+    * @param values the entries
+    */
+   public SparseVector(int length, int[] indices, double[] values) {
+      if (length < 0) {
+         throw new IllegalArgumentException("length must be >= 0");
+      }
+
+      int[] order = SparseVector.sortedOrder(length, indices, values);
+      int nnz = 0;
+
+      for (int k : order) {
+         if (Math.abs(values[k]) > Vector.THRESHOLD) {
+            nnz++;
+         }
+      }
+
+      this.length = length;
+      this.indices = new int[nnz];
+      this.values = new double[nnz];
+
+      int pos = 0;
+
+      for (int k : order) {
+         if (Math.abs(values[k]) > Vector.THRESHOLD) {
+            this.indices[pos] = indices[k];
+            this.values[pos] = values[k];
+            pos++;
+         }
+      }
+   }
+
+   /**
+    * copies the nonzero entries of a (dense) Vector.
+    * @param u a Vector object
+    */
+   public SparseVector(Vector u) {
+      int nnz = 0;
+
+      for (int i = 0; i < u.length(); i++) {
+         if (Math.abs(u.get(i)) > Vector.THRESHOLD) {
+            nnz++;
+         }
+      }
+
+      this.length = u.length();
+      this.indices = new int[nnz];
+      this.values = new double[nnz];
+
+      for (int i = 0, k = 0; i < this.length; i++) {
+         double entry = u.get(i);
+
+         if (Math.abs(entry) > Vector.THRESHOLD) {
+            this.indices[k] = i;
+            this.values[k] = entry;
+            k++;
+         }
+      }
+   }
+
+   /**
+    * wraps sorted, nonzero index and value arrays without copying them. The
+    * caller hands ownership of the arrays to the new SparseVector.
+    */
+   private SparseVector(int length, int[] indices, double[] values, boolean wrap) {
+      if (length < 0) {
+         throw new IllegalArgumentException("length must be >= 0");
+      }
+
+      this.length = length;
+      this.indices = indices;
+      this.values = values;
+   }
+
+   /**
+    * returns the canonical basis Vector e_index (a one-hot vector).
+    * @param length the length of the vector
+    * @param index the position of the one
+    * @return a SparseVector with a single one
+    */
+   public static SparseVector basisVector(int length, int index) {
+      if (index < 0 || index >= length) {
+         throw new IllegalArgumentException("Invalid value for index.");
+      }
+
+      return new SparseVector(length, new int[] {index}, new double[] {1}, true);
+   }
+
+   /**
+    * checks the positions passed to SparseVector(int, int[], double[]).
+    * @return the order in which to read the entries so that their
+    *         positions increase
+    */
+   private static int[] sortedOrder(int length, int[] indices, double[] values) {
+      if (indices.length != values.length) {
+         throw new IllegalArgumentException("Number of indices does not match number of values");
+      }
+
+      int nnz = indices.length;
+      boolean sorted = true;
+
+      for (int k = 0; k < nnz; k++) {
+         if (indices[k] < 0 || indices[k] >= length) {
+            throw new IllegalArgumentException("Index " + indices[k] + " is out of range");
+         }
+         if (k > 0 && indices[k] <= indices[k - 1]) {
+            sorted = false;
+         }
+      }
+
+      int[] order = new int[nnz];
+
+      if (sorted) {
+         for (int k = 0; k < nnz; k++) {
+            order[k] = k;
+         }
+      } else {
+         // sort (index, position) pairs packed into longs, which avoids boxing
+         long[] keys = new long[nnz];
+
+         for (int k = 0; k < nnz; k++) {
+            keys[k] = ((long) indices[k] << 32) | k;
+         }
+
+         Arrays.sort(keys);
+
+         for (int k = 0; k < nnz; k++) {
+            order[k] = (int) keys[k];
+
+            if (k > 0 && indices[order[k]] == indices[order[k - 1]]) {
+               throw new IllegalArgumentException("Index " + indices[order[k]] + " is repeated");
+            }
+         }
+      }
+
+      return order;
+   }
+
+   // ********************************************************
+   // ********************************************************
+
+   /**
+    * @return the length of the vector, including the zeros
+    */
+   public int length() {
+      return this.length;
+   }
+
+   /**
+    * @return the number of stored (nonzero) entries
+    */
+   public int getNumNonZeros() {
+      return this.indices.length;
+   }
+
+   /**
+    * @return a copy of the positions of the nonzero entries, in increasing order
+    */
+   public int[] getIndices() {
+      return this.indices.clone();
+   }
+
+   /**
+    * @return a copy of the nonzero entries, in the order of getIndices()
+    */
+   public double[] getValues() {
+      return this.values.clone();
+   }
+
+   /**
+    * returns the entry in the specified position, found by binary search
+    * in O(log nnz).
+    * @param position the position to return
+    * @return the entry, 0 if it is not stored
+    */
+   public double get(int position) {
+      if (position < 0 || position >= this.length) {
+         throw new ArrayIndexOutOfBoundsException(position);
+      }
+
+      int k = Arrays.binarySearch(this.indices, position);
+
+      return k >= 0 ? this.values[k] : 0;
+   }
+
+   /**
+    * converts the SparseVector to a dense Vector, in O(length).
+    * @return a Vector with the same entries
+    */
+   public Vector toVector() {
+      double[] entries = new double[this.length];
+
+      for (int k = 0; k < this.indices.length; k++) {
+         entries[this.indices[k]] = this.values[k];
+      }
+
+      return new Vector(entries, 0, 1, this.length);
+   }
+
+   /**
+    * Return a String listing the nonzero entries as position=value, e.g.
+    * SparseVector(length 1000000)[17=1.0, 40321=2.5]
+    * @return a String representation of the vector
+    */
+   @Override
+   public String toString() {
+      StringBuilder str = new StringBuilder("SparseVector(length " + this.length + ")[");
+
+      for (int k = 0; k < this.indices.length; k++) {
+         if (k > 0) {
+            str.append(", ");
+         }
+         str.append(this.indices[k]).append('=').append(this.values[k]);
+      }
+
+      return str.append(']').toString();
+   }
+
+   // ********************************************************
+   // ********************************************************
+
+   /**
+    * @return true if no entry is stored
+    */
+   public boolean isZero() {
+      return this.indices.length == 0;
+   }
+
+   /**
+    * checks to see if the SparseVector is a canonical basis Vector, i.e. it
+    * has a one in exactly one entry and zeroes everywhere else, in O(1).
+    * @return true if the vector is all zeroes and a single one
+    */
+   public boolean isCanonicalBasisVector() {
+      return this.indices.length == 1 && Math.abs(1 - this.values[0]) < Vector.THRESHOLD;
+   }
+
+   /**
+    * magnitude method is a wrapper for pnorm, with p=2
+    * @return the magnitude of the vector
+    */
+   public double magnitude() {
+      return this.pnorm(2);
+   }
+
+   /**
+    * returns the Lp norm, computed over the stored entries only (the zeros
+    * add nothing to it).
+    * @param p a real number greater than or equal to 1
+    * @return the Lp norm of the vector
+    */
+   public double pnorm(double p) {
+      if (p < 1) {
+         throw new IllegalArgumentException("p must be >= 1");
+      }
+
+      double sum = VectorKernels.sumOfPowers(this.values, 0, 1, p, this.values.length);
+
+      return Math.pow(sum, 1 / p);
+   }
+
+   // ********************************************************
+   // ********************************************************
+
+   /**
+    * dot method computes the dot product of the calling vector and the
+    * passed one. See dot(SparseVector, SparseVector).
+    * @param u a SparseVector object of the same length
+    * @return the sum of the products of corresponding elements
+    */
+   public double dot(SparseVector u) {
+      return SparseVector.dot(this, u);
+   }
+
+   /**
+    * computes the dot product of two sparse vectors by walking their
+    * sorted index arrays together and multiplying where they meet, in
+    * O(nnz(u1) + nnz(u2)). Throws an IllegalArgumentException if the
+    * lengths differ.
+    * @param u1 a SparseVector object
+    * @param u2 a SparseVector object
+    * @return the sum of the products of corresponding elements
+    */
+   public static double dot(SparseVector u1, SparseVector u2) {
+      SparseVector.checkLength(u1, u2.length);
+
+      double sum = 0;
+      int k1 = 0;
+      int k2 = 0;
+
+      while (k1 < u1.indices.length && k2 < u2.indices.length) {
+         int i1 = u1.indices[k1];
+         int i2 = u2.indices[k2];
+
+         if (i1 == i2) {
+            sum += u1.values[k1++] * u2.values[k2++];
+         } else if (i1 < i2) {
+            k1++;
+         } else {
+            k2++;
+         }
+      }
+
+      return sum;
+   }
+
+   /**
+    * dot method computes the dot product of the calling vector and a
+    * dense Vector. See dot(SparseVector, Vector).
+    * @param u a Vector object of the same length
+    * @return the sum of the products of corresponding elements
+    */
+   public double dot(Vector u) {
+      return SparseVector.dot(this, u);
+   }
+
+   /**
+    * computes the dot product of a sparse and a dense vector, reading only
+    * the entries of u at the stored positions, in O(nnz(s)). Throws an
+    * IllegalArgumentException if the lengths differ.
+    * @param s a SparseVector object
+    * @param u a Vector object
+    * @return the sum of the products of corresponding elements
+    */
+   public static double dot(SparseVector s, Vector u) {
+      SparseVector.checkLength(s, u.length());
+
+      double sum = 0;
+
+      for (int k = 0; k < s.indices.length; k++) {
+         sum += s.values[k] * u.get(s.indices[k]);
+      }
+
+      return sum;
+   }
+
+   /**
+    * adds a SparseVector to the calling one. See linearCombination.
+    * @param u a SparseVector object of the same length
+    * @return the sum
+    */
+   public SparseVector add(SparseVector u) {
+      return SparseVector.merge(this, 1, u, 1);
+   }
+
+   /**
+    * subtracts a SparseVector from the calling one. See linearCombination.
+    * @param u a SparseVector object of the same length
+    * @return the difference
+    */
+   public SparseVector subtract(SparseVector u) {
+      return SparseVector.merge(this, 1, u, -1);
+   }
+
+   /**
+    * adds a dense Vector to the calling SparseVector. The result is dense,
+    * so this takes O(length).
+    * @param u a Vector object of the same length
+    * @return the sum, a Vector
+    */
+   public Vector add(Vector u) {
+      SparseVector.checkLength(this, u.length());
+
+      double[] entries = u.getEntries();
+
+      for (int k = 0; k < this.indices.length; k++) {
+         entries[this.indices[k]] += this.values[k];
+      }
+
+      return new Vector(entries, 0, 1, entries.length);
+   }
+
+   /**
+    * multiplies every entry by a scalar; only the stored entries change.
+    * @param scalar the real number to multiply the entries by
+    * @return the scaled SparseVector
+    */
+   public SparseVector multiply(double scalar) {
+      if (scalar == 0) {
+         return new SparseVector(this.length, new int[0], new double[0], true);
+      }
+
+      double[] result = new double[this.values.length];
+      VectorKernels.scale(this.values, 0, 1, scalar, result, 0, result.length);
+
+      return new SparseVector(this.length, this.indices.clone(), result, true);
+   }
+
+   /**
+    * creates the linear combination (weighted sum) of sparse vectors of the
+    * same length, as a SparseVector. All the stored entries are gathered,
+    * sorted by position and the ones at the same position added, in
+    * O(N log N) for N stored entries in total, independent of the length.
+    * Throws an IllegalArgumentException if the number of weights or a
+    * length does not match.
+    * @param vectors an array of SparseVector objects, at least one
+    * @param weights an array of doubles to weight the sum
+    * @return the linear combination of the vectors with the weights
+    */
+   public static SparseVector linearCombination(SparseVector[] vectors, double[] weights) {
+      if (vectors.length != weights.length) {
+         throw new IllegalArgumentException("Number of vectors does not match number of weights.");
+      }
+
+      int length = vectors[0].length;
+      int total = 0;
+
+      for (SparseVector u : vectors) {
+         SparseVector.checkLength(u, length);
+         total += u.indices.length;
+      }
+
+      // (index, position in the gathered arrays) pairs, packed into longs
+      long[] keys = new long[total];
+      double[] weighted = new double[total];
+      int pos = 0;
+
+      for (int v = 0; v < vectors.length; v++) {
+         SparseVector u = vectors[v];
+
+         for (int k = 0; k < u.indices.length; k++, pos++) {
+            keys[pos] = ((long) u.indices[k] << 32) | pos;
+            weighted[pos] = weights[v] * u.values[k];
+         }
+      }
+
+      Arrays.sort(keys);
+
+      int[] indices = new int[total];
+      double[] values = new double[total];
+      int nnz = 0;
+
+      for (int k = 0; k < total; ) {
+         int index = (int) (keys[k] >>> 32);
+         double sum = 0;
+
+         for (; k < total && (int) (keys[k] >>> 32) == index; k++) {
+            sum += weighted[(int) keys[k]];
+         }
+
+         if (Math.abs(sum) > Vector.THRESHOLD) {
+            indices[nnz] = index;
+            values[nnz] = sum;
+            nnz++;
+         }
+      }
+
+      return new SparseVector(length, Arrays.copyOf(indices, nnz), Arrays.copyOf(values, nnz), true);
+   }
+
+   /**
+    * returns a1 u1 + a2 u2 by merging the two sorted index arrays, in
+    * O(nnz(u1) + nnz(u2)).
+    */
+   private static SparseVector merge(SparseVector u1, double a1, SparseVector u2, double a2) {
+      SparseVector.checkLength(u1, u2.length);
+
+      int n1 = u1.indices.length;
+      int n2 = u2.indices.length;
+      int[] indices = new int[n1 + n2];
+      double[] values = new double[n1 + n2];
+      int nnz = 0;
+      int k1 = 0;
+      int k2 = 0;
+
+      while (k1 < n1 || k2 < n2) {
+         int i1 = k1 < n1 ? u1.indices[k1] : Integer.MAX_VALUE;
+         int i2 = k2 < n2 ? u2.indices[k2] : Integer.MAX_VALUE;
+         int index = Math.min(i1, i2);
+         double sum = 0;
+
+         if (i1 == index) {
+            sum += a1 * u1.values[k1++];
+         }
+         if (i2 == index) {
+            sum += a2 * u2.values[k2++];
+         }
+
+         if (Math.abs(sum) > Vector.THRESHOLD) {
+            indices[nnz] = index;
+            values[nnz] = sum;
+            nnz++;
+         }
+      }
+
+      return new SparseVector(u1.length, Arrays.copyOf(indices, nnz), Arrays.copyOf(values, nnz), true);
+   }
+
+   /**
+    * adds alpha times the stored entries of s to the entries of dest,
+    * for MutableVector.axpy.
+    */
+   static void addScaledInto(double alpha, SparseVector s, double[] dest) {
+      SparseVector.checkLength(s, dest.length);
+
+      for (int k = 0; k < s.indices.length; k++) {
+         dest[s.indices[k]] += alpha * s.values[k];
+      }
+   }
+
+   private static void checkLength(SparseVector s, int length) {
+      if (s.length != length) {
+         throw new IllegalArgumentException("Vectors are different lengths");
+      }
+   }
+}
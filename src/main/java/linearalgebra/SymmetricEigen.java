@@ -0,0 +1,446 @@
+package linearalgebra;
+
+/**
+ * The SymmetricEigen class computes the eigenvalues, and optionally the
+ * eigenvectors, of a symmetric Matrix A = V D V^T, where D is diagonal
+ * with the (real) eigenvalues in increasing order and the columns of V are
+ * orthonormal eigenvectors.
+ *
+ * It works in two steps:
+ *    1. Householder reflections reduce A to a symmetric tridiagonal Matrix
+ *       T = Q^T A Q (about 4n^3/3 flops).
+ *    2. The QL algorithm with implicit shifts drives the off-diagonal of T
+ *       to zero, leaving the eigenvalues on the diagonal (O(n^2) flops).
+ *
+ * For the eigenvectors, Q is formed (another 4n^3/3 flops) and every QL
+ * rotation is applied to it as well (about 6n^3 flops). When only the
+ * eigenvalues are needed (condition numbers, explained variance), both of
+ * those are skipped, which makes that mode several times cheaper.
+ *
+ * The working array stores V transposed, so that the eigenvectors, and the
+ * columns touched by the reflections and rotations, are contiguous rows.
+ */
+
+public class SymmetricEigen {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the QL iteration gives up on an eigenvalue after this many steps
+    */
+   static final int MAX_ITERATIONS = 50;
+
+   /**
+    * the eigenvalues, in increasing order
+    */
+   private final double[] values;
+
+   /**
+    * V^T: row j is the eigenvector of values[j]. null in values-only mode.
+    */
+   private final double[] vectors;
+
+   /**
+    * n is the number of rows (and columns) of the Matrix
+    */
+   private final int n;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * computes the eigenvalues and eigenvectors of the symmetric Matrix a.
+    * Throws an IllegalArgumentException if a is not symmetric.
+    * @param a a symmetric Matrix object
+    */
+   public SymmetricEigen(Matrix a) {
+      this(a, true);
+   }
+
+   /**
+    * computes the eigenvalues of the symmetric Matrix a, and its
+    * eigenvectors if computeVectors is true. Throws an
+    * IllegalArgumentException if a is not symmetric.
+    * @param a a symmetric Matrix object
+    * @param computeVectors false to skip the eigenvectors
+    */
+   public SymmetricEigen(Matrix a, boolean computeVectors) {
+      if (!Matrix.isSymmetric(a)) {
+         throw new IllegalArgumentException("Matrix is not symmetric");
+      }
+
+      this.n = a.getNumRows();
+
+      // a is symmetric, so its row-major entries are also A^T = V^T
+      double[] w = a.toArray();
+      double[] d = new double[this.n];
+      double[] e = new double[this.n];
+
+      SymmetricEigen.tridiagonalize(w, this.n, d, e, computeVectors);
+      SymmetricEigen.diagonalize(d, e, computeVectors ? w : null, this.n);
+
+      this.values = d;
+      this.vectors = computeVectors ? w : null;
+   }
+
+   /**
+    * returns the eigenvalues of the symmetric Matrix a, in increasing order,
+    * without computing the eigenvectors.
+    * @param a a symmetric Matrix object
+    * @return a Vector holding the eigenvalues
+    */
+   public static Vector eigenvalues(Matrix a) {
+      return new SymmetricEigen(a, false).getEigenvalues();
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * reduces the symmetric n-by-n array w to tridiagonal form with
+    * Householder reflections, working from the last row up. On return d
+    * holds the diagonal and e[1..n) the subdiagonal (e[0] is 0). If
+    * accumulate is true, w is overwritten with Q^T, where T = Q^T A Q;
+    * otherwise its contents are left undefined.
+    *
+    * Column c of the usual formulation is row c of w, so every inner loop
+    * runs along a row.
+    */
+   static void tridiagonalize(double[] w, int n, double[] d, double[] e, boolean accumulate) {
+      for (int j = 0; j < n; j++) {
+         d[j] = w[j * n + n - 1];
+      }
+
+      for (int i = n - 1; i > 0; i--) {
+         double scale = 0;
+         double h = 0;
+
+         for (int k = 0; k < i; k++) {
+            scale += Math.abs(d[k]);
+         }
+
+         if (scale == 0) {
+            e[i] = d[i - 1];
+
+            for (int j = 0; j < i; j++) {
+               d[j] = w[j * n + i - 1];
+               w[j * n + i] = 0;
+               w[i * n + j] = 0;
+            }
+         } else {
+            // the Householder vector, scaled to avoid underflow, goes in d
+            for (int k = 0; k < i; k++) {
+               d[k] /= scale;
+               h += d[k] * d[k];
+            }
+
+            double f = d[i - 1];
+            double g = f > 0 ? -Math.sqrt(h) : Math.sqrt(h);
+            e[i] = scale * g;
+            h -= f * g;
+            d[i - 1] = f - g;
+
+            for (int j = 0; j < i; j++) {
+               e[j] = 0;
+            }
+
+            // e = A d, reading only the lower triangle
+            for (int j = 0; j < i; j++) {
+               int row = j * n;
+               f = d[j];
+               w[i * n + j] = f;
+               g = e[j] + w[row + j] * f;
+
+               for (int k = j + 1; k < i; k++) {
+                  g += w[row + k] * d[k];
+                  e[k] += w[row + k] * f;
+               }
+
+               e[j] = g;
+            }
+
+            f = 0;
+
+            for (int j = 0; j < i; j++) {
+               e[j] /= h;
+               f += e[j] * d[j];
+            }
+
+            double hh = f / (h + h);
+
+            for (int j = 0; j < i; j++) {
+               e[j] -= hh * d[j];
+            }
+
+            // A = A - d e^T - e d^T on the lower triangle
+            for (int j = 0; j < i; j++) {
+               int row = j * n;
+               f = d[j];
+               g = e[j];
+
+               for (int k = j; k < i; k++) {
+                  w[row + k] -= f * e[k] + g * d[k];
+               }
+
+               d[j] = w[row + i - 1];
+               w[row + i] = 0;
+            }
+         }
+
+         d[i] = h;
+      }
+
+      if (!accumulate) {
+         for (int j = 0; j < n; j++) {
+            d[j] = w[j * n + j];
+         }
+
+         e[0] = 0;
+         return;
+      }
+
+      // form Q^T from the stored reflections, one more row at a time
+      for (int i = 0; i < n - 1; i++) {
+         int next = (i + 1) * n;
+         w[i * n + n - 1] = w[i * n + i];
+         w[i * n + i] = 1;
+         double h = d[i + 1];
+
+         if (h != 0) {
+            for (int k = 0; k <= i; k++) {
+               d[k] = w[next + k] / h;
+            }
+
+            for (int j = 0; j <= i; j++) {
+               double g = VectorKernels.dot(w, next, 1, w, j * n, 1, i + 1);
+               VectorKernels.axpy(-g, d, 0, 1, w, j * n, 1, i + 1);
+            }
+         }
+
+         for (int k = 0; k <= i; k++) {
+            w[next + k] = 0;
+         }
+      }
+
+      for (int j = 0; j < n; j++) {
+         d[j] = w[j * n + n - 1];
+         w[j * n + n - 1] = 0;
+      }
+
+      w[(n - 1) * n + n - 1] = 1;
+      e[0] = 0;
+   }
+
+   /**
+    * finds the eigenvalues of the symmetric tridiagonal Matrix with
+    * diagonal d and subdiagonal e[1..n) by the QL algorithm with implicit
+    * shifts, and sorts them into increasing order in d. If vt is not null,
+    * every rotation is also applied to its rows, which turns Q^T into V^T.
+    * Throws an IllegalArgumentException if an eigenvalue does not converge
+    * (e.g. the entries are not finite).
+    */
+   static void diagonalize(double[] d, double[] e, double[] vt, int n) {
+      for (int i = 1; i < n; i++) {
+         e[i - 1] = e[i];
+      }
+
+      e[n - 1] = 0;
+
+      double shift = 0;
+      double norm = 0;
+      double eps = Math.ulp(1.0);
+
+      for (int l = 0; l < n; l++) {
+         norm = Math.max(norm, Math.abs(d[l]) + Math.abs(e[l]));
+
+         // find the first negligible subdiagonal entry at or after l
+         int m = l;
+
+         while (m < n - 1 && !(Math.abs(e[m]) <= eps * norm)) {
+            m++;
+         }
+
+         int iterations = 0;
+
+         while (m > l) {
+            if (++iterations > MAX_ITERATIONS) {
+               throw new IllegalArgumentException("eigenvalue iteration did not converge");
+            }
+
+            // Wilkinson-style shift from the leading 2-by-2 block
+            double g = d[l];
+            double p = (d[l + 1] - g) / (2 * e[l]);
+            double r = Math.hypot(p, 1);
+
+            if (p < 0) {
+               r = -r;
+            }
+
+            d[l] = e[l] / (p + r);
+            d[l + 1] = e[l] * (p + r);
+            double dl1 = d[l + 1];
+            double h = g - d[l];
+
+            for (int i = l + 2; i < n; i++) {
+               d[i] -= h;
+            }
+
+            shift += h;
+
+            // implicit QL sweep from m back to l
+            p = d[m];
+            double c = 1;
+            double c2 = c;
+            double c3 = c;
+            double el1 = e[l + 1];
+            double s = 0;
+            double s2 = 0;
+
+            for (int i = m - 1; i >= l; i--) {
+               c3 = c2;
+               c2 = c;
+               s2 = s;
+               g = c * e[i];
+               h = c * p;
+               r = Math.hypot(p, e[i]);
+               e[i + 1] = s * r;
+               s = e[i] / r;
+               c = p / r;
+               p = c * d[i] - s * g;
+               d[i + 1] = h + s * (c * g + s * d[i]);
+
+               if (vt != null) {
+                  VectorKernels.rotate(vt, i * n, 1, vt, (i + 1) * n, 1, c, s, n);
+               }
+            }
+
+            p = -s * s2 * c3 * el1 * e[l] / dl1;
+            e[l] = s * p;
+            d[l] = c * p;
+
+            if (Math.abs(e[l]) <= eps * norm) {
+               break;
+            }
+         }
+
+         d[l] += shift;
+         e[l] = 0;
+      }
+
+      SymmetricEigen.sort(d, vt, n);
+   }
+
+   /**
+    * sorts d into increasing order by selection, swapping the matching rows
+    * of vt (if not null) along with it.
+    */
+   private static void sort(double[] d, double[] vt, int n) {
+      double[] swap = vt == null ? null : new double[n];
+
+      for (int i = 0; i < n - 1; i++) {
+         int k = i;
+
+         for (int j = i + 1; j < n; j++) {
+            if (d[j] < d[k]) {
+               k = j;
+            }
+         }
+
+         if (k != i) {
+            double p = d[k];
+            d[k] = d[i];
+            d[i] = p;
+
+            if (vt != null) {
+               System.arraycopy(vt, i * n, swap, 0, n);
+               System.arraycopy(vt, k * n, vt, i * n, n);
+               System.arraycopy(swap, 0, vt, k * n, n);
+            }
+         }
+      }
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the eigenvalues, in increasing order.
+    * @return a Vector with n entries
+    */
+   public Vector getEigenvalues() {
+      return new Vector(this.values);
+   }
+
+   /**
+    * returns the eigenvalues as a diagonal Matrix D, with A = V D V^T.
+    * @return an n-by-n diagonal Matrix
+    */
+   public Matrix getD() {
+      double[] entries = new double[this.n * this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         entries[i * this.n + i] = this.values[i];
+      }
+
+      return new Matrix(this.n, this.n, entries);
+   }
+
+   /**
+    * @return true if the eigenvectors were computed
+    */
+   public boolean hasEigenvectors() {
+      return this.vectors != null;
+   }
+
+   /**
+    * returns the eigenvectors as the columns of V, in the order of the
+    * eigenvalues. Throws an IllegalArgumentException in values-only mode.
+    * @return an n-by-n Matrix with orthonormal columns
+    */
+   public Matrix getV() {
+      return new Matrix(this.n, this.n, this.checkVectors().clone()).transpose();
+   }
+
+   /**
+    * returns the eigenvector of the j-th eigenvalue (in increasing order).
+    * Throws an IllegalArgumentException in values-only mode.
+    * @param j the index of the eigenvalue
+    * @return a unit Vector v with Av = (eigenvalue j) v
+    */
+   public Vector getEigenvector(int j) {
+      if (j < 0 || j >= this.n) {
+         throw new IllegalArgumentException("Index is out of range");
+      }
+
+      double[] v = new double[this.n];
+      System.arraycopy(this.checkVectors(), j * this.n, v, 0, this.n);
+
+      return new Vector(v, 0, 1, this.n);
+   }
+
+   private double[] checkVectors() {
+      if (this.vectors == null) {
+         throw new IllegalArgumentException("eigenvectors were not computed");
+      }
+
+      return this.vectors;
+   }
+
+   /**
+    * returns the ratio of the largest eigenvalue magnitude to the
+    * smallest, which for a symmetric Matrix is its 2-norm condition number.
+    * @return the condition number (infinite if the Matrix is singular)
+    */
+   public double conditionNumber() {
+      double largest = 0;
+      double smallest = Double.POSITIVE_INFINITY;
+
+      for (double value : this.values) {
+         largest = Math.max(largest, Math.abs(value));
+         smallest = Math.min(smallest, Math.abs(value));
+      }
+
+      return largest / smallest;
+   }
+}
@@ -0,0 +1,375 @@
+package linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * The SymmetricMatrix class stores a symmetric n-by-n Matrix as its lower
+ * triangle only, packed row by row: row i holds columns 0 to i and starts
+ * at position i(i+1)/2, so the Matrix takes n(n+1)/2 doubles instead of n^2.
+ * Entry [i][j] above the diagonal is read from [j][i].
+ *
+ * The usual way to get one is the Gram Matrix A^T A of the normal
+ * equations or of a covariance estimate:
+ *
+ *    SymmetricMatrix g = SymmetricMatrix.gram(a);   // or a.gram()
+ *
+ * which computes only the lower triangle, straight from A, in about half
+ * the multiply-adds of a.transpose().multiply(a) and without the transpose
+ * (see syrk). A CholeskyDecomposition can be built from it directly.
+ *
+ * Like Matrix, a SymmetricMatrix is never modified in place.
+ */
+
+public class SymmetricMatrix implements LinearOperator {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the number of columns of A in each panel of syrk
+    */
+   static final int BLOCK_SIZE = 64;
+
+   /**
+    * the number of rows (and columns)
+    */
+   private final int n;
+
+   /**
+    * the lower triangle, row by row
+    */
+   private final double[] packed;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * packs a symmetric Matrix. Throws an IllegalArgumentException if m is
+    * not symmetric (see Matrix.isSymmetric).
+    * @param m a symmetric Matrix object
+    */
+   public SymmetricMatrix(Matrix m) {
+      this(m.getNumRows(), SymmetricMatrix.lowerOf(m));
+   }
+
+   /**
+    * wraps a packed array without copying it. The caller hands ownership of
+    * the array to the new SymmetricMatrix.
+    */
+   private SymmetricMatrix(int n, double[] packed) {
+      this.n = n;
+      this.packed = packed;
+   }
+
+   private static double[] lowerOf(Matrix m) {
+      if (!Matrix.isSymmetric(m)) {
+         throw new IllegalArgumentException("Matrix is not symmetric");
+      }
+
+      m = m.strided();
+      return TriangularMatrix.pack(m.entries(), m.offset(), m.rowStride(), m.getNumRows(), false, false);
+   }
+
+   private static int rowStart(int i) {
+      return i * (i + 1) / 2;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * returns the Gram Matrix A^T A, entry [i][j] being the dot product of
+    * columns i and j of a. See syrk.
+    * @param a an m-by-n Matrix object
+    * @return the n-by-n SymmetricMatrix A^T A
+    */
+   public static SymmetricMatrix gram(Matrix a) {
+      return SymmetricMatrix.syrk(1, a, 0, null);
+   }
+
+   /**
+    * returns alpha A^T A + beta C (the BLAS symmetric rank-k update), e.g.
+    * to add a batch of observations to a running Gram Matrix. Only the
+    * lower triangle is computed, a block of BLOCK_SIZE rows at a time:
+    * those columns of A are copied once into a transposed panel, and the
+    * block row of A^T A up to its diagonal is one product of the panel with
+    * the leading columns of A, through the blocked multiplication kernel.
+    * A is read in place (a minor view is copied first, as for any product),
+    * so the work is about mn^2/2 multiply-adds and the extra memory is the
+    * panel and one block row, never a copy or transpose of A. Throws an
+    * IllegalArgumentException if c is not n-by-n.
+    * @param alpha the scale of A^T A
+    * @param a an m-by-n Matrix object
+    * @param beta the scale of c, ignored if c is null
+    * @param c an n-by-n SymmetricMatrix, or null for 0
+    * @return alpha A^T A + beta C
+    */
+   public static SymmetricMatrix syrk(double alpha, Matrix a, double beta, SymmetricMatrix c) {
+      int m = a.getNumRows();
+      int n = a.getNumColumns();
+
+      if (c != null && c.n != n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      a = a.strided();
+
+      double[] source = a.entries();
+      int offset = a.offset();
+      int stride = a.rowStride();
+      double[] packed = new double[n * (n + 1) / 2];
+      double[] panel = new double[Math.min(BLOCK_SIZE, n) * m];
+      double[] block = new double[Math.min(BLOCK_SIZE, n) * n];
+
+      for (int i0 = 0; i0 < n; i0 += BLOCK_SIZE) {
+         int i1 = Math.min(i0 + BLOCK_SIZE, n);
+         int width = i1 - i0;
+
+         // panel = the columns i0..i1 of A, transposed (width-by-m)
+         for (int r = 0; r < m; r++) {
+            for (int p = 0; p < width; p++) {
+               panel[p * m + r] = source[offset + r * stride + i0 + p];
+            }
+         }
+
+         // block = rows i0..i1 of A^T A, columns 0..i1
+         Arrays.fill(block, 0, width * i1, 0);
+         Gemm.multiplyParallel(width, i1, m,
+                               panel, 0, m,
+                               source, offset, stride,
+                               block, 0, i1,
+                               Gemm.defaultPool());
+
+         for (int i = i0; i < i1; i++) {
+            VectorKernels.scale(block, (i - i0) * i1, 1, alpha, packed, SymmetricMatrix.rowStart(i), i + 1);
+         }
+      }
+
+      if (c != null && beta != 0) {
+         VectorKernels.axpy(beta, c.packed, 0, 1, packed, 0, 1, packed.length);
+      }
+
+      return new SymmetricMatrix(n, packed);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   @Override
+   public int getNumRows() {
+      return this.n;
+   }
+
+   @Override
+   public int getNumColumns() {
+      return this.n;
+   }
+
+   /**
+    * returns the entry in the row-th row and col-th column, which is the
+    * same as the entry in the col-th row and row-th column.
+    * @param row the row of the desired entry
+    * @param col the column of the desired entry
+    * @return the entry
+    */
+   public double getEntry(int row, int col) {
+      if (row < 0 || row >= this.n) {
+         throw new IllegalArgumentException("Invalid value for row.");
+      }
+      if (col < 0 || col >= this.n) {
+         throw new IllegalArgumentException("Invalid value for col.");
+      }
+
+      return row >= col
+            ? this.packed[SymmetricMatrix.rowStart(row) + col]
+            : this.packed[SymmetricMatrix.rowStart(col) + row];
+   }
+
+   /**
+    * converts the SymmetricMatrix to a dense n-by-n Matrix, filling in
+    * both triangles.
+    * @return a Matrix with the same entries
+    */
+   public Matrix toMatrix() {
+      double[] entries = new double[this.n * this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         int start = SymmetricMatrix.rowStart(i);
+         System.arraycopy(this.packed, start, entries, i * this.n, i + 1);
+
+         for (int j = 0; j < i; j++) {
+            entries[j * this.n + i] = this.packed[start + j];
+         }
+      }
+
+      return new Matrix(this.n, this.n, entries);
+   }
+
+   /**
+    * @return the sum of the diagonal entries
+    */
+   public double trace() {
+      double sum = 0;
+
+      for (int i = 0; i < this.n; i++) {
+         sum += this.packed[SymmetricMatrix.rowStart(i) + i];
+      }
+
+      return sum;
+   }
+
+   /**
+    * @return this SymmetricMatrix, which is its own transpose
+    */
+   public SymmetricMatrix transpose() {
+      return this;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * adds two symmetric matrices of the same size, entry by entry of the
+    * packed triangles.
+    * @param s a SymmetricMatrix of the same size
+    * @return the sum
+    */
+   public SymmetricMatrix add(SymmetricMatrix s) {
+      if (s.n != this.n) {
+         throw new IllegalArgumentException("Matrices do not have the same size");
+      }
+
+      double[] result = new double[this.packed.length];
+      VectorKernels.add(this.packed, 0, 1, s.packed, 0, 1, result, 0, result.length);
+
+      return new SymmetricMatrix(this.n, result);
+   }
+
+   /**
+    * subtracts a symmetric Matrix of the same size.
+    * @param s a SymmetricMatrix of the same size
+    * @return the difference
+    */
+   public SymmetricMatrix subtract(SymmetricMatrix s) {
+      if (s.n != this.n) {
+         throw new IllegalArgumentException("Matrices do not have the same size");
+      }
+
+      double[] result = new double[this.packed.length];
+      VectorKernels.subtract(this.packed, 0, 1, s.packed, 0, 1, result, 0, result.length);
+
+      return new SymmetricMatrix(this.n, result);
+   }
+
+   /**
+    * multiplies every entry by a scalar.
+    * @param x the scalar
+    * @return the scaled SymmetricMatrix
+    */
+   public SymmetricMatrix multiply(double x) {
+      double[] result = new double[this.packed.length];
+      VectorKernels.scale(this.packed, 0, 1, x, result, 0, result.length);
+
+      return new SymmetricMatrix(this.n, result);
+   }
+
+   /**
+    * multiplies a Vector by the SymmetricMatrix. Each stored row i is used
+    * twice, as row i (a dot product) and as column i (an axpy), so every
+    * stored entry is read once.
+    * @param u a Vector with n entries
+    * @return the product Su
+    */
+   public Vector multiply(Vector u) {
+      if (u.length() != this.n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] x = u.getEntries();
+      double[] result = new double[this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         int start = SymmetricMatrix.rowStart(i);
+
+         result[i] += VectorKernels.dot(this.packed, start, 1, x, 0, 1, i + 1);
+
+         if (x[i] != 0) {
+            VectorKernels.axpy(x[i], this.packed, start, 1, result, 0, 1, i);
+         }
+      }
+
+      return new Vector(result, 0, 1, this.n);
+   }
+
+   /**
+    * applies the SymmetricMatrix to a Vector, as a LinearOperator. Same as
+    * multiply(Vector).
+    * @param u a Vector with n entries
+    * @return the product Su
+    */
+   @Override
+   public Vector apply(Vector u) {
+      return this.multiply(u);
+   }
+
+   /**
+    * the same as apply, since the Matrix is symmetric.
+    * @param u a Vector with n entries
+    * @return the product S^T u = Su
+    */
+   @Override
+   public Vector applyTranspose(Vector u) {
+      return this.multiply(u);
+   }
+
+   /**
+    * multiplies a dense Matrix on the left. Each stored entry [i][k] below
+    * the diagonal adds row k of b to row i of the result and row i of b to
+    * row k, so the upper triangle is never formed.
+    * @param b a Matrix with n rows
+    * @return the product of this SymmetricMatrix and b
+    */
+   public Matrix multiply(Matrix b) {
+      if (b.getNumRows() != this.n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      b = b.strided();
+      int columns = b.getNumColumns();
+      double[] source = b.entries();
+      int offset = b.offset();
+      int stride = b.rowStride();
+      double[] result = new double[this.n * columns];
+
+      for (int i = 0; i < this.n; i++) {
+         int start = SymmetricMatrix.rowStart(i);
+
+         for (int k = 0; k < i; k++) {
+            double sik = this.packed[start + k];
+
+            if (sik != 0) {
+               VectorKernels.axpy(sik, source, offset + k * stride, 1, result, i * columns, 1, columns);
+               VectorKernels.axpy(sik, source, offset + i * stride, 1, result, k * columns, 1, columns);
+            }
+         }
+
+         VectorKernels.axpy(this.packed[start + i], source, offset + i * stride, 1, result, i * columns, 1, columns);
+      }
+
+      return new Matrix(this.n, columns, result);
+   }
+
+   /**
+    * returns the lower triangle as an n-by-n row-major array, for the
+    * decompositions. The entries above the diagonal are 0.
+    */
+   double[] toLowerArray() {
+      double[] entries = new double[this.n * this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         System.arraycopy(this.packed, SymmetricMatrix.rowStart(i), entries, i * this.n, i + 1);
+      }
+
+      return entries;
+   }
+}
@@ -0,0 +1,539 @@
+package linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * The TriangularMatrix class stores a square lower or upper triangular
+ * Matrix in packed form: only the n(n+1)/2 entries of the triangle, row by
+ * row, so the zero half takes no memory. Row i of a lower triangular
+ * Matrix holds columns 0 to i and starts at position i(i+1)/2; row i of an
+ * upper triangular Matrix holds columns i to n - 1. Each stored row is
+ * contiguous, so the loops below run along rows.
+ *
+ * Products and solves skip the zero half, which halves their work:
+ *
+ *    solve(Vector)             - forward or back substitution, O(n^2)
+ *    solve(Matrix)             - the same for every column of B at once
+ *    multiply(Vector/Matrix)   - T u and T B
+ *    multiply(Matrix, T)       - A T
+ *    inverse()                 - which is triangular as well
+ *
+ * These are the factors produced by the decompositions (see
+ * LUDecomposition.getTriangularL() and CholeskyDecomposition.getTriangularL()).
+ * Like Matrix, a TriangularMatrix is never modified in place.
+ */
+
+public class TriangularMatrix implements LinearOperator {
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * the number of rows (and columns)
+    */
+   private final int n;
+
+   /**
+    * true for an upper triangular Matrix, false for a lower triangular one
+    */
+   private final boolean upper;
+
+   /**
+    * the entries of the triangle, row by row
+    */
+   private final double[] packed;
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * wraps a packed array without copying it. The caller hands ownership of
+    * the array to the new TriangularMatrix.
+    */
+   private TriangularMatrix(int n, boolean upper, double[] packed) {
+      this.n = n;
+      this.upper = upper;
+      this.packed = packed;
+   }
+
+   /**
+    * packs the lower triangle (on and below the diagonal) of a square
+    * Matrix. The entries above the diagonal are ignored. Throws an
+    * IllegalArgumentException if m is not square.
+    * @param m a square Matrix object
+    * @return the lower triangle of m
+    */
+   public static TriangularMatrix lower(Matrix m) {
+      return TriangularMatrix.pack(m, false);
+   }
+
+   /**
+    * packs the upper triangle (on and above the diagonal) of a square
+    * Matrix. The entries below the diagonal are ignored. Throws an
+    * IllegalArgumentException if m is not square.
+    * @param m a square Matrix object
+    * @return the upper triangle of m
+    */
+   public static TriangularMatrix upper(Matrix m) {
+      return TriangularMatrix.pack(m, true);
+   }
+
+   private static TriangularMatrix pack(Matrix m, boolean upper) {
+      if (!Matrix.isSquare(m)) {
+         throw new IllegalArgumentException("Matrix is not square");
+      }
+
+      m = m.strided();
+      int n = m.getNumRows();
+
+      return new TriangularMatrix(n, upper,
+                                  TriangularMatrix.pack(m.entries(), m.offset(), m.rowStride(), n, upper, false));
+   }
+
+   /**
+    * copies one triangle of the n-by-n row-major array a into packed form,
+    * with ones on the diagonal if unitDiagonal is true.
+    */
+   static double[] pack(double[] a, int n, boolean upper, boolean unitDiagonal) {
+      return TriangularMatrix.pack(a, 0, n, n, upper, unitDiagonal);
+   }
+
+   /**
+    * as pack(double[], int, boolean, boolean), for an n-by-n block of a
+    * whose entry [i][j] is a[offset + i * stride + j].
+    */
+   static double[] pack(double[] a, int offset, int stride, int n, boolean upper, boolean unitDiagonal) {
+      if ((long) n * (n + 1) / 2 > Integer.MAX_VALUE) {
+         throw new IllegalArgumentException("Matrix is too large to pack");
+      }
+
+      double[] packed = new double[n * (n + 1) / 2];
+
+      for (int i = 0; i < n; i++) {
+         int first = upper ? i : 0;
+         int start = TriangularMatrix.rowStart(n, upper, i);
+         System.arraycopy(a, offset + i * stride + first, packed, start, TriangularMatrix.rowLength(n, upper, i));
+
+         if (unitDiagonal) {
+            packed[start + i - first] = 1;
+         }
+      }
+
+      return packed;
+   }
+
+   /**
+    * packs the triangle of an n-by-n row-major array without checking it,
+    * for the decompositions.
+    */
+   static TriangularMatrix fromArray(double[] a, int n, boolean upper, boolean unitDiagonal) {
+      return new TriangularMatrix(n, upper, TriangularMatrix.pack(a, n, upper, unitDiagonal));
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * @return the position in packed of the first stored entry of row i
+    */
+   private static int rowStart(int n, boolean upper, int i) {
+      return upper ? i * n - i * (i - 1) / 2 : i * (i + 1) / 2;
+   }
+
+   /**
+    * @return the number of stored entries in row i
+    */
+   private static int rowLength(int n, boolean upper, int i) {
+      return upper ? n - i : i + 1;
+   }
+
+   private int rowStart(int i) {
+      return TriangularMatrix.rowStart(this.n, this.upper, i);
+   }
+
+   /**
+    * @return the column of the first stored entry of row i
+    */
+   private int first(int i) {
+      return this.upper ? i : 0;
+   }
+
+   private int rowLength(int i) {
+      return TriangularMatrix.rowLength(this.n, this.upper, i);
+   }
+
+   /**
+    * @return the position in packed of entry [i][i]
+    */
+   private int diagonal(int i) {
+      return this.rowStart(i) + i - this.first(i);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   @Override
+   public int getNumRows() {
+      return this.n;
+   }
+
+   @Override
+   public int getNumColumns() {
+      return this.n;
+   }
+
+   /**
+    * @return true if the Matrix is upper triangular, false if it is lower triangular
+    */
+   public boolean isUpper() {
+      return this.upper;
+   }
+
+   /**
+    * returns the entry in the row-th row and col-th column, which is 0 in
+    * the half that is not stored.
+    * @param row the row of the desired entry
+    * @param col the column of the desired entry
+    * @return the entry
+    */
+   public double getEntry(int row, int col) {
+      if (row < 0 || row >= this.n) {
+         throw new IllegalArgumentException("Invalid value for row.");
+      }
+      if (col < 0 || col >= this.n) {
+         throw new IllegalArgumentException("Invalid value for col.");
+      }
+
+      if (this.upper ? col < row : col > row) {
+         return 0;
+      }
+
+      return this.packed[this.rowStart(row) + col - this.first(row)];
+   }
+
+   /**
+    * converts the TriangularMatrix to a dense n-by-n Matrix.
+    * @return a Matrix with the same entries
+    */
+   public Matrix toMatrix() {
+      double[] entries = new double[this.n * this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         System.arraycopy(this.packed, this.rowStart(i), entries, i * this.n + this.first(i), this.rowLength(i));
+      }
+
+      return new Matrix(this.n, this.n, entries);
+   }
+
+   /**
+    * returns the transpose, which is triangular on the other side. The
+    * entries are repacked, in O(n^2).
+    * @return the transpose
+    */
+   public TriangularMatrix transpose() {
+      double[] result = new double[this.packed.length];
+      boolean flipped = !this.upper;
+
+      for (int i = 0; i < this.n; i++) {
+         int start = this.rowStart(i);
+         int first = this.first(i);
+
+         for (int p = 0; p < this.rowLength(i); p++) {
+            int j = first + p;
+            result[TriangularMatrix.rowStart(this.n, flipped, j) + i - (flipped ? j : 0)] = this.packed[start + p];
+         }
+      }
+
+      return new TriangularMatrix(this.n, flipped, result);
+   }
+
+   /**
+    * @return the product of the diagonal entries
+    */
+   public double determinant() {
+      double product = 1;
+
+      for (int i = 0; i < this.n; i++) {
+         product *= this.packed[this.diagonal(i)];
+      }
+
+      return product;
+   }
+
+   /**
+    * checks to see if a diagonal entry is (threshold-checked) zero.
+    * @return true if the Matrix has no inverse, false otherwise
+    */
+   public boolean isSingular() {
+      for (int i = 0; i < this.n; i++) {
+         if (Math.abs(this.packed[this.diagonal(i)]) <= Matrix.THRESHOLD) {
+            return true;
+         }
+      }
+
+      return false;
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * multiplies a Vector by the TriangularMatrix. Entry i of the result is
+    * the dot product of the stored part of row i with the matching part of
+    * u, so the work is n(n+1)/2 multiply-adds.
+    * @param u a Vector with n entries
+    * @return the product Tu
+    */
+   public Vector multiply(Vector u) {
+      if (u.length() != this.n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] x = u.getEntries();
+      double[] result = new double[this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         result[i] = VectorKernels.dot(this.packed, this.rowStart(i), 1, x, this.first(i), 1, this.rowLength(i));
+      }
+
+      return new Vector(result, 0, 1, this.n);
+   }
+
+   /**
+    * applies the TriangularMatrix to a Vector, as a LinearOperator. Same as
+    * multiply(Vector).
+    * @param u a Vector with n entries
+    * @return the product Tu
+    */
+   @Override
+   public Vector apply(Vector u) {
+      return this.multiply(u);
+   }
+
+   /**
+    * applies the transpose to a Vector, adding each stored row scaled by
+    * the matching entry of u, without forming the transpose.
+    * @param u a Vector with n entries
+    * @return the product T^T u
+    */
+   @Override
+   public Vector applyTranspose(Vector u) {
+      if (u.length() != this.n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      double[] x = u.getEntries();
+      double[] result = new double[this.n];
+
+      for (int i = 0; i < this.n; i++) {
+         if (x[i] != 0) {
+            VectorKernels.axpy(x[i], this.packed, this.rowStart(i), 1, result, this.first(i), 1, this.rowLength(i));
+         }
+      }
+
+      return new Vector(result, 0, 1, this.n);
+   }
+
+   /**
+    * multiplies a dense Matrix on the left. See multiply(TriangularMatrix, Matrix).
+    * @param b a Matrix with n rows
+    * @return the product of this TriangularMatrix and b
+    */
+   public Matrix multiply(Matrix b) {
+      return TriangularMatrix.multiply(this, b);
+   }
+
+   /**
+    * returns tb, where row i is the sum of the rows of b scaled by the
+    * stored entries of row i of t. The zero half of t is never visited,
+    * so this takes about half the multiply-adds of a dense product.
+    * Throws an IllegalArgumentException if b does not have n rows.
+    * @param t an n-by-n TriangularMatrix object
+    * @param b a Matrix with n rows
+    * @return the product tb
+    */
+   public static Matrix multiply(TriangularMatrix t, Matrix b) {
+      if (b.getNumRows() != t.n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      b = b.strided();
+      int columns = b.getNumColumns();
+      double[] source = b.entries();
+      int offset = b.offset();
+      int stride = b.rowStride();
+      double[] result = new double[t.n * columns];
+
+      for (int i = 0; i < t.n; i++) {
+         int start = t.rowStart(i);
+         int first = t.first(i);
+
+         for (int p = 0; p < t.rowLength(i); p++) {
+            double tik = t.packed[start + p];
+
+            if (tik != 0) {
+               VectorKernels.axpy(tik, source, offset + (first + p) * stride, 1, result, i * columns, 1, columns);
+            }
+         }
+      }
+
+      return new Matrix(t.n, columns, result);
+   }
+
+   /**
+    * returns at, where row r is the sum of the stored rows of t scaled by
+    * the entries of row r of a. The zero half of t is never visited.
+    * Throws an IllegalArgumentException if a does not have n columns.
+    * @param a a Matrix with n columns
+    * @param t an n-by-n TriangularMatrix object
+    * @return the product at
+    */
+   public static Matrix multiply(Matrix a, TriangularMatrix t) {
+      if (a.getNumColumns() != t.n) {
+         throw new IllegalArgumentException("Incompatible shapes.\n");
+      }
+
+      a = a.strided();
+      int rows = a.getNumRows();
+      double[] source = a.entries();
+      int offset = a.offset();
+      int stride = a.rowStride();
+      double[] result = new double[rows * t.n];
+
+      for (int r = 0; r < rows; r++) {
+         for (int k = 0; k < t.n; k++) {
+            double ark = source[offset + r * stride + k];
+
+            if (ark != 0) {
+               VectorKernels.axpy(ark, t.packed, t.rowStart(k), 1, result, r * t.n + t.first(k), 1, t.rowLength(k));
+            }
+         }
+      }
+
+      return new Matrix(rows, t.n, result);
+   }
+
+   // *****************************************************************
+   // *****************************************************************
+
+   /**
+    * solves Tx = b by forward substitution (lower) or back substitution
+    * (upper). Each entry of x is the matching entry of b minus the dot
+    * product of the rest of its row with the entries already solved,
+    * divided by the diagonal. Throws an IllegalArgumentException if b has
+    * the wrong length or the Matrix is singular.
+    * @param b a Vector with n entries
+    * @return the solution x
+    */
+   public Vector solve(Vector b) {
+      if (b.length() != this.n) {
+         throw new IllegalArgumentException("Vector length does not match Matrix size");
+      }
+      if (this.isSingular()) {
+         throw new IllegalArgumentException("Matrix is singular");
+      }
+
+      double[] x = b.getEntries();
+
+      for (int step = 0; step < this.n; step++) {
+         int i = this.upper ? this.n - 1 - step : step;
+         int start = this.rowStart(i);
+         int diagonal = this.diagonal(i);
+
+         // the off-diagonal part of the row: columns 0..i-1 (lower) or i+1..n-1 (upper)
+         double sum = this.upper
+               ? VectorKernels.dot(this.packed, diagonal + 1, 1, x, i + 1, 1, this.n - 1 - i)
+               : VectorKernels.dot(this.packed, start, 1, x, 0, 1, i);
+
+         x[i] = (x[i] - sum) / this.packed[diagonal];
+      }
+
+      return new Vector(x, 0, 1, this.n);
+   }
+
+   /**
+    * solves TX = B for X, treating each column of B as a separate
+    * right-hand side. All the columns are substituted together: row i of X
+    * is row i of B minus multiples of the rows already solved, divided by
+    * the diagonal. Throws an IllegalArgumentException if B does not have n
+    * rows or the Matrix is singular.
+    * @param b a Matrix with n rows
+    * @return the solution X, with the same shape as b
+    */
+   public Matrix solve(Matrix b) {
+      if (b.getNumRows() != this.n) {
+         throw new IllegalArgumentException("Matrix row count does not match Matrix size");
+      }
+      if (this.isSingular()) {
+         throw new IllegalArgumentException("Matrix is singular");
+      }
+
+      int columns = b.getNumColumns();
+      double[] x = b.toArray();
+
+      for (int step = 0; step < this.n; step++) {
+         int i = this.upper ? this.n - 1 - step : step;
+         int start = this.rowStart(i);
+         int first = this.first(i);
+         int diagonal = this.diagonal(i);
+
+         for (int p = 0; p < this.rowLength(i); p++) {
+            int k = first + p;
+            double tik = this.packed[start + p];
+
+            if (k != i && tik != 0) {
+               VectorKernels.axpy(-tik, x, k * columns, 1, x, i * columns, 1, columns);
+            }
+         }
+
+         VectorKernels.scale(x, i * columns, 1, 1 / this.packed[diagonal], x, i * columns, columns);
+      }
+
+      return new Matrix(this.n, columns, x);
+   }
+
+   /**
+    * returns the inverse, which is triangular on the same side. The packed
+    * entries are copied once and inverted in place, one row at a time in
+    * the order the rows are solved: row i of the inverse is -1/T[i][i]
+    * times the combination of the rows already inverted given by the
+    * off-diagonal part of row i of T, which is still in place when row i is
+    * reached. Takes about n^3/6 multiply-adds. Throws an
+    * IllegalArgumentException if the Matrix is singular.
+    * @return the inverse TriangularMatrix
+    */
+   public TriangularMatrix inverse() {
+      if (this.isSingular()) {
+         throw new IllegalArgumentException("Matrix is singular");
+      }
+
+      double[] x = this.packed.clone();
+      double[] row = new double[this.n];
+
+      for (int step = 0; step < this.n; step++) {
+         int i = this.upper ? this.n - 1 - step : step;
+         int start = this.rowStart(i);
+         int first = this.first(i);
+         int length = this.rowLength(i);
+         int diagonal = this.diagonal(i);
+
+         // row = sum over k != i of T[i][k] times row k of the inverse
+         Arrays.fill(row, first, first + length, 0);
+
+         for (int p = 0; p < length; p++) {
+            int k = first + p;
+            double tik = x[start + p];
+
+            if (k != i && tik != 0) {
+               VectorKernels.axpy(tik, x, this.rowStart(k), 1, row, this.first(k), 1, this.rowLength(k));
+            }
+         }
+
+         double inverseDiagonal = 1 / x[diagonal];
+         VectorKernels.scale(row, first, 1, -inverseDiagonal, x, start, length);
+         x[diagonal] = inverseDiagonal;
+      }
+
+      return new TriangularMatrix(this.n, this.upper, x);
+   }
+}
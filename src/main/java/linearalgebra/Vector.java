@@ -8,6 +8,10 @@ package linearalgebra;
  * length, and no checking is done. For loops are controlled by the length
  * of the first vector, so if the second vector is longer, an Exception may
  * not be thrown as expected.
+ *
+ * A Vector may be a read-only view into an array it shares with another
+ * object (for example a row or column of a Matrix). Entry i of the Vector
+ * lives at entries[offset + i * stride].
  */
  
 public class Vector {
@@ -19,6 +23,21 @@ public class Vector {
     * entries contains the entries in the vector
     */
    private double[] entries;
+
+   /**
+    * offset is the position in entries of the first entry of the vector
+    */
+   private int offset;
+
+   /**
+    * stride is the distance in entries between consecutive entries of the vector
+    */
+   private int stride;
+
+   /**
+    * size is the number of entries in the vector
+    */
+   private int size;
    
    /*
     * threshold for double comparisons
@@ -38,6 +57,9 @@ public class Vector {
       for (int i = 0; i < entries.length; i++) {
          this.entries[i] = entries[i];      
       }
+      this.offset = 0;
+      this.stride = 1;
+      this.size = entries.length;
    }
    
    /**
@@ -45,11 +67,27 @@ public class Vector {
     * @param u a Vector object
     */
    public Vector(Vector u) {
-      this.entries = new double[u.entries.length];
-      
-      for (int i = 0; i < u.entries.length; i++) {
-         this.entries[i] = u.entries[i];
-      }
+      this.entries = u.getEntries();
+      this.offset = 0;
+      this.stride = 1;
+      this.size = this.entries.length;
+   }
+
+   /**
+    * view constructor wraps part of an existing array without copying it.
+    * entry i of the new Vector is entries[offset + i * stride]. Vectors made
+    * this way are used as read-only views: nothing in this class writes
+    * through to the shared array.
+    * @param entries the array to share
+    * @param offset the position of the first entry
+    * @param stride the distance between consecutive entries
+    * @param size the number of entries
+    */
+   Vector(double[] entries, int offset, int stride, int size) {
+      this.entries = entries;
+      this.offset = offset;
+      this.stride = stride;
+      this.size = size;
    }
 
    // ********************************************************
@@ -60,10 +98,14 @@ public class Vector {
     * @return a copy of the array entries
     */
    public double[] getEntries() {
-      double[] entries = new double[this.entries.length];
+      double[] entries = new double[this.size];
       
-      for (int i = 0; i < this.entries.length; i++) {
-         entries[i] = this.entries[i];
+      if (this.stride == 1) {
+         System.arraycopy(this.entries, this.offset, entries, 0, this.size);
+      } else {
+         for (int i = 0, pos = this.offset; i < this.size; i++, pos += this.stride) {
+            entries[i] = this.entries[pos];
+         }
       }
       
       return entries;
@@ -85,7 +127,12 @@ public class Vector {
     * @return the value in u[position]
     */
    public static double get(Vector u, int position) {
-      return u.entries[position];
+      // a view shares its array with other data, so check the range explicitly
+      if (position < 0 || position >= u.size) {
+         throw new ArrayIndexOutOfBoundsException(position);
+      }
+      
+      return u.entries[u.offset + position * u.stride];
    }
 
    /**
@@ -120,10 +167,10 @@ public class Vector {
          throw new IllegalArgumentException("Index is out of range");
       }
    
-      double[] entries = u.getEntries().clone();
+      double[] entries = u.getEntries();
       entries[index] = value;
       
-      return new Vector(entries);
+      return new Vector(entries, 0, 1, entries.length);
    } 
 
     /**
@@ -136,6 +183,84 @@ public class Vector {
       for (int i = 0; i < entries.length; i++) {
          this.entries[i] = entries[i];
       }
+      this.offset = 0;
+      this.stride = 1;
+      this.size = entries.length;
+   }
+
+   /**
+    * returns a read-only view of the entries from start (inclusive) to end
+    * (exclusive). The view shares the array of this Vector, so creating it
+    * takes constant time.
+    * @param start the index of the first entry in the view
+    * @param end one past the index of the last entry in the view
+    * @return a Vector of length end - start that shares this Vector's entries
+    */
+   public Vector sliceView(int start, int end) {
+      return Vector.sliceView(this, start, end);
+   }
+
+   /**
+    * returns a read-only view of the entries of u from start (inclusive) to 
+    * end (exclusive). The view shares the array of u, so creating it takes
+    * constant time.
+    * @param u a Vector object
+    * @param start the index of the first entry in the view
+    * @param end one past the index of the last entry in the view
+    * @return a Vector of length end - start that shares the entries of u
+    */
+   public static Vector sliceView(Vector u, int start, int end) {
+      if (start < 0 || end > u.size || start > end) {
+         throw new IllegalArgumentException("Slice is out of range");
+      }
+      
+      return new Vector(u.entries, u.offset + start * u.stride, u.stride, end - start);
+   }
+
+   /**
+    * copies the entries of u into dest, putting entry i at
+    * dest[destPos + i * destStride].
+    * @param u a Vector object
+    * @param dest the array to copy into
+    * @param destPos the position in dest of entry 0
+    * @param destStride the distance in dest between consecutive entries
+    */
+   static void copyInto(Vector u, double[] dest, int destPos, int destStride) {
+      for (int i = 0, pos = u.offset; i < u.size; i++, pos += u.stride) {
+         dest[destPos + i * destStride] = u.entries[pos];
+      }
+   }
+
+   /**
+    * copies length entries of u, starting with entry start, into dest
+    * starting at destPos.
+    * @param u a Vector object
+    * @param start the index of the first entry to copy
+    * @param length the number of entries to copy
+    * @param dest the array to copy into
+    * @param destPos the position in dest of the first entry
+    */
+   static void copyRange(Vector u, int start, int length, double[] dest, int destPos) {
+      if (u.stride == 1) {
+         System.arraycopy(u.entries, u.offset + start, dest, destPos, length);
+      } else {
+         for (int i = 0, pos = u.offset + start * u.stride; i < length; i++, pos += u.stride) {
+            dest[destPos + i] = u.entries[pos];
+         }
+      }
+   }
+
+   /**
+    * adds alpha times the entries of u to dest, adding entry i to
+    * dest[destPos + i * destStride].
+    * @param alpha a real number
+    * @param u a Vector object
+    * @param dest the array to add into
+    * @param destPos the position in dest of entry 0
+    * @param destStride the distance in dest between consecutive entries
+    */
+   static void addScaledInto(double alpha, Vector u, double[] dest, int destPos, int destStride) {
+      VectorKernels.axpy(alpha, u.entries, u.offset, u.stride, dest, destPos, destStride, u.size);
    }
 
    /**
@@ -148,10 +273,10 @@ public class Vector {
       String str = "[";
       String sep = ", ";
       
-      for (int i = 0; i < this.entries.length; i++) {
-         str += this.entries[i];
+      for (int i = 0; i < this.size; i++) {
+         str += this.entries[this.offset + i * this.stride];
          
-         if (i < (this.entries.length - 1)) { // if we're not at the last entry
+         if (i < (this.size - 1)) { // if we're not at the last entry
             str += sep;
          }
       }
@@ -198,18 +323,21 @@ public class Vector {
     */
    public static boolean isCanonicalBasisVector(Vector u) {
       int numOnes = 0;
-      int numZeros = 0;
       
-      for (int i = 0; i < u.length(); i++) {
-         if (Math.abs(1 - u.get(i)) < Vector.THRESHOLD) {
-            numOnes++;
-         }
-         if (Math.abs(0 - u.get(i)) < Vector.THRESHOLD) {
-            numZeros++;
+      // stop at the first entry that is neither zero nor the only one
+      for (int i = 0; i < u.size; i++) {
+         double entry = u.entries[u.offset + i * u.stride];
+         
+         if (Math.abs(1 - entry) < Vector.THRESHOLD) {
+            if (++numOnes > 1) {
+               return false;
+            }
+         } else if (!(Math.abs(entry) < Vector.THRESHOLD)) {
+            return false;
          }
       }
       
-      return (numOnes == 1) && (numZeros == u.length()-1);
+      return numOnes == 1;
    }
 
    /**
@@ -226,8 +354,8 @@ public class Vector {
     * @return true if all entries in u are zero, false otherwise
     */
    public static boolean isZero(Vector u) {
-      for (double entry : u.entries) {
-         if (Math.abs(entry) > Vector.THRESHOLD) { // if a non-zero entry is found
+      for (int i = 0, pos = u.offset; i < u.size; i++, pos += u.stride) {
+         if (Math.abs(u.entries[pos]) > Vector.THRESHOLD) { // if a non-zero entry is found
             return false;
          }
       }
@@ -251,7 +379,7 @@ public class Vector {
     * @return the length of u
     */
    public static int length(Vector u) {
-      return u.entries.length;
+      return u.size;
    }
 
    /**
@@ -318,11 +446,7 @@ public class Vector {
          throw new IllegalArgumentException("p must be >= 1");
       }
    
-      double sum = 0;
-      
-      for (int i = 0; i < u.length(); i++) {
-         sum += Math.pow(Math.abs(u.get(i)), p);
-      }
+      double sum = VectorKernels.sumOfPowers(u.entries, u.offset, u.stride, p, u.size);
       
       return Math.pow(sum, 1/p);
    }
@@ -352,13 +476,12 @@ public class Vector {
    public static Vector add(Vector u1, Vector u2) {
       Vector.checkLengths(u1, u2);
       
-      double[] sums = new double[u1.length()];
+      double[] sums = new double[u1.size];
       
-      for (int i = 0; i < sums.length; i++) {
-         sums[i] = u1.get(i) + u2.get(i);
-      }
+      VectorKernels.add(u1.entries, u1.offset, u1.stride, u2.entries, u2.offset, u2.stride,
+                        sums, 0, u1.size);
       
-      return new Vector(sums);
+      return new Vector(sums, 0, 1, sums.length);
    }
    
    /**
@@ -425,9 +548,9 @@ public class Vector {
       Vector.checkLengths(a, b); // just in case      
       
       double[] entries = new double[] {
-         a.entries[1] * b.entries[2] - a.entries[2] * b.entries[1],
-         a.entries[2] * b.entries[0] - a.entries[0] * b.entries[2],
-         a.entries[0] * b.entries[1] - a.entries[1] * b.entries[0]};
+         a.get(1) * b.get(2) - a.get(2) * b.get(1),
+         a.get(2) * b.get(0) - a.get(0) * b.get(2),
+         a.get(0) * b.get(1) - a.get(1) * b.get(0)};
          
       return new Vector(entries);
    }
@@ -445,7 +568,8 @@ public class Vector {
    
    /**
     * dot method computes the dot product of two vectors.
-    * assumes vectors have the same length.
+    * assumes vectors have the same length. Either Vector may be a view
+    * (e.g. a row or column view of a Matrix); the entries are read in place.
     * @param u1 a Vector object
     * @param u2 a Vector object
     * @return the sum of the products of corresponding elements
@@ -453,13 +577,29 @@ public class Vector {
    public static double dot(Vector u1, Vector u2) {
       Vector.checkLengths(u1, u2);
    
-      double sum = 0;
-      
-      for (int i = 0; i < u1.length(); i++) {
-         sum += (u1.get(i) * u2.get(i));
-      }
-      
-      return sum;
+      return VectorKernels.dot(u1.entries, u1.offset, u1.stride, u2.entries, u2.offset, u2.stride, u1.size);
+   }
+
+   /**
+    * dot method computes the dot product of the calling vector and a
+    * SparseVector of the same length, in O(nnz). See SparseVector.dot.
+    * @param s a SparseVector object
+    * @return the sum of the products of corresponding elements
+    */
+   public double dot(SparseVector s) {
+      return Vector.dot(this, s);
+   }
+   
+   /**
+    * dot method computes the dot product of a vector and a SparseVector
+    * of the same length, reading only the entries of u at the positions
+    * stored in s.
+    * @param u a Vector object
+    * @param s a SparseVector object
+    * @return the sum of the products of corresponding elements
+    */
+   public static double dot(Vector u, SparseVector s) {
+      return SparseVector.dot(s, u);
    }
 
    /**
@@ -482,8 +622,15 @@ public class Vector {
     *         the entries in v1 and v2 (v1 - v2)
     */
    public static Vector subtract(Vector v1, Vector v2) {
-      return Vector.add(v1, v2.multiply(-1));
-   }  
+      Vector.checkLengths(v1, v2);
+      
+      double[] differences = new double[v1.size];
+      
+      VectorKernels.subtract(v1.entries, v1.offset, v1.stride, v2.entries, v2.offset, v2.stride,
+                             differences, 0, v1.size);
+      
+      return new Vector(differences, 0, 1, differences.length);
+   }
    
    // ********************************************************
    // ********************************************************
@@ -501,15 +648,15 @@ public class Vector {
          throw new IllegalArgumentException("Number of vectors does not match number of weights.");
       }
       
-      // start the sum by weighting the first vector
-      Vector sum = new Vector(vectors[0].multiply(weights[0]));
+      // weight and add each Vector into a single buffer, in place
+      double[] sum = new double[vectors[0].size];
       
-      // weight and add each Vector onto sum
-      for (int i = 1; i < vectors.length; i++) {
-         sum = sum.add(vectors[i].multiply(weights[i]));
+      for (int i = 0; i < vectors.length; i++) {
+         Vector.checkLengths(vectors[0], vectors[i]);
+         Vector.addScaledInto(weights[i], vectors[i], sum, 0, 1);
       }
       
-      return sum;
+      return new Vector(sum, 0, 1, sum.length);
    }
    
    /**
@@ -532,13 +679,11 @@ public class Vector {
     * @return the scalar product of the vector and the scalar
     */
    public static Vector multiply(Vector u, double scalar) {   
-      double[] products = new double[u.length()];
+      double[] products = new double[u.size];
       
-      for (int i = 0; i < products.length; i++) {
-         products[i] = scalar * u.get(i);
-      }
+      VectorKernels.scale(u.entries, u.offset, u.stride, scalar, products, 0, u.size);
       
-      return new Vector(products);
+      return new Vector(products, 0, 1, products.length);
    }
    
    /**
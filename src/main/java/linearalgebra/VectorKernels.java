@@ -0,0 +1,48 @@
+package linearalgebra;
+
+/**
+ * Entry point for the elementwise Vector kernels. This version simply runs
+ * the scalar loops in ScalarKernels.
+ *
+ * When the library is packaged, the jar is multi-release: on Java 17 and
+ * later the class in META-INF/versions/17 replaces this one and uses SIMD
+ * instructions (through the jdk.incubator.vector module) for long,
+ * contiguous operands. Both versions must keep the same method signatures.
+ */
+
+final class VectorKernels {
+
+   private VectorKernels() {
+   }
+
+   static double dot(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride, int n) {
+      return ScalarKernels.dot(a, aOffset, aStride, b, bOffset, bStride, n);
+   }
+
+   static void add(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+                   double[] out, int outOffset, int n) {
+      ScalarKernels.add(a, aOffset, aStride, b, bOffset, bStride, out, outOffset, n);
+   }
+
+   static void subtract(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+                        double[] out, int outOffset, int n) {
+      ScalarKernels.subtract(a, aOffset, aStride, b, bOffset, bStride, out, outOffset, n);
+   }
+
+   static void axpy(double alpha, double[] x, int xOffset, int xStride, double[] y, int yOffset, int yStride, int n) {
+      ScalarKernels.axpy(alpha, x, xOffset, xStride, y, yOffset, yStride, n);
+   }
+
+   static void rotate(double[] x, int xOffset, int xStride, double[] y, int yOffset, int yStride,
+                      double c, double s, int n) {
+      ScalarKernels.rotate(x, xOffset, xStride, y, yOffset, yStride, c, s, n);
+   }
+
+   static void scale(double[] a, int aOffset, int aStride, double scalar, double[] out, int outOffset, int n) {
+      ScalarKernels.scale(a, aOffset, aStride, scalar, out, outOffset, n);
+   }
+
+   static double sumOfPowers(double[] a, int aOffset, int aStride, double p, int n) {
+      return ScalarKernels.sumOfPowers(a, aOffset, aStride, p, n);
+   }
+}
@@ -0,0 +1,149 @@
+package linearalgebra;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD versions of the contiguous Vector kernels, written with the
+ * jdk.incubator.vector API and the platform's preferred species (e.g. 4
+ * doubles per register with AVX2, 8 with AVX-512). The main loops handle a
+ * whole register of entries per step; the tail that does not fill a register
+ * is handed to ScalarKernels.
+ *
+ * The reductions keep two independent accumulators so that consecutive
+ * fused multiply-adds do not wait on each other. Because the entries are
+ * summed in a different order, results may differ from the scalar loops in
+ * the last few bits.
+ *
+ * Only VectorKernels may refer to this class, and only after checking that
+ * the incubator module is present.
+ */
+
+final class SimdKernels {
+
+   private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+   /**
+    * the number of doubles in one SIMD register
+    */
+   static final int LANES = SPECIES.length();
+
+   private SimdKernels() {
+   }
+
+   static double dot(double[] a, int aOffset, double[] b, int bOffset, int n) {
+      DoubleVector sum1 = DoubleVector.zero(SPECIES);
+      DoubleVector sum2 = DoubleVector.zero(SPECIES);
+      int i = 0;
+
+      for (int bound = n - 2 * LANES; i <= bound; i += 2 * LANES) {
+         DoubleVector a1 = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+         DoubleVector b1 = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+         DoubleVector a2 = DoubleVector.fromArray(SPECIES, a, aOffset + i + LANES);
+         DoubleVector b2 = DoubleVector.fromArray(SPECIES, b, bOffset + i + LANES);
+         sum1 = a1.fma(b1, sum1);
+         sum2 = a2.fma(b2, sum2);
+      }
+      for (int bound = SPECIES.loopBound(n); i < bound; i += LANES) {
+         DoubleVector a1 = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+         DoubleVector b1 = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+         sum1 = a1.fma(b1, sum1);
+      }
+
+      double sum = sum1.add(sum2).reduceLanes(VectorOperators.ADD);
+
+      return sum + ScalarKernels.dot(a, aOffset + i, 1, b, bOffset + i, 1, n - i);
+   }
+
+   static void add(double[] a, int aOffset, double[] b, int bOffset, double[] out, int outOffset, int n) {
+      int i = 0;
+
+      for (int bound = SPECIES.loopBound(n); i < bound; i += LANES) {
+         DoubleVector a1 = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+         DoubleVector b1 = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+         a1.add(b1).intoArray(out, outOffset + i);
+      }
+
+      ScalarKernels.add(a, aOffset + i, 1, b, bOffset + i, 1, out, outOffset + i, n - i);
+   }
+
+   static void subtract(double[] a, int aOffset, double[] b, int bOffset, double[] out, int outOffset, int n) {
+      int i = 0;
+
+      for (int bound = SPECIES.loopBound(n); i < bound; i += LANES) {
+         DoubleVector a1 = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+         DoubleVector b1 = DoubleVector.fromArray(SPECIES, b, bOffset + i);
+         a1.sub(b1).intoArray(out, outOffset + i);
+      }
+
+      ScalarKernels.subtract(a, aOffset + i, 1, b, bOffset + i, 1, out, outOffset + i, n - i);
+   }
+
+   static void axpy(double alpha, double[] x, int xOffset, double[] y, int yOffset, int n) {
+      DoubleVector scalar = DoubleVector.broadcast(SPECIES, alpha);
+      int i = 0;
+
+      for (int bound = SPECIES.loopBound(n); i < bound; i += LANES) {
+         DoubleVector x1 = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+         DoubleVector y1 = DoubleVector.fromArray(SPECIES, y, yOffset + i);
+         x1.fma(scalar, y1).intoArray(y, yOffset + i);
+      }
+
+      ScalarKernels.axpy(alpha, x, xOffset + i, 1, y, yOffset + i, 1, n - i);
+   }
+
+   static void rotate(double[] x, int xOffset, double[] y, int yOffset, double c, double s, int n) {
+      int i = 0;
+
+      for (int bound = SPECIES.loopBound(n); i < bound; i += LANES) {
+         DoubleVector x1 = DoubleVector.fromArray(SPECIES, x, xOffset + i);
+         DoubleVector y1 = DoubleVector.fromArray(SPECIES, y, yOffset + i);
+         x1.mul(c).sub(y1.mul(s)).intoArray(x, xOffset + i);
+         x1.mul(s).add(y1.mul(c)).intoArray(y, yOffset + i);
+      }
+
+      ScalarKernels.rotate(x, xOffset + i, 1, y, yOffset + i, 1, c, s, n - i);
+   }
+
+   static void scale(double[] a, int aOffset, double scalar, double[] out, int outOffset, int n) {
+      int i = 0;
+
+      for (int bound = SPECIES.loopBound(n); i < bound; i += LANES) {
+         DoubleVector.fromArray(SPECIES, a, aOffset + i).mul(scalar).intoArray(out, outOffset + i);
+      }
+
+      ScalarKernels.scale(a, aOffset + i, 1, scalar, out, outOffset + i, n - i);
+   }
+
+   static double sumOfPowers(double[] a, int aOffset, double p, int n) {
+      DoubleVector sum1 = DoubleVector.zero(SPECIES);
+      int i = 0;
+
+      if (p == 1) {
+         for (int bound = SPECIES.loopBound(n); i < bound; i += LANES) {
+            sum1 = sum1.add(DoubleVector.fromArray(SPECIES, a, aOffset + i).abs());
+         }
+      } else if (p == 2) {
+         DoubleVector sum2 = DoubleVector.zero(SPECIES);
+
+         for (int bound = n - 2 * LANES; i <= bound; i += 2 * LANES) {
+            DoubleVector a1 = DoubleVector.fromArray(SPECIES, a, aOffset + i);
+            DoubleVector a2 = DoubleVector.fromArray(SPECIES, a, aOffset + i + LANES);
+            sum1 = a1.fma(a1, sum1);
+            sum2 = a2.fma(a2, sum2);
+         }
+
+         sum1 = sum1.add(sum2);
+      } else {
+         for (int bound = SPECIES.loopBound(n); i < bound; i += LANES) {
+            DoubleVector a1 = DoubleVector.fromArray(SPECIES, a, aOffset + i).abs();
+            sum1 = sum1.add(a1.lanewise(VectorOperators.POW, p));
+         }
+      }
+
+      double sum = sum1.reduceLanes(VectorOperators.ADD);
+
+      return sum + ScalarKernels.sumOfPowers(a, aOffset + i, 1, p, n - i);
+   }
+}
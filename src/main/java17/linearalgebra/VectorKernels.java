@@ -0,0 +1,99 @@
+package linearalgebra;
+
+/**
+ * Java 17 version of the elementwise Vector kernels, packaged in
+ * META-INF/versions/17 of the multi-release jar.
+ *
+ * Contiguous operands (stride 1) of at least MIN_SIMD_LENGTH entries go to
+ * SimdKernels, which uses the jdk.incubator.vector API. Everything else, and
+ * everything on a JVM started without the incubator module
+ * (--add-modules jdk.incubator.vector), runs the scalar loops. Setting the
+ * system property linearalgebra.simd to false also forces the scalar loops.
+ */
+
+final class VectorKernels {
+
+   /**
+    * below this many entries the scalar loops are at least as fast
+    */
+   static final int MIN_SIMD_LENGTH = 32;
+
+   /**
+    * true if the SIMD kernels can be used on this JVM
+    */
+   static final boolean SIMD = simdAvailable();
+
+   private VectorKernels() {
+   }
+
+   private static boolean simdAvailable() {
+      if (!Boolean.parseBoolean(System.getProperty("linearalgebra.simd", "true"))) {
+         return false;
+      }
+
+      try {
+         // SimdKernels must not be touched unless the module is there
+         return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()
+               && SimdKernels.LANES > 1;
+      } catch (LinkageError e) {
+         return false;
+      }
+   }
+
+   static double dot(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride, int n) {
+      if (SIMD && n >= MIN_SIMD_LENGTH && aStride == 1 && bStride == 1) {
+         return SimdKernels.dot(a, aOffset, b, bOffset, n);
+      }
+      return ScalarKernels.dot(a, aOffset, aStride, b, bOffset, bStride, n);
+   }
+
+   static void add(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+                   double[] out, int outOffset, int n) {
+      if (SIMD && n >= MIN_SIMD_LENGTH && aStride == 1 && bStride == 1) {
+         SimdKernels.add(a, aOffset, b, bOffset, out, outOffset, n);
+      } else {
+         ScalarKernels.add(a, aOffset, aStride, b, bOffset, bStride, out, outOffset, n);
+      }
+   }
+
+   static void subtract(double[] a, int aOffset, int aStride, double[] b, int bOffset, int bStride,
+                        double[] out, int outOffset, int n) {
+      if (SIMD && n >= MIN_SIMD_LENGTH && aStride == 1 && bStride == 1) {
+         SimdKernels.subtract(a, aOffset, b, bOffset, out, outOffset, n);
+      } else {
+         ScalarKernels.subtract(a, aOffset, aStride, b, bOffset, bStride, out, outOffset, n);
+      }
+   }
+
+   static void axpy(double alpha, double[] x, int xOffset, int xStride, double[] y, int yOffset, int yStride, int n) {
+      if (SIMD && n >= MIN_SIMD_LENGTH && xStride == 1 && yStride == 1) {
+         SimdKernels.axpy(alpha, x, xOffset, y, yOffset, n);
+      } else {
+         ScalarKernels.axpy(alpha, x, xOffset, xStride, y, yOffset, yStride, n);
+      }
+   }
+
+   static void rotate(double[] x, int xOffset, int xStride, double[] y, int yOffset, int yStride,
+                      double c, double s, int n) {
+      if (SIMD && n >= MIN_SIMD_LENGTH && xStride == 1 && yStride == 1) {
+         SimdKernels.rotate(x, xOffset, y, yOffset, c, s, n);
+      } else {
+         ScalarKernels.rotate(x, xOffset, xStride, y, yOffset, yStride, c, s, n);
+      }
+   }
+
+   static void scale(double[] a, int aOffset, int aStride, double scalar, double[] out, int outOffset, int n) {
+      if (SIMD && n >= MIN_SIMD_LENGTH && aStride == 1) {
+         SimdKernels.scale(a, aOffset, scalar, out, outOffset, n);
+      } else {
+         ScalarKernels.scale(a, aOffset, aStride, scalar, out, outOffset, n);
+      }
+   }
+
+   static double sumOfPowers(double[] a, int aOffset, int aStride, double p, int n) {
+      if (SIMD && n >= MIN_SIMD_LENGTH && aStride == 1) {
+         return SimdKernels.sumOfPowers(a, aOffset, p, n);
+      }
+      return ScalarKernels.sumOfPowers(a, aOffset, aStride, p, n);
+   }
+}
@@ -0,0 +1,203 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the BandedMatrix and BandedLUDecomposition classes.
+ */
+public class BandedMatrixTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    /**
+     * a random n-by-n Matrix with entries only in the band; the diagonal
+     * is not made dominant, so pivoting is needed
+     */
+    private static Matrix randomBanded(Random random, int n, int kl, int ku) {
+        double[][] entries = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - kl); j <= Math.min(n - 1, i + ku); j++) {
+                entries[i][j] = random.nextDouble() * 2 - 1;
+            }
+        }
+        return new Matrix(entries);
+    }
+
+    @Test
+    public void testFromMatrix() {
+        Matrix m = new Matrix(new double[][] {
+            {1, 2, 0, 0},
+            {3, 4, 5, 0},
+            {0, 6, 7, 8},
+            {0, 0, 9, 10}});
+        BandedMatrix b = new BandedMatrix(m, 1, 1);
+
+        assertEquals(4, b.getNumRows());
+        assertEquals(1, b.getLowerBandwidth());
+        assertEquals(1, b.getUpperBandwidth());
+        assertTrue(b.isTridiagonal());
+        assertEquals(6, b.getEntry(2, 1), 0);
+        assertEquals(0, b.getEntry(0, 3), 0);
+        TestData.assertMatrixEquals(m, b.toMatrix(), delta);
+    }
+
+    @Test
+    public void testFromViews() {
+        Matrix m = randomBanded(new Random(2), 8, 1, 2);
+        Matrix view = m.subMatrixView(2, 2, 5, 5);
+        TestData.assertMatrixEquals(view, new BandedMatrix(view, 1, 2).toMatrix(), 0);
+
+        // removing row 0 and column 0 keeps the rest of the band in place
+        Matrix minor = m.minorView(0, 0);
+        TestData.assertMatrixEquals(minor, new BandedMatrix(minor, 1, 2).toMatrix(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsEntryOutsideBand() {
+        new BandedMatrix(new Matrix(new double[][] {
+            {1, 0, 2},
+            {0, 1, 0},
+            {0, 0, 1}}), 0, 1);
+    }
+
+    @Test
+    public void testBandwidthIsClampedToSize() {
+        Matrix m = randomBanded(new Random(1), 3, 5, 5);
+        BandedMatrix b = new BandedMatrix(m, 5, 5);
+        assertEquals(2, b.getLowerBandwidth());
+        TestData.assertMatrixEquals(m, b.toMatrix(), delta);
+    }
+
+    @Test
+    public void testFromDiagonals() {
+        BandedMatrix b = BandedMatrix.tridiagonal(
+            new double[] {1, 2}, new double[] {3, 4, 5}, new double[] {6, 7});
+        TestData.assertMatrixEquals(new Matrix(new double[][] {
+            {3, 6, 0},
+            {1, 4, 7},
+            {0, 2, 5}}), b.toMatrix(), delta);
+
+        BandedMatrix wide = BandedMatrix.fromDiagonals(0, 2,
+            new double[] {1, 2, 3}, new double[] {4, 5}, new double[] {6});
+        TestData.assertMatrixEquals(new Matrix(new double[][] {
+            {1, 4, 6},
+            {0, 2, 5},
+            {0, 0, 3}}), wide.toMatrix(), delta);
+        assertFalse(wide.isTridiagonal());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromDiagonalsRejectsWrongLength() {
+        BandedMatrix.tridiagonal(new double[] {1}, new double[] {3, 4, 5}, new double[] {6, 7});
+    }
+
+    @Test
+    public void testTranspose() {
+        Matrix m = randomBanded(new Random(2), 9, 2, 3);
+        BandedMatrix t = new BandedMatrix(m, 2, 3).transpose();
+        assertEquals(3, t.getLowerBandwidth());
+        assertEquals(2, t.getUpperBandwidth());
+        TestData.assertMatrixEquals(m.transpose(), t.toMatrix(), delta);
+    }
+
+    @Test
+    public void testMultiplyMatchesDense() {
+        Random random = new Random(3);
+        Matrix m = randomBanded(random, 15, 3, 1);
+        BandedMatrix b = new BandedMatrix(m, 3, 1);
+        Vector u = TestData.randomVector(random, 15);
+
+        assertArrayEquals(m.multiply(u).getEntries(), b.multiply(u).getEntries(), delta);
+        assertArrayEquals(m.applyTranspose(u).getEntries(), b.applyTranspose(u).getEntries(), delta);
+    }
+
+    @Test
+    public void testThomas() {
+        // the second-difference Matrix of a cubic spline or a 1-D Poisson problem
+        int n = 500;
+        double[] off = new double[n - 1];
+        double[] diagonal = new double[n];
+        Arrays.fill(off, -1);
+        Arrays.fill(diagonal, 2);
+        BandedMatrix b = BandedMatrix.tridiagonal(off, diagonal, off);
+        Vector rhs = TestData.randomVector(new Random(4), n);
+
+        Vector x = b.solve(rhs);
+        assertArrayEquals(rhs.getEntries(), b.multiply(x).getEntries(), 1e-8);
+    }
+
+    @Test
+    public void testThomasFallsBackOnZeroPivot() {
+        // the first pivot is 0, so the tridiagonal system needs row swaps
+        BandedMatrix b = BandedMatrix.tridiagonal(
+            new double[] {1, 1}, new double[] {0, 1, 1}, new double[] {1, 1});
+        Vector rhs = new Vector(1, 2, 3);
+        Vector x = b.solve(rhs);
+        assertArrayEquals(rhs.getEntries(), b.multiply(x).getEntries(), delta);
+    }
+
+    @Test
+    public void testThomasNotUsedWithoutDiagonalDominance() {
+        // the first pivot is tiny but nonzero, so elimination without row swaps loses x[0]
+        BandedMatrix b = BandedMatrix.tridiagonal(
+            new double[] {1}, new double[] {1e-20, 1}, new double[] {1});
+        Vector x = b.solve(new Vector(1, 2));
+        assertArrayEquals(new double[] {1, 1}, x.getEntries(), delta);
+    }
+
+    @Test
+    public void testBandedLUSolve() {
+        Random random = new Random(5);
+        int[][] bands = {{0, 0}, {1, 1}, {2, 0}, {0, 3}, {3, 2}, {7, 7}};
+
+        for (int[] band : bands) {
+            Matrix m = randomBanded(random, 40, band[0], band[1]);
+            BandedLUDecomposition lu = new BandedLUDecomposition(new BandedMatrix(m, band[0], band[1]));
+            Vector rhs = TestData.randomVector(random, 40);
+
+            // random bands can be ill-conditioned, so compare residuals
+            Vector x = lu.solve(rhs);
+            double scale = Math.max(1, x.magnitude());
+            assertArrayEquals(rhs.getEntries(), m.multiply(x).getEntries(), 1e-10 * scale);
+            assertEquals(1, lu.determinant() / new LUDecomposition(m).determinant(), 1e-8);
+        }
+    }
+
+    @Test
+    public void testBandedLUSolveMatrix() {
+        Random random = new Random(6);
+        Matrix m = randomBanded(random, 30, 2, 4);
+        Matrix rhs = Matrix.fromColumnVectors(new Vector[] {
+            TestData.randomVector(random, 30), TestData.randomVector(random, 30), TestData.randomVector(random, 30)});
+        BandedMatrix b = new BandedMatrix(m, 2, 4);
+
+        Matrix x = b.solve(rhs);
+        TestData.assertMatrixEquals(rhs, m.multiply(x), delta);
+        assertArrayEquals(b.solve(rhs.getColumn(1)).getEntries(), x.getColumn(1).getEntries(), 1e-10);
+    }
+
+    @Test
+    public void testDeterminant() {
+        Matrix m = randomBanded(new Random(7), 8, 1, 2);
+        assertEquals(m.determinant(), new BandedMatrix(m, 1, 2).determinant(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSolveSingular() {
+        Matrix m = new Matrix(new double[][] {
+            {1, 1, 0},
+            {1, 1, 0},
+            {0, 1, 1}});
+        BandedLUDecomposition lu = new BandedLUDecomposition(new BandedMatrix(m, 1, 1));
+        assertTrue(lu.isSingular());
+        lu.solve(new Vector(1, 2, 3));
+    }
+}
@@ -0,0 +1,105 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the BiCGSTAB class.
+ */
+public class BiCGSTABTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    private void assertSolves(LinearOperator a, Vector x, Vector b) {
+        assertArrayEquals(b.getEntries(), a.apply(x).getEntries(), 0.0001);
+    }
+
+    @Test
+    public void testSolvesDenseSystem() {
+        Matrix a = new Matrix(new double[][] {
+            {3, 2, -1},
+            {2, -2, 4},
+            {-1, 0.5, -1}
+        });
+        Vector x = new BiCGSTAB(a).solve(new Vector(1, -2, 0));
+        assertArrayEquals(new double[] {1, -2, -2}, x.getEntries(), delta);
+    }
+
+    @Test
+    public void testSolvesNonsymmetricSparseSystem() {
+        SparseMatrix a = GMRESTest.convectionDiffusion(20);
+        Vector b = TestData.randomVector(new Random(1), 400);
+        BiCGSTAB solver = new BiCGSTAB(a);
+        Vector x = solver.solve(b);
+        assertTrue(solver.isConverged());
+        assertSolves(a, x, b);
+    }
+
+    @Test
+    public void testPreconditioners() {
+        SparseMatrix a = GMRESTest.convectionDiffusion(20);
+        Vector b = TestData.randomVector(new Random(2), 400);
+        BiCGSTAB solver = new BiCGSTAB(a);
+        solver.solve(b);
+        int plain = solver.getNumIterations();
+
+        solver.setPreconditioner(new JacobiPreconditioner(a));
+        assertSolves(a, solver.solve(b), b);
+        assertTrue(solver.isConverged());
+
+        solver.setPreconditioner(new IncompleteLU(a));
+        assertSolves(a, solver.solve(b), b);
+        assertTrue(solver.isConverged());
+        assertTrue(solver.getNumIterations() < plain);
+    }
+
+    @Test
+    public void testMatrixFreeOperator() {
+        // A u = 3u + (shift of u by one place), a nonsymmetric bidiagonal operator
+        final int n = 50;
+        LinearOperator a = new LinearOperator() {
+            public int getNumRows() {
+                return n;
+            }
+
+            public int getNumColumns() {
+                return n;
+            }
+
+            public Vector apply(Vector u) {
+                double[] result = new double[n];
+                for (int i = 0; i < n; i++) {
+                    result[i] = 3 * u.get(i) + (i > 0 ? u.get(i - 1) : 0);
+                }
+                return new Vector(result);
+            }
+
+            public Vector applyTranspose(Vector u) {
+                double[] result = new double[n];
+                for (int i = 0; i < n; i++) {
+                    result[i] = 3 * u.get(i) + (i < n - 1 ? u.get(i + 1) : 0);
+                }
+                return new Vector(result);
+            }
+        };
+        Vector b = TestData.randomVector(new Random(3), n);
+        BiCGSTAB solver = new BiCGSTAB(a);
+        assertSolves(a, solver.solve(b), b);
+        assertTrue(solver.isConverged());
+    }
+
+    @Test
+    public void testStopsAtMaxIterations() {
+        BiCGSTAB solver = new BiCGSTAB(GMRESTest.convectionDiffusion(20));
+        solver.setMaxIterations(3);
+        solver.solve(TestData.randomVector(new Random(4), 400));
+        assertFalse(solver.isConverged());
+        assertEquals(3, solver.getNumIterations());
+    }
+}
@@ -0,0 +1,140 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the CholeskyDecomposition class.
+ */
+public class CholeskyDecompositionTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    private Matrix spd = new Matrix(new double[][] {
+        {4, 12, -16},
+        {12, 37, -43},
+        {-16, -43, 98}
+    });
+
+    // X^T X + n I for a random X, which is symmetric positive definite
+    private static Matrix randomSpdMatrix(Random random, int n) {
+        double[][] entries = new double[n][n];
+        for (double[] row : entries) {
+            for (int i = 0; i < n; i++) {
+                row[i] = random.nextDouble() * 2 - 1;
+            }
+        }
+        Matrix x = new Matrix(entries);
+        return x.transpose().multiply(x).add(Matrix.identityMatrix(n).multiply(n));
+    }
+
+    @Test
+    public void testFactor() {
+        Matrix l = new CholeskyDecomposition(spd).getL();
+        TestData.assertMatrixEquals(new Matrix(new double[][] {
+            {2, 0, 0},
+            {6, 1, 0},
+            {-8, 5, 3}
+        }), l, delta);
+    }
+
+    @Test
+    public void testFactorReproducesLargeMatrix() {
+        // larger than one block, so the trailing update is used
+        Random random = new Random(3);
+        int n = CholeskyDecomposition.BLOCK_SIZE * 2 + 13;
+        Matrix a = randomSpdMatrix(random, n);
+        Matrix l = new CholeskyDecomposition(a).getL();
+        double[][] expected = a.getEntries();
+        double[][] actual = l.multiply(l.transpose()).getEntries();
+        for (int row = 0; row < n; row++) {
+            for (int col = row + 1; col < n; col++) {
+                assertEquals(0, l.getEntry(row, col), 0);
+            }
+            assertArrayEquals(expected[row], actual[row], 1e-8 * n);
+        }
+    }
+
+    @Test
+    public void testDeterminant() {
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(spd);
+        assertEquals(36, cholesky.determinant(), delta);
+        assertEquals(Math.log(36), cholesky.logDeterminant(), delta);
+    }
+
+    @Test
+    public void testLogDeterminantMatchesLU() {
+        Random random = new Random(5);
+        Matrix a = randomSpdMatrix(random, 20);
+        assertEquals(Math.log(new LUDecomposition(a).determinant()),
+                     new CholeskyDecomposition(a).logDeterminant(), 1e-9);
+    }
+
+    @Test
+    public void testLogDeterminantDoesNotOverflow() {
+        Matrix a = Matrix.identityMatrix(400).multiply(1e300);
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(a);
+        assertEquals(Double.POSITIVE_INFINITY, cholesky.determinant(), delta);
+        assertEquals(400 * Math.log(1e300), cholesky.logDeterminant(), 1e-6);
+    }
+
+    @Test
+    public void testSolveVector() {
+        Vector x = new CholeskyDecomposition(spd).solve(new Vector(4 - 24 + 16, 12 - 74 + 43, -16 + 86 - 98));
+        assertArrayEquals(new double[] {1, -2, -1}, x.getEntries(), delta);
+    }
+
+    @Test
+    public void testSolveMatchesLU() {
+        Random random = new Random(7);
+        int n = CholeskyDecomposition.BLOCK_SIZE + 40;
+        Matrix a = randomSpdMatrix(random, n);
+        Matrix b = randomSpdMatrix(random, n).subMatrixView(0, 0, n, 3);
+        TestData.assertMatrixEquals(new LUDecomposition(a).solve(b), new CholeskyDecomposition(a).solve(b), delta);
+        assertArrayEquals(new LUDecomposition(a).solve(b.getColumn(1)).getEntries(),
+                          new CholeskyDecomposition(a).solve(b.getColumn(1)).getEntries(), delta);
+    }
+
+    @Test
+    public void testInverse() {
+        Random random = new Random(9);
+        Matrix a = randomSpdMatrix(random, 10);
+        TestData.assertMatrixEquals(Matrix.identityMatrix(10), a.multiply(new CholeskyDecomposition(a).inverse()), delta);
+    }
+
+    @Test
+    public void testIsPositiveDefinite() {
+        assertTrue(CholeskyDecomposition.isPositiveDefinite(spd));
+        assertFalse(CholeskyDecomposition.isPositiveDefinite(new Matrix(new double[][] {{1, 2}, {2, 1}})));
+        assertFalse(CholeskyDecomposition.isPositiveDefinite(new Matrix(new double[][] {{1, 0}, {0, -1}})));
+        assertFalse(CholeskyDecomposition.isPositiveDefinite(new Matrix(new double[][] {{2, 1}, {0, 2}})));
+        assertFalse(CholeskyDecomposition.isPositiveDefinite(new Matrix(new double[][] {{1, 2, 3}})));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIndefinite() {
+        // symmetric with a positive diagonal, but the eigenvalues are 3 and -1
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(new Matrix(new double[][] {{1, 2}, {2, 1}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotSymmetric() {
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(new Matrix(new double[][] {{2, 1}, {0, 2}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonSquare() {
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(new Matrix(new double[][] {{1, 2, 3}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSolveWrongLength() {
+        Vector x = new CholeskyDecomposition(spd).solve(new Vector(1, 2));
+    }
+}
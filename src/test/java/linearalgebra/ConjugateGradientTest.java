@@ -0,0 +1,169 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the ConjugateGradient class and the IterativeSolver settings.
+ */
+public class ConjugateGradientTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    // the 5-point Laplacian on a side-by-side grid, which is symmetric positive definite
+    static SparseMatrix poisson(int side) {
+        int n = side * side;
+        List<Integer> columns = new ArrayList<Integer>();
+        List<Double> values = new ArrayList<Double>();
+        int[] rowPointers = new int[n + 1];
+        for (int i = 0; i < n; i++) {
+            int x = i % side;
+            int y = i / side;
+            int[] neighbours = {i - side, i - 1, i, i + 1, i + side};
+            boolean[] present = {y > 0, x > 0, true, x < side - 1, y < side - 1};
+            for (int k = 0; k < 5; k++) {
+                if (present[k]) {
+                    columns.add(neighbours[k]);
+                    values.add(neighbours[k] == i ? 4.0 : -1.0);
+                }
+            }
+            rowPointers[i + 1] = columns.size();
+        }
+        int[] c = new int[columns.size()];
+        double[] v = new double[values.size()];
+        for (int i = 0; i < c.length; i++) {
+            c[i] = columns.get(i);
+            v[i] = values.get(i);
+        }
+        return new SparseMatrix(n, n, rowPointers, c, v);
+    }
+
+    private static Vector ones(int n) {
+        double[] entries = new double[n];
+        Arrays.fill(entries, 1);
+        return new Vector(entries);
+    }
+
+    private void assertSolves(LinearOperator a, Vector x, Vector b) {
+        assertArrayEquals(b.getEntries(), a.apply(x).getEntries(), 0.0001);
+    }
+
+    @Test
+    public void testSolvesSmallDenseSystem() {
+        Matrix a = new Matrix(new double[][] {
+            {4, 1},
+            {1, 3}
+        });
+        ConjugateGradient cg = new ConjugateGradient(a);
+        Vector x = cg.solve(new Vector(1, 2));
+        assertArrayEquals(new double[] {1.0 / 11, 7.0 / 11}, x.getEntries(), delta);
+        assertTrue(cg.isConverged());
+        assertTrue(cg.getNumIterations() <= 2);
+    }
+
+    @Test
+    public void testSolvesSparsePoisson() {
+        SparseMatrix a = poisson(20);
+        Vector b = ones(400);
+        ConjugateGradient cg = new ConjugateGradient(a);
+        Vector x = cg.solve(b);
+        assertTrue(cg.isConverged());
+        assertTrue(cg.getResidualNorm() <= 1e-10 * b.pnorm(2));
+        assertSolves(a, x, b);
+    }
+
+    @Test
+    public void testPreconditionersReduceIterations() {
+        SparseMatrix a = poisson(30);
+        Vector b = ones(900);
+        ConjugateGradient cg = new ConjugateGradient(a);
+        cg.solve(b);
+        int plain = cg.getNumIterations();
+
+        cg.setPreconditioner(new IncompleteLU(a));
+        Vector x = cg.solve(b);
+        assertTrue(cg.isConverged());
+        assertTrue(cg.getNumIterations() < plain);
+        assertSolves(a, x, b);
+    }
+
+    @Test
+    public void testListenerSeesEveryIteration() {
+        final List<Double> residuals = new ArrayList<Double>();
+        ConjugateGradient cg = new ConjugateGradient(poisson(10));
+        cg.setListener(new IterationListener() {
+            public void iterationDone(int iteration, double residualNorm) {
+                assertEquals(residuals.size(), iteration);
+                residuals.add(residualNorm);
+            }
+        });
+        cg.solve(ones(100));
+        assertEquals(cg.getNumIterations() + 1, residuals.size());
+        assertEquals(10, residuals.get(0), delta);
+        assertEquals(cg.getResidualNorm(), residuals.get(residuals.size() - 1), 0);
+    }
+
+    @Test
+    public void testStopsAtMaxIterations() {
+        ConjugateGradient cg = new ConjugateGradient(poisson(20));
+        cg.setMaxIterations(5).setTolerance(1e-12);
+        cg.solve(ones(400));
+        assertFalse(cg.isConverged());
+        assertEquals(5, cg.getNumIterations());
+    }
+
+    @Test
+    public void testLooseToleranceStopsEarlier() {
+        ConjugateGradient cg = new ConjugateGradient(poisson(20));
+        cg.solve(ones(400));
+        int tight = cg.getNumIterations();
+        cg.setTolerance(1e-3).solve(ones(400));
+        assertTrue(cg.isConverged());
+        assertTrue(cg.getNumIterations() < tight);
+    }
+
+    @Test
+    public void testInitialGuess() {
+        SparseMatrix a = poisson(5);
+        Vector x = new ConjugateGradient(a).solve(ones(25));
+        ConjugateGradient cg = new ConjugateGradient(a);
+        cg.setTolerance(1e-6).solve(ones(25), x);
+        assertEquals(0, cg.getNumIterations());
+        assertTrue(cg.isConverged());
+    }
+
+    @Test
+    public void testZeroRightHandSide() {
+        ConjugateGradient cg = new ConjugateGradient(poisson(4));
+        Vector x = cg.solve(new Vector(new double[16]));
+        assertArrayEquals(new double[16], x.getEntries(), 0);
+        assertTrue(cg.isConverged());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsIndefiniteOperator() {
+        Matrix a = new Matrix(new double[][] {
+            {1, 0},
+            {0, -1}
+        });
+        new ConjugateGradient(a).solve(new Vector(1, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsWrongLength() {
+        new ConjugateGradient(poisson(3)).solve(new Vector(1, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonSquareOperator() {
+        new ConjugateGradient(new Matrix(new double[2][3]));
+    }
+}
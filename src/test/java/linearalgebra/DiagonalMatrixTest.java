@@ -0,0 +1,139 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the DiagonalMatrix class.
+ */
+public class DiagonalMatrixTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    @Test
+    public void testIdentityMatchesDense() {
+        DiagonalMatrix identity = DiagonalMatrix.identityMatrix(4);
+        TestData.assertMatrixEquals(Matrix.identityMatrix(4), identity.toMatrix(), delta);
+        assertEquals(4, identity.getNumRows());
+        assertEquals(4, identity.getNumColumns());
+        assertEquals(1, identity.determinant(), 0);
+        assertEquals(4, identity.trace(), 0);
+    }
+
+    @Test
+    public void testEntries() {
+        DiagonalMatrix d = new DiagonalMatrix(2, -3, 5);
+        assertEquals(-3, d.getEntry(1, 1), 0);
+        assertEquals(0, d.getEntry(0, 2), 0);
+        assertArrayEquals(new double[] {2, -3, 5}, d.getDiagonal().getEntries(), 0);
+        assertSame(d, d.transpose());
+    }
+
+    @Test
+    public void testFromMatrix() {
+        Matrix m = new Matrix(new double[][] {
+            {2, 0},
+            {0, 7}
+        });
+        assertArrayEquals(new double[] {2, 7}, new DiagonalMatrix(m).getDiagonal().getEntries(), 0);
+    }
+
+    @Test
+    public void testDeterminantTraceInverse() {
+        DiagonalMatrix d = new DiagonalMatrix(2, -4, 0.5);
+        Matrix dense = d.toMatrix();
+        assertEquals(dense.determinant(), d.determinant(), delta);
+        assertEquals(dense.trace(), d.trace(), delta);
+        TestData.assertMatrixEquals(new LUDecomposition(dense).inverse(), d.inverse().toMatrix(), delta);
+        assertArrayEquals(new double[] {1, 1, 1}, d.multiply(d.inverse()).getDiagonal().getEntries(), delta);
+        assertArrayEquals(new double[] {0.5, 0.25, 4}, d.solve(new Vector(1, -1, 2)).getEntries(), delta);
+    }
+
+    @Test
+    public void testPower() {
+        DiagonalMatrix d = new DiagonalMatrix(2, -3);
+        assertArrayEquals(new double[] {8, -27}, d.power(3).getDiagonal().getEntries(), delta);
+        assertArrayEquals(new double[] {1, 1}, d.power(0).getDiagonal().getEntries(), delta);
+        assertArrayEquals(new double[] {0.25, 1.0 / 9}, d.power(-2).getDiagonal().getEntries(), delta);
+    }
+
+    @Test
+    public void testDiagonalArithmetic() {
+        DiagonalMatrix a = new DiagonalMatrix(1, 2, 3);
+        DiagonalMatrix b = new DiagonalMatrix(4, 5, 6);
+        assertArrayEquals(new double[] {5, 7, 9}, a.add(b).getDiagonal().getEntries(), 0);
+        assertArrayEquals(new double[] {-3, -3, -3}, a.subtract(b).getDiagonal().getEntries(), 0);
+        assertArrayEquals(new double[] {4, 10, 18}, a.multiply(b).getDiagonal().getEntries(), 0);
+        assertArrayEquals(new double[] {2, 4, 6}, a.multiply(2).getDiagonal().getEntries(), 0);
+        assertArrayEquals(new double[] {1, -2, 3}, a.multiply(new Vector(1, -1, 1)).getEntries(), 0);
+    }
+
+    @Test
+    public void testScalesRowsAndColumns() {
+        Random random = new Random(1);
+        Matrix m = TestData.randomMatrix(random, 3, 5);
+        DiagonalMatrix left = new DiagonalMatrix(2, -1, 0.5);
+        DiagonalMatrix right = new DiagonalMatrix(1, 2, 3, 4, 5);
+        TestData.assertMatrixEquals(left.toMatrix().multiply(m), left.multiply(m), delta);
+        TestData.assertMatrixEquals(m.multiply(right.toMatrix()), m.multiply(right), delta);
+        // a view is read correctly
+        Matrix view = TestData.randomMatrix(random, 6, 6).subMatrixView(1, 1, 3, 5);
+        TestData.assertMatrixEquals(view.multiply(right.toMatrix()), view.multiply(right), delta);
+    }
+
+    @Test
+    public void testRegularization() {
+        Matrix a = TestData.randomMatrix(new Random(2), 5, 5);
+        DiagonalMatrix lambda = DiagonalMatrix.identityMatrix(5).multiply(0.1);
+        TestData.assertMatrixEquals(a.add(Matrix.identityMatrix(5).multiply(0.1)), a.add(lambda), delta);
+        TestData.assertMatrixEquals(a.subtract(Matrix.identityMatrix(5).multiply(0.1)), a.subtract(lambda), delta);
+        TestData.assertMatrixEquals(a.add(lambda), lambda.add(a), delta);
+    }
+
+    @Test
+    public void testLinearOperator() {
+        DiagonalMatrix d = new DiagonalMatrix(3, 1, 2);
+        assertArrayEquals(d.apply(new Vector(1, 2, 3)).getEntries(),
+                d.applyTranspose(new Vector(1, 2, 3)).getEntries(), 0);
+        ConjugateGradient cg = new ConjugateGradient(d);
+        assertArrayEquals(new double[] {1, 2, 3}, cg.solve(new Vector(3, 2, 6)).getEntries(), delta);
+    }
+
+    @Test
+    public void testSingular() {
+        assertTrue(new DiagonalMatrix(1, 0).isSingular());
+        assertFalse(new DiagonalMatrix(1, 2).isSingular());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInverseOfSingular() {
+        new DiagonalMatrix(1, 0, 2).inverse();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativePowerOfSingular() {
+        new DiagonalMatrix(0, 1).power(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromNonDiagonalMatrix() {
+        new DiagonalMatrix(new Matrix(new double[][] {{1, 2}, {0, 1}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShapeMismatch() {
+        new DiagonalMatrix(1, 2).multiply(new Matrix(new double[3][3]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmpty() {
+        new DiagonalMatrix(new double[0]);
+    }
+}
@@ -0,0 +1,111 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the Expression class.
+ */
+public class ExpressionTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    private static final ScalarFunction SQUARE = new ScalarFunction() {
+        public double apply(double x) {
+            return x * x;
+        }
+    };
+
+    @Test
+    public void testVectorChain() {
+        Vector a = new Vector(1, 2, 3);
+        Vector b = new Vector(4, 5, 6);
+        Vector c = new Vector(1, 1, 1);
+        Expression e = Expression.of(a).add(b).subtract(c).multiply(2);
+        assertTrue(e.isVector());
+        assertArrayEquals(a.add(b).subtract(c).multiply(2).getEntries(), e.toVector().getEntries(), delta);
+    }
+
+    @Test
+    public void testNegateAndMap() {
+        Vector a = new Vector(1, -2, 3);
+        assertArrayEquals(a.inverseVector().getEntries(), Expression.of(a).negate().toVector().getEntries(), delta);
+        assertArrayEquals(new double[] {1, 4, 9}, Expression.of(a).map(SQUARE).toVector().getEntries(), delta);
+    }
+
+    @Test
+    public void testMatrixChainAcrossBlocks() {
+        // rows longer than one block, and operands read through views
+        Random random = new Random(3);
+        int cols = Expression.BLOCK_SIZE + 37;
+        Matrix a = TestData.randomMatrix(random, 5, cols);
+        Matrix b = TestData.randomMatrix(random, 7, cols + 4).subMatrixView(1, 2, 5, cols);
+        Matrix c = TestData.randomMatrix(random, 5, cols);
+        Matrix expected = a.subtract(b.multiply(3)).add(c).multiply(-0.5);
+
+        Expression e = Expression.of(a).subtract(Expression.of(b).multiply(3)).add(c).multiply(-0.5);
+        assertFalse(e.isVector());
+        TestData.assertMatrixEquals(expected, e.toMatrix(), delta);
+    }
+
+    @Test
+    public void testMinorViewsAcrossBlocks() {
+        // the skipped column falls in the first block, in the second, and on the boundary
+        Random random = new Random(7);
+        int cols = Expression.BLOCK_SIZE + 37;
+        Matrix m = TestData.randomMatrix(random, 6, cols + 1);
+        Matrix c = TestData.randomMatrix(random, 5, cols);
+
+        for (int skip : new int[] {3, Expression.BLOCK_SIZE, Expression.BLOCK_SIZE + 20}) {
+            Matrix minor = m.minorView(2, skip);
+            Matrix expected = minor.add(c).multiply(2);
+            TestData.assertMatrixEquals(expected, Expression.of(minor).add(c).multiply(2).toMatrix(), delta);
+        }
+    }
+
+    @Test
+    public void testNestedAndSharedOperands() {
+        Random random = new Random(5);
+        Matrix a = TestData.randomMatrix(random, 4, 6);
+        Matrix b = TestData.randomMatrix(random, 4, 6);
+        Expression sum = Expression.of(a).add(b);
+        // (a + b) - ((a + b) - (a - b)) * 2 = (a + b) - 4b
+        Expression e = sum.subtract(sum.subtract(Expression.of(a).subtract(b)).multiply(2));
+        TestData.assertMatrixEquals(a.subtract(b.multiply(3)), e.toMatrix(), delta);
+    }
+
+    @Test
+    public void testMultiplyTwiceCombines() {
+        Vector a = new Vector(1, 2, 3);
+        assertArrayEquals(new double[] {6, 12, 18}, Expression.of(a).multiply(2).multiply(3).toVector().getEntries(), delta);
+    }
+
+    @Test
+    public void testEvaluatesCurrentOperands() {
+        MutableVector w = new MutableVector(1, 2, 3);
+        Expression e = Expression.of(w.asVector()).multiply(2);
+        w.setEntry(0, 10);
+        assertEquals(20, e.toVector().get(0), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDifferentLengths() {
+        Expression e = Expression.of(new Vector(1, 2, 3)).add(new Vector(1, 2));  // should throw an exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMixedVectorAndMatrix() {
+        Expression e = Expression.of(new Vector(1, 2)).add(new Matrix(new double[][] {{1, 2}}));  // should throw an exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongResultType() {
+        Vector v = Expression.of(Matrix.identityMatrix(2)).toVector();  // should throw an exception
+    }
+}
@@ -0,0 +1,125 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the GMRES class.
+ */
+public class GMRESTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    // a nonsymmetric convection-diffusion operator on a side-by-side grid
+    static SparseMatrix convectionDiffusion(int side) {
+        int n = side * side;
+        double[][] entries = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            int x = i % side;
+            int y = i / side;
+            entries[i][i] = 4;
+            if (x > 0) {
+                entries[i][i - 1] = -1.4;
+            }
+            if (x < side - 1) {
+                entries[i][i + 1] = -0.6;
+            }
+            if (y > 0) {
+                entries[i][i - side] = -1.2;
+            }
+            if (y < side - 1) {
+                entries[i][i + side] = -0.8;
+            }
+        }
+        return new SparseMatrix(new Matrix(entries));
+    }
+
+    private void assertSolves(LinearOperator a, Vector x, Vector b) {
+        assertArrayEquals(b.getEntries(), a.apply(x).getEntries(), 0.0001);
+    }
+
+    @Test
+    public void testSolvesDenseSystem() {
+        Matrix a = new Matrix(new double[][] {
+            {3, 2, -1},
+            {2, -2, 4},
+            {-1, 0.5, -1}
+        });
+        Vector b = new Vector(1, -2, 0);
+        Vector x = new GMRES(a).solve(b);
+        assertArrayEquals(new double[] {1, -2, -2}, x.getEntries(), delta);
+    }
+
+    @Test
+    public void testSolvesNonsymmetricSparseSystem() {
+        SparseMatrix a = convectionDiffusion(15);
+        Vector b = TestData.randomVector(new Random(1), 225);
+        GMRES gmres = new GMRES(a);
+        Vector x = gmres.solve(b);
+        assertTrue(gmres.isConverged());
+        assertSolves(a, x, b);
+    }
+
+    @Test
+    public void testShortRestartStillConverges() {
+        SparseMatrix a = convectionDiffusion(15);
+        Vector b = TestData.randomVector(new Random(2), 225);
+        GMRES full = new GMRES(a).setRestart(225);
+        full.solve(b);
+        GMRES restarted = new GMRES(a).setRestart(5);
+        restarted.setMaxIterations(5000);
+        Vector x = restarted.solve(b);
+        assertTrue(restarted.isConverged());
+        assertTrue(restarted.getNumIterations() >= full.getNumIterations());
+        assertSolves(a, x, b);
+    }
+
+    @Test
+    public void testResidualNeverIncreases() {
+        final double[] last = {Double.POSITIVE_INFINITY};
+        GMRES gmres = new GMRES(convectionDiffusion(10)).setRestart(8);
+        gmres.setListener(new IterationListener() {
+            public void iterationDone(int iteration, double residualNorm) {
+                assertTrue(residualNorm <= last[0] * (1 + 1e-12));
+                last[0] = residualNorm;
+            }
+        });
+        gmres.solve(TestData.randomVector(new Random(3), 100));
+        assertTrue(gmres.isConverged());
+    }
+
+    @Test
+    public void testPreconditioned() {
+        SparseMatrix a = convectionDiffusion(20);
+        Vector b = TestData.randomVector(new Random(4), 400);
+        GMRES gmres = new GMRES(a);
+        gmres.solve(b);
+        int plain = gmres.getNumIterations();
+
+        gmres.setPreconditioner(new IncompleteLU(a));
+        Vector x = gmres.solve(b);
+        assertTrue(gmres.isConverged());
+        assertTrue(gmres.getNumIterations() < plain);
+        assertSolves(a, x, b);
+    }
+
+    @Test
+    public void testStopsAtMaxIterations() {
+        GMRES gmres = new GMRES(convectionDiffusion(15)).setRestart(10);
+        gmres.setMaxIterations(7);
+        gmres.solve(TestData.randomVector(new Random(5), 225));
+        assertFalse(gmres.isConverged());
+        assertEquals(7, gmres.getNumIterations());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsBadRestart() {
+        new GMRES(Matrix.identityMatrix(2)).setRestart(0);
+    }
+}
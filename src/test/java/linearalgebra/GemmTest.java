@@ -0,0 +1,104 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the blocked matrix multiplication kernel.
+ */
+public class GemmTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    private static double[] randomArray(Random random, int length) {
+        double[] values = new double[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextDouble() * 2 - 1;
+        }
+        return values;
+    }
+
+    // plain triple loop to compare the kernel against
+    private static double[] naiveMultiply(int m, int n, int k, double[] a, double[] b) {
+        double[] c = new double[m * n];
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < n; j++) {
+                double sum = 0;
+                for (int p = 0; p < k; p++) {
+                    sum += a[i * k + p] * b[p * n + j];
+                }
+                c[i * n + j] = sum;
+            }
+        }
+        return c;
+    }
+
+    private void checkProduct(int m, int n, int k) {
+        Random random = new Random(m * 31 + n * 17 + k);
+        double[] a = randomArray(random, m * k);
+        double[] b = randomArray(random, k * n);
+        double[] c = new double[m * n];
+
+        Gemm.multiply(m, n, k, a, 0, k, b, 0, n, c, 0, n);
+
+        assertArrayEquals(naiveMultiply(m, n, k, a, b), c, delta);
+    }
+
+    @Test
+    public void testSmallProduct() {
+        checkProduct(3, 5, 7);
+    }
+
+    @Test
+    public void testProductWithRaggedEdges() {
+        // sizes are not multiples of the micro-kernel tile or the packing blocks
+        checkProduct(Gemm.MC + 3, Gemm.NR * 9 + 1, Gemm.KC + 5);
+    }
+
+    @Test
+    public void testProductAcrossColumnPanels() {
+        checkProduct(Gemm.MR + 1, Gemm.NC + 2, 40);
+    }
+
+    @Test
+    public void testAccumulatesIntoC() {
+        double[] a = {1, 2, 3, 4};
+        double[] b = {5, 6, 7, 8};
+        double[] c = {1, 1, 1, 1};
+        Gemm.multiply(2, 2, 2, a, 0, 2, b, 0, 2, c, 0, 2);
+        assertArrayEquals(new double[] {20, 23, 44, 51}, c, delta);
+    }
+
+    @Test
+    public void testStridedBlocks() {
+        // multiply the lower right 40-by-40 blocks of two 50-by-50 arrays
+        Random random = new Random(7);
+        double[] a = randomArray(random, 50 * 50);
+        double[] b = randomArray(random, 50 * 50);
+        double[] c = new double[40 * 40];
+        Gemm.multiply(40, 40, 40, a, 10 * 50 + 10, 50, b, 10 * 50 + 10, 50, c, 0, 40);
+
+        double sum = 0;
+        for (int p = 0; p < 40; p++) {
+            sum += a[(10 + 3) * 50 + 10 + p] * b[(10 + p) * 50 + 10 + 7];
+        }
+        assertEquals(sum, c[3 * 40 + 7], delta);
+    }
+
+    @Test
+    public void testMatrixMultiplyMatchesDotProducts() {
+        Random random = new Random(42);
+        Matrix a = new Matrix(70, 90, randomArray(random, 70 * 90));
+        Matrix b = new Matrix(90, 50, randomArray(random, 90 * 50));
+        Matrix ab = Matrix.multiply(a, b);
+        for (int row = 0; row < 70; row += 13) {
+            for (int col = 0; col < 50; col += 7) {
+                assertEquals(Vector.dot(a.getRow(row), b.getColumn(col)), ab.getEntry(row, col), delta);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the IncompleteLU and JacobiPreconditioner classes.
+ */
+public class IncompleteLUTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    @Test
+    public void testTridiagonalFactorIsExact() {
+        // LU of a tridiagonal Matrix has no fill-in, so ILU(0) is the exact inverse
+        Matrix a = new Matrix(new double[][] {
+            {4, -1, 0, 0},
+            {-1, 4, -1, 0},
+            {0, -1, 4, -1},
+            {0, 0, -1, 4}
+        });
+        Vector b = new Vector(1, 2, 3, 4);
+        Vector x = new IncompleteLU(a).apply(b);
+        assertArrayEquals(new LUDecomposition(a).solve(b).getEntries(), x.getEntries(), delta);
+    }
+
+    @Test
+    public void testDenseFactorMatchesLU() {
+        // with a full pattern nothing is dropped
+        Matrix a = new Matrix(new double[][] {
+            {5, 1, 2},
+            {1, 6, 1},
+            {2, 1, 7}
+        });
+        Vector b = new Vector(1, -1, 2);
+        assertArrayEquals(new LUDecomposition(a).solve(b).getEntries(),
+                new IncompleteLU(a).apply(b).getEntries(), delta);
+    }
+
+    @Test
+    public void testDropsFillIn() {
+        // the 2D Laplacian fills in under LU, so ILU(0) is only approximate,
+        // but A M b is still much closer to b than A b is
+        SparseMatrix a = ConjugateGradientTest.poisson(4);
+        double[] ones = new double[16];
+        Arrays.fill(ones, 1);
+        Vector b = a.multiply(new Vector(ones));
+        Vector x = new IncompleteLU(a).apply(b);
+        assertTrue(x.subtract(new Vector(ones)).pnorm(2) > 1e-6);
+        assertTrue(a.multiply(x).subtract(b).pnorm(2) < 0.25 * b.pnorm(2));
+    }
+
+    @Test
+    public void testJacobiDividesByDiagonal() {
+        Matrix a = new Matrix(new double[][] {
+            {2, 1},
+            {1, 4}
+        });
+        assertArrayEquals(new double[] {1, 0.5},
+                new JacobiPreconditioner(a).apply(new Vector(2, 2)).getEntries(), delta);
+        assertArrayEquals(new double[] {1, 0.5},
+                new JacobiPreconditioner(new SparseMatrix(a)).apply(new Vector(2, 2)).getEntries(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroPivot() {
+        new IncompleteLU(new Matrix(new double[][] {{0, 1}, {1, 0}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJacobiZeroDiagonal() {
+        new JacobiPreconditioner(new Matrix(new double[][] {{1, 1}, {1, 0}}));
+    }
+}
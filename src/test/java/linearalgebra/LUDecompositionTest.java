@@ -0,0 +1,178 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the LUDecomposition class.
+ */
+public class LUDecompositionTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    @Test
+    public void testFactorsReproduceMatrix() {
+        Matrix a = new Matrix(new double[][] {
+            {2, 1, 1},
+            {4, -6, 0},
+            {-2, 7, 2}
+        });
+        LUDecomposition lu = new LUDecomposition(a);
+        // PA = LU
+        int[] pivot = lu.getPivot();
+        Vector[] rows = new Vector[3];
+        for (int i = 0; i < 3; i++) {
+            rows[i] = a.getRow(pivot[i]);
+        }
+        TestData.assertMatrixEquals(Matrix.fromRowVectors(rows), lu.getL().multiply(lu.getU()), delta);
+    }
+
+    @Test
+    public void testDeterminant() {
+        Matrix a = new Matrix(new double[][] {
+            {2, 1, 1},
+            {4, -6, 0},
+            {-2, 7, 2}
+        });
+        assertEquals(-16, new LUDecomposition(a).determinant(), delta);
+        assertEquals(-16, a.determinant(), delta);
+    }
+
+    @Test
+    public void testDeterminantLargeMatrix() {
+        // determinant of a product is the product of the determinants
+        Random random = new Random(11);
+        Matrix a = TestData.randomMatrix(random, 14, 14);
+        Matrix b = TestData.randomMatrix(random, 14, 14);
+        double expected = a.determinant() * b.determinant();
+        assertEquals(expected, a.multiply(b).determinant(), Math.abs(expected) * 1e-9);
+    }
+
+    @Test
+    public void testSolveVector() {
+        Matrix a = new Matrix(new double[][] {
+            {1, 2},
+            {3, 4}
+        });
+        Vector x = new LUDecomposition(a).solve(new Vector(5, 11));
+        assertArrayEquals(new double[] {1, 2}, x.getEntries(), delta);
+    }
+
+    @Test
+    public void testSolveMatrix() {
+        Random random = new Random(5);
+        Matrix a = TestData.randomMatrix(random, 8, 8);
+        Matrix x = TestData.randomMatrix(random, 8, 3);
+        Matrix b = a.multiply(x);
+        TestData.assertMatrixEquals(x, new LUDecomposition(a).solve(b), delta);
+    }
+
+    @Test
+    public void testInverse() {
+        Random random = new Random(9);
+        Matrix a = TestData.randomMatrix(random, 6, 6);
+        Matrix inverse = new LUDecomposition(a).inverse();
+        TestData.assertMatrixEquals(Matrix.identityMatrix(6), a.multiply(inverse), delta);
+    }
+
+    @Test
+    public void testSingular() {
+        Matrix a = new Matrix(new double[][] {
+            {1, 2},
+            {2, 4}
+        });
+        LUDecomposition lu = new LUDecomposition(a);
+        assertTrue(lu.isSingular());
+        assertEquals(0, lu.determinant(), delta);
+        assertFalse(new LUDecomposition(Matrix.identityMatrix(2)).isSingular());
+    }
+
+    @Test
+    public void testBlockedFactorsReproduceMatrix() {
+        // several blocks, with a ragged last one
+        int n = 3 * LUDecomposition.BLOCK_SIZE + 17;
+        Matrix a = TestData.randomMatrix(new Random(21), n, n);
+        LUDecomposition lu = new LUDecomposition(a);
+        int[] pivot = lu.getPivot();
+        Vector[] rows = new Vector[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = a.getRow(pivot[i]);
+        }
+        TestData.assertMatrixEquals(Matrix.fromRowVectors(rows), lu.getL().multiply(lu.getU()), delta);
+        // partial pivoting keeps every multiplier at most 1 in magnitude
+        double[][] l = lu.getL().getEntries();
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++) {
+                assertTrue(Math.abs(l[i][j]) <= 1);
+            }
+        }
+    }
+
+    @Test
+    public void testBlockedSolves() {
+        Random random = new Random(22);
+        int n = 2 * LUDecomposition.BLOCK_SIZE + 5;
+        Matrix a = TestData.randomMatrix(random, n, n);
+        Vector x = new Vector(TestData.randomMatrix(random, 1, n).getRow(0).getEntries());
+        assertArrayEquals(x.getEntries(), a.solve(a.multiply(x)).getEntries(), delta);
+        Matrix xs = TestData.randomMatrix(random, n, 70);
+        TestData.assertMatrixEquals(xs, a.solve(a.multiply(xs)), delta);
+        TestData.assertMatrixEquals(Matrix.identityMatrix(n), a.multiply(new LUDecomposition(a).inverse()), delta);
+    }
+
+    @Test
+    public void testSameResultOnOneThread() {
+        Matrix a = TestData.randomMatrix(new Random(23), 300, 300);
+        ForkJoinPool single = new ForkJoinPool(1);
+        LUDecomposition parallel = new LUDecomposition(a);
+        LUDecomposition serial = new LUDecomposition(a, single);
+        single.shutdown();
+        assertArrayEquals(serial.getPivot(), parallel.getPivot());
+        assertEquals(serial.determinant(), parallel.determinant(), Math.abs(serial.determinant()) * 1e-12);
+        TestData.assertMatrixEquals(serial.getU(), parallel.getU(), delta);
+    }
+
+    @Test
+    public void testSingularInLaterBlock() {
+        // a zero column past the first block
+        int n = LUDecomposition.BLOCK_SIZE + 10;
+        double[][] entries = TestData.randomMatrix(new Random(24), n, n).getEntries();
+        for (int i = 0; i < n; i++) {
+            entries[i][n - 3] = 0;
+        }
+        LUDecomposition lu = new LUDecomposition(new Matrix(entries));
+        assertTrue(lu.isSingular());
+        assertEquals(0, lu.determinant(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMatrixSolveSingular() {
+        new Matrix(new double[][] {{1, 2}, {2, 4}}).solve(new Vector(1, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSolveSingular() {
+        Matrix a = new Matrix(new double[][] {
+            {1, 2},
+            {2, 4}
+        });
+        Vector x = new LUDecomposition(a).solve(new Vector(1, 2));  // should throw an exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonSquare() {
+        LUDecomposition lu = new LUDecomposition(new Matrix(new double[][] {{1, 2, 3}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSolveWrongLength() {
+        Vector x = new LUDecomposition(Matrix.identityMatrix(2)).solve(new Vector(1, 2, 3));
+    }
+}
@@ -0,0 +1,179 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the Lanczos class and the LinearOperator interface.
+ */
+public class LanczosTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    // the n-by-n matrix with 2 on the diagonal and -1 next to it
+    private static SparseMatrix laplacian(int n) {
+        int[] rowPointers = new int[n + 1];
+        int[] columns = new int[3 * n - 2];
+        double[] values = new double[3 * n - 2];
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            for (int j = Math.max(0, i - 1); j <= Math.min(n - 1, i + 1); j++) {
+                columns[pos] = j;
+                values[pos] = (i == j) ? 2 : -1;
+                pos++;
+            }
+            rowPointers[i + 1] = pos;
+        }
+        return new SparseMatrix(n, n, rowPointers, columns, values);
+    }
+
+    private void assertEigenpairs(LinearOperator a, Lanczos lanczos) {
+        double[] values = lanczos.getEigenvalues().getEntries();
+        for (int i = 0; i < values.length; i++) {
+            Vector v = lanczos.getEigenvector(i);
+            assertEquals(1, v.pnorm(2), delta);
+            assertArrayEquals(v.multiply(values[i]).getEntries(), a.apply(v).getEntries(), 0.0001);
+        }
+    }
+
+    @Test
+    public void testDiagonalMatrix() {
+        int n = 200;
+        double[][] entries = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            entries[i][i] = i + 1;
+        }
+        Matrix a = new Matrix(entries);
+        Lanczos lanczos = new Lanczos(a, 3);
+        assertTrue(lanczos.isConverged());
+        assertArrayEquals(new double[] {200, 199, 198}, lanczos.getEigenvalues().getEntries(), delta);
+        assertEquals(1, Math.abs(lanczos.getEigenvector(0).get(n - 1)), delta);
+        assertEigenpairs(a, lanczos);
+    }
+
+    @Test
+    public void testMatchesDenseSolver() {
+        Matrix a = TestData.randomSymmetricMatrix(new Random(1), 120);
+        Lanczos lanczos = new Lanczos(a, 4);
+        double[] all = SymmetricEigen.eigenvalues(a).getEntries();
+
+        // the dominant eigenvalues are at the two ends of the sorted spectrum
+        double[] dominant = new double[4];
+        int low = 0;
+        int high = all.length - 1;
+        for (int i = 0; i < 4; i++) {
+            dominant[i] = Math.abs(all[low]) > Math.abs(all[high]) ? all[low++] : all[high--];
+        }
+        assertArrayEquals(dominant, lanczos.getEigenvalues().getEntries(), delta);
+        assertEigenpairs(a, lanczos);
+    }
+
+    @Test
+    public void testSparseOperatorNeedsRestarts() {
+        // the largest eigenvalues are close together, so several restarts are needed
+        int n = 300;
+        SparseMatrix a = laplacian(n);
+        Lanczos lanczos = new Lanczos(a, 3, 1e-10, 20000);
+        assertTrue(lanczos.isConverged());
+        assertTrue(lanczos.getNumIterations() > 2 * 3 + Lanczos.MIN_EXTRA_VECTORS);
+        double[] values = lanczos.getEigenvalues().getEntries();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(2 - 2 * Math.cos((n - i) * Math.PI / (n + 1)), values[i], delta);
+        }
+        assertEigenpairs(a, lanczos);
+    }
+
+    @Test
+    public void testEigenvectorsAreOrthonormal() {
+        Lanczos lanczos = new Lanczos(TestData.randomSymmetricMatrix(new Random(2), 80), 5);
+        Matrix v = lanczos.getEigenvectors();
+        assertEquals(80, v.getNumRows());
+        assertEquals(5, v.getNumColumns());
+        double[][] gram = v.transpose().multiply(v).getEntries();
+        double[][] identity = Matrix.identityMatrix(5).getEntries();
+        for (int i = 0; i < 5; i++) {
+            assertArrayEquals(identity[i], gram[i], delta);
+        }
+    }
+
+    @Test
+    public void testMatrixFreeOperator() {
+        // A u = (u_0, 2 u_1, ..., n u_(n-1)) without storing a Matrix
+        final int n = 500;
+        LinearOperator a = new LinearOperator() {
+            public int getNumRows() {
+                return n;
+            }
+
+            public int getNumColumns() {
+                return n;
+            }
+
+            public Vector apply(Vector u) {
+                double[] result = new double[n];
+                for (int i = 0; i < n; i++) {
+                    result[i] = (i + 1) * u.get(i);
+                }
+                return new Vector(result);
+            }
+
+            public Vector applyTranspose(Vector u) {
+                return apply(u);
+            }
+        };
+        Lanczos lanczos = new Lanczos(a, 2);
+        assertArrayEquals(new double[] {500, 499}, lanczos.getEigenvalues().getEntries(), delta);
+    }
+
+    @Test
+    public void testWholeSpectrumOfSmallMatrix() {
+        Matrix a = new Matrix(new double[][] {
+            {2, 1, 0},
+            {1, 2, 1},
+            {0, 1, 2}
+        });
+        Lanczos lanczos = new Lanczos(a, 3);
+        assertTrue(lanczos.isConverged());
+        assertArrayEquals(new double[] {2 + Math.sqrt(2), 2, 2 - Math.sqrt(2)},
+                lanczos.getEigenvalues().getEntries(), delta);
+        assertEigenpairs(a, lanczos);
+    }
+
+    @Test
+    public void testStopsAtMaxIterations() {
+        Lanczos lanczos = new Lanczos(laplacian(1000), 2, 1e-12, 10);
+        assertFalse(lanczos.isConverged());
+        assertEquals(10, lanczos.getNumIterations());
+        assertEquals(2, lanczos.getEigenvalues().length());
+    }
+
+    @Test
+    public void testApplyMatchesMultiply() {
+        Matrix m = TestData.randomSymmetricMatrix(new Random(3), 6);
+        Vector u = new Vector(1, 2, 3, 4, 5, 6);
+        assertArrayEquals(m.multiply(u).getEntries(), m.apply(u).getEntries(), 0);
+        SparseMatrix s = new SparseMatrix(m);
+        assertArrayEquals(s.multiply(u).getEntries(), s.apply(u).getEntries(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonSquareOperator() {
+        new Lanczos(new Matrix(new double[2][3]), 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsLargeK() {
+        new Lanczos(Matrix.identityMatrix(3), 4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMaxIterationsBelowK() {
+        new Lanczos(Matrix.identityMatrix(5), 3, 1e-8, 2);
+    }
+}
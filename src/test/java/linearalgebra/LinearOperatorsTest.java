@@ -0,0 +1,155 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the LinearOperators class and LinearOperator.applyTranspose.
+ */
+public class LinearOperatorsTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    // checks both products of op against those of the Matrix it should equal
+    private void assertActsLike(Matrix expected, LinearOperator op) {
+        assertEquals(expected.getNumRows(), op.getNumRows());
+        assertEquals(expected.getNumColumns(), op.getNumColumns());
+        Random random = new Random(99);
+        Vector u = TestData.randomVector(random, expected.getNumColumns());
+        Vector v = TestData.randomVector(random, expected.getNumRows());
+        assertArrayEquals(expected.multiply(u).getEntries(), op.apply(u).getEntries(), delta);
+        assertArrayEquals(expected.transpose().multiply(v).getEntries(), op.applyTranspose(v).getEntries(), delta);
+    }
+
+    @Test
+    public void testMatrixApplyTranspose() {
+        Matrix a = new Matrix(new double[][] {
+            {1, 2, 3},
+            {4, 5, 6}
+        });
+        assertArrayEquals(new double[] {9, 12, 15}, a.applyTranspose(new Vector(1, 2)).getEntries(), delta);
+        assertActsLike(a, a);
+        Matrix minor = TestData.randomMatrix(new Random(1), 5, 4).minorView(2, 1);
+        assertActsLike(minor, minor);
+    }
+
+    @Test
+    public void testSparseApplyTranspose() {
+        Matrix a = new Matrix(new double[][] {
+            {1, 0, 2},
+            {0, 0, 3},
+            {4, 0, 0},
+            {0, 5, 0}
+        });
+        assertActsLike(a, new SparseMatrix(a));
+    }
+
+    @Test
+    public void testPreconditionerApplyTranspose() {
+        // <M u, w> = <u, M^T w> for a nonsymmetric M
+        SparseMatrix a = GMRESTest.convectionDiffusion(4);
+        IncompleteLU ilu = new IncompleteLU(a);
+        Vector u = TestData.randomVector(new Random(2), 16);
+        Vector w = TestData.randomVector(new Random(3), 16);
+        assertEquals(ilu.apply(u).dot(w), u.dot(ilu.applyTranspose(w)), delta);
+        JacobiPreconditioner jacobi = new JacobiPreconditioner(a);
+        assertArrayEquals(jacobi.apply(u).getEntries(), jacobi.applyTranspose(u).getEntries(), 0);
+    }
+
+    @Test
+    public void testIdentityAndDiagonal() {
+        assertActsLike(Matrix.identityMatrix(4), LinearOperators.identity(4));
+        Matrix d = new Matrix(new double[][] {
+            {2, 0, 0},
+            {0, -1, 0},
+            {0, 0, 5}
+        });
+        assertActsLike(d, LinearOperators.diagonal(new Vector(2, -1, 5)));
+    }
+
+    @Test
+    public void testScaledSumAndProduct() {
+        Random random = new Random(4);
+        Matrix a = TestData.randomMatrix(random, 4, 3);
+        Matrix b = TestData.randomMatrix(random, 4, 3);
+        Matrix c = TestData.randomMatrix(random, 3, 5);
+        assertActsLike(a.multiply(-2.5), LinearOperators.scaled(-2.5, a));
+        assertActsLike(a.add(b), LinearOperators.sum(a, b));
+        assertActsLike(a.multiply(c), LinearOperators.product(a, new SparseMatrix(c)));
+    }
+
+    @Test
+    public void testTransposeAndGram() {
+        Matrix a = TestData.randomMatrix(new Random(5), 6, 3);
+        LinearOperator t = LinearOperators.transpose(a);
+        assertActsLike(a.transpose(), t);
+        assertSame(a, LinearOperators.transpose(t));
+        assertActsLike(a.transpose().multiply(a), LinearOperators.gram(a));
+    }
+
+    @Test
+    public void testDiagonalPlusLowRank() {
+        Random random = new Random(6);
+        int n = 8;
+        Matrix u = TestData.randomMatrix(random, n, 2);
+        Matrix v = TestData.randomMatrix(random, n, 2);
+        Vector d = TestData.randomVector(random, n);
+        LinearOperator op = LinearOperators.sum(LinearOperators.diagonal(d),
+                LinearOperators.product(u, LinearOperators.transpose(v)));
+        double[][] dense = u.multiply(v.transpose()).getEntries();
+        for (int i = 0; i < n; i++) {
+            dense[i][i] += d.get(i);
+        }
+        assertActsLike(new Matrix(dense), op);
+    }
+
+    @Test
+    public void testKronecker() {
+        Random random = new Random(7);
+        Matrix a = TestData.randomMatrix(random, 2, 3);
+        Matrix b = TestData.randomMatrix(random, 4, 2);
+        double[][] dense = new double[8][6];
+        for (int i = 0; i < 2; i++) {
+            for (int j = 0; j < 3; j++) {
+                for (int k = 0; k < 4; k++) {
+                    for (int l = 0; l < 2; l++) {
+                        dense[i * 4 + k][j * 2 + l] = a.getEntry(i, j) * b.getEntry(k, l);
+                    }
+                }
+            }
+        }
+        assertActsLike(new Matrix(dense), LinearOperators.kronecker(a, b));
+    }
+
+    @Test
+    public void testSolversAcceptComposites() {
+        // least squares through the normal equations, never forming A^T A
+        Matrix a = TestData.randomMatrix(new Random(8), 30, 5);
+        Vector b = TestData.randomVector(new Random(9), 30);
+        ConjugateGradient cg = new ConjugateGradient(LinearOperators.gram(a));
+        Vector x = cg.solve(a.applyTranspose(b));
+        assertTrue(cg.isConverged());
+        assertArrayEquals(a.leastSquares(b).getEntries(), x.getEntries(), 0.0001);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSumRejectsDifferentShapes() {
+        LinearOperators.sum(Matrix.identityMatrix(2), Matrix.identityMatrix(3));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testProductRejectsIncompatibleShapes() {
+        LinearOperators.product(new Matrix(new double[2][3]), new Matrix(new double[2][3]));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testApplyRejectsWrongLength() {
+        LinearOperators.scaled(2, Matrix.identityMatrix(3)).applyTranspose(new Vector(1, 2));
+    }
+}
@@ -5,6 +5,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;  
 import static org.junit.Assert.assertTrue;
 
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
 import org.junit.Test;
 
 /**
@@ -24,6 +27,23 @@ public class MatrixTest {
         assertArrayEquals(entries, m.getEntries());
     }
     
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorLongerRow() {
+        new Matrix(new double[][] {
+            {1, 2},
+            {3, 4, 5},
+            {6, 7}
+        });
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConstructorShorterRow() {
+        new Matrix(new double[][] {
+            {1, 2},
+            {3}
+        });
+    }
+    
     @Test
     public void testCopyConstructor() {
         double[][] entries = {
@@ -48,6 +68,20 @@ public class MatrixTest {
         assertArrayEquals(entries, m.getEntries());
     }
 
+    @Test
+    public void testGetEntriesReturnsCopy() {
+        double[][] entries = {
+            {1, 2},
+            {3, 4}
+        };
+        Matrix m = new Matrix(entries);
+        // Changing the returned array should not change the Matrix
+        m.getEntries()[1][0] = 100;
+        entries[0][1] = 100;
+        assertEquals(3, m.getEntry(1, 0), delta);
+        assertEquals(2, m.getEntry(0, 1), delta);
+    }
+
     @Test
     public void testMinorMatrix() {
         double[][] entries = {
@@ -207,6 +241,63 @@ public class MatrixTest {
         Vector result = Matrix.getRow(matrix, invalidRow);  // This line should throw an exception
     }
 
+    @Test
+    public void testRowAndColumnViews() {
+        double[][] entries = {
+            {1, 2, 3},
+            {4, 5, 6}
+        };
+        Matrix m = new Matrix(entries);
+        assertArrayEquals(new double[] {4, 5, 6}, m.rowView(1).getEntries(), delta);
+        assertArrayEquals(new double[] {3, 6}, m.columnView(2).getEntries(), delta);
+        // views can be passed to Vector operations directly
+        assertEquals(1 * 3 + 4 * 6, Vector.dot(m.columnView(0), m.columnView(2)), delta);
+    }
+
+    @Test
+    public void testSubMatrixView() {
+        double[][] entries = {
+            {1, 2, 3},
+            {4, 5, 6},
+            {7, 8, 9}
+        };
+        Matrix m = new Matrix(entries);
+        Matrix view = m.subMatrixView(1, 1, 2, 2);
+        assertArrayEquals(new double[][] {{5, 6}, {8, 9}}, view.getEntries());
+        assertArrayEquals(new double[] {6, 9}, view.columnView(1).getEntries(), delta);
+        assertEquals(14, view.trace(), delta);
+        assertArrayEquals(new double[][] {{5, 8}, {6, 9}}, view.transpose().getEntries());
+        assertArrayEquals(new double[][] {{10, 12}, {16, 18}}, view.add(view).getEntries());
+        assertArrayEquals(new double[][] {{73, 84}, {112, 129}}, view.multiply(view).getEntries());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSubMatrixViewOutOfRange() {
+        Matrix m = new Matrix(new double[][] {{1, 2}, {3, 4}});
+        Matrix view = m.subMatrixView(1, 0, 2, 2);  // This line should throw an exception
+    }
+
+    @Test
+    public void testMinorView() {
+        double[][] entries = {
+            {1, 2, 3},
+            {4, 5, 6},
+            {7, 8, 10}
+        };
+        Matrix m = new Matrix(entries);
+        Matrix view = m.minorView(1, 1);
+        assertEquals(2, view.getNumRows());
+        assertEquals(10, view.getEntry(1, 1), delta);
+        assertArrayEquals(new double[][] {{1, 3}, {7, 10}}, view.getEntries());
+        assertArrayEquals(m.minorMatrix(1, 1).getEntries(), view.getEntries());
+        assertArrayEquals(new double[] {7, 10}, view.rowView(1).getEntries(), delta);
+        assertArrayEquals(new double[] {3, 10}, view.columnView(1).getEntries(), delta);
+        assertEquals(-11, view.determinant(), delta);
+        assertArrayEquals(new double[][] {{1, 7}, {3, 10}}, view.transpose().getEntries());
+        // a minor of a minor
+        assertArrayEquals(new double[][] {{10}}, view.minorView(0, 0).getEntries());
+    }
+
     @Test
     public void testGetEntry() {
         double[][] entries = {
@@ -1204,6 +1295,57 @@ public class MatrixTest {
         Matrix result = matrix1.multiply(matrix2); // Incompatible shapes, throw exception
     }
 
+    @Test
+    public void testMultiplyParallel() {
+        double[][] entries1 = {
+                {1, 2},
+                {3, 4},
+        };
+        double[][] entries2 = {
+                {5, 6},
+                {7, 8},
+        };
+        // small products are computed on the calling thread
+        Matrix result = new Matrix(entries1).multiplyParallel(new Matrix(entries2));
+        assertArrayEquals(new double[][] {{19, 22}, {43, 50}}, result.getEntries());
+    }
+
+    @Test
+    public void testMultiplyParallelLargeMatchesMultiply() {
+        Random random = new Random(3);
+        double[][] entries1 = new double[300][170];
+        double[][] entries2 = new double[170][250];
+        for (double[] row : entries1) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = random.nextDouble();
+            }
+        }
+        for (double[] row : entries2) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] = random.nextDouble();
+            }
+        }
+        Matrix matrix1 = new Matrix(entries1);
+        Matrix matrix2 = new Matrix(entries2);
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            double[][] expected = matrix1.multiply(matrix2).getEntries();
+            double[][] result = Matrix.multiplyParallel(matrix1, matrix2, pool).getEntries();
+            for (int row = 0; row < expected.length; row++) {
+                assertArrayEquals(expected[row], result[row], delta);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiplyParallel_Exception() {
+        Matrix matrix1 = new Matrix(new double[][] {{1, 2}, {3, 4}});
+        Matrix matrix2 = new Matrix(new double[][] {{1, 2}});
+        Matrix result = matrix1.multiplyParallel(matrix2); // Incompatible shapes, throw exception
+    }
+
     @Test
     public void testAddVectorToColumn_Case1() {
         double[][] entries1 = {
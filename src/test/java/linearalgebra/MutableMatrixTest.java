@@ -0,0 +1,121 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the MutableMatrix class.
+ */
+public class MutableMatrixTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    private MutableMatrix m() {
+        return new MutableMatrix(new double[][] {
+            {1, 2, 3},
+            {4, 5, 6}
+        });
+    }
+
+    private void assertEntries(double[][] expected, MutableMatrix actual) {
+        double[][] a = actual.getEntries();
+        assertEquals(expected.length, a.length);
+        for (int row = 0; row < expected.length; row++) {
+            assertArrayEquals(expected[row], a[row], delta);
+        }
+    }
+
+    @Test
+    public void testConstructors() {
+        MutableMatrix zeros = new MutableMatrix(2, 3);
+        assertEquals(2, zeros.getNumRows());
+        assertEquals(3, zeros.getNumColumns());
+        assertEntries(new double[][] {{0, 0, 0}, {0, 0, 0}}, zeros);
+
+        Matrix view = new Matrix(new double[][] {{1, 2, 3}, {4, 5, 6}, {7, 8, 9}}).minorView(1, 1);
+        assertEntries(new double[][] {{1, 3}, {7, 9}}, new MutableMatrix(view));
+    }
+
+    @Test
+    public void testSetEntry() {
+        MutableMatrix m = m();
+        m.setEntry(9, 1, 2);
+        assertEquals(9, m.getEntry(1, 2), delta);
+        assertEquals(1, m.getEntry(0, 0), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetEntryOutOfRange() {
+        m().setEntry(9, 2, 0);  // should throw an exception
+    }
+
+    @Test
+    public void testSetRowAndColumn() {
+        MutableMatrix m = m();
+        m.setRow(0, new Vector(7, 8, 9)).setColumn(1, new Vector(0, 0));
+        assertEntries(new double[][] {{7, 0, 9}, {4, 0, 6}}, m);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetRowWrongLength() {
+        m().setRow(0, new Vector(1, 2));  // should throw an exception
+    }
+
+    @Test
+    public void testAddVectorToRowAndColumn() {
+        MutableMatrix m = m();
+        m.addVectorToRow(new Vector(1, 1, 1), 1).addVectorToColumn(new Vector(10, 20), 0);
+        assertEntries(new double[][] {{11, 2, 3}, {25, 6, 7}}, m);
+    }
+
+    @Test
+    public void testRowOperations() {
+        MutableMatrix m = m();
+        m.swapRows(0, 1);
+        assertEntries(new double[][] {{4, 5, 6}, {1, 2, 3}}, m);
+        m.scaleRow(1, 4);
+        assertEntries(new double[][] {{4, 5, 6}, {4, 8, 12}}, m);
+        m.addRowMultiple(1, 0, -1);
+        assertEntries(new double[][] {{4, 5, 6}, {0, 3, 6}}, m);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSwapRowsOutOfRange() {
+        m().swapRows(0, 2);  // should throw an exception
+    }
+
+    @Test
+    public void testElementwiseInPlace() {
+        MutableMatrix m = m();
+        Matrix b = new Matrix(new double[][] {{1, 1, 1}, {2, 2, 2}});
+        m.addInPlace(b);
+        assertEntries(new double[][] {{2, 3, 4}, {6, 7, 8}}, m);
+        m.subtractInPlace(b).scaleInPlace(2);
+        assertEntries(new double[][] {{2, 4, 6}, {8, 10, 12}}, m);
+        // read the operand through a view: the lower left 2-by-3 block of a 3-by-4 Matrix
+        Matrix big = new Matrix(new double[][] {{9, 9, 9, 9}, {1, 2, 3, 9}, {4, 5, 6, 9}});
+        m.axpy(-2, big.subMatrixView(1, 0, 2, 3));
+        assertEntries(new double[][] {{0, 0, 0}, {0, 0, 0}}, m);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddInPlaceWrongShape() {
+        m().addInPlace(Matrix.identityMatrix(2));  // should throw an exception
+    }
+
+    @Test
+    public void testConversions() {
+        MutableMatrix m = m();
+        Matrix copy = m.toMatrix();
+        Matrix view = m.asMatrix();
+        Vector row = m.rowView(1);
+        Vector column = m.columnView(2);
+        m.setEntry(0, 1, 2);
+        assertEquals(6, copy.getEntry(1, 2), delta);
+        assertEquals(0, view.getEntry(1, 2), delta);
+        assertArrayEquals(new double[] {4, 5, 0}, row.getEntries(), delta);
+        assertArrayEquals(new double[] {3, 0}, column.getEntries(), delta);
+    }
+}
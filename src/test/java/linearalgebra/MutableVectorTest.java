@@ -0,0 +1,84 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the MutableVector class.
+ */
+public class MutableVectorTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    @Test
+    public void testConstructors() {
+        assertArrayEquals(new double[] {0, 0, 0}, new MutableVector(3).getEntries(), delta);
+        double[] entries = {1, 2, 3};
+        MutableVector u = new MutableVector(entries);
+        entries[0] = 10;
+        assertEquals(1, u.get(0), delta);
+        assertArrayEquals(new double[] {2, 3}, new MutableVector(new Vector(1, 2, 3).sliceView(1, 3)).getEntries(), delta);
+    }
+
+    @Test
+    public void testSetEntry() {
+        MutableVector u = new MutableVector(1, 2, 3);
+        assertEquals(u, u.setEntry(1, 5));
+        assertArrayEquals(new double[] {1, 5, 3}, u.getEntries(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSetEntryOutOfRange() {
+        new MutableVector(1, 2, 3).setEntry(3, 5);  // should throw an exception
+    }
+
+    @Test
+    public void testAddAndSubtractInPlace() {
+        MutableVector u = new MutableVector(1, 2, 3);
+        u.addInPlace(new Vector(1, 1, 1)).subtractInPlace(new Vector(0, 2, 0));
+        assertArrayEquals(new double[] {2, 1, 4}, u.getEntries(), delta);
+    }
+
+    @Test
+    public void testScaleInPlace() {
+        MutableVector u = new MutableVector(1, -2, 3);
+        MutableVector.scaleInPlace(u, -2);
+        assertArrayEquals(new double[] {-2, 4, -6}, u.getEntries(), delta);
+    }
+
+    @Test
+    public void testAxpy() {
+        // long enough for the SIMD kernels, and x read through a strided column view
+        int n = 77;
+        double[] w = new double[n];
+        double[] grid = new double[n * 3];
+        for (int i = 0; i < n; i++) {
+            w[i] = i;
+            grid[i * 3 + 1] = 2 * i;
+        }
+        Vector x = new Matrix(n, 3, grid).columnView(1);
+        MutableVector u = new MutableVector(w).axpy(-0.5, x);
+        for (int i = 0; i < n; i++) {
+            assertEquals(0, u.get(i), delta);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAxpyWrongLength() {
+        new MutableVector(1, 2, 3).axpy(1, new Vector(1, 2));  // should throw an exception
+    }
+
+    @Test
+    public void testConversions() {
+        MutableVector u = new MutableVector(1, 2, 3);
+        Vector copy = u.toVector();
+        Vector view = u.asVector();
+        u.setEntry(0, 7);
+        assertEquals(1, copy.get(0), delta);
+        assertEquals(7, view.get(0), delta);
+        assertEquals(7 + 4 + 9, view.dot(new Vector(1, 2, 3)), delta);
+        assertEquals("[7.0, 2.0, 3.0]", u.toString());
+    }
+}
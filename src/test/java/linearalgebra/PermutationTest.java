@@ -0,0 +1,161 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the Permutation class.
+ */
+public class PermutationTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    private static Permutation randomPermutation(Random random, int n) {
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = index[i];
+            index[i] = index[j];
+            index[j] = temp;
+        }
+        return new Permutation(index);
+    }
+
+    @Test
+    public void testDenseRoundTrip() {
+        Permutation p = new Permutation(2, 0, 1);
+        Matrix dense = p.toMatrix();
+        TestData.assertMatrixEquals(new Matrix(new double[][] {
+            {0, 0, 1},
+            {1, 0, 0},
+            {0, 1, 0}}), dense, delta);
+        assertTrue(dense.isPermutationMatrix());
+        assertArrayEquals(new int[] {2, 0, 1}, new Permutation(dense).toArray());
+        assertEquals(3, p.size());
+        assertEquals(0, p.get(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRepeatedIndex() {
+        new Permutation(0, 2, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsIndexOutOfRange() {
+        new Permutation(0, 3, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonPermutationMatrix() {
+        new Permutation(new Matrix(new double[][] {
+            {1, 0},
+            {1, 0}}));
+    }
+
+    @Test
+    public void testIsPermutationMatrix() {
+        assertFalse(new Matrix(new double[][] {
+            {1, 0},
+            {0, 2}}).isPermutationMatrix());
+        assertFalse(new Matrix(new double[][] {
+            {0, 1},
+            {0, 1}}).isPermutationMatrix());
+        assertTrue(Matrix.identityMatrix(5).isPermutationMatrix());
+        assertTrue(randomPermutation(new Random(1), 40).toMatrix().isPermutationMatrix());
+    }
+
+    @Test
+    public void testIdentity() {
+        Permutation identity = Permutation.identity(4);
+        assertTrue(identity.isIdentity());
+        TestData.assertMatrixEquals(Matrix.identityMatrix(4), identity.toMatrix(), delta);
+        assertEquals(1, identity.sign());
+        assertFalse(new Permutation(1, 0, 2).isIdentity());
+    }
+
+    @Test
+    public void testSignMatchesDeterminant() {
+        Random random = new Random(2);
+        for (int trial = 0; trial < 10; trial++) {
+            Permutation p = randomPermutation(random, 6);
+            assertEquals(p.toMatrix().determinant(), p.determinant(), delta);
+        }
+        assertEquals(-1, new Permutation(1, 0, 2).sign());
+        assertEquals(1, new Permutation(1, 2, 0).sign());
+    }
+
+    @Test
+    public void testApplyMatchesDense() {
+        Random random = new Random(3);
+        Permutation p = randomPermutation(random, 10);
+        Vector u = TestData.randomMatrix(random, 1, 10).getRow(0);
+        Matrix dense = p.toMatrix();
+
+        assertArrayEquals(dense.multiply(u).getEntries(), p.multiply(u).getEntries(), 0);
+        assertArrayEquals(dense.applyTranspose(u).getEntries(), p.applyTranspose(u).getEntries(), 0);
+        assertArrayEquals(u.getEntries(), p.applyTranspose(p.apply(u)).getEntries(), 0);
+    }
+
+    @Test
+    public void testMultiplyMatrixMatchesDense() {
+        Random random = new Random(4);
+        Permutation p = randomPermutation(random, 7);
+        Matrix dense = p.toMatrix();
+        Matrix tall = TestData.randomMatrix(random, 7, 3);
+        Matrix wide = TestData.randomMatrix(random, 4, 7);
+
+        TestData.assertMatrixEquals(dense.multiply(tall), p.multiply(tall), delta);
+        TestData.assertMatrixEquals(wide.multiply(dense), wide.multiply(p), delta);
+    }
+
+    @Test
+    public void testMultiplyViews() {
+        Random random = new Random(5);
+        Permutation p = randomPermutation(random, 4);
+        Matrix dense = p.toMatrix();
+        Matrix a = TestData.randomMatrix(random, 6, 6);
+        Matrix sub = a.subMatrixView(1, 2, 4, 4);
+        Matrix minor = a.minorView(5, 1).subMatrixView(0, 0, 4, 4);
+
+        TestData.assertMatrixEquals(dense.multiply(sub), p.multiply(sub), delta);
+        TestData.assertMatrixEquals(sub.multiply(dense), sub.multiply(p), delta);
+        TestData.assertMatrixEquals(dense.multiply(minor), p.multiply(minor), delta);
+        TestData.assertMatrixEquals(minor.multiply(dense), minor.multiply(p), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiplyRejectsWrongShape() {
+        Permutation.identity(3).multiply(Matrix.identityMatrix(4));
+    }
+
+    @Test
+    public void testCompositionAndInverse() {
+        Random random = new Random(5);
+        Permutation p = randomPermutation(random, 12);
+        Permutation q = randomPermutation(random, 12);
+
+        TestData.assertMatrixEquals(p.toMatrix().multiply(q.toMatrix()), p.multiply(q).toMatrix(), delta);
+        TestData.assertMatrixEquals(p.toMatrix().transpose(), p.inverse().toMatrix(), delta);
+        assertTrue(p.multiply(p.inverse()).isIdentity());
+        assertTrue(p.transpose().multiply(p).isIdentity());
+    }
+
+    @Test
+    public void testLUPermutation() {
+        Matrix a = TestData.randomMatrix(new Random(6), 9, 9);
+        LUDecomposition lu = new LUDecomposition(a);
+        Permutation p = lu.getPermutation();
+
+        assertArrayEquals(lu.getPivot(), p.toArray());
+        TestData.assertMatrixEquals(lu.getL().multiply(lu.getU()), p.multiply(a), delta);
+    }
+}
@@ -0,0 +1,113 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the QRDecomposition class and Matrix.leastSquares.
+ */
+public class QRDecompositionTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    @Test
+    public void testFactorsReproduceMatrix() {
+        Matrix a = new Matrix(new double[][] {
+            {12, -51, 4},
+            {6, 167, -68},
+            {-4, 24, -41}
+        });
+        QRDecomposition qr = new QRDecomposition(a);
+        TestData.assertMatrixEquals(a, qr.getQ().multiply(qr.getR()), delta);
+        assertEquals(14, Math.abs(qr.getR().getEntry(0, 0)), delta);
+        assertEquals(175, Math.abs(qr.getR().getEntry(1, 1)), delta);
+        assertEquals(35, Math.abs(qr.getR().getEntry(2, 2)), delta);
+    }
+
+    @Test
+    public void testBlockedFactorsOfTallMatrix() {
+        // several blocks of columns, so the blocked update is used
+        Random random = new Random(3);
+        Matrix a = TestData.randomMatrix(random, 150, QRDecomposition.BLOCK_SIZE * 2 + 7);
+        QRDecomposition qr = new QRDecomposition(a);
+        Matrix q = qr.getQ();
+        Matrix r = qr.getR();
+        for (int row = 1; row < r.getNumRows(); row++) {
+            for (int col = 0; col < row; col++) {
+                assertEquals(0, r.getEntry(row, col), 0);
+            }
+        }
+        TestData.assertMatrixEquals(a, q.multiply(r), delta);
+        TestData.assertMatrixEquals(Matrix.identityMatrix(a.getNumColumns()), q.transpose().multiply(q), delta);
+    }
+
+    @Test
+    public void testApplyQTranspose() {
+        Random random = new Random(5);
+        Matrix a = TestData.randomMatrix(random, 40, 10);
+        QRDecomposition qr = new QRDecomposition(a);
+        Vector b = TestData.randomMatrix(random, 40, 1).getColumn(0);
+        Vector qtb = qr.applyQTranspose(b);
+        // Q is orthogonal, so lengths are preserved and Q undoes Q^T
+        assertEquals(b.magnitude(), qtb.magnitude(), delta);
+        assertArrayEquals(b.getEntries(), qr.applyQ(qtb).getEntries(), delta);
+        // the first n entries agree with the thin Q
+        assertArrayEquals(qr.getQ().transpose().multiply(b).getEntries(), qtb.sliceView(0, 10).getEntries(), delta);
+    }
+
+    @Test
+    public void testLeastSquaresLine() {
+        // fit y = c0 + c1 t through (0, 1), (1, 2), (2, 2), (3, 4)
+        Matrix a = new Matrix(new double[][] {{1, 0}, {1, 1}, {1, 2}, {1, 3}});
+        Vector y = new Vector(1, 2, 2, 4);
+        assertArrayEquals(new double[] {0.9, 0.9}, Matrix.leastSquares(a, y).getEntries(), delta);
+        assertArrayEquals(new double[] {0.9, 0.9}, a.leastSquares(y).getEntries(), delta);
+    }
+
+    @Test
+    public void testLeastSquaresMatchesNormalEquations() {
+        Random random = new Random(7);
+        Matrix a = TestData.randomMatrix(random, 200, 45);
+        Vector b = TestData.randomMatrix(random, 200, 1).getColumn(0);
+        Matrix at = a.transpose();
+        Vector expected = new LUDecomposition(at.multiply(a)).solve(at.multiply(b));
+        assertArrayEquals(expected.getEntries(), a.leastSquares(b).getEntries(), delta);
+    }
+
+    @Test
+    public void testSolveSquareAndMatrix() {
+        Random random = new Random(9);
+        Matrix a = TestData.randomMatrix(random, 12, 12);
+        Matrix x = TestData.randomMatrix(random, 12, 3);
+        TestData.assertMatrixEquals(x, new QRDecomposition(a).solve(a.multiply(x)), delta);
+    }
+
+    @Test
+    public void testRankDeficient() {
+        Matrix a = new Matrix(new double[][] {{1, 2}, {2, 4}, {3, 6}});
+        assertFalse(new QRDecomposition(a).isFullRank());
+        assertTrue(new QRDecomposition(Matrix.identityMatrix(3)).isFullRank());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLeastSquaresRankDeficient() {
+        Matrix a = new Matrix(new double[][] {{1, 2}, {2, 4}, {3, 6}});
+        Vector x = a.leastSquares(new Vector(1, 2, 3));  // should throw an exception
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWideMatrix() {
+        QRDecomposition qr = new QRDecomposition(new Matrix(new double[][] {{1, 2, 3}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLeastSquaresWrongLength() {
+        Vector x = Matrix.identityMatrix(3).leastSquares(new Vector(1, 2));
+    }
+}
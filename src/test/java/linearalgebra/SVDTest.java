@@ -0,0 +1,163 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the SVD class.
+ */
+public class SVDTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    // a rows-by-cols Matrix with the given singular values and random singular vectors
+    private static Matrix withSingularValues(Random random, int rows, int cols, double ... values) {
+        Matrix u = new QRDecomposition(TestData.randomMatrix(random, rows, values.length)).getQ();
+        Matrix v = new QRDecomposition(TestData.randomMatrix(random, cols, values.length)).getQ();
+        double[][] s = new double[values.length][values.length];
+        for (int i = 0; i < values.length; i++) {
+            s[i][i] = values[i];
+        }
+        return u.multiply(new Matrix(s)).multiply(v.transpose());
+    }
+
+    private void assertOrthonormalColumns(Matrix m) {
+        int p = m.getNumColumns();
+        TestData.assertMatrixEquals(Matrix.identityMatrix(p), m.transpose().multiply(m), delta);
+    }
+
+    private void assertReproduces(Matrix a, SVD svd) {
+        TestData.assertMatrixEquals(a, svd.getU().multiply(svd.getS()).multiply(svd.getV().transpose()), delta);
+        assertOrthonormalColumns(svd.getU());
+        assertOrthonormalColumns(svd.getV());
+    }
+
+    @Test
+    public void testKnownSingularValues() {
+        Matrix a = new Matrix(new double[][] {
+            {3, 0},
+            {4, 5}
+        });
+        SVD svd = new SVD(a);
+        assertArrayEquals(new double[] {Math.sqrt(45), Math.sqrt(5)}, svd.getSingularValues().getEntries(), delta);
+        assertReproduces(a, svd);
+        assertEquals(Math.sqrt(45), svd.norm2(), delta);
+        assertEquals(3, svd.conditionNumber(), delta);
+    }
+
+    @Test
+    public void testSquareMatrix() {
+        Matrix a = TestData.randomMatrix(new Random(1), 12, 12);
+        SVD svd = new SVD(a);
+        assertReproduces(a, svd);
+        assertEquals(12, svd.rank());
+    }
+
+    @Test
+    public void testTallMatrix() {
+        Matrix a = TestData.randomMatrix(new Random(2), 40, 7);
+        SVD svd = new SVD(a);
+        assertEquals(40, svd.getU().getNumRows());
+        assertEquals(7, svd.getU().getNumColumns());
+        assertEquals(7, svd.getV().getNumRows());
+        assertReproduces(a, svd);
+    }
+
+    @Test
+    public void testWideMatrix() {
+        Matrix a = TestData.randomMatrix(new Random(3), 5, 30);
+        SVD svd = new SVD(a);
+        assertEquals(5, svd.getU().getNumRows());
+        assertEquals(30, svd.getV().getNumRows());
+        assertEquals(5, svd.getV().getNumColumns());
+        assertReproduces(a, svd);
+    }
+
+    @Test
+    public void testSingularValuesAreDecreasing() {
+        double[] s = new SVD(TestData.randomMatrix(new Random(4), 20, 15)).getSingularValues().getEntries();
+        for (int i = 1; i < s.length; i++) {
+            assertTrue(s[i - 1] >= s[i]);
+        }
+    }
+
+    @Test
+    public void testMatchesConstructedSpectrum() {
+        Matrix a = withSingularValues(new Random(5), 25, 10, 9, 4, 1, 0.5);
+        SVD svd = new SVD(a);
+        double[] s = svd.getSingularValues().getEntries();
+        assertEquals(9, s[0], delta);
+        assertEquals(4, s[1], delta);
+        assertEquals(1, s[2], delta);
+        assertEquals(0.5, s[3], delta);
+        assertEquals(4, svd.rank());
+    }
+
+    @Test
+    public void testRankDeficientKeepsOrthonormalU() {
+        // the zero rows and columns give exactly zero singular values
+        Matrix a = new Matrix(new double[][] {
+            {1, 2, 0},
+            {2, 4, 0},
+            {0, 0, 0}
+        });
+        SVD svd = new SVD(a);
+        assertEquals(1, svd.rank());
+        assertEquals(5, svd.norm2(), delta);
+        assertReproduces(a, svd);
+    }
+
+    @Test
+    public void testZeroMatrix() {
+        SVD svd = new SVD(new Matrix(new double[3][2]));
+        assertEquals(0, svd.rank());
+        assertOrthonormalColumns(svd.getU());
+    }
+
+    @Test
+    public void testTruncatedFindsTopSingularValues() {
+        Random random = new Random(6);
+        Matrix a = withSingularValues(random, 300, 120, 50, 30, 20, 10, 5, 1, 0.1, 0.01);
+        SVD svd = SVD.truncated(a, 3);
+        assertEquals(300, svd.getU().getNumRows());
+        assertEquals(3, svd.getU().getNumColumns());
+        assertEquals(120, svd.getV().getNumRows());
+        assertEquals(3, svd.getV().getNumColumns());
+        assertArrayEquals(new double[] {50, 30, 20}, svd.getSingularValues().getEntries(), delta);
+        assertOrthonormalColumns(svd.getU());
+        assertOrthonormalColumns(svd.getV());
+    }
+
+    @Test
+    public void testTruncatedMatchesFullSubspace() {
+        Random random = new Random(7);
+        Matrix a = withSingularValues(random, 200, 80, 10, 8, 6, 4, 2);
+        SVD svd = SVD.truncated(a, 5, 5, 1, new Random(8));
+        // a has rank 5, so the rank-5 truncation reproduces it
+        assertReproduces(a, svd);
+    }
+
+    @Test
+    public void testTruncatedFallsBackToFullSvd() {
+        Matrix a = TestData.randomMatrix(new Random(9), 15, 12);
+        SVD truncated = SVD.truncated(a, 4);
+        double[] full = new SVD(a).getSingularValues().getEntries();
+        assertArrayEquals(new double[] {full[0], full[1], full[2], full[3]},
+                truncated.getSingularValues().getEntries(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedRejectsLargeK() {
+        SVD.truncated(TestData.randomMatrix(new Random(10), 5, 4), 5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTruncatedRejectsNegativeOversampling() {
+        SVD.truncated(TestData.randomMatrix(new Random(11), 50, 40), 2, -1, 0, new Random(0));
+    }
+}
@@ -0,0 +1,242 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the SparseMatrix class.
+ */
+public class SparseMatrixTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    private Matrix dense = new Matrix(new double[][] {
+        {0, 2, 0, 0},
+        {0, 0, 0, 0},
+        {1, 0, 0, 3},
+        {0, 0, 4, 0}
+    });
+
+    // a rows-by-cols Matrix with roughly one nonzero entry in ten
+    private static Matrix randomSparseMatrix(Random random, int rows, int cols) {
+        double[][] entries = new double[rows][cols];
+        for (double[] row : entries) {
+            for (int i = 0; i < cols; i++) {
+                if (random.nextInt(10) == 0) {
+                    row[i] = random.nextDouble() * 2 - 1;
+                }
+            }
+        }
+        return new Matrix(entries);
+    }
+
+    @Test
+    public void testFromMatrix() {
+        SparseMatrix s = new SparseMatrix(dense);
+        assertEquals(4, s.getNumRows());
+        assertEquals(4, s.getNumColumns());
+        assertEquals(4, s.getNumNonzero());
+        assertEquals(2, s.getEntry(0, 1), delta);
+        assertEquals(3, s.getEntry(2, 3), delta);
+        assertEquals(0, s.getEntry(1, 2), delta);
+        assertEquals(0, s.getEntry(2, 1), delta);
+    }
+
+    @Test
+    public void testFromViews() {
+        Matrix sub = dense.subMatrixView(1, 1, 3, 3);
+        TestData.assertMatrixEquals(sub, new SparseMatrix(sub).toMatrix(), delta);
+
+        Matrix minor = dense.minorView(0, 2);
+        SparseMatrix s = new SparseMatrix(minor);
+        assertEquals(2, s.getNumNonzero());
+        TestData.assertMatrixEquals(minor, s.toMatrix(), delta);
+    }
+
+    @Test
+    public void testToMatrix() {
+        TestData.assertMatrixEquals(dense, new SparseMatrix(dense).toMatrix(), delta);
+        TestData.assertMatrixEquals(dense, SparseMatrix.toMatrix(new SparseMatrix(dense)), delta);
+    }
+
+    @Test
+    public void testFromArrays() {
+        SparseMatrix s = new SparseMatrix(4, 4,
+            new int[] {0, 1, 1, 3, 4},
+            new int[] {1, 0, 3, 2},
+            new double[] {2, 1, 3, 4});
+        TestData.assertMatrixEquals(dense, s.toMatrix(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromArraysUnsortedColumns() {
+        SparseMatrix s = new SparseMatrix(2, 2,
+            new int[] {0, 2, 2},
+            new int[] {1, 0},
+            new double[] {1, 1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testFromArraysColumnOutOfRange() {
+        SparseMatrix s = new SparseMatrix(2, 2,
+            new int[] {0, 1, 1},
+            new int[] {2},
+            new double[] {1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testGetEntryOutOfRange() {
+        new SparseMatrix(dense).getEntry(4, 0);
+    }
+
+    @Test
+    public void testTranspose() {
+        Random random = new Random(3);
+        Matrix m = randomSparseMatrix(random, 30, 20);
+        TestData.assertMatrixEquals(m.transpose(), new SparseMatrix(m).transpose().toMatrix(), delta);
+    }
+
+    @Test
+    public void testMultiplyVector() {
+        Vector u = new Vector(1, 2, 3, 4);
+        assertArrayEquals(new double[] {4, 0, 13, 12}, new SparseMatrix(dense).multiply(u).getEntries(), delta);
+
+        Random random = new Random(5);
+        Matrix m = randomSparseMatrix(random, 50, 40);
+        double[] x = new double[40];
+        for (int i = 0; i < 40; i++) {
+            x[i] = random.nextDouble();
+        }
+        Vector v = new Vector(x);
+        assertArrayEquals(m.multiply(v).getEntries(), SparseMatrix.multiply(new SparseMatrix(m), v).getEntries(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiplyVector_Exception() {
+        Vector v = new SparseMatrix(dense).multiply(new Vector(1, 2, 3));  // should throw an exception
+    }
+
+    @Test
+    public void testMultiplyMatrix() {
+        Random random = new Random(7);
+        Matrix a = randomSparseMatrix(random, 40, 30);
+        Matrix b = randomSparseMatrix(random, 30, 25).add(Matrix.identityMatrix(30).subMatrixView(0, 0, 30, 25));
+        TestData.assertMatrixEquals(a.multiply(b), new SparseMatrix(a).multiply(b), delta);
+
+        Matrix big = TestData.randomMatrix(random, 32, 32);
+        Matrix sub = big.subMatrixView(2, 3, 30, 25);
+        Matrix minor = big.minorView(4, 7).subMatrixView(1, 0, 30, 25);
+        TestData.assertMatrixEquals(a.multiply(sub), new SparseMatrix(a).multiply(sub), delta);
+        TestData.assertMatrixEquals(a.multiply(minor), new SparseMatrix(a).multiply(minor), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiplyMatrix_Exception() {
+        Matrix m = new SparseMatrix(dense).multiply(Matrix.identityMatrix(3));  // should throw an exception
+    }
+
+    // checks that s is valid CSR (sorted, in range), by rebuilding it through the checked constructor
+    private static void assertValidCsr(SparseMatrix s) {
+        new SparseMatrix(s.getNumRows(), s.getNumColumns(), s.rowPointers(), s.columnIndices(), s.values());
+    }
+
+    @Test
+    public void testMultiplySparse() {
+        SparseMatrix s = new SparseMatrix(dense);
+        TestData.assertMatrixEquals(dense.multiply(dense), s.multiply(s).toMatrix(), delta);
+
+        Random random = new Random(4);
+        Matrix a = randomSparseMatrix(random, 30, 45);
+        Matrix b = randomSparseMatrix(random, 45, 20);
+        SparseMatrix product = new SparseMatrix(a).multiply(new SparseMatrix(b));
+
+        assertValidCsr(product);
+        assertEquals(20, product.getNumColumns());
+        TestData.assertMatrixEquals(a.multiply(b), product.toMatrix(), delta);
+        assertEquals(new SparseMatrix(a.multiply(b)).getNumNonzero(), product.getNumNonzero());
+    }
+
+    @Test
+    public void testMultiplySparseParallel() {
+        // enough multiply-adds to be split into several tasks
+        Random random = new Random(5);
+        Matrix a = randomSparseMatrix(random, 400, 300);
+        Matrix b = randomSparseMatrix(random, 300, 350);
+        SparseMatrix sa = new SparseMatrix(a);
+        SparseMatrix sb = new SparseMatrix(b);
+
+        SparseMatrix parallel = SparseMatrix.multiply(sa, sb, new ForkJoinPool(4));
+        SparseMatrix serial = SparseMatrix.multiply(sa, sb, new ForkJoinPool(1));
+
+        assertValidCsr(parallel);
+        TestData.assertMatrixEquals(a.multiply(b), parallel.toMatrix(), delta);
+        assertArrayEquals(serial.rowPointers(), parallel.rowPointers());
+        assertArrayEquals(serial.columnIndices(), parallel.columnIndices());
+        assertArrayEquals(serial.values(), parallel.values(), 0);
+    }
+
+    @Test
+    public void testMultiplySparseDropsCancelledEntries() {
+        SparseMatrix a = new SparseMatrix(new Matrix(new double[][] {
+            {1, 1},
+            {2, 0}}));
+        SparseMatrix b = new SparseMatrix(new Matrix(new double[][] {
+            {1, 3},
+            {-1, 4}}));
+        SparseMatrix product = a.multiply(b);
+
+        assertValidCsr(product);
+        assertEquals(3, product.getNumNonzero());
+        TestData.assertMatrixEquals(new Matrix(new double[][] {
+            {0, 7},
+            {2, 6}}), product.toMatrix(), delta);
+    }
+
+    @Test
+    public void testMultiplySparseWide() {
+        // more columns than DENSE_ACCUMULATOR_COLUMNS, so the rows are added up in hash tables
+        Random random = new Random(6);
+        int cols = SparseMatrix.DENSE_ACCUMULATOR_COLUMNS + 5000;
+        Matrix a = randomSparseMatrix(random, 40, 200);
+        int[] rowPointers = new int[201];
+        int[] columnIndices = new int[200 * 8];
+        double[] values = new double[200 * 8];
+        for (int row = 0; row < 200; row++) {
+            // 8 increasing columns, spread over the whole width
+            int col = random.nextInt(1000);
+            for (int i = row * 8; i < row * 8 + 8; i++) {
+                columnIndices[i] = col;
+                values[i] = random.nextDouble() * 2 - 1;
+                col += 1 + random.nextInt(cols / 8 - 1000);
+            }
+            rowPointers[row + 1] = row * 8 + 8;
+        }
+        SparseMatrix b = new SparseMatrix(200, cols, rowPointers, columnIndices, values);
+        SparseMatrix product = new SparseMatrix(a).multiply(b);
+
+        assertValidCsr(product);
+        for (int row = 0; row < 40; row++) {
+            double[] expected = new double[cols];
+            for (int k = 0; k < 200; k++) {
+                for (int i = rowPointers[k]; i < rowPointers[k + 1]; i++) {
+                    expected[columnIndices[i]] += a.getEntry(row, k) * values[i];
+                }
+            }
+            double[] actual = new double[cols];
+            for (int i = product.rowPointers()[row]; i < product.rowPointers()[row + 1]; i++) {
+                actual[product.columnIndices()[i]] = product.values()[i];
+            }
+            assertArrayEquals(expected, actual, delta);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiplySparse_Exception() {
+        new SparseMatrix(dense).multiply(new SparseMatrix(Matrix.identityMatrix(3)));
+    }
+}
@@ -0,0 +1,177 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the SparseVector class.
+ */
+public class SparseVectorTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    /**
+     * a random dense Vector with about density * length nonzero entries
+     */
+    private static Vector randomSparse(Random random, int length, double density) {
+        double[] entries = new double[length];
+        for (int i = 0; i < length; i++) {
+            if (random.nextDouble() < density) {
+                entries[i] = random.nextDouble() * 2 - 1;
+            }
+        }
+        return new Vector(entries);
+    }
+
+    @Test
+    public void testConstructorSortsAndDropsZeros() {
+        SparseVector s = new SparseVector(10, new int[] {7, 2, 5, 0}, new double[] {3, 1, 0, 4});
+
+        assertEquals(10, s.length());
+        assertEquals(3, s.getNumNonZeros());
+        assertArrayEquals(new int[] {0, 2, 7}, s.getIndices());
+        assertArrayEquals(new double[] {4, 1, 3}, s.getValues(), 0);
+        assertEquals(3, s.get(7), 0);
+        assertEquals(0, s.get(5), 0);
+        assertArrayEquals(new double[] {4, 0, 1, 0, 0, 0, 0, 3, 0, 0}, s.toVector().getEntries(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRepeatedIndex() {
+        new SparseVector(5, new int[] {3, 1, 3}, new double[] {1, 2, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsIndexOutOfRange() {
+        new SparseVector(5, new int[] {1, 5}, new double[] {1, 2});
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testGetOutOfRange() {
+        new SparseVector(5, new int[] {1}, new double[] {1}).get(5);
+    }
+
+    @Test
+    public void testFromVector() {
+        Vector u = new Vector(0, 2, 0, 0, -1);
+        SparseVector s = new SparseVector(u);
+
+        assertArrayEquals(new int[] {1, 4}, s.getIndices());
+        assertArrayEquals(u.getEntries(), s.toVector().getEntries(), 0);
+    }
+
+    @Test
+    public void testDotMatchesDense() {
+        Random random = new Random(1);
+        Vector a = randomSparse(random, 1000, 0.05);
+        Vector b = randomSparse(random, 1000, 0.05);
+        SparseVector sa = new SparseVector(a);
+        SparseVector sb = new SparseVector(b);
+
+        assertEquals(a.dot(b), sa.dot(sb), delta);
+        assertEquals(a.dot(b), sa.dot(b), delta);
+        assertEquals(a.dot(b), b.dot(sa), delta);
+        assertEquals(0, sa.dot(new SparseVector(1000, new int[0], new double[0])), 0);
+    }
+
+    @Test
+    public void testDotOfView() {
+        Matrix m = new Matrix(new double[][] {
+            {1, 2, 3},
+            {4, 5, 6}});
+        SparseVector s = new SparseVector(3, new int[] {0, 2}, new double[] {2, -1});
+
+        assertEquals(2 * 4 - 6, m.getRow(1).dot(s), 0);
+        assertEquals(2 * 1 - 3, s.dot(m.getRow(0)), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDotRejectsDifferentLengths() {
+        SparseVector.basisVector(4, 1).dot(SparseVector.basisVector(5, 1));
+    }
+
+    @Test
+    public void testAxpy() {
+        Random random = new Random(2);
+        Vector dense = randomSparse(random, 200, 1);
+        Vector sparse = randomSparse(random, 200, 0.1);
+
+        MutableVector u = new MutableVector(dense);
+        u.axpy(-2.5, new SparseVector(sparse));
+        assertArrayEquals(dense.add(sparse.multiply(-2.5)).getEntries(), u.toVector().getEntries(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAxpyRejectsDifferentLengths() {
+        new MutableVector(new Vector(1, 2, 3)).axpy(1, SparseVector.basisVector(4, 0));
+    }
+
+    @Test
+    public void testArithmetic() {
+        Random random = new Random(3);
+        Vector a = randomSparse(random, 300, 0.1);
+        Vector b = randomSparse(random, 300, 0.1);
+        Vector c = randomSparse(random, 300, 0.1);
+        SparseVector sa = new SparseVector(a);
+        SparseVector sb = new SparseVector(b);
+        SparseVector sc = new SparseVector(c);
+
+        assertArrayEquals(a.add(b).getEntries(), sa.add(sb).toVector().getEntries(), delta);
+        assertArrayEquals(a.subtract(b).getEntries(), sa.subtract(sb).toVector().getEntries(), delta);
+        assertArrayEquals(a.add(b).getEntries(), sa.add(b).getEntries(), delta);
+        assertArrayEquals(a.multiply(-3).getEntries(), sa.multiply(-3).toVector().getEntries(), delta);
+        assertTrue(sa.subtract(sa).isZero());
+        assertTrue(sa.multiply(0).isZero());
+
+        double[] weights = {2, -1, 0.5};
+        assertArrayEquals(
+            Vector.linearCombination(new Vector[] {a, b, c}, weights).getEntries(),
+            SparseVector.linearCombination(new SparseVector[] {sa, sb, sc}, weights).toVector().getEntries(),
+            delta);
+    }
+
+    @Test
+    public void testNorms() {
+        Vector u = randomSparse(new Random(4), 500, 0.05);
+        SparseVector s = new SparseVector(u);
+
+        assertEquals(u.magnitude(), s.magnitude(), delta);
+        assertEquals(u.pnorm(1), s.pnorm(1), delta);
+        assertEquals(u.pnorm(3), s.pnorm(3), delta);
+    }
+
+    @Test
+    public void testCanonicalBasisVector() {
+        SparseVector e = SparseVector.basisVector(1000000, 40321);
+
+        assertTrue(e.isCanonicalBasisVector());
+        assertTrue(e.toVector().isCanonicalBasisVector());
+        assertFalse(e.multiply(2).isCanonicalBasisVector());
+        assertFalse(e.add(SparseVector.basisVector(1000000, 3)).isCanonicalBasisVector());
+        assertFalse(new Vector(1, 1, 0).isCanonicalBasisVector());
+        assertFalse(new Vector(0, 1, 0.5).isCanonicalBasisVector());
+        assertFalse(new Vector(0, 0, 0).isCanonicalBasisVector());
+        assertFalse(new Vector(1, Double.NaN).isCanonicalBasisVector());
+    }
+
+    @Test
+    public void testLinearCombinationOfViews() {
+        Matrix m = new Matrix(new double[][] {
+            {1, 2},
+            {3, 4}});
+        Vector combination = Vector.linearCombination(
+            new Vector[] {m.getColumn(0), m.getColumn(1)}, new double[] {2, -1});
+        assertArrayEquals(new double[] {0, 2}, combination.getEntries(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLinearCombinationRejectsDifferentLengths() {
+        Vector.linearCombination(new Vector[] {new Vector(1, 2), new Vector(1, 2, 3)}, new double[] {1, 1});
+    }
+}
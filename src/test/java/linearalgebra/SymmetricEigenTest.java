@@ -0,0 +1,144 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the SymmetricEigen class.
+ */
+public class SymmetricEigenTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    private void assertDecomposes(Matrix a, SymmetricEigen eigen) {
+        Matrix v = eigen.getV();
+        TestData.assertMatrixEquals(Matrix.identityMatrix(a.getNumRows()), v.transpose().multiply(v), delta);
+        TestData.assertMatrixEquals(a, v.multiply(eigen.getD()).multiply(v.transpose()), delta);
+    }
+
+    @Test
+    public void testKnownEigenvalues() {
+        Matrix a = new Matrix(new double[][] {
+            {2, 1},
+            {1, 2}
+        });
+        SymmetricEigen eigen = new SymmetricEigen(a);
+        assertArrayEquals(new double[] {1, 3}, eigen.getEigenvalues().getEntries(), delta);
+        Vector v = eigen.getEigenvector(1);
+        assertEquals(Math.abs(v.get(0)), Math.abs(v.get(1)), delta);
+        assertEquals(3, eigen.conditionNumber(), delta);
+        assertDecomposes(a, eigen);
+    }
+
+    @Test
+    public void testEigenvaluesAreIncreasing() {
+        double[] values = SymmetricEigen.eigenvalues(TestData.randomSymmetricMatrix(new Random(1), 30)).getEntries();
+        for (int i = 1; i < values.length; i++) {
+            assertTrue(values[i - 1] <= values[i]);
+        }
+    }
+
+    @Test
+    public void testRandomMatrixDecomposes() {
+        Matrix a = TestData.randomSymmetricMatrix(new Random(2), 40);
+        assertDecomposes(a, new SymmetricEigen(a));
+    }
+
+    @Test
+    public void testEigenvectorsSatisfyDefinition() {
+        Matrix a = TestData.randomSymmetricMatrix(new Random(3), 25);
+        SymmetricEigen eigen = new SymmetricEigen(a);
+        double[] values = eigen.getEigenvalues().getEntries();
+        for (int j = 0; j < values.length; j++) {
+            Vector v = eigen.getEigenvector(j);
+            assertArrayEquals(v.multiply(values[j]).getEntries(), a.multiply(v).getEntries(), delta);
+        }
+    }
+
+    @Test
+    public void testValuesOnlyMatchesFullMode() {
+        Matrix a = TestData.randomSymmetricMatrix(new Random(4), 50);
+        SymmetricEigen valuesOnly = new SymmetricEigen(a, false);
+        assertFalse(valuesOnly.hasEigenvectors());
+        assertArrayEquals(new SymmetricEigen(a).getEigenvalues().getEntries(),
+                valuesOnly.getEigenvalues().getEntries(), delta);
+    }
+
+    @Test
+    public void testTraceAndDeterminant() {
+        Matrix a = TestData.randomSymmetricMatrix(new Random(5), 8);
+        double[] values = SymmetricEigen.eigenvalues(a).getEntries();
+        double sum = 0;
+        double product = 1;
+        for (double value : values) {
+            sum += value;
+            product *= value;
+        }
+        assertEquals(a.trace(), sum, delta);
+        assertEquals(a.determinant(), product, delta);
+    }
+
+    @Test
+    public void testRepeatedEigenvalues() {
+        Matrix a = Matrix.identityMatrix(5).multiply(4);
+        SymmetricEigen eigen = new SymmetricEigen(a);
+        assertArrayEquals(new double[] {4, 4, 4, 4, 4}, eigen.getEigenvalues().getEntries(), delta);
+        assertDecomposes(a, eigen);
+    }
+
+    @Test
+    public void testDiagonalAndTridiagonalInputs() {
+        Matrix diagonal = new Matrix(new double[][] {
+            {3, 0, 0},
+            {0, -1, 0},
+            {0, 0, 2}
+        });
+        assertArrayEquals(new double[] {-1, 2, 3}, SymmetricEigen.eigenvalues(diagonal).getEntries(), delta);
+
+        // eigenvalues of the 1-D Laplacian are 2 - 2 cos(k pi / (n + 1))
+        int n = 6;
+        double[][] entries = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            entries[i][i] = 2;
+            if (i > 0) {
+                entries[i][i - 1] = -1;
+                entries[i - 1][i] = -1;
+            }
+        }
+        double[] expected = new double[n];
+        for (int k = 1; k <= n; k++) {
+            expected[k - 1] = 2 - 2 * Math.cos(k * Math.PI / (n + 1));
+        }
+        assertArrayEquals(expected, SymmetricEigen.eigenvalues(new Matrix(entries)).getEntries(), delta);
+    }
+
+    @Test
+    public void testOneByOne() {
+        SymmetricEigen eigen = new SymmetricEigen(new Matrix(new double[][] {{7}}));
+        assertArrayEquals(new double[] {7}, eigen.getEigenvalues().getEntries(), delta);
+        assertArrayEquals(new double[] {1}, eigen.getEigenvector(0).getEntries(), delta);
+    }
+
+    @Test
+    public void testIsSymmetric() {
+        assertTrue(TestData.randomSymmetricMatrix(new Random(6), 4).isSymmetric());
+        assertFalse(new Matrix(new double[][] {{1, 2}, {3, 4}}).isSymmetric());
+        assertFalse(new Matrix(new double[][] {{1, 2, 3}}).isSymmetric());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonSymmetricMatrix() {
+        new SymmetricEigen(new Matrix(new double[][] {{1, 2}, {3, 4}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValuesOnlyHasNoEigenvectors() {
+        new SymmetricEigen(Matrix.identityMatrix(3), false).getV();
+    }
+}
@@ -0,0 +1,137 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the SymmetricMatrix class.
+ */
+public class SymmetricMatrixTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    @Test
+    public void testFromMatrix() {
+        Matrix m = new Matrix(new double[][] {
+            {4, 1, 2},
+            {1, 5, 3},
+            {2, 3, 6}});
+        SymmetricMatrix s = new SymmetricMatrix(m);
+
+        assertEquals(3, s.getNumRows());
+        assertEquals(3, s.getNumColumns());
+        assertEquals(3, s.getEntry(1, 2), 0);
+        assertEquals(3, s.getEntry(2, 1), 0);
+        assertEquals(15, s.trace(), 0);
+        TestData.assertMatrixEquals(m, s.toMatrix(), delta);
+        assertSame(s, s.transpose());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonSymmetric() {
+        new SymmetricMatrix(new Matrix(new double[][] {
+            {1, 2},
+            {3, 4}}));
+    }
+
+    @Test
+    public void testGramMatchesDense() {
+        Random random = new Random(1);
+        // sizes on both sides of the block size, including a ragged last block
+        int[][] shapes = {{5, 3}, {40, 64}, {150, 130}, {7, 200}};
+
+        for (int[] shape : shapes) {
+            Matrix a = TestData.randomMatrix(random, shape[0], shape[1]);
+            TestData.assertMatrixEquals(a.transpose().multiply(a), SymmetricMatrix.gram(a).toMatrix(), delta);
+        }
+    }
+
+    @Test
+    public void testGramOfView() {
+        Matrix a = TestData.randomMatrix(new Random(2), 10, 8);
+        Matrix view = a.subMatrixView(1, 2, 6, 5);
+        TestData.assertMatrixEquals(view.transpose().multiply(view), view.gram().toMatrix(), delta);
+
+        Matrix minor = a.minorView(3, 4);
+        TestData.assertMatrixEquals(minor.transpose().multiply(minor), minor.gram().toMatrix(), delta);
+    }
+
+    @Test
+    public void testSyrkUpdate() {
+        Random random = new Random(3);
+        Matrix a = TestData.randomMatrix(random, 20, 6);
+        Matrix b = TestData.randomMatrix(random, 15, 6);
+        SymmetricMatrix c = SymmetricMatrix.gram(b);
+
+        Matrix expected = a.transpose().multiply(a).multiply(2).add(b.transpose().multiply(b).multiply(-0.5));
+        TestData.assertMatrixEquals(expected, SymmetricMatrix.syrk(2, a, -0.5, c).toMatrix(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSyrkRejectsWrongSize() {
+        SymmetricMatrix.syrk(1, Matrix.identityMatrix(3), 1, SymmetricMatrix.gram(Matrix.identityMatrix(4)));
+    }
+
+    @Test
+    public void testMultiplyMatchesDense() {
+        Random random = new Random(4);
+        SymmetricMatrix s = SymmetricMatrix.gram(TestData.randomMatrix(random, 12, 9));
+        Matrix dense = s.toMatrix();
+        Vector u = TestData.randomMatrix(random, 1, 9).getRow(0);
+        Matrix b = TestData.randomMatrix(random, 9, 4);
+
+        assertArrayEquals(dense.multiply(u).getEntries(), s.multiply(u).getEntries(), delta);
+        assertArrayEquals(dense.multiply(u).getEntries(), s.applyTranspose(u).getEntries(), delta);
+        TestData.assertMatrixEquals(dense.multiply(b), s.multiply(b), delta);
+    }
+
+    @Test
+    public void testViews() {
+        Random random = new Random(7);
+        Matrix big = TestData.randomSymmetricMatrix(random, 8);
+        Matrix view = big.subMatrixView(1, 1, 6, 6);
+        TestData.assertMatrixEquals(view, new SymmetricMatrix(view).toMatrix(), 0);
+
+        SymmetricMatrix s = SymmetricMatrix.gram(TestData.randomMatrix(random, 10, 6));
+        Matrix a = TestData.randomMatrix(random, 9, 9);
+        Matrix sub = a.subMatrixView(2, 1, 6, 5);
+        Matrix minor = a.minorView(4, 0).subMatrixView(0, 0, 6, 5);
+        TestData.assertMatrixEquals(s.toMatrix().multiply(sub), s.multiply(sub), delta);
+        TestData.assertMatrixEquals(s.toMatrix().multiply(minor), s.multiply(minor), delta);
+    }
+
+    @Test
+    public void testArithmetic() {
+        Random random = new Random(5);
+        SymmetricMatrix s = SymmetricMatrix.gram(TestData.randomMatrix(random, 6, 4));
+        SymmetricMatrix t = SymmetricMatrix.gram(TestData.randomMatrix(random, 6, 4));
+
+        TestData.assertMatrixEquals(s.toMatrix().add(t.toMatrix()), s.add(t).toMatrix(), delta);
+        TestData.assertMatrixEquals(s.toMatrix().subtract(t.toMatrix()), s.subtract(t).toMatrix(), delta);
+        TestData.assertMatrixEquals(s.toMatrix().multiply(3), s.multiply(3).toMatrix(), delta);
+    }
+
+    @Test
+    public void testCholeskyOfGram() {
+        Random random = new Random(6);
+        Matrix a = TestData.randomMatrix(random, 30, 10);
+        Vector b = TestData.randomMatrix(random, 1, 10).getRow(0);
+
+        CholeskyDecomposition packed = new CholeskyDecomposition(a.gram());
+        CholeskyDecomposition dense = new CholeskyDecomposition(a.transpose().multiply(a));
+        TestData.assertMatrixEquals(dense.getL(), packed.getL(), delta);
+        assertArrayEquals(dense.solve(b).getEntries(), packed.solve(b).getEntries(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCholeskyRejectsIndefinite() {
+        new CholeskyDecomposition(new SymmetricMatrix(new Matrix(new double[][] {
+            {1, 2},
+            {2, 1}})));
+    }
+}
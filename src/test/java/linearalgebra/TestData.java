@@ -0,0 +1,66 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+/**
+ * Random operands and Matrix assertions shared by the unit tests.
+ */
+final class TestData {
+
+    private TestData() {
+    }
+
+    /**
+     * a rows-by-cols Matrix with entries uniform in [-1, 1), filled row by row
+     */
+    static Matrix randomMatrix(Random random, int rows, int cols) {
+        double[][] entries = new double[rows][cols];
+        for (double[] row : entries) {
+            for (int i = 0; i < cols; i++) {
+                row[i] = random.nextDouble() * 2 - 1;
+            }
+        }
+        return new Matrix(entries);
+    }
+
+    /**
+     * an n-by-n symmetric Matrix with entries uniform in [-1, 1), filled
+     * from the lower triangle row by row
+     */
+    static Matrix randomSymmetricMatrix(Random random, int n) {
+        double[][] entries = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j <= i; j++) {
+                entries[i][j] = random.nextDouble() * 2 - 1;
+                entries[j][i] = entries[i][j];
+            }
+        }
+        return new Matrix(entries);
+    }
+
+    /**
+     * a Vector of length n with entries uniform in [-1, 1)
+     */
+    static Vector randomVector(Random random, int n) {
+        double[] entries = new double[n];
+        for (int i = 0; i < n; i++) {
+            entries[i] = random.nextDouble() * 2 - 1;
+        }
+        return new Vector(entries);
+    }
+
+    /**
+     * asserts that two matrices have the same shape and entries, to within delta
+     */
+    static void assertMatrixEquals(Matrix expected, Matrix actual, double delta) {
+        double[][] e = expected.getEntries();
+        double[][] a = actual.getEntries();
+        assertEquals(e.length, a.length);
+        for (int row = 0; row < e.length; row++) {
+            assertArrayEquals(e[row], a[row], delta);
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package linearalgebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Unit testing for the TriangularMatrix class.
+ */
+public class TriangularMatrixTest {
+
+    private double delta = 0.00001; // to compare floating-point numbers
+
+    /**
+     * a random n-by-n Matrix with a dominant diagonal, so both of its
+     * triangles are well conditioned
+     */
+    private static Matrix randomSquare(Random random, int n) {
+        double[][] entries = TestData.randomMatrix(random, n, n).getEntries();
+        for (int i = 0; i < n; i++) {
+            entries[i][i] += entries[i][i] < 0 ? -2 : 2;
+        }
+        return new Matrix(entries);
+    }
+
+    @Test
+    public void testPacksOneTriangle() {
+        Matrix m = new Matrix(new double[][] {
+            {1, 2, 3},
+            {4, 5, 6},
+            {7, 8, 9}});
+        TriangularMatrix lower = TriangularMatrix.lower(m);
+        TriangularMatrix upper = TriangularMatrix.upper(m);
+
+        assertFalse(lower.isUpper());
+        assertTrue(upper.isUpper());
+        assertEquals(3, lower.getNumRows());
+        assertEquals(3, lower.getNumColumns());
+        assertEquals(8, lower.getEntry(2, 1), 0);
+        assertEquals(0, lower.getEntry(1, 2), 0);
+        assertEquals(6, upper.getEntry(1, 2), 0);
+        assertEquals(0, upper.getEntry(2, 1), 0);
+
+        TestData.assertMatrixEquals(new Matrix(new double[][] {
+            {1, 0, 0},
+            {4, 5, 0},
+            {7, 8, 9}}), lower.toMatrix(), delta);
+        TestData.assertMatrixEquals(new Matrix(new double[][] {
+            {1, 2, 3},
+            {0, 5, 6},
+            {0, 0, 9}}), upper.toMatrix(), delta);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNonSquare() {
+        TriangularMatrix.lower(new Matrix(new double[][] {{1, 2}}));
+    }
+
+    @Test
+    public void testTranspose() {
+        Matrix m = randomSquare(new Random(1), 7);
+        TriangularMatrix lower = TriangularMatrix.lower(m);
+        TriangularMatrix transposed = lower.transpose();
+
+        assertTrue(transposed.isUpper());
+        TestData.assertMatrixEquals(lower.toMatrix().transpose(), transposed.toMatrix(), delta);
+        TestData.assertMatrixEquals(lower.toMatrix(), transposed.transpose().toMatrix(), delta);
+    }
+
+    @Test
+    public void testDeterminant() {
+        Matrix m = new Matrix(new double[][] {
+            {2, 0, 0},
+            {1, -3, 0},
+            {4, 5, 0.5}});
+        TriangularMatrix lower = TriangularMatrix.lower(m);
+        assertEquals(-3, lower.determinant(), delta);
+        assertFalse(lower.isSingular());
+        assertTrue(TriangularMatrix.upper(new Matrix(new double[][] {
+            {1, 2},
+            {3, 0}})).isSingular());
+    }
+
+    @Test
+    public void testMultiplyVectorMatchesDense() {
+        Random random = new Random(2);
+        Matrix m = randomSquare(random, 9);
+        Vector u = TestData.randomMatrix(random, 1, 9).getRow(0);
+
+        for (TriangularMatrix t : new TriangularMatrix[] {TriangularMatrix.lower(m), TriangularMatrix.upper(m)}) {
+            Matrix dense = t.toMatrix();
+            assertArrayEquals(dense.multiply(u).getEntries(), t.multiply(u).getEntries(), delta);
+            assertArrayEquals(dense.applyTranspose(u).getEntries(), t.applyTranspose(u).getEntries(), delta);
+        }
+    }
+
+    @Test
+    public void testMultiplyMatrixMatchesDense() {
+        Random random = new Random(3);
+        Matrix m = randomSquare(random, 8);
+        Matrix b = TestData.randomMatrix(random, 8, 5);
+        Matrix a = TestData.randomMatrix(random, 6, 8);
+
+        for (TriangularMatrix t : new TriangularMatrix[] {TriangularMatrix.lower(m), TriangularMatrix.upper(m)}) {
+            Matrix dense = t.toMatrix();
+            TestData.assertMatrixEquals(dense.multiply(b), t.multiply(b), delta);
+            TestData.assertMatrixEquals(a.multiply(dense), a.multiply(t), delta);
+        }
+    }
+
+    @Test
+    public void testViews() {
+        Random random = new Random(8);
+        Matrix big = randomSquare(random, 9);
+        Matrix m = big.subMatrixView(1, 1, 7, 7);
+        Matrix b = big.subMatrixView(2, 0, 7, 4);
+        Matrix a = big.minorView(3, 8).subMatrixView(0, 0, 5, 7);
+
+        Matrix copy = new Matrix(m.getEntries());
+        TestData.assertMatrixEquals(TriangularMatrix.lower(copy).toMatrix(), TriangularMatrix.lower(m).toMatrix(), 0);
+        TestData.assertMatrixEquals(TriangularMatrix.upper(copy).toMatrix(), TriangularMatrix.upper(m).toMatrix(), 0);
+
+        for (TriangularMatrix t : new TriangularMatrix[] {TriangularMatrix.lower(m), TriangularMatrix.upper(m)}) {
+            Matrix dense = t.toMatrix();
+            TestData.assertMatrixEquals(dense.multiply(b), t.multiply(b), delta);
+            TestData.assertMatrixEquals(a.multiply(dense), a.multiply(t), delta);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiplyRejectsWrongShape() {
+        TriangularMatrix.lower(Matrix.identityMatrix(3)).multiply(Matrix.identityMatrix(4));
+    }
+
+    @Test
+    public void testSolveVector() {
+        Random random = new Random(4);
+        Matrix m = randomSquare(random, 30);
+        Vector b = TestData.randomMatrix(random, 1, 30).getRow(0);
+
+        for (TriangularMatrix t : new TriangularMatrix[] {TriangularMatrix.lower(m), TriangularMatrix.upper(m)}) {
+            Vector x = t.solve(b);
+            assertArrayEquals(b.getEntries(), t.multiply(x).getEntries(), 1e-10);
+        }
+    }
+
+    @Test
+    public void testSolveMatrix() {
+        Random random = new Random(5);
+        Matrix m = randomSquare(random, 25);
+        Matrix b = TestData.randomMatrix(random, 25, 7);
+
+        for (TriangularMatrix t : new TriangularMatrix[] {TriangularMatrix.lower(m), TriangularMatrix.upper(m)}) {
+            Matrix x = t.solve(b);
+            TestData.assertMatrixEquals(b, t.multiply(x), delta);
+            // every column agrees with the single right-hand-side solve
+            assertArrayEquals(t.solve(b.getColumn(3)).getEntries(), x.getColumn(3).getEntries(), 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSolveSingular() {
+        Matrix m = new Matrix(new double[][] {
+            {1, 0},
+            {2, 0}});
+        TriangularMatrix.lower(m).solve(new Vector(1, 1));
+    }
+
+    @Test
+    public void testInverse() {
+        Random random = new Random(6);
+        Matrix m = randomSquare(random, 20);
+
+        for (TriangularMatrix t : new TriangularMatrix[] {TriangularMatrix.lower(m), TriangularMatrix.upper(m)}) {
+            TriangularMatrix inverse = t.inverse();
+            assertEquals(t.isUpper(), inverse.isUpper());
+            TestData.assertMatrixEquals(Matrix.identityMatrix(20), t.multiply(inverse.toMatrix()), delta);
+            TestData.assertMatrixEquals(Matrix.identityMatrix(20), inverse.multiply(t.toMatrix()), delta);
+        }
+    }
+
+    @Test
+    public void testDecompositionFactors() {
+        Random random = new Random(7);
+        Matrix m = TestData.randomMatrix(random, 12, 12);
+
+        LUDecomposition lu = new LUDecomposition(m);
+        TestData.assertMatrixEquals(lu.getL(), lu.getTriangularL().toMatrix(), delta);
+        TestData.assertMatrixEquals(lu.getU(), lu.getTriangularU().toMatrix(), delta);
+
+        Matrix spd = m.transpose().multiply(m).add(Matrix.identityMatrix(12));
+        CholeskyDecomposition cholesky = new CholeskyDecomposition(spd);
+        TriangularMatrix l = cholesky.getTriangularL();
+        TestData.assertMatrixEquals(cholesky.getL(), l.toMatrix(), delta);
+
+        // A x = b by a forward and a back substitution
+        Vector b = TestData.randomMatrix(random, 1, 12).getRow(0);
+        Vector x = l.transpose().solve(l.solve(b));
+        assertArrayEquals(cholesky.solve(b).getEntries(), x.getEntries(), 1e-10);
+    }
+}
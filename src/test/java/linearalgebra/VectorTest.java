@@ -118,6 +118,27 @@ public class VectorTest {
 		assertArrayEquals(new double[]{1.0, 2.0, 3.0}, setEntriesVector.getEntries(), delta);
 	}
 
+	@Test
+	public void testSliceView() {
+		Vector vector = new Vector(1.0, 2.0, 3.0, 4.0, 5.0);
+		Vector slice = vector.sliceView(1, 4);
+		assertEquals(3, slice.length());
+		assertArrayEquals(new double[]{2.0, 3.0, 4.0}, slice.getEntries(), delta);
+		assertEquals(2.0 * 1 + 3.0 * 2 + 4.0 * 3, slice.dot(new Vector(1, 2, 3)), delta);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSliceViewOutOfRange() {
+		Vector vector = new Vector(1.0, 2.0, 3.0);
+		Vector slice = vector.sliceView(1, 4);  // should throw an exception
+	}
+
+	@Test(expected = ArrayIndexOutOfBoundsException.class)
+	public void testSliceViewGetOutOfRange() {
+		Vector vector = new Vector(1.0, 2.0, 3.0);
+		double value = vector.sliceView(0, 2).get(2);  // past the end of the view, though not of the array
+	}
+
 	// Next Set of Tests
 	@Test
 	public void testToString() {
@@ -338,4 +359,39 @@ public class VectorTest {
 		Vector v2 = new Vector(0.0, 0.0);
 		Vector projection = v1.orthogonalProjection(v2);  // should throw an exception: Cannot project onto zero vector
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testKernelsOnLongAndStridedVectors() {
+		// long enough for the SIMD kernels, with a tail that does not fill a register
+		int n = 203;
+		double[] a = new double[n];
+		double[] b = new double[2 * n];
+		for (int i = 0; i < n; i++) {
+			a[i] = Math.sin(i);
+			b[2 * i] = Math.cos(i);
+		}
+		Vector u = new Vector(a);
+		// every other entry of b, read through a column view
+		Vector v = new Matrix(n, 2, b).columnView(0);
+
+		double dot = 0, l1 = 0, l2 = 0, l3 = 0;
+		for (int i = 0; i < n; i++) {
+			dot += a[i] * b[2 * i];
+			l1 += Math.abs(a[i]);
+			l2 += a[i] * a[i];
+			l3 += Math.pow(Math.abs(a[i]), 3);
+		}
+		assertEquals(dot, u.dot(v), delta);
+		assertEquals(dot, v.dot(u), delta);
+		assertEquals(l1, u.pnorm(1), delta);
+		assertEquals(Math.sqrt(l2), u.pnorm(2), delta);
+		assertEquals(Math.pow(l3, 1.0 / 3), u.pnorm(3), delta);
+
+		Vector sum = u.add(v);
+		Vector scaled = v.multiply(-2.5);
+		for (int i = 0; i < n; i++) {
+			assertEquals(a[i] + b[2 * i], sum.get(i), delta);
+			assertEquals(-2.5 * b[2 * i], scaled.get(i), delta);
+		}
+	}
+}